@@ -0,0 +1,129 @@
+/**********
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU General Public License as published by the
+ Free Software Foundation; either version 3.0 of the License, or (at your
+ option) any later version. (See <https://www.gnu.org/licenses/gpl-3.0.html>.)
+
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ more details.
+
+ You should have received a copy of the GNU General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301  USA
+ **********/
+// Copyright (c) 2020-2024 Sergio Exposito.  All rights reserved.
+package io.oigres.sparkjax.benchmarks;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+/**
+ * Compares a JMH result file with a baseline, both written with <code>-rf json</code>, and exits with 
+ * status 1 when any benchmark regressed.
+ * 
+ * A benchmark regresses when its score is worse than the baseline by more than the allowed percentage 
+ * and by more than the error margins of both runs together, so noisy benchmarks do not fail the check. 
+ * Higher scores are better for throughput and worse for the time modes.
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar io.oigres.sparkjax.benchmarks.BaselineComparator baseline.json result.json 10
+ * </pre>
+ *
+ * @author Sergio Exposito
+ */
+public class BaselineComparator {
+	public static final double DEFAULT_MAX_REGRESSION_PERCENT = 10;
+
+	public static void main(String[] args) throws IOException {
+		if (args.length < 2) {
+			System.err.println("Usage: BaselineComparator <baseline.json> <result.json> [maxRegressionPercent]");
+			System.exit(2);
+		}
+		double maxRegressionPercent = args.length > 2 ? Double.parseDouble(args[2]) : DEFAULT_MAX_REGRESSION_PERCENT;
+		Map<String, Score> baseline = read(args[0]);
+		Map<String, Score> result = read(args[1]);
+		int regressions = 0;
+		for (Map.Entry<String, Score> entry : result.entrySet()) {
+			Score current = entry.getValue();
+			Score previous = baseline.get(entry.getKey());
+			if (previous == null) {
+				System.out.printf("NEW         %s %.3f %s%n", entry.getKey(), current.score, current.unit);
+				continue;
+			}
+			if (!previous.unit.equals(current.unit)) {
+				System.out.printf("UNIT        %s %s against %s, not compared%n", entry.getKey(), current.unit, previous.unit);
+				continue;
+			}
+			double worse = current.higherIsBetter ? previous.score - current.score : current.score - previous.score;
+			double percent = previous.score == 0 ? 0 : 100.0 * worse / previous.score;
+			boolean regressed = percent > maxRegressionPercent && worse > previous.error + current.error;
+			if (regressed) {
+				regressions++;
+			}
+			System.out.printf("%-11s %s %.3f -> %.3f %s (%+.1f%%)%n", regressed ? "REGRESSION" : "OK", entry.getKey(), 
+					previous.score, current.score, current.unit, -percent);
+		}
+		for (String key : baseline.keySet()) {
+			if (!result.containsKey(key)) {
+				System.out.printf("MISSING     %s%n", key);
+			}
+		}
+		System.out.printf("%d benchmarks, %d regressions over %.1f%%%n", result.size(), regressions, maxRegressionPercent);
+		System.exit(regressions > 0 ? 1 : 0);
+	}
+
+	/**
+	 * @return the scores of a JMH JSON result file by benchmark name and parameters
+	 */
+	static Map<String, Score> read(String file) throws IOException {
+		Map<String, Score> scores = new LinkedHashMap<String, Score>();
+		try (Reader reader = Files.newBufferedReader(Paths.get(file), StandardCharsets.UTF_8)) {
+			JsonArray runs = JsonParser.parseReader(reader).getAsJsonArray();
+			for (JsonElement element : runs) {
+				JsonObject run = element.getAsJsonObject();
+				StringBuilder key = new StringBuilder(run.get("benchmark").getAsString());
+				if (run.has("params")) {
+					Map<String, String> params = new TreeMap<String, String>();
+					for (Map.Entry<String, JsonElement> param : run.getAsJsonObject("params").entrySet()) {
+						params.put(param.getKey(), param.getValue().getAsString());
+					}
+					key.append(params);
+				}
+				JsonObject metric = run.getAsJsonObject("primaryMetric");
+				JsonElement error = metric.get("scoreError");
+				scores.put(key.toString(), new Score(metric.get("score").getAsDouble(), 
+						error != null && error.isJsonPrimitive() && error.getAsJsonPrimitive().isNumber() ? error.getAsDouble() : 0,
+						metric.get("scoreUnit").getAsString(), "thrpt".equals(run.get("mode").getAsString())));
+			}
+		}
+		return scores;
+	}
+
+	static class Score {
+		final double score;
+		final double error;
+		final String unit;
+		final boolean higherIsBetter;
+
+		Score(double score, double error, String unit, boolean higherIsBetter) {
+			this.score = score;
+			this.error = Double.isNaN(error) ? 0 : error;
+			this.unit = unit;
+			this.higherIsBetter = higherIsBetter;
+		}
+	}
+
+}
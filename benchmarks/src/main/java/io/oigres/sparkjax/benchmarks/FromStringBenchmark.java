@@ -0,0 +1,85 @@
+/**********
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU General Public License as published by the
+ Free Software Foundation; either version 3.0 of the License, or (at your
+ option) any later version. (See <https://www.gnu.org/licenses/gpl-3.0.html>.)
+
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ more details.
+
+ You should have received a copy of the GNU General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301  USA
+ **********/
+// Copyright (c) 2020-2024 Sergio Exposito.  All rights reserved.
+package io.oigres.sparkjax.benchmarks;
+
+import java.lang.reflect.Method;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.oigres.sparkjax.jaxrs.util.FromStringFunction;
+
+/**
+ * Conversion of a parameter value through a reflective <code>valueOf</code>/<code>fromString</code> call 
+ * against the {@link FromStringFunction} used by the converters.
+ *
+ * @author Sergio Exposito
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class FromStringBenchmark {
+	private static final String INTEGER = "123456";
+	private static final String UUID_VALUE = "123e4567-e89b-12d3-a456-426614174000";
+
+	private Method integerValueOf;
+	private Method uuidFromString;
+	private FromStringFunction integerFunction;
+	private FromStringFunction uuidFunction;
+
+	@Setup
+	public void setup() throws Exception {
+		this.integerValueOf = Integer.class.getDeclaredMethod("valueOf", String.class);
+		this.uuidFromString = UUID.class.getDeclaredMethod("fromString", String.class);
+		this.integerFunction = FromStringFunction.of(this.integerValueOf);
+		this.uuidFunction = FromStringFunction.of(this.uuidFromString);
+	}
+
+	@Benchmark
+	public Object reflectiveInteger() throws Exception {
+		return this.integerValueOf.invoke(null, INTEGER);
+	}
+
+	@Benchmark
+	public Object functionInteger() throws Exception {
+		return this.integerFunction.apply(INTEGER);
+	}
+
+	@Benchmark
+	public Object reflectiveUuid() throws Exception {
+		return this.uuidFromString.invoke(null, UUID_VALUE);
+	}
+
+	@Benchmark
+	public Object functionUuid() throws Exception {
+		return this.uuidFunction.apply(UUID_VALUE);
+	}
+
+}
@@ -0,0 +1,119 @@
+/**********
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU General Public License as published by the
+ Free Software Foundation; either version 3.0 of the License, or (at your
+ option) any later version. (See <https://www.gnu.org/licenses/gpl-3.0.html>.)
+
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ more details.
+
+ You should have received a copy of the GNU General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301  USA
+ **********/
+// Copyright (c) 2020-2024 Sergio Exposito.  All rights reserved.
+package io.oigres.sparkjax.benchmarks;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.ws.rs.QueryParam;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.oigres.sparkjax.jaxrs.ParamConverterFactory;
+import io.oigres.sparkjax.jaxrs.ParameterExtractorFactory;
+import io.oigres.sparkjax.jaxrs.ValueParamProvider;
+import io.oigres.sparkjax.jaxrs.converters.CharacterParamConverterProvider;
+import io.oigres.sparkjax.jaxrs.converters.DateParamConverterProvider;
+import io.oigres.sparkjax.jaxrs.converters.StringParamConverterProvider;
+import io.oigres.sparkjax.jaxrs.converters.TypeFromStringEnumParamConverterProvider;
+import io.oigres.sparkjax.jaxrs.converters.TypeFromStringParamConverterProvider;
+import io.oigres.sparkjax.jaxrs.converters.TypeValueOfParamConverterProvider;
+import io.oigres.sparkjax.jaxrs.providers.QueryParamValueParamProvider;
+import io.oigres.sparkjax.jaxrs.util.PathTemplate;
+import io.oigres.sparkjax.spark.InvocationPlan;
+import io.oigres.sparkjax.spark.ResourceMethodInvokerFactory;
+import spark.QueryParamsMap;
+import spark.Request;
+
+/**
+ * Per request cost of a compiled {@link InvocationPlan} for a GET with three query parameters.
+ * Run it with <code>-prof gc</code> to see the allocated bytes per operation.
+ *
+ * @author Sergio Exposito
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class InvocationPlanBenchmark {
+
+	public static class Resource {
+		public String search(@QueryParam("name") String name, @QueryParam("page") int page, @QueryParam("size") Integer size) {
+			return name;
+		}
+	}
+
+	private InvocationPlan plan;
+	private Request request;
+
+	@Setup
+	public void setup() throws Exception {
+		ParameterExtractorFactory parameterExtractorFactory = new ParameterExtractorFactory(new ParamConverterFactory(
+				Arrays.asList(
+						new DateParamConverterProvider(),
+						new TypeFromStringEnumParamConverterProvider(),
+						new TypeValueOfParamConverterProvider(),
+						new CharacterParamConverterProvider(),
+						new TypeFromStringParamConverterProvider(),
+						new StringParamConverterProvider()
+					)
+				));
+		Resource resource = new Resource();
+		Method method = Resource.class.getMethod("search", String.class, int.class, Integer.class);
+		Parameter[] parameters = method.getParameters();
+		ValueParamProvider[] providers = new ValueParamProvider[parameters.length];
+		for (int i=0; i < parameters.length; i++) {
+			Annotation[] annotations = parameters[i].getDeclaredAnnotations();
+			String name = parameters[i].getAnnotation(QueryParam.class).value();
+			providers[i] = new QueryParamValueParamProvider(parameterExtractorFactory.get(parameters[i], annotations, name));
+		}
+		this.plan = new InvocationPlan(PathTemplate.of("/search"), providers, new ResourceMethodInvokerFactory().bind(resource, method));
+		Map<String, String[]> query = new HashMap<String, String[]>();
+		query.put("name", new String[] {"john"});
+		query.put("page", new String[] {"2"});
+		query.put("size", new String[] {"20"});
+		QueryParamsMap queryMap = new QueryParamsMap(query) {};
+		this.request = new Request() {
+			@Override
+			public QueryParamsMap queryMap() {
+				return queryMap;
+			}
+		};
+	}
+
+	@Benchmark
+	public Object buildArgumentsAndInvoke() throws Exception {
+		return this.plan.invoke(this.plan.buildArguments(this.request));
+	}
+
+}
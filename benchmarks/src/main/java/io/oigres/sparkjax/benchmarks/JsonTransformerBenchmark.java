@@ -0,0 +1,92 @@
+/**********
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU General Public License as published by the
+ Free Software Foundation; either version 3.0 of the License, or (at your
+ option) any later version. (See <https://www.gnu.org/licenses/gpl-3.0.html>.)
+
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ more details.
+
+ You should have received a copy of the GNU General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301  USA
+ **********/
+// Copyright (c) 2020-2024 Sergio Exposito.  All rights reserved.
+package io.oigres.sparkjax.benchmarks;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.annotations.Param;
+
+import com.google.gson.Gson;
+
+import io.oigres.sparkjax.JsonTransformer;
+
+/**
+ * Rendering of a list of beans by {@link JsonTransformer}, to a string as Spark does for buffered 
+ * responses and to an output stream as streamed responses do.
+ *
+ * @author Sergio Exposito
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class JsonTransformerBenchmark {
+
+	public static class Model {
+		String name;
+		int age;
+		List<String> tags;
+	}
+
+	@Param({"1", "100"})
+	public int size;
+
+	private JsonTransformer transformer;
+	private List<Model> models;
+	private OutputStream out;
+
+	@Setup
+	public void setup() {
+		this.transformer = new JsonTransformer(new Gson());
+		this.models = new ArrayList<Model>();
+		for (int i=0; i < this.size; i++) {
+			Model model = new Model();
+			model.name = "John Smith " + i;
+			model.age = i;
+			model.tags = List.of("red", "green", "blue");
+			this.models.add(model);
+		}
+		this.out = OutputStream.nullOutputStream();
+	}
+
+	@Benchmark
+	public String render() {
+		return this.transformer.render(this.models);
+	}
+
+	@Benchmark
+	public void renderToStream() throws IOException {
+		this.transformer.render(this.models, this.out);
+	}
+
+}
@@ -0,0 +1,227 @@
+/**********
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU General Public License as published by the
+ Free Software Foundation; either version 3.0 of the License, or (at your
+ option) any later version. (See <https://www.gnu.org/licenses/gpl-3.0.html>.)
+
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ more details.
+
+ You should have received a copy of the GNU General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301  USA
+ **********/
+// Copyright (c) 2020-2024 Sergio Exposito.  All rights reserved.
+package io.oigres.sparkjax.benchmarks;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import io.oigres.sparkjax.metrics.LatencyHistogram;
+
+/**
+ * HTTP load generator built on the JDK client, in two modes:
+ * <ul>
+ * <li>closed loop: a fixed number of workers, each sends a request as soon as the previous one is answered</li>
+ * <li>open loop: requests are sent at a fixed rate whatever the response times, and latency is measured 
+ * from the time each request was due, so a stalled server is not hidden by the generator waiting for it</li>
+ * </ul>
+ * Requests are taken in turns from the given list. Only the responses to requests sent after the warm up 
+ * are measured.
+ *
+ * @author Sergio Exposito
+ */
+public class LoadGenerator {
+	private final HttpClient client;
+	private final List<HttpRequest> requests;
+	private final AtomicLong next = new AtomicLong();
+
+	public LoadGenerator(List<HttpRequest> requests) {
+		this.client = HttpClient.newBuilder()
+				.version(HttpClient.Version.HTTP_1_1)
+				.connectTimeout(Duration.ofSeconds(10))
+				.build();
+		this.requests = requests;
+	}
+
+	/**
+	 * @param concurrency number of workers
+	 */
+	public Result runClosedLoop(int concurrency, Duration warmup, Duration duration) throws InterruptedException {
+		long start = System.nanoTime();
+		long measureStart = start + warmup.toNanos();
+		long end = measureStart + duration.toNanos();
+		Recorder recorder = new Recorder();
+		CountDownLatch done = new CountDownLatch(concurrency);
+		for (int i=0; i < concurrency; i++) {
+			Thread worker = new Thread(() -> {
+				try {
+					long now;
+					while ((now = System.nanoTime()) < end) {
+						boolean measured = now >= measureStart;
+						send(recorder, nextRequest(), now, measured);
+					}
+				} finally {
+					done.countDown();
+				}
+			}, "load-worker-" + i);
+			worker.setDaemon(true);
+			worker.start();
+		}
+		done.await();
+		return recorder.result("closed", concurrency, 0, duration);
+	}
+
+	/**
+	 * @param rate requests per second
+	 * @param maxOutstanding requests waiting for a response above which new requests are dropped and counted
+	 */
+	public Result runOpenLoop(int rate, int maxOutstanding, Duration warmup, Duration duration) throws InterruptedException {
+		Recorder recorder = new Recorder();
+		Semaphore outstanding = new Semaphore(maxOutstanding);
+		long period = TimeUnit.SECONDS.toNanos(1) / rate;
+		long start = System.nanoTime();
+		long measureStart = start + warmup.toNanos();
+		long end = measureStart + duration.toNanos();
+		for (long i=0; ; i++) {
+			long due = start + i * period;
+			if (due >= end) {
+				break;
+			}
+			long wait = due - System.nanoTime();
+			if (wait > 0) {
+				LockSupport.parkNanos(wait);
+			}
+			boolean measured = due >= measureStart;
+			if (!outstanding.tryAcquire()) {
+				if (measured) {
+					recorder.dropped.increment();
+				}
+				continue;
+			}
+			this.client.sendAsync(nextRequest(), HttpResponse.BodyHandlers.discarding())
+				.whenComplete((response, throwable) -> {
+					recorder.record(response, throwable, due, measured);
+					outstanding.release();
+				});
+		}
+		// Responses still in flight are waited for, the time they take is part of their latency
+		outstanding.tryAcquire(maxOutstanding, 30, TimeUnit.SECONDS);
+		return recorder.result("open", maxOutstanding, rate, duration);
+	}
+
+	private HttpRequest nextRequest() {
+		return this.requests.get((int)(this.next.getAndIncrement() % this.requests.size()));
+	}
+
+	private void send(Recorder recorder, HttpRequest request, long startNanos, boolean measured) {
+		try {
+			HttpResponse<Void> response = this.client.send(request, HttpResponse.BodyHandlers.discarding());
+			recorder.record(response, null, startNanos, measured);
+		} catch (Exception e) {
+			recorder.record(null, e, startNanos, measured);
+			if (e instanceof InterruptedException) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	/**
+	 * Measurements of a single run
+	 */
+	private static class Recorder {
+		private final LatencyHistogram latency = new LatencyHistogram();
+		private final LongAdder errors = new LongAdder();
+		private final LongAdder dropped = new LongAdder();
+
+		void record(HttpResponse<?> response, Throwable throwable, long startNanos, boolean measured) {
+			if (!measured) {
+				return;
+			}
+			this.latency.record(System.nanoTime() - startNanos);
+			if (throwable != null || response.statusCode() >= 400) {
+				this.errors.increment();
+			}
+		}
+
+		Result result(String mode, int concurrency, int rate, Duration duration) {
+			return new Result(mode, concurrency, rate, this.latency.snapshot(), this.errors.sum(), this.dropped.sum(), duration);
+		}
+	}
+
+	/**
+	 * Outcome of a run, latencies in nanoseconds.
+	 */
+	public static class Result {
+		private final String mode;
+		private final int concurrency;
+		private final int rate;
+		private final LatencyHistogram.Snapshot latency;
+		private final long errors;
+		private final long dropped;
+		private final Duration duration;
+
+		Result(String mode, int concurrency, int rate, LatencyHistogram.Snapshot latency, long errors, long dropped, Duration duration) {
+			this.mode = mode;
+			this.concurrency = concurrency;
+			this.rate = rate;
+			this.latency = latency;
+			this.errors = errors;
+			this.dropped = dropped;
+			this.duration = duration;
+		}
+
+		public long getRequests() {
+			return latency.getCount();
+		}
+
+		public long getErrors() {
+			return errors;
+		}
+
+		/**
+		 * @return requests not sent in open loop because too many were waiting for a response
+		 */
+		public long getDropped() {
+			return dropped;
+		}
+
+		/**
+		 * @return responses per second
+		 */
+		public double getThroughput() {
+			return (double)latency.getCount() / duration.toMillis() * 1000;
+		}
+
+		public LatencyHistogram.Snapshot getLatency() {
+			return latency;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("mode=%s %s duration=%ds%n"
+					+ "requests=%d errors=%d dropped=%d throughput=%.1f req/s%n"
+					+ "latency p50=%.3f ms p99=%.3f ms p99.9=%.3f ms max=%.3f ms",
+					mode, "open".equals(mode) ? "rate=" + rate + "/s maxOutstanding=" + concurrency : "concurrency=" + concurrency, 
+					duration.getSeconds(), getRequests(), errors, dropped, getThroughput(), 
+					millis(latency.getValueAtPercentile(50)), millis(latency.getValueAtPercentile(99)), 
+					millis(latency.getValueAtPercentile(99.9)), millis(latency.getMax()));
+		}
+
+		private static double millis(long nanos) {
+			return nanos / 1e6;
+		}
+	}
+
+}
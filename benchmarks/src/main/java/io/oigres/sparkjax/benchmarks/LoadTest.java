@@ -0,0 +1,208 @@
+/**********
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU General Public License as published by the
+ Free Software Foundation; either version 3.0 of the License, or (at your
+ option) any later version. (See <https://www.gnu.org/licenses/gpl-3.0.html>.)
+
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ more details.
+
+ You should have received a copy of the GNU General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301  USA
+ **********/
+// Copyright (c) 2020-2024 Sergio Exposito.  All rights reserved.
+package io.oigres.sparkjax.benchmarks;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import javax.validation.constraints.Min;
+import javax.ws.rs.BeanParam;
+import javax.ws.rs.Consumes;
+import javax.ws.rs.GET;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.MediaType;
+
+import com.google.gson.Gson;
+
+import io.oigres.sparkjax.JsonTransformer;
+import io.oigres.sparkjax.RouteBuilder;
+import io.oigres.sparkjax.spark.RouteOptions;
+import spark.Spark;
+
+/**
+ * Macro benchmark: starts the library on an embedded Spark server bound to the loopback interface and 
+ * loads it with a {@link LoadGenerator}, then prints throughput and latency percentiles. 
+ * 
+ * It exits with status 1 when a gate given with <code>--maxP99Millis</code>, <code>--minThroughput</code> or 
+ * <code>--maxErrors</code> is not met, so releases can be gated on it.
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar io.oigres.sparkjax.benchmarks.LoadTest --mode=closed --concurrency=64 --duration=30
+ * java -cp target/benchmarks.jar io.oigres.sparkjax.benchmarks.LoadTest --mode=open --rate=5000 --maxP99Millis=20
+ * </pre>
+ *
+ * @author Sergio Exposito
+ */
+public class LoadTest {
+
+	public static class InfoResponse {
+		String info;
+
+		public InfoResponse(String info) {
+			this.info = info;
+		}
+	}
+
+	public static class Product {
+		long id;
+		String name;
+		int stock;
+	}
+
+	/**
+	 * Same endpoints as the command line example
+	 */
+	@Path("/api/info")
+	public static class InfoResources {
+		@GET
+		@Produces(MediaType.APPLICATION_JSON)
+		@Consumes(MediaType.APPLICATION_JSON)
+		public InfoResponse getDefaultInfo() {
+			return new InfoResponse("Hello World! ");
+		}
+
+		@GET
+		@Path("/{id}")
+		@Produces(MediaType.APPLICATION_JSON)
+		@Consumes(MediaType.APPLICATION_JSON)
+		public InfoResponse getInfoWithParameter(@Min(1) @PathParam("id") Long id) {
+			return new InfoResponse("Hello World! " + id);
+		}
+	}
+
+	@Path("/api/products")
+	public static class ProductResources {
+		@GET
+		public Product[] search(@QueryParam("name") String name, @QueryParam("page") int page, @QueryParam("size") Integer size) {
+			Product[] products = new Product[size];
+			for (int i=0; i < size; i++) {
+				products[i] = new Product();
+				products[i].id = page * size + i;
+				products[i].name = name + " " + i;
+			}
+			return products;
+		}
+
+		@POST
+		public Product create(@BeanParam Product product) {
+			product.id = 42;
+			return product;
+		}
+	}
+
+	public static void main(String[] args) throws Exception {
+		Map<String, String> options = parse(args);
+		String mode = options.getOrDefault("mode", "closed");
+		int concurrency = Integer.parseInt(options.getOrDefault("concurrency", "64"));
+		int rate = Integer.parseInt(options.getOrDefault("rate", "1000"));
+		Duration warmup = Duration.ofSeconds(Long.parseLong(options.getOrDefault("warmup", "5")));
+		Duration duration = Duration.ofSeconds(Long.parseLong(options.getOrDefault("duration", "20")));
+		double maxP99Millis = Double.parseDouble(options.getOrDefault("maxP99Millis", "-1"));
+		double minThroughput = Double.parseDouble(options.getOrDefault("minThroughput", "-1"));
+		long maxErrors = Long.parseLong(options.getOrDefault("maxErrors", "0"));
+
+		int port = startServer(Integer.parseInt(options.getOrDefault("jettyThreads", "200")));
+		LoadGenerator.Result result;
+		try {
+			LoadGenerator generator = new LoadGenerator(requests("http://127.0.0.1:" + port));
+			result = "open".equals(mode) 
+					? generator.runOpenLoop(rate, concurrency, warmup, duration) 
+					: generator.runClosedLoop(concurrency, warmup, duration);
+		} finally {
+			Spark.stop();
+			Spark.awaitStop();
+		}
+		System.out.println(result);
+
+		boolean failed = false;
+		double p99Millis = result.getLatency().getValueAtPercentile(99) / 1e6;
+		if (maxP99Millis >= 0 && p99Millis > maxP99Millis) {
+			System.out.printf("FAILED p99 %.3f ms over %.3f ms%n", p99Millis, maxP99Millis);
+			failed = true;
+		}
+		if (minThroughput >= 0 && result.getThroughput() < minThroughput) {
+			System.out.printf("FAILED throughput %.1f req/s under %.1f req/s%n", result.getThroughput(), minThroughput);
+			failed = true;
+		}
+		if (result.getErrors() + result.getDropped() > maxErrors) {
+			System.out.printf("FAILED %d errors and %d dropped requests over %d%n", result.getErrors(), result.getDropped(), maxErrors);
+			failed = true;
+		}
+		System.exit(failed ? 1 : 0);
+	}
+
+	/**
+	 * @return the port the server listens on
+	 */
+	static int startServer(int jettyThreads) {
+		Gson gson = new Gson();
+		JsonTransformer jsonTransformer = new JsonTransformer(gson);
+		Spark.ipAddress("127.0.0.1");
+		Spark.port(0);
+		Spark.threadPool(jettyThreads);
+		new RouteBuilder(gson, mediaType -> MediaType.APPLICATION_JSON_TYPE.isCompatible(mediaType) ? jsonTransformer : null, new RouteOptions())
+				.setupRoutes(new HashSet<Object>(Arrays.asList(new InfoResources(), new ProductResources())));
+		Spark.awaitInitialization();
+		return Spark.port();
+	}
+
+	/**
+	 * @return the mix of requests sent in turns
+	 */
+	static List<HttpRequest> requests(String baseUrl) {
+		return Arrays.asList(
+				get(baseUrl + "/api/info"),
+				get(baseUrl + "/api/info/7"),
+				get(baseUrl + "/api/products?name=book&page=2&size=10"),
+				get(baseUrl + "/api/info/12345"),
+				HttpRequest.newBuilder(URI.create(baseUrl + "/api/products"))
+					.header("Content-Type", MediaType.APPLICATION_JSON)
+					.header("Accept", MediaType.APPLICATION_JSON)
+					.POST(HttpRequest.BodyPublishers.ofString("{\"name\":\"Dune\",\"stock\":3}"))
+					.build()
+			);
+	}
+
+	private static HttpRequest get(String url) {
+		return HttpRequest.newBuilder(URI.create(url)).header("Accept", MediaType.APPLICATION_JSON).GET().build();
+	}
+
+	/**
+	 * @return the <code>--name=value</code> arguments
+	 */
+	private static Map<String, String> parse(String[] args) {
+		Map<String, String> options = new HashMap<String, String>();
+		for (String arg : args) {
+			if (!arg.startsWith("--") || arg.indexOf('=') < 0) {
+				throw new IllegalArgumentException("Invalid argument " + arg + ", expected --name=value");
+			}
+			options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+		}
+		return options;
+	}
+
+}
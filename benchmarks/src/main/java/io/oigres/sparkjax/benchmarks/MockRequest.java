@@ -0,0 +1,217 @@
+/**********
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU General Public License as published by the
+ Free Software Foundation; either version 3.0 of the License, or (at your
+ option) any later version. (See <https://www.gnu.org/licenses/gpl-3.0.html>.)
+
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ more details.
+
+ You should have received a copy of the GNU General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301  USA
+ **********/
+// Copyright (c) 2020-2024 Sergio Exposito.  All rights reserved.
+package io.oigres.sparkjax.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import javax.servlet.ReadListener;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+
+import spark.QueryParamsMap;
+import spark.Request;
+
+/**
+ * In-memory {@link Request} to drive the library without a servlet container. Its raw request keeps 
+ * attributes and opens a new stream over the body every time it is asked for.
+ *
+ * @author Sergio Exposito
+ */
+public class MockRequest extends Request {
+	private final String method;
+	private final String uri;
+	private final String matchedPath;
+	private final Map<String, String[]> query = new LinkedHashMap<String, String[]>();
+	private final Map<String, String> headers = new LinkedHashMap<String, String>();
+	private final Map<String, String> cookies = new LinkedHashMap<String, String>();
+	private final Map<String, Object> attributes = new HashMap<String, Object>();
+	private String contentType;
+	private byte[] body = new byte[0];
+	private QueryParamsMap queryMap;
+	private final HttpServletRequest raw;
+
+	public MockRequest(String method, String uri, String matchedPath) {
+		this.method = method;
+		this.uri = uri;
+		this.matchedPath = matchedPath;
+		this.raw = (HttpServletRequest)Proxy.newProxyInstance(getClass().getClassLoader(), new Class[] {HttpServletRequest.class}, (proxy, m, args) -> {
+			switch (m.getName()) {
+			case "getAttribute":
+				return this.attributes.get(args[0]);
+			case "setAttribute":
+				this.attributes.put((String)args[0], args[1]);
+				return null;
+			case "removeAttribute":
+				this.attributes.remove(args[0]);
+				return null;
+			case "getInputStream":
+				return new BodyInputStream(this.body);
+			case "getContentType":
+				return this.contentType;
+			case "getContentLength":
+				return this.body.length;
+			case "getHeader":
+				return this.headers.get(((String)args[0]).toLowerCase());
+			case "getMethod":
+				return this.method;
+			case "getRequestURI":
+				return this.uri;
+			case "hashCode":
+				return System.identityHashCode(proxy);
+			case "equals":
+				return proxy == args[0];
+			case "toString":
+				return this.method + " " + this.uri;
+			default:
+				return m.getReturnType() == boolean.class ? Boolean.FALSE : m.getReturnType() == int.class ? Integer.valueOf(0) : 
+						m.getReturnType() == long.class ? Long.valueOf(0) : null;
+			}
+		});
+	}
+
+	public MockRequest query(String name, String... values) {
+		this.query.put(name, values);
+		this.queryMap = null;
+		return this;
+	}
+
+	public MockRequest header(String name, String value) {
+		this.headers.put(name.toLowerCase(), value);
+		return this;
+	}
+
+	public MockRequest cookie(String name, String value) {
+		this.cookies.put(name, value);
+		return this;
+	}
+
+	public MockRequest body(String contentType, String body) {
+		this.contentType = contentType;
+		this.body = body.getBytes(StandardCharsets.UTF_8);
+		return this;
+	}
+
+	/**
+	 * Forgets the attributes set while handling the previous request.
+	 */
+	public void reset() {
+		this.attributes.clear();
+	}
+
+	@Override
+	public String requestMethod() {
+		return this.method;
+	}
+
+	@Override
+	public String uri() {
+		return this.uri;
+	}
+
+	@Override
+	public String matchedPath() {
+		return this.matchedPath;
+	}
+
+	@Override
+	public QueryParamsMap queryMap() {
+		if (this.queryMap == null) {
+			this.queryMap = new QueryParamsMap(this.query) {};
+		}
+		return this.queryMap;
+	}
+
+	@Override
+	public String headers(String header) {
+		return this.headers.get(header.toLowerCase());
+	}
+
+	@Override
+	public Set<String> headers() {
+		return this.headers.keySet();
+	}
+
+	@Override
+	public Map<String, String> cookies() {
+		return this.cookies;
+	}
+
+	@Override
+	public String contentType() {
+		return this.contentType;
+	}
+
+	@Override
+	public int contentLength() {
+		return this.body.length;
+	}
+
+	@Override
+	public String body() {
+		return new String(this.body, StandardCharsets.UTF_8);
+	}
+
+	@Override
+	public byte[] bodyAsBytes() {
+		return this.body;
+	}
+
+	@Override
+	public HttpServletRequest raw() {
+		return this.raw;
+	}
+
+	static class BodyInputStream extends ServletInputStream {
+		private final ByteArrayInputStream in;
+
+		BodyInputStream(byte[] body) {
+			this.in = new ByteArrayInputStream(body);
+		}
+
+		@Override
+		public int read() {
+			return this.in.read();
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) {
+			return this.in.read(b, off, len);
+		}
+
+		@Override
+		public boolean isFinished() {
+			return this.in.available() == 0;
+		}
+
+		@Override
+		public boolean isReady() {
+			return true;
+		}
+
+		@Override
+		public void setReadListener(ReadListener readListener) {
+			throw new UnsupportedOperationException();
+		}
+	}
+
+}
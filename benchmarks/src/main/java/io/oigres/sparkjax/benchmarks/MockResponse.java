@@ -0,0 +1,141 @@
+/**********
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU General Public License as published by the
+ Free Software Foundation; either version 3.0 of the License, or (at your
+ option) any later version. (See <https://www.gnu.org/licenses/gpl-3.0.html>.)
+
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ more details.
+
+ You should have received a copy of the GNU General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301  USA
+ **********/
+// Copyright (c) 2020-2024 Sergio Exposito.  All rights reserved.
+package io.oigres.sparkjax.benchmarks;
+
+import java.lang.reflect.Proxy;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletResponse;
+
+import spark.Response;
+
+/**
+ * In-memory {@link Response}, the body written to its raw output stream is discarded.
+ *
+ * @author Sergio Exposito
+ */
+public class MockResponse extends Response {
+	private final Map<String, String> headers = new LinkedHashMap<String, String>();
+	private int status = HttpServletResponse.SC_OK;
+	private String type;
+	private String body;
+	private final HttpServletResponse raw;
+
+	public MockResponse() {
+		this.raw = (HttpServletResponse)Proxy.newProxyInstance(getClass().getClassLoader(), new Class[] {HttpServletResponse.class}, (proxy, m, args) -> {
+			switch (m.getName()) {
+			case "getStatus":
+				return this.status;
+			case "setStatus":
+				this.status = (Integer)args[0];
+				return null;
+			case "setContentType":
+				this.type = (String)args[0];
+				return null;
+			case "setHeader":
+			case "addHeader":
+				this.headers.put((String)args[0], (String)args[1]);
+				return null;
+			case "getHeader":
+				return this.headers.get(args[0]);
+			case "getOutputStream":
+				return new DiscardingOutputStream();
+			case "hashCode":
+				return System.identityHashCode(proxy);
+			case "equals":
+				return proxy == args[0];
+			default:
+				return m.getReturnType() == boolean.class ? Boolean.FALSE : m.getReturnType() == int.class ? Integer.valueOf(0) : null;
+			}
+		});
+	}
+
+	/**
+	 * Forgets the status, headers and body of the previous response.
+	 */
+	public void reset() {
+		this.headers.clear();
+		this.status = HttpServletResponse.SC_OK;
+		this.type = null;
+		this.body = null;
+	}
+
+	@Override
+	public void status(int statusCode) {
+		this.status = statusCode;
+	}
+
+	@Override
+	public int status() {
+		return this.status;
+	}
+
+	@Override
+	public void type(String contentType) {
+		this.type = contentType;
+	}
+
+	@Override
+	public String type() {
+		return this.type;
+	}
+
+	@Override
+	public void body(String body) {
+		this.body = body;
+	}
+
+	@Override
+	public String body() {
+		return this.body;
+	}
+
+	@Override
+	public void header(String header, String value) {
+		this.headers.put(header, value);
+	}
+
+	@Override
+	public HttpServletResponse raw() {
+		return this.raw;
+	}
+
+	static class DiscardingOutputStream extends ServletOutputStream {
+
+		@Override
+		public void write(int b) {
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+		}
+
+		@Override
+		public boolean isReady() {
+			return true;
+		}
+
+		@Override
+		public void setWriteListener(WriteListener writeListener) {
+			throw new UnsupportedOperationException();
+		}
+	}
+
+}
@@ -0,0 +1,137 @@
+/**********
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU General Public License as published by the
+ Free Software Foundation; either version 3.0 of the License, or (at your
+ option) any later version. (See <https://www.gnu.org/licenses/gpl-3.0.html>.)
+
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ more details.
+
+ You should have received a copy of the GNU General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301  USA
+ **********/
+// Copyright (c) 2020-2024 Sergio Exposito.  All rights reserved.
+package io.oigres.sparkjax.benchmarks;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.core.MediaType;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.gson.Gson;
+
+import io.oigres.sparkjax.JsonTransformer;
+import io.oigres.sparkjax.RouteBuilder;
+import io.oigres.sparkjax.spark.AsyncEmbeddedServerFactory;
+import io.oigres.sparkjax.spark.RouteOptions;
+import spark.Spark;
+
+/**
+ * Throughput of a slow blocking resource method under 1000 concurrent requests, invoked on the Jetty 
+ * request threads against offloaded to the invocation executor. The server is built by 
+ * {@link AsyncEmbeddedServerFactory}, so offloaded requests release their Jetty thread.
+ * 
+ * Every benchmark invocation sends a batch of {@value #CONCURRENT_REQUESTS} requests at once to a local 
+ * Spark server and waits for all of them, the score is in requests per second. The Jetty pool and the 
+ * offloaded concurrency are parameters, so both limits can be compared.
+ *
+ * @author Sergio Exposito
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OffloadInvocationBenchmark {
+	static final int CONCURRENT_REQUESTS = 1000;
+
+	@Path("/slow")
+	public static class SlowResource {
+		@GET
+		public String slow() throws InterruptedException {
+			// Stands for a blocking call, eg. a JDBC query
+			Thread.sleep(20);
+			return "done";
+		}
+	}
+
+	@Param({"false", "true"})
+	public boolean offload;
+
+	@Param({"200"})
+	public int jettyThreads;
+
+	@Param({"1000"})
+	public int maxInvocationConcurrency;
+
+	private HttpClient client;
+	private HttpRequest request;
+
+	@Setup
+	public void setup() throws Exception {
+		RouteOptions routeOptions = new RouteOptions();
+		routeOptions.setOffloadInvocation(this.offload);
+		routeOptions.setMaxInvocationConcurrency(this.maxInvocationConcurrency);
+		routeOptions.setMaxInvocationQueue(CONCURRENT_REQUESTS);
+		Gson gson = new Gson();
+		JsonTransformer jsonTransformer = new JsonTransformer(gson);
+		AsyncEmbeddedServerFactory.install();
+		Spark.port(0);
+		Spark.threadPool(this.jettyThreads);
+		new RouteBuilder(gson, mediaType -> MediaType.APPLICATION_JSON_TYPE.isCompatible(mediaType) ? jsonTransformer : null, routeOptions)
+				.setupRoutes(Collections.singleton(new SlowResource()));
+		Spark.awaitInitialization();
+		this.client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+		this.request = HttpRequest.newBuilder(URI.create("http://localhost:"+Spark.port()+"/slow")).GET().build();
+	}
+
+	@TearDown
+	public void tearDown() {
+		Spark.stop();
+		Spark.awaitStop();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(CONCURRENT_REQUESTS)
+	public int concurrentSlowRequests() throws Exception {
+		@SuppressWarnings("unchecked")
+		CompletableFuture<HttpResponse<Void>>[] responses = new CompletableFuture[CONCURRENT_REQUESTS];
+		for (int i=0; i < CONCURRENT_REQUESTS; i++) {
+			responses[i] = this.client.sendAsync(this.request, HttpResponse.BodyHandlers.discarding());
+		}
+		int ok = 0;
+		for (CompletableFuture<HttpResponse<Void>> response : responses) {
+			if (response.get().statusCode() == 200) {
+				ok++;
+			}
+		}
+		return ok;
+	}
+
+}
@@ -0,0 +1,119 @@
+/**********
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU General Public License as published by the
+ Free Software Foundation; either version 3.0 of the License, or (at your
+ option) any later version. (See <https://www.gnu.org/licenses/gpl-3.0.html>.)
+
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ more details.
+
+ You should have received a copy of the GNU General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301  USA
+ **********/
+// Copyright (c) 2020-2024 Sergio Exposito.  All rights reserved.
+package io.oigres.sparkjax.benchmarks;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import javax.ws.rs.BeanParam;
+import javax.ws.rs.Consumes;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.ext.ParamConverter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.gson.Gson;
+
+import io.oigres.sparkjax.jaxrs.ParamConverterFactory;
+import io.oigres.sparkjax.jaxrs.converters.BeanParamConverterProvider;
+import io.oigres.sparkjax.jaxrs.converters.CharacterParamConverterProvider;
+import io.oigres.sparkjax.jaxrs.converters.DateParamConverterProvider;
+import io.oigres.sparkjax.jaxrs.converters.StringParamConverterProvider;
+import io.oigres.sparkjax.jaxrs.converters.TypeFromStringEnumParamConverterProvider;
+import io.oigres.sparkjax.jaxrs.converters.TypeFromStringParamConverterProvider;
+import io.oigres.sparkjax.jaxrs.converters.TypeValueOfParamConverterProvider;
+
+/**
+ * Cost of converting a string with the {@link ParamConverter} chosen by {@link ParamConverterFactory} 
+ * for each kind of parameter, from the built-in providers in the same order as the route builder.
+ *
+ * @author Sergio Exposito
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class ParamConverterBenchmark {
+
+	public static class Model {
+		String name;
+		int age;
+	}
+
+	public static class Resource {
+		@Consumes(MediaType.APPLICATION_JSON)
+		public void convert(@QueryParam("Integer") Integer integer, @QueryParam("Character") Character character, 
+				@QueryParam("enum") TimeUnit unit, @QueryParam("UUID") UUID uuid, @QueryParam("LocalDate") LocalDate localDate, 
+				@QueryParam("Date") Date date, @QueryParam("String") String string, @BeanParam Model bean) {
+		}
+	}
+
+	@Param({"Integer", "Character", "enum", "UUID", "LocalDate", "Date", "String", "bean"})
+	public String type;
+
+	private ParamConverter<?> converter;
+	private String value;
+
+	@Setup
+	public void setup() throws Exception {
+		ParamConverterFactory paramConverterFactory = new ParamConverterFactory(
+				Arrays.asList(
+						new DateParamConverterProvider(),
+						new TypeFromStringEnumParamConverterProvider(),
+						new TypeValueOfParamConverterProvider(),
+						new CharacterParamConverterProvider(),
+						new TypeFromStringParamConverterProvider(),
+						new StringParamConverterProvider(),
+						new BeanParamConverterProvider(new Gson())
+					)
+				);
+		Method method = Arrays.stream(Resource.class.getMethods()).filter(m -> m.getName().equals("convert")).findFirst().get();
+		Parameter[] parameters = method.getParameters();
+		int index = Arrays.asList("Integer", "Character", "enum", "UUID", "LocalDate", "Date", "String", "bean").indexOf(this.type);
+		Parameter parameter = parameters[index];
+		Annotation[] annotations = Arrays.copyOf(parameter.getDeclaredAnnotations(), parameter.getDeclaredAnnotations().length + 1);
+		annotations[annotations.length - 1] = method.getAnnotation(Consumes.class);
+		this.converter = paramConverterFactory.getConverter(parameter.getType(), parameter.getParameterizedType(), annotations);
+		this.value = new String[] {"42", "x", "SECONDS", "123e4567-e89b-12d3-a456-426614174000", "2024-03-01", 
+				"Fri, 01 Mar 2024 10:15:30 GMT", "john", "{\"name\":\"John Smith\",\"age\":42}"}[index];
+	}
+
+	@Benchmark
+	public Object fromString() {
+		return this.converter.fromString(this.value);
+	}
+
+}
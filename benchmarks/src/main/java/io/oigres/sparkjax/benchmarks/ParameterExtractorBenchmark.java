@@ -0,0 +1,116 @@
+/**********
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU General Public License as published by the
+ Free Software Foundation; either version 3.0 of the License, or (at your
+ option) any later version. (See <https://www.gnu.org/licenses/gpl-3.0.html>.)
+
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ more details.
+
+ You should have received a copy of the GNU General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301  USA
+ **********/
+// Copyright (c) 2020-2024 Sergio Exposito.  All rights reserved.
+package io.oigres.sparkjax.benchmarks;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.ws.rs.DefaultValue;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.core.MultivaluedMap;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.oigres.sparkjax.jaxrs.ParamConverterFactory;
+import io.oigres.sparkjax.jaxrs.ParamValueExtractor;
+import io.oigres.sparkjax.jaxrs.ParameterExtractorFactory;
+import io.oigres.sparkjax.jaxrs.converters.CharacterParamConverterProvider;
+import io.oigres.sparkjax.jaxrs.converters.DateParamConverterProvider;
+import io.oigres.sparkjax.jaxrs.converters.StringParamConverterProvider;
+import io.oigres.sparkjax.jaxrs.converters.TypeFromStringEnumParamConverterProvider;
+import io.oigres.sparkjax.jaxrs.converters.TypeFromStringParamConverterProvider;
+import io.oigres.sparkjax.jaxrs.converters.TypeValueOfParamConverterProvider;
+
+/**
+ * Cost of extracting a parameter from the request values with the extractor chosen by 
+ * {@link ParameterExtractorFactory} for each kind of parameter.
+ *
+ * @author Sergio Exposito
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class ParameterExtractorBenchmark {
+
+	public static class Resource {
+		public void extract(@QueryParam("string") String string, @QueryParam("primitive") int primitive, 
+				@QueryParam("boxed") Integer boxed, @QueryParam("stringList") List<String> stringList, 
+				@QueryParam("integerList") List<Integer> integerList, @QueryParam("enum") TimeUnit unit,
+				@QueryParam("defaultValue") @DefaultValue("10") int defaultValue) {
+		}
+	}
+
+	@Param({"string", "primitive", "boxed", "stringList", "integerList", "enum", "defaultValue"})
+	public String parameter;
+
+	private ParamValueExtractor<?> extractor;
+	private MultivaluedMap<String, String> values;
+
+	@Setup
+	public void setup() throws Exception {
+		ParameterExtractorFactory parameterExtractorFactory = new ParameterExtractorFactory(new ParamConverterFactory(
+				Arrays.asList(
+						new DateParamConverterProvider(),
+						new TypeFromStringEnumParamConverterProvider(),
+						new TypeValueOfParamConverterProvider(),
+						new CharacterParamConverterProvider(),
+						new TypeFromStringParamConverterProvider(),
+						new StringParamConverterProvider()
+					)
+				));
+		Method method = Arrays.stream(Resource.class.getMethods()).filter(m -> m.getName().equals("extract")).findFirst().get();
+		for (Parameter p : method.getParameters()) {
+			String name = p.getAnnotation(QueryParam.class).value();
+			if (name.equals(this.parameter)) {
+				Annotation[] annotations = p.getDeclaredAnnotations();
+				this.extractor = parameterExtractorFactory.get(p, annotations, name);
+			}
+		}
+		this.values = new MultivaluedHashMap<String, String>();
+		this.values.put("string", new LinkedList<String>(Arrays.asList("john")));
+		this.values.put("primitive", new LinkedList<String>(Arrays.asList("42")));
+		this.values.put("boxed", new LinkedList<String>(Arrays.asList("42")));
+		this.values.put("stringList", new LinkedList<String>(Arrays.asList("red", "green", "blue")));
+		this.values.put("integerList", new LinkedList<String>(Arrays.asList("1", "2", "3")));
+		this.values.put("enum", new LinkedList<String>(Arrays.asList("SECONDS")));
+	}
+
+	@Benchmark
+	public Object extract() {
+		return this.extractor.extract(this.values);
+	}
+
+}
@@ -0,0 +1,86 @@
+/**********
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU General Public License as published by the
+ Free Software Foundation; either version 3.0 of the License, or (at your
+ option) any later version. (See <https://www.gnu.org/licenses/gpl-3.0.html>.)
+
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ more details.
+
+ You should have received a copy of the GNU General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301  USA
+ **********/
+// Copyright (c) 2020-2024 Sergio Exposito.  All rights reserved.
+package io.oigres.sparkjax.benchmarks;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.oigres.sparkjax.spark.ResourceMethodInvoker;
+import io.oigres.sparkjax.spark.ResourceMethodInvokerFactory;
+import io.oigres.sparkjax.spark.invokers.ReflectiveResourceMethodInvoker;
+
+/**
+ * Compares the reflective invocation of a resource method against the invoker bound by 
+ * {@link ResourceMethodInvokerFactory}.
+ *
+ * @author Sergio Exposito
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class ResourceMethodInvokerBenchmark {
+
+	public static class Resource {
+		public String find(String name, Integer page, int size) {
+			return name;
+		}
+	}
+
+	private Resource resource;
+	private ResourceMethodInvoker reflective;
+	private ResourceMethodInvoker bound;
+	private Object[] arguments;
+
+	@Setup
+	public void setup() throws Exception {
+		this.resource = new Resource();
+		Method method = Resource.class.getMethod("find", String.class, Integer.class, int.class);
+		this.reflective = new ReflectiveResourceMethodInvoker(this.resource, method);
+		this.bound = new ResourceMethodInvokerFactory().bind(this.resource, method);
+		this.arguments = new Object[] {"name", Integer.valueOf(1), Integer.valueOf(20)};
+	}
+
+	@Benchmark
+	public Object direct() {
+		return this.resource.find((String)this.arguments[0], (Integer)this.arguments[1], (Integer)this.arguments[2]);
+	}
+
+	@Benchmark
+	public Object reflective() throws Exception {
+		return this.reflective.invoke(this.arguments);
+	}
+
+	@Benchmark
+	public Object methodHandle() throws Exception {
+		return this.bound.invoke(this.arguments);
+	}
+
+}
@@ -0,0 +1,124 @@
+/**********
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU General Public License as published by the
+ Free Software Foundation; either version 3.0 of the License, or (at your
+ option) any later version. (See <https://www.gnu.org/licenses/gpl-3.0.html>.)
+
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ more details.
+
+ You should have received a copy of the GNU General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301  USA
+ **********/
+// Copyright (c) 2020-2024 Sergio Exposito.  All rights reserved.
+package io.oigres.sparkjax.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.validation.ConstraintViolationException;
+import javax.validation.Validation;
+import javax.validation.Validator;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import javax.ws.rs.core.MediaType;
+
+import org.apache.bval.jsr.ApacheValidationProvider;
+import org.eclipse.jetty.http.HttpStatus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.gson.Gson;
+
+import io.oigres.sparkjax.JsonTransformer;
+import io.oigres.sparkjax.ResponseExceptionHandler;
+import spark.Request;
+import spark.Response;
+
+/**
+ * Cost of answering a failed request with {@link ResponseExceptionHandler}: a validation error with two 
+ * constraint violations and a plain exception, with and without stack trace in the body.
+ *
+ * @author Sergio Exposito
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class ResponseExceptionHandlerBenchmark {
+
+	public static class Model {
+		@NotNull
+		String name;
+		@Min(18)
+		int age;
+	}
+
+	/**
+	 * Exposes the handling of any exception, the way subclasses add handlers for their own exceptions
+	 */
+	static class ExceptionHandler extends ResponseExceptionHandler {
+		ExceptionHandler(boolean includeStacktrace) {
+			super(new JsonTransformer(new Gson()), MediaType.APPLICATION_JSON_TYPE, includeStacktrace, true);
+		}
+
+		void handle(Exception exception, Request request, Response response) {
+			handleExceptionInternal(exception, HttpStatus.Code.INTERNAL_SERVER_ERROR, request, response);
+		}
+	}
+
+	private ExceptionHandler handler;
+	private ExceptionHandler handlerWithStacktrace;
+	private ConstraintViolationException constraintViolation;
+	private Exception exception;
+	private MockRequest request;
+	private MockResponse response;
+
+	@Setup
+	public void setup() {
+		this.handler = new ExceptionHandler(false);
+		this.handlerWithStacktrace = new ExceptionHandler(true);
+		Validator validator = Validation.byProvider(ApacheValidationProvider.class)
+				.configure()
+				.ignoreXmlConfiguration()
+				.buildValidatorFactory()
+				.getValidator();
+		Model model = new Model();
+		model.age = 7;
+		this.constraintViolation = new ConstraintViolationException(validator.validate(model));
+		this.exception = new IllegalStateException("Product 42 is not available");
+		this.request = new MockRequest("POST", "/products/42", "/products/:id");
+		this.response = new MockResponse();
+	}
+
+	@Benchmark
+	public String constraintViolation() {
+		this.handler.handle(this.constraintViolation, this.request, this.response);
+		return this.response.body();
+	}
+
+	@Benchmark
+	public String exception() {
+		this.handler.handle(this.exception, this.request, this.response);
+		return this.response.body();
+	}
+
+	@Benchmark
+	public String exceptionWithStacktrace() {
+		this.handlerWithStacktrace.handle(this.exception, this.request, this.response);
+		return this.response.body();
+	}
+
+}
@@ -0,0 +1,186 @@
+/**********
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU General Public License as published by the
+ Free Software Foundation; either version 3.0 of the License, or (at your
+ option) any later version. (See <https://www.gnu.org/licenses/gpl-3.0.html>.)
+
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ more details.
+
+ You should have received a copy of the GNU General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301  USA
+ **********/
+// Copyright (c) 2020-2024 Sergio Exposito.  All rights reserved.
+package io.oigres.sparkjax.benchmarks;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.ws.rs.Consumes;
+import javax.ws.rs.HeaderParam;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.MediaType;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.gson.Gson;
+
+import io.oigres.sparkjax.JsonTransformer;
+import io.oigres.sparkjax.jaxrs.ParamConverterFactory;
+import io.oigres.sparkjax.jaxrs.ParameterExtractorFactory;
+import io.oigres.sparkjax.jaxrs.ValueParamProvider;
+import io.oigres.sparkjax.jaxrs.converters.CharacterParamConverterProvider;
+import io.oigres.sparkjax.jaxrs.converters.DateParamConverterProvider;
+import io.oigres.sparkjax.jaxrs.converters.StringParamConverterProvider;
+import io.oigres.sparkjax.jaxrs.converters.TypeFromStringEnumParamConverterProvider;
+import io.oigres.sparkjax.jaxrs.converters.TypeFromStringParamConverterProvider;
+import io.oigres.sparkjax.jaxrs.converters.TypeValueOfParamConverterProvider;
+import io.oigres.sparkjax.jaxrs.providers.QueryParamValueParamProvider;
+import io.oigres.sparkjax.metrics.SimpleMetricsRegistry;
+import io.oigres.sparkjax.spark.AbstractRoute;
+import io.oigres.sparkjax.spark.RequestRecordingFilter;
+import io.oigres.sparkjax.spark.ResourceMethodInvokerFactory;
+import io.oigres.sparkjax.spark.RouteOptions;
+import io.oigres.sparkjax.tracing.RingBufferTracer;
+import spark.ResponseTransformer;
+import spark.route.HttpMethod;
+
+/**
+ * End to end cost of a GET route without a server: {@link AbstractRoute#handle(spark.Request, spark.Response)}, 
+ * the rendering of the result by its response transformer and the end of the request recording, with 
+ * metrics and tracing disabled or enabled.
+ *
+ * @author Sergio Exposito
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class RouteHandleBenchmark {
+
+	@Consumes(MediaType.APPLICATION_JSON)
+	@Produces(MediaType.APPLICATION_JSON)
+	public static class Resource {
+		public List<Product> search(@PathParam("category") String category, @QueryParam("page") int page, 
+				@QueryParam("size") Integer size, @HeaderParam("x-request-id") String requestId) {
+			List<Product> result = new ArrayList<Product>(size);
+			for (int i=0; i < size; i++) {
+				result.add(new Product(page * size + i, category));
+			}
+			return result;
+		}
+	}
+
+	public static class Product {
+		long id;
+		String category;
+
+		Product(long id, String category) {
+			this.id = id;
+			this.category = category;
+		}
+	}
+
+	/**
+	 * GET route not registered with Spark, query parameters are bound as {@link io.oigres.sparkjax.spark.GetRoute} does
+	 */
+	static class Route extends AbstractRoute {
+		Route(String path, Object resource, Method method, ParameterExtractorFactory parameterExtractorFactory, ResponseTransformer responseTransformer, RouteOptions routeOptions) {
+			super(path, resource, method, new ResourceMethodInvokerFactory().bind(resource, method), Resource.class.getAnnotation(Consumes.class), 
+					Resource.class.getAnnotation(Produces.class), parameterExtractorFactory, mediaType -> responseTransformer, null, routeOptions);
+		}
+
+		@Override
+		public HttpMethod getHttpMethod() {
+			return HttpMethod.get;
+		}
+
+		@Override
+		protected ValueParamProvider createValueParamProvider(Parameter parameter, Annotation[] parameterAnnotations, ParameterExtractorFactory parameterExtractorFactory) {
+			ValueParamProvider provider = super.createValueParamProvider(parameter, parameterAnnotations, parameterExtractorFactory);
+			QueryParam queryParam = parameter.getAnnotation(QueryParam.class);
+			if (provider == null && queryParam != null) {
+				provider = new QueryParamValueParamProvider(parameterExtractorFactory.get(parameter, parameterAnnotations, queryParam.value()));
+			}
+			return provider;
+		}
+
+		ResponseTransformer sparkResponseTransformer() {
+			return getSparkResponseTransformer();
+		}
+	}
+
+	@Param({"none", "metrics", "tracing"})
+	public String recording;
+
+	private Route route;
+	private ResponseTransformer responseTransformer;
+	private RequestRecordingFilter recordingFilter;
+	private MockRequest request;
+	private MockResponse response;
+
+	@Setup
+	public void setup() throws Exception {
+		ParameterExtractorFactory parameterExtractorFactory = new ParameterExtractorFactory(new ParamConverterFactory(
+				Arrays.asList(
+						new DateParamConverterProvider(),
+						new TypeFromStringEnumParamConverterProvider(),
+						new TypeValueOfParamConverterProvider(),
+						new CharacterParamConverterProvider(),
+						new TypeFromStringParamConverterProvider(),
+						new StringParamConverterProvider()
+					)
+				));
+		RouteOptions routeOptions = new RouteOptions();
+		if ("metrics".equals(this.recording)) {
+			routeOptions.setMetricsRegistry(new SimpleMetricsRegistry());
+		} else if ("tracing".equals(this.recording)) {
+			routeOptions.setTracer(new RingBufferTracer(1024));
+		}
+		Method method = Resource.class.getMethod("search", String.class, int.class, Integer.class, String.class);
+		this.route = new Route("/categories/{category}/products", new Resource(), method, parameterExtractorFactory, 
+				new JsonTransformer(new Gson()), routeOptions);
+		this.responseTransformer = this.route.sparkResponseTransformer();
+		this.recordingFilter = new RequestRecordingFilter();
+		this.request = new MockRequest("GET", "/categories/books/products", "/categories/:category/products")
+				.query("page", "2")
+				.query("size", "10")
+				.header("Accept", MediaType.APPLICATION_JSON)
+				.header("X-Request-Id", "7d444840-9dc0-11d1-b245-5ffdce74fad2")
+				.header("traceparent", "00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01");
+		this.response = new MockResponse();
+	}
+
+	@Benchmark
+	public String handle() throws Exception {
+		this.request.reset();
+		this.response.reset();
+		Object result = this.route.handle(this.request, this.response);
+		String body = this.responseTransformer.render(result);
+		this.recordingFilter.handle(this.request, this.response);
+		return body;
+	}
+
+}
@@ -0,0 +1,97 @@
+/**********
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU General Public License as published by the
+ Free Software Foundation; either version 3.0 of the License, or (at your
+ option) any later version. (See <https://www.gnu.org/licenses/gpl-3.0.html>.)
+
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ more details.
+
+ You should have received a copy of the GNU General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301  USA
+ **********/
+// Copyright (c) 2020-2024 Sergio Exposito.  All rights reserved.
+package io.oigres.sparkjax.benchmarks;
+
+import java.lang.reflect.Method;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validation;
+import javax.validation.Validator;
+import javax.validation.metadata.MethodDescriptor;
+import javax.ws.rs.QueryParam;
+
+import org.apache.bval.jsr.ApacheValidationProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of the validation stage on a GET whose parameters have no constraints: the executable
+ * validation done on every request before, against the no-op stage installed now.
+ *
+ * @author Sergio Exposito
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class ValidationBenchmark {
+
+	public static class Resource {
+		public String search(@QueryParam("name") String name, @QueryParam("page") int page, @QueryParam("size") Integer size) {
+			return name;
+		}
+	}
+
+	private Resource resource;
+	private Method method;
+	private Object[] arguments;
+	private Validator validator;
+	private Validator noOpValidator;
+
+	@Setup
+	public void setup() throws Exception {
+		this.resource = new Resource();
+		this.method = Resource.class.getMethod("search", String.class, int.class, Integer.class);
+		this.arguments = new Object[] {"john", 2, 20};
+		this.validator = Validation.byProvider(ApacheValidationProvider.class)
+				.configure()
+				.ignoreXmlConfiguration()
+				.buildValidatorFactory()
+				.getValidator();
+		// Same decision RouteBuilder takes at startup
+		MethodDescriptor methodDescriptor = this.validator.getConstraintsForClass(Resource.class)
+				.getConstraintsForMethod("search", String.class, int.class, Integer.class);
+		boolean constrained = methodDescriptor != null && methodDescriptor.hasConstrainedParameters();
+		this.noOpValidator = constrained ? this.validator : null;
+	}
+
+	@Benchmark
+	public Set<ConstraintViolation<Resource>> validateParameters() {
+		return this.validator.forExecutables().validateParameters(this.resource, this.method, this.arguments);
+	}
+
+	@Benchmark
+	public Set<ConstraintViolation<Resource>> noOpStage() {
+		if (this.noOpValidator == null) {
+			return null;
+		}
+		return this.noOpValidator.forExecutables().validateParameters(this.resource, this.method, this.arguments);
+	}
+
+}
@@ -0,0 +1,203 @@
+/**********
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU General Public License as published by the
+ Free Software Foundation; either version 3.0 of the License, or (at your
+ option) any later version. (See <https://www.gnu.org/licenses/gpl-3.0.html>.)
+
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ more details.
+
+ You should have received a copy of the GNU General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301  USA
+ **********/
+// Copyright (c) 2020-2024 Sergio Exposito.  All rights reserved.
+package io.oigres.sparkjax.benchmarks;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import javax.ws.rs.BeanParam;
+import javax.ws.rs.Consumes;
+import javax.ws.rs.CookieParam;
+import javax.ws.rs.FormParam;
+import javax.ws.rs.HeaderParam;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.Suspended;
+import javax.ws.rs.core.MediaType;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.gson.Gson;
+
+import io.oigres.sparkjax.jaxrs.ParamConverterFactory;
+import io.oigres.sparkjax.jaxrs.ParameterContext;
+import io.oigres.sparkjax.jaxrs.ParameterExtractorFactory;
+import io.oigres.sparkjax.jaxrs.StreamParamConverter;
+import io.oigres.sparkjax.jaxrs.converters.BeanParamConverterProvider;
+import io.oigres.sparkjax.jaxrs.converters.CharacterParamConverterProvider;
+import io.oigres.sparkjax.jaxrs.converters.DateParamConverterProvider;
+import io.oigres.sparkjax.jaxrs.converters.StringParamConverterProvider;
+import io.oigres.sparkjax.jaxrs.converters.TypeFromStringEnumParamConverterProvider;
+import io.oigres.sparkjax.jaxrs.converters.TypeFromStringParamConverterProvider;
+import io.oigres.sparkjax.jaxrs.converters.TypeValueOfParamConverterProvider;
+import io.oigres.sparkjax.jaxrs.providers.BeanParamValueParamProvider;
+import io.oigres.sparkjax.jaxrs.providers.CookieParamValueParamProvider;
+import io.oigres.sparkjax.jaxrs.providers.FormParamValueParamProvider;
+import io.oigres.sparkjax.jaxrs.providers.HeaderParamValueParamProvider;
+import io.oigres.sparkjax.jaxrs.providers.PathParamValueParamProvider;
+import io.oigres.sparkjax.jaxrs.providers.QueryParamValueParamProvider;
+import io.oigres.sparkjax.jaxrs.providers.SuspendedValueParamProvider;
+import io.oigres.sparkjax.jaxrs.util.FormDecoder;
+import io.oigres.sparkjax.jaxrs.util.PathTemplate;
+import io.oigres.sparkjax.spark.AbstractBodyRoute;
+
+/**
+ * Cost of a single parameter for each {@link io.oigres.sparkjax.jaxrs.ValueParamProvider}, including the 
+ * per request {@link ParameterContext} it reads from, as a route with only that parameter would pay it.
+ *
+ * @author Sergio Exposito
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class ValueParamProviderBenchmark {
+
+	public static class Model {
+		String name;
+		int age;
+	}
+
+	public static class Resource {
+		@Consumes(MediaType.APPLICATION_JSON)
+		public void handle(@PathParam("id") long id, @QueryParam("page") int page, @HeaderParam("x-request-id") String requestId, 
+				@CookieParam("session") String session, @FormParam("name") String name, @BeanParam Model model, 
+				@Suspended AsyncResponse asyncResponse) {
+		}
+	}
+
+	private PathTemplate pathTemplate;
+	private FormDecoder formDecoder;
+	private MockRequest request;
+	private MockRequest formRequest;
+	private MockRequest jsonRequest;
+	private Function<ParameterContext, ?> pathParam;
+	private Function<ParameterContext, ?> queryParam;
+	private Function<ParameterContext, ?> headerParam;
+	private Function<ParameterContext, ?> cookieParam;
+	private Function<ParameterContext, ?> formParam;
+	private Function<ParameterContext, ?> beanParam;
+	private Function<ParameterContext, ?> streamedBeanParam;
+	private Function<ParameterContext, ?> suspended;
+
+	@Setup
+	public void setup() throws Exception {
+		ParamConverterFactory paramConverterFactory = new ParamConverterFactory(
+				Arrays.asList(
+						new DateParamConverterProvider(),
+						new TypeFromStringEnumParamConverterProvider(),
+						new TypeValueOfParamConverterProvider(),
+						new CharacterParamConverterProvider(),
+						new TypeFromStringParamConverterProvider(),
+						new StringParamConverterProvider(),
+						new BeanParamConverterProvider(new Gson())
+					)
+				);
+		ParameterExtractorFactory parameterExtractorFactory = new ParameterExtractorFactory(paramConverterFactory);
+		Method method = Arrays.stream(Resource.class.getMethods()).filter(m -> m.getName().equals("handle")).findFirst().get();
+		Parameter[] parameters = method.getParameters();
+		Annotation[][] annotations = new Annotation[parameters.length][];
+		for (int i=0; i < parameters.length; i++) {
+			annotations[i] = Arrays.copyOf(parameters[i].getDeclaredAnnotations(), parameters[i].getDeclaredAnnotations().length + 1);
+			annotations[i][annotations[i].length - 1] = method.getAnnotation(Consumes.class);
+		}
+		this.pathParam = new PathParamValueParamProvider(parameterExtractorFactory.get(parameters[0], annotations[0], "id")).getValueProvider(parameters[0]);
+		this.queryParam = new QueryParamValueParamProvider(parameterExtractorFactory.get(parameters[1], annotations[1], "page")).getValueProvider(parameters[1]);
+		this.headerParam = new HeaderParamValueParamProvider(parameterExtractorFactory.get(parameters[2], annotations[2], "x-request-id")).getValueProvider(parameters[2]);
+		this.cookieParam = new CookieParamValueParamProvider(parameterExtractorFactory.get(parameters[3], annotations[3], "session")).getValueProvider(parameters[3]);
+		this.formParam = new FormParamValueParamProvider(parameterExtractorFactory.get(parameters[4], annotations[4], "name")).getValueProvider(parameters[4]);
+		this.beanParam = new BeanParamValueParamProvider(parameterExtractorFactory.get(parameters[5], annotations[5], AbstractBodyRoute.BODY_NAME)).getValueProvider(parameters[5]);
+		StreamParamConverter<?> streamParamConverter = (StreamParamConverter<?>)paramConverterFactory.getConverter(parameters[5].getType(), parameters[5].getParameterizedType(), annotations[5]);
+		this.streamedBeanParam = new BeanParamValueParamProvider(parameterExtractorFactory.get(parameters[5], annotations[5], AbstractBodyRoute.BODY_NAME), 
+				streamParamConverter, -1).getValueProvider(parameters[5]);
+		this.suspended = new SuspendedValueParamProvider(30000).getValueProvider(parameters[6]);
+
+		this.pathTemplate = PathTemplate.of("/products/:id");
+		this.formDecoder = new FormDecoder(FormDecoder.DEFAULT_MAX_FIELDS, FormDecoder.DEFAULT_MAX_SIZE);
+		this.request = new MockRequest("GET", "/products/42", "/products/:id")
+				.query("page", "2")
+				.query("size", "20")
+				.header("Accept", MediaType.APPLICATION_JSON)
+				.header("X-Request-Id", "7d444840-9dc0-11d1-b245-5ffdce74fad2")
+				.cookie("session", "a3fWa");
+		this.formRequest = new MockRequest("POST", "/products/42", "/products/:id")
+				.body(MediaType.APPLICATION_FORM_URLENCODED, "name=John+Smith&city=M%C3%A1laga&tag=red&tag=blue");
+		this.jsonRequest = new MockRequest("POST", "/products/42", "/products/:id")
+				.body(MediaType.APPLICATION_JSON, "{\"name\":\"John Smith\",\"age\":42}");
+	}
+
+	private ParameterContext context(MockRequest request) {
+		return new ParameterContext(request, this.pathTemplate, this.formDecoder, null);
+	}
+
+	@Benchmark
+	public Object pathParam() {
+		return this.pathParam.apply(context(this.request));
+	}
+
+	@Benchmark
+	public Object queryParam() {
+		return this.queryParam.apply(context(this.request));
+	}
+
+	@Benchmark
+	public Object headerParam() {
+		return this.headerParam.apply(context(this.request));
+	}
+
+	@Benchmark
+	public Object cookieParam() {
+		return this.cookieParam.apply(context(this.request));
+	}
+
+	@Benchmark
+	public Object formParam() {
+		return this.formParam.apply(context(this.formRequest));
+	}
+
+	@Benchmark
+	public Object beanParam() {
+		return this.beanParam.apply(context(this.jsonRequest));
+	}
+
+	@Benchmark
+	public Object streamedBeanParam() {
+		return this.streamedBeanParam.apply(context(this.jsonRequest));
+	}
+
+	@Benchmark
+	public Object suspended() {
+		return this.suspended.apply(context(this.request));
+	}
+
+}
@@ -16,18 +16,34 @@
 // Copyright (c) 2020-2024 Sergio Exposito.  All rights reserved.
 package io.oigres.sparkjax;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
 import com.google.gson.Gson;
+import com.google.gson.JsonNull;
+import com.google.gson.stream.JsonWriter;
+
+import io.oigres.sparkjax.jaxrs.StreamingResponseTransformer;
+import io.oigres.sparkjax.jaxrs.util.BufferPool;
+import io.oigres.sparkjax.jaxrs.util.PooledBufferedOutputStream;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import spark.ResponseTransformer;
 
 /**
  * @author Sergio Exposito
  */
-public class JsonTransformer implements ResponseTransformer {
+public class JsonTransformer implements StreamingResponseTransformer {
     private static final Logger log = LoggerFactory.getLogger(JsonTransformer.class);
 
+	private static final int BUFFER_SIZE = 8 * 1024;
+	private static final int MAX_POOLED_BUFFERS = 64;
+
 	private Gson mapper;
+	private BufferPool bufferPool = new BufferPool(BUFFER_SIZE, MAX_POOLED_BUFFERS);
 
     public JsonTransformer(Gson mapper) {
 		super();
@@ -43,4 +59,25 @@ public class JsonTransformer implements ResponseTransformer {
         return mapper.toJson(model);
     }
 
-}
\ No newline at end of file
+	/**
+	 * Writes the model as UTF-8 JSON through a pooled buffer, so the rendered document is never held in memory. 
+	 * Unpaired surrogates are written as <code>?</code>.
+	 */
+	@Override
+	public void render(Object model, OutputStream out) throws IOException {
+		try (Writer writer = new OutputStreamWriter(new PooledBufferedOutputStream(out, this.bufferPool), StandardCharsets.UTF_8)) {
+			if (model instanceof String) {
+				writer.write((String)model);
+				return;
+			}
+			JsonWriter jsonWriter = this.mapper.newJsonWriter(writer);
+			if (model == null) {
+				this.mapper.toJson(JsonNull.INSTANCE, jsonWriter);
+			} else {
+				this.mapper.toJson(model, model.getClass(), jsonWriter);
+			}
+			jsonWriter.flush();
+		}
+	}
+
+}
@@ -16,6 +16,7 @@
 // Copyright (c) 2020-2024 Sergio Exposito.  All rights reserved.
 package io.oigres.sparkjax;
 
+import java.lang.annotation.Annotation;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
@@ -29,9 +30,12 @@ import java.util.Objects;
 import java.util.Set;
 import java.util.stream.Collectors;
 
+import javax.validation.Constraint;
+import javax.validation.Valid;
 import javax.validation.Validation;
 import javax.validation.Validator;
 import javax.validation.ValidatorFactory;
+import javax.validation.metadata.MethodDescriptor;
 import javax.ws.rs.Consumes;
 import javax.ws.rs.DELETE;
 import javax.ws.rs.GET;
@@ -57,6 +61,10 @@ import io.oigres.sparkjax.jaxrs.converters.StringParamConverterProvider;
 import io.oigres.sparkjax.jaxrs.converters.TypeFromStringEnumParamConverterProvider;
 import io.oigres.sparkjax.jaxrs.converters.TypeFromStringParamConverterProvider;
 import io.oigres.sparkjax.jaxrs.converters.TypeValueOfParamConverterProvider;
+import io.oigres.sparkjax.metrics.MetricsRegistry;
+import io.oigres.sparkjax.metrics.PrometheusRoute;
+import io.oigres.sparkjax.metrics.SimpleMetricsRegistry;
+import io.oigres.sparkjax.tracing.Tracer;
 import io.oigres.sparkjax.spark.AbstractRoute;
 import io.oigres.sparkjax.spark.DeleteRoute;
 import io.oigres.sparkjax.spark.GetRoute;
@@ -64,6 +72,10 @@ import io.oigres.sparkjax.spark.OptionsRoute;
 import io.oigres.sparkjax.spark.PatchRoute;
 import io.oigres.sparkjax.spark.PostRoute;
 import io.oigres.sparkjax.spark.PutRoute;
+import io.oigres.sparkjax.spark.RequestRecordingFilter;
+import io.oigres.sparkjax.spark.ResourceMethodInvoker;
+import io.oigres.sparkjax.spark.ResourceMethodInvokerFactory;
+import io.oigres.sparkjax.spark.RouteOptions;
 
 import org.apache.bval.jsr.ApacheValidationProvider;
 import org.eclipse.jetty.http.HttpStatus;
@@ -83,14 +95,21 @@ import spark.route.HttpMethod;
 public class RouteBuilder {
 	private static final Logger log = LoggerFactory.getLogger(RouteBuilder.class);
 	private ParameterExtractorFactory parameterExtractorFactory;
-	private ParamConverterProvider paramConverterProvider;
+	private ParamConverterFactory paramConverterFactory;
 	private ResponseTransformerProvider responseTransformerProvider;
 	private MediaType defaultConsumes = MediaType.APPLICATION_JSON_TYPE;
 	private MediaType defaultProduces = MediaType.APPLICATION_JSON_TYPE;
 	private ValidatorFactory validatorFactory;
+	private ResourceMethodInvokerFactory resourceMethodInvokerFactory;
+	private RouteOptions routeOptions;
 
 	public RouteBuilder(Gson requestObjectMapper, ResponseTransformerProvider responseTransformerProvider) {
-		this.paramConverterProvider = new ParamConverterFactory(
+		this(requestObjectMapper, responseTransformerProvider, new RouteOptions());
+	}
+
+	public RouteBuilder(Gson requestObjectMapper, ResponseTransformerProvider responseTransformerProvider, RouteOptions routeOptions) {
+		this.routeOptions = routeOptions;
+		this.paramConverterFactory = new ParamConverterFactory(
 				Arrays.asList(
 						new DateParamConverterProvider(),
 						new TypeFromStringEnumParamConverterProvider(),
@@ -101,28 +120,72 @@ public class RouteBuilder {
 						new BeanParamConverterProvider(requestObjectMapper)
 					)
 				);
-		this.parameterExtractorFactory = new ParameterExtractorFactory(this.paramConverterProvider);
+		this.parameterExtractorFactory = new ParameterExtractorFactory(this.paramConverterFactory);
 		this.responseTransformerProvider = responseTransformerProvider;
 		this.validatorFactory = Validation.byProvider(ApacheValidationProvider.class)
 				.configure()
 				.ignoreXmlConfiguration()
 				.buildValidatorFactory();
+		this.resourceMethodInvokerFactory = new ResourceMethodInvokerFactory();
+	}
+
+	/**
+	 * Registers a converter for parameters of custom types, it is asked before any built-in converter 
+	 * when its priority is lower than {@link ParamConverterFactory#DEFAULT_PRIORITY}.
+	 * 
+	 * @param provider
+	 * @param priority
+	 */
+	public void registerParamConverterProvider(ParamConverterProvider provider, int priority) {
+		this.paramConverterFactory.register(provider, priority);
 	}
 
-	public void setupRoutes(Set<Object> resources) {
-		setupRoutes(resources, false);
+	public ParamConverterFactory getParamConverterFactory() {
+		return this.paramConverterFactory;
 	}
 
-	public void setupRoutes(Set<Object> resources, boolean addDefaultOptionsMethod) {
+	public List<AbstractRoute> setupRoutes(Set<Object> resources) {
+		return setupRoutes(resources, false);
+	}
+
+	public List<AbstractRoute> setupRoutes(Set<Object> resources, boolean addDefaultOptionsMethod) {
 		List<AbstractRoute> routes = resources.stream()
 			.map( resource -> registerEndpoints(resource, this.parameterExtractorFactory, this.responseTransformerProvider) )
 			.flatMap( endpoints -> endpoints.stream() )
 			.collect(Collectors.toList());
+		log.info("Bean Validation enabled on {} of {} routes", routes.stream().filter(AbstractRoute::isValidationEnabled).count(), routes.size());
+		long offloaded = routes.stream().filter(AbstractRoute::isOffloadInvocation).count();
+		if (offloaded > 0) {
+			log.info("Invocation offloaded on {} of {} routes", offloaded, routes.size());
+		}
+		if (this.routeOptions.getMetricsRegistry() != MetricsRegistry.NOOP || this.routeOptions.getTracer() != Tracer.NOOP) {
+			Spark.afterAfter(new RequestRecordingFilter());
+		}
+		if (this.routeOptions.getMetricsPath() != null) {
+			registerMetricsRoute(this.routeOptions.getMetricsPath());
+		}
+		log.debug("Parameter converters cache: {}", this.paramConverterFactory.getStatistics());
 		if (addDefaultOptionsMethod) {
 			registerDefaultOptions(routes);
 		}
+		return routes;
 	}
 	
+	private void registerMetricsRoute(String path) {
+		if (!(this.routeOptions.getMetricsRegistry() instanceof SimpleMetricsRegistry)) {
+			throw new IllegalStateException("Metrics route "+path+" requires a SimpleMetricsRegistry");
+		}
+		log.info("Metrics GET {}", path);
+		Spark.get(path, new PrometheusRoute((SimpleMetricsRegistry)this.routeOptions.getMetricsRegistry()));
+	}
+
+	/**
+	 * Hash code of an annotation with a single <code>value</code> member, as defined by {@link java.lang.annotation.Annotation#hashCode()}.
+	 */
+	private static int annotationHashCode(String[] value) {
+		return (127 * "value".hashCode()) ^ Arrays.hashCode(value);
+	}
+
 	private Consumes getDefaultConsume() {
 		return (Consumes)Proxy.newProxyInstance(getClass().getClassLoader(), new Class[] {Consumes.class}, new InvocationHandler() {
 			@Override 
@@ -132,12 +195,18 @@ public class RouteBuilder {
 				if ("value".equals(method.getName())) {
 					return new String[] {defaultConsumes.toString()};
 				}
-				if ("getClass".equals(method.getName())) {
+				if ("getClass".equals(method.getName()) || "annotationType".equals(method.getName())) {
 					return Consumes.class;
 				}
 				if ("toString".equals(method.getName())) {
 					return String.format("@javax.ws.rs.Consumes(value={\"%s\"})", defaultConsumes.toString());
 				}
+				if ("hashCode".equals(method.getName())) {
+					return annotationHashCode(new String[] {defaultConsumes.toString()});
+				}
+				if ("equals".equals(method.getName())) {
+					return args[0] instanceof Consumes && Arrays.equals(new String[] {defaultConsumes.toString()}, ((Consumes)args[0]).value());
+				}
 				return null;
 			}
 		});
@@ -152,17 +221,71 @@ public class RouteBuilder {
 				if ("value".equals(method.getName())) {
 					return new String[] {defaultProduces.toString()};
 				}
-				if ("getClass".equals(method.getName())) {
+				if ("getClass".equals(method.getName()) || "annotationType".equals(method.getName())) {
 					return Produces.class;
 				}
 				if ("toString".equals(method.getName())) {
 					return String.format("@javax.ws.rs.Produces(value={\"%s\"})", defaultProduces.toString());
 				}
+				if ("hashCode".equals(method.getName())) {
+					return annotationHashCode(new String[] {defaultProduces.toString()});
+				}
+				if ("equals".equals(method.getName())) {
+					return args[0] instanceof Produces && Arrays.equals(new String[] {defaultProduces.toString()}, ((Produces)args[0]).value());
+				}
 				return null;
 			}
 		});
 	}
 	
+	/**
+	 * Returns the validator of a resource method, or null when none of its parameters is constrained 
+	 * nor marked for cascaded validation so the route skips Bean Validation.
+	 * 
+	 * @param resource
+	 * @param method
+	 * @return
+	 */
+	private Validator getValidator(Object resource, Method method) {
+		Validator validator = this.validatorFactory.getValidator();
+		MethodDescriptor methodDescriptor = validator.getConstraintsForClass(resource.getClass())
+				.getConstraintsForMethod(method.getName(), method.getParameterTypes());
+		if (methodDescriptor != null && methodDescriptor.hasConstrainedParameters()) {
+			return validator;
+		}
+		// Constraints declared on a method inherited from an interface are checked on the method itself too
+		for (Annotation[] parameterAnnotations : method.getParameterAnnotations()) {
+			for (Annotation annotation : parameterAnnotations) {
+				if (isConstraint(annotation)) {
+					return validator;
+				}
+			}
+		}
+		for (Annotation annotation : method.getDeclaredAnnotations()) {
+			if (annotation.annotationType().isAnnotationPresent(Constraint.class)) {
+				return validator;
+			}
+		}
+		return null;
+	}
+
+	private boolean isConstraint(Annotation annotation) {
+		Class<? extends Annotation> annotationType = annotation.annotationType();
+		if (Valid.class.equals(annotationType) || annotationType.isAnnotationPresent(Constraint.class)) {
+			return true;
+		}
+		// Repeated constraints, eg. @NotNull.List
+		try {
+			Method value = annotationType.getMethod("value");
+			if (value.getReturnType().isArray() && value.getReturnType().getComponentType().isAnnotation()) {
+				return value.getReturnType().getComponentType().isAnnotationPresent(Constraint.class);
+			}
+		} catch (NoSuchMethodException e) {
+			// Not a container annotation
+		}
+		return false;
+	}
+
 	@SuppressWarnings("unchecked")
     private List<AbstractRoute> registerEndpoints(Object resource, ParameterExtractorFactory parameterExtractorFactory, ResponseTransformerProvider responseTransformerProvider) {
 		String pathPrefix = ReflectionUtils.getAllAnnotations(resource.getClass(), a -> Path.class.isAssignableFrom(a.getClass()))
@@ -207,8 +330,9 @@ public class RouteBuilder {
     			Path p = method.getAnnotation(Path.class);
     			path += p.value();
     		}
-    		Validator validator = this.validatorFactory.getValidator();
-    		return new GetRoute(path, resource, method, defautConsumes, defaultProduces, parameterExtractorFactory, responseTransformerProvider, validator);
+    		Validator validator = getValidator(resource, method);
+    		ResourceMethodInvoker invoker = this.resourceMethodInvokerFactory.bind(resource, method);
+    		return new GetRoute(path, resource, method, invoker, defautConsumes, defaultProduces, parameterExtractorFactory, responseTransformerProvider, validator, this.routeOptions);
     	}).collect(Collectors.toList());
     	return routes;
     }
@@ -224,8 +348,9 @@ public class RouteBuilder {
     			Path p = method.getAnnotation(Path.class);
     			path += p.value();
     		}
-    		Validator validator = this.validatorFactory.getValidator();
-    		return new PostRoute(path, resource, method, defautConsumes, defaultProduces, parameterExtractorFactory, responseTransformerProvider, validator);
+    		Validator validator = getValidator(resource, method);
+    		ResourceMethodInvoker invoker = this.resourceMethodInvokerFactory.bind(resource, method);
+    		return new PostRoute(path, resource, method, invoker, defautConsumes, defaultProduces, parameterExtractorFactory, responseTransformerProvider, validator, this.routeOptions);
     	}).collect(Collectors.toList());
     	return routes;
     }
@@ -241,8 +366,9 @@ public class RouteBuilder {
     			Path p = method.getAnnotation(Path.class);
     			path += p.value();
     		}
-    		Validator validator = this.validatorFactory.getValidator();
-    		return new PutRoute(path, resource, method, defautConsumes, defaultProduces, parameterExtractorFactory, responseTransformerProvider, validator);
+    		Validator validator = getValidator(resource, method);
+    		ResourceMethodInvoker invoker = this.resourceMethodInvokerFactory.bind(resource, method);
+    		return new PutRoute(path, resource, method, invoker, defautConsumes, defaultProduces, parameterExtractorFactory, responseTransformerProvider, validator, this.routeOptions);
     	}).collect(Collectors.toList());
     	return routes;
     }
@@ -258,8 +384,9 @@ public class RouteBuilder {
 				Path p = method.getAnnotation(Path.class);
 				path += p.value();
 			}
-			Validator validator = this.validatorFactory.getValidator();
-			return new PatchRoute(path, resource, method, consumesAnnotationsOnResource, producesAnnotationOnResource, parameterExtractorFactory, responseTransformerProvider, validator);
+			Validator validator = getValidator(resource, method);
+			ResourceMethodInvoker invoker = this.resourceMethodInvokerFactory.bind(resource, method);
+			return new PatchRoute(path, resource, method, invoker, consumesAnnotationsOnResource, producesAnnotationOnResource, parameterExtractorFactory, responseTransformerProvider, validator, this.routeOptions);
 		}).collect(Collectors.toList());
 		return routes;
 
@@ -276,8 +403,9 @@ public class RouteBuilder {
     			Path p = method.getAnnotation(Path.class);
     			path += p.value();
     		}
-    		Validator validator = this.validatorFactory.getValidator();
-    		return new OptionsRoute(path, resource, method, defautConsumes, defaultProduces, parameterExtractorFactory, responseTransformerProvider, validator);
+    		Validator validator = getValidator(resource, method);
+    		ResourceMethodInvoker invoker = this.resourceMethodInvokerFactory.bind(resource, method);
+    		return new OptionsRoute(path, resource, method, invoker, defautConsumes, defaultProduces, parameterExtractorFactory, responseTransformerProvider, validator, this.routeOptions);
     	}).collect(Collectors.toList());
     	return routes;
     }
@@ -293,8 +421,9 @@ public class RouteBuilder {
     			Path p = method.getAnnotation(Path.class);
     			path += p.value();
     		}
-    		Validator validator = this.validatorFactory.getValidator();
-    		return new DeleteRoute(path, resource, method, defautConsumes, defaultProduces, parameterExtractorFactory, responseTransformerProvider, validator);
+    		Validator validator = getValidator(resource, method);
+    		ResourceMethodInvoker invoker = this.resourceMethodInvokerFactory.bind(resource, method);
+    		return new DeleteRoute(path, resource, method, invoker, defautConsumes, defaultProduces, parameterExtractorFactory, responseTransformerProvider, validator, this.routeOptions);
     	}).collect(Collectors.toList());
     	return routes;
     }
@@ -0,0 +1,62 @@
+/**********
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU General Public License as published by the
+ Free Software Foundation; either version 3.0 of the License, or (at your
+ option) any later version. (See <https://www.gnu.org/licenses/gpl-3.0.html>.)
+
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ more details.
+
+ You should have received a copy of the GNU General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301  USA
+ **********/
+// Copyright (c) 2020-2024 Sergio Exposito.  All rights reserved.
+package io.oigres.sparkjax.annotations;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Limits the number of requests in flight of a resource method, or of all the methods of a resource together. 
+ * Requests over the limit wait up to {@link #maxWaitMillis()} and are rejected with 503 afterwards, or right away 
+ * when {@link #maxWaiters()} requests are waiting already.
+ * 
+ * @author Sergio Exposito
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+public @interface Bulkhead {
+
+	/**
+	 * @return maximum number of requests in flight
+	 */
+	int value();
+
+	/**
+	 * @return milliseconds a request over the limit waits for a slot before being rejected
+	 */
+	long maxWaitMillis() default 0;
+
+	/**
+	 * @return maximum number of requests waiting for a slot at the same time, negative for the same as {@link #value()}
+	 */
+	int maxWaiters() default -1;
+
+	/**
+	 * @return seconds sent in the Retry-After header of rejected requests
+	 */
+	int retryAfterSeconds() default 1;
+
+	/**
+	 * @return true to adapt the limit, up to {@link #value()}, to the observed latency
+	 */
+	boolean adaptive() default false;
+
+}
@@ -0,0 +1,77 @@
+/**********
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU General Public License as published by the
+ Free Software Foundation; either version 3.0 of the License, or (at your
+ option) any later version. (See <https://www.gnu.org/licenses/gpl-3.0.html>.)
+
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ more details.
+
+ You should have received a copy of the GNU General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301  USA
+ **********/
+// Copyright (c) 2020-2024 Sergio Exposito.  All rights reserved.
+package io.oigres.sparkjax.annotations;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends the <code>Cache-Control</code> header, and an <code>Expires</code> header for HTTP/1.0 caches when 
+ * <code>maxAge</code> is set, in the successful and 304 responses of a resource method, or of all the GET 
+ * methods of a resource. Negative durations are left out of the header.
+ * 
+ * @author Sergio Exposito
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+public @interface CacheControl {
+
+	/**
+	 * @return time the response is fresh for any cache
+	 */
+	long maxAge() default -1;
+
+	/**
+	 * @return time the response is fresh for shared caches such as CDNs, overriding <code>maxAge</code>
+	 */
+	long sMaxAge() default -1;
+
+	/**
+	 * @return time a stale response may be served while it is revalidated in the background
+	 */
+	long staleWhileRevalidate() default -1;
+
+	TimeUnit unit() default TimeUnit.SECONDS;
+
+	/**
+	 * @return true if the response may be stored by shared caches even when it would not be by default, eg. authenticated requests
+	 */
+	boolean isPublic() default false;
+
+	/**
+	 * @return true if the response may only be stored by the cache of the client
+	 */
+	boolean isPrivate() default false;
+
+	/**
+	 * @return true if caches must revalidate the response before using it
+	 */
+	boolean noCache() default false;
+
+	/**
+	 * @return true if the response must not be stored by any cache, the other directives are ignored
+	 */
+	boolean noStore() default false;
+
+	boolean mustRevalidate() default false;
+
+}
@@ -0,0 +1,65 @@
+/**********
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU General Public License as published by the
+ Free Software Foundation; either version 3.0 of the License, or (at your
+ option) any later version. (See <https://www.gnu.org/licenses/gpl-3.0.html>.)
+
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ more details.
+
+ You should have received a copy of the GNU General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301  USA
+ **********/
+// Copyright (c) 2020-2024 Sergio Exposito.  All rights reserved.
+package io.oigres.sparkjax.annotations;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the rendered responses of a GET resource method, or of all the GET methods of a resource, in a 
+ * {@link io.oigres.sparkjax.cache.ResponseCache}. Responses are keyed by path template, parameter values 
+ * and the values of the given request headers, so parameters must implement <code>equals</code> and 
+ * <code>hashCode</code>. Methods with a parameter that does not, as usual for {@link javax.ws.rs.BeanParam} 
+ * beans, are not cached and a warning is logged. {@link javax.ws.rs.core.Context} and {@link javax.ws.rs.container.Suspended} 
+ * parameters are not part of the key. Headers set by the method while the response is loaded are kept and 
+ * sent again with it, except <code>Set-Cookie</code>.
+ * 
+ * @author Sergio Exposito
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+public @interface Cached {
+
+	/**
+	 * @return time a response is kept
+	 */
+	long ttl();
+
+	TimeUnit unit() default TimeUnit.SECONDS;
+
+	/**
+	 * @return maximum number of responses of the cache
+	 */
+	int maxEntries() default 1000;
+
+	/**
+	 * @return request headers whose values are part of the key, eg. <code>Accept-Language</code>
+	 */
+	String[] headers() default {};
+
+	/**
+	 * @return name of the cache in the {@link io.oigres.sparkjax.cache.ResponseCacheRegistry}, shared by all the 
+	 * routes with the same name. The method and path template of the route by default, eg. <code>GET /products/{id}</code>
+	 */
+	String name() default "";
+
+}
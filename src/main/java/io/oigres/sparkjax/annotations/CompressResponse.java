@@ -0,0 +1,45 @@
+/**********
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU General Public License as published by the
+ Free Software Foundation; either version 3.0 of the License, or (at your
+ option) any later version. (See <https://www.gnu.org/licenses/gpl-3.0.html>.)
+
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ more details.
+
+ You should have received a copy of the GNU General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301  USA
+ **********/
+// Copyright (c) 2020-2024 Sergio Exposito.  All rights reserved.
+package io.oigres.sparkjax.annotations;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Compresses the response of a resource method, or of all the methods of a resource, with the content 
+ * coding negotiated with the <code>Accept-Encoding</code> request header, when the 
+ * {@link javax.ws.rs.Produces} media type is one of the compressible media types of the 
+ * {@link io.oigres.sparkjax.spark.RouteOptions}.
+ * 
+ * @author Sergio Exposito
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+public @interface CompressResponse {
+
+	boolean value() default true;
+
+	/**
+	 * @return size in bytes above which bodies are compressed, negative to use the one of the route options
+	 */
+	int minSize() default -1;
+
+}
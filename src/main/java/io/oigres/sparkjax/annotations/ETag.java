@@ -0,0 +1,45 @@
+/**********
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU General Public License as published by the
+ Free Software Foundation; either version 3.0 of the License, or (at your
+ option) any later version. (See <https://www.gnu.org/licenses/gpl-3.0.html>.)
+
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ more details.
+
+ You should have received a copy of the GNU General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301  USA
+ **********/
+// Copyright (c) 2020-2024 Sergio Exposito.  All rights reserved.
+package io.oigres.sparkjax.annotations;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Sends an entity tag computed from the rendered body in the responses of a GET resource method, or of all 
+ * the GET methods of a resource, and answers 304 without body when it matches the <code>If-None-Match</code> 
+ * request header. The body is rendered anyway, resources able to tell their version without rendering it 
+ * save that work with {@link javax.ws.rs.core.Request#evaluatePreconditions(javax.ws.rs.core.EntityTag)}.
+ * 
+ * @author Sergio Exposito
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+public @interface ETag {
+
+	boolean value() default true;
+
+	/**
+	 * @return false for strong tags, which differ between content codings
+	 */
+	boolean weak() default true;
+
+}
@@ -0,0 +1,98 @@
+/**********
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU General Public License as published by the
+ Free Software Foundation; either version 3.0 of the License, or (at your
+ option) any later version. (See <https://www.gnu.org/licenses/gpl-3.0.html>.)
+
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ more details.
+
+ You should have received a copy of the GNU General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301  USA
+ **********/
+// Copyright (c) 2020-2024 Sergio Exposito.  All rights reserved.
+package io.oigres.sparkjax.cache;
+
+import java.util.Arrays;
+
+/**
+ * Key of a cached response: the path template of the route, the values of the parameters of the 
+ * resource method and the values of the selected request headers.
+ * 
+ * @author Sergio Exposito
+ */
+public final class CacheKey {
+	private final String template;
+	private final Object[] arguments;
+	private final String[] headers;
+	private final int hashCode;
+
+	/**
+	 * @param template JAX-RS path template of the route, eg. <code>/products/{id}</code>
+	 * @param arguments values of the parameters, null for the ones that are not part of the key
+	 * @param headers values of the selected request headers
+	 */
+	public CacheKey(String template, Object[] arguments, String[] headers) {
+		this.template = template;
+		this.arguments = arguments;
+		this.headers = headers;
+		this.hashCode = 31 * (31 * template.hashCode() + Arrays.deepHashCode(arguments)) + Arrays.hashCode(headers);
+	}
+
+	/**
+	 * @return false if the values of the type are compared by identity, as it keeps the <code>equals</code> or 
+	 * <code>hashCode</code> of {@link Object}, so they would never match a key built for another request. Arrays 
+	 * are compared by content, and interfaces can not be told until the actual value is known.
+	 */
+	public static boolean isKeyType(Class<?> type) {
+		if (type.isPrimitive() || type.isArray() || type.isInterface()) {
+			return true;
+		}
+		try {
+			return type.getMethod("equals", Object.class).getDeclaringClass() != Object.class 
+					&& type.getMethod("hashCode").getDeclaringClass() != Object.class;
+		} catch (NoSuchMethodException e) {
+			return false;
+		}
+	}
+
+	public String getTemplate() {
+		return this.template;
+	}
+
+	/**
+	 * @param template
+	 * @param arguments
+	 * @return true if the key is of the given route and parameter values, whatever its header values
+	 */
+	public boolean matches(String template, Object... arguments) {
+		return this.template.equals(template) && Arrays.deepEquals(this.arguments, arguments);
+	}
+
+	@Override
+	public int hashCode() {
+		return this.hashCode;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof CacheKey)) {
+			return false;
+		}
+		CacheKey other = (CacheKey)obj;
+		return this.hashCode == other.hashCode && this.template.equals(other.template) 
+				&& Arrays.deepEquals(this.arguments, other.arguments) && Arrays.equals(this.headers, other.headers);
+	}
+
+	@Override
+	public String toString() {
+		return this.template + " " + Arrays.deepToString(this.arguments) + (this.headers.length > 0 ? " " + Arrays.toString(this.headers) : "");
+	}
+
+}
@@ -0,0 +1,125 @@
+/**********
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU General Public License as published by the
+ Free Software Foundation; either version 3.0 of the License, or (at your
+ option) any later version. (See <https://www.gnu.org/licenses/gpl-3.0.html>.)
+
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ more details.
+
+ You should have received a copy of the GNU General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301  USA
+ **********/
+// Copyright (c) 2020-2024 Sergio Exposito.  All rights reserved.
+package io.oigres.sparkjax.cache;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.ws.rs.core.EntityTag;
+
+import io.oigres.sparkjax.compression.ContentEncoder;
+
+/**
+ * A response body rendered to memory, with the validators and the headers set by the resource method sent along with it. 
+ * Encoded bodies are computed the first time each content coding is asked for and kept afterwards.
+ * 
+ * @author Sergio Exposito
+ */
+public class RenderedResponse {
+	private final byte[] body;
+	private final EntityTag entityTag;
+	private final boolean entityTagPerEncoding;
+	private final String lastModified;
+	private final long expiresAtNanos;
+	private final Map<String, List<String>> headers;
+	private final Map<String, byte[]> encodedBodies = new ConcurrentHashMap<String, byte[]>(4);
+
+	/**
+	 * @param body
+	 * @param entityTag tag of the body, or null
+	 * @param entityTagPerEncoding true if the tag is strong and depends on the content coding
+	 * @param lastModified value of the <code>Last-Modified</code> header, or null
+	 * @param expiresAtNanos {@link System#nanoTime()} when the response expires in a cache
+	 */
+	public RenderedResponse(byte[] body, EntityTag entityTag, boolean entityTagPerEncoding, String lastModified, long expiresAtNanos) {
+		this(body, entityTag, entityTagPerEncoding, lastModified, expiresAtNanos, Collections.emptyMap());
+	}
+
+	/**
+	 * @param body
+	 * @param entityTag tag of the body, or null
+	 * @param entityTagPerEncoding true if the tag is strong and depends on the content coding
+	 * @param lastModified value of the <code>Last-Modified</code> header, or null
+	 * @param expiresAtNanos {@link System#nanoTime()} when the response expires in a cache
+	 * @param headers values of the other response headers set by the resource method, by name
+	 */
+	public RenderedResponse(byte[] body, EntityTag entityTag, boolean entityTagPerEncoding, String lastModified, long expiresAtNanos, 
+			Map<String, List<String>> headers) {
+		this.body = body;
+		this.entityTag = entityTag;
+		this.entityTagPerEncoding = entityTagPerEncoding;
+		this.lastModified = lastModified;
+		this.expiresAtNanos = expiresAtNanos;
+		this.headers = headers;
+	}
+
+	public byte[] getBody() {
+		return this.body;
+	}
+
+	/**
+	 * @return the body encoded with the given content coding
+	 */
+	public byte[] getEncodedBody(ContentEncoder encoder) throws IOException {
+		byte[] encoded = this.encodedBodies.get(encoder.getEncoding());
+		if (encoded == null) {
+			ByteArrayOutputStream out = new ByteArrayOutputStream(this.body.length / 4 + 64);
+			try (OutputStream encoding = encoder.encode(out)) {
+				encoding.write(this.body);
+			}
+			encoded = out.toByteArray();
+			this.encodedBodies.putIfAbsent(encoder.getEncoding(), encoded);
+		}
+		return encoded;
+	}
+
+	public EntityTag getEntityTag() {
+		return this.entityTag;
+	}
+
+	/**
+	 * @param encoder content coding of the response, or null if it is not encoded
+	 * @return the tag of the body sent with the given content coding, or null
+	 */
+	public EntityTag getEntityTag(ContentEncoder encoder) {
+		if (encoder != null && this.entityTagPerEncoding && this.entityTag != null) {
+			return new EntityTag(this.entityTag.getValue() + "-" + encoder.getEncoding());
+		}
+		return this.entityTag;
+	}
+
+	public String getLastModified() {
+		return this.lastModified;
+	}
+
+	/**
+	 * @return values of the response headers set by the resource method, other than the validators, by name
+	 */
+	public Map<String, List<String>> getHeaders() {
+		return this.headers;
+	}
+
+	public boolean isExpired(long nowNanos) {
+		return nowNanos - this.expiresAtNanos >= 0;
+	}
+
+}
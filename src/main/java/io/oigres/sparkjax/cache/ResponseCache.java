@@ -0,0 +1,269 @@
+/**********
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU General Public License as published by the
+ Free Software Foundation; either version 3.0 of the License, or (at your
+ option) any later version. (See <https://www.gnu.org/licenses/gpl-3.0.html>.)
+
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ more details.
+
+ You should have received a copy of the GNU General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301  USA
+ **********/
+// Copyright (c) 2020-2024 Sergio Exposito.  All rights reserved.
+package io.oigres.sparkjax.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+/**
+ * Bounded cache of rendered responses, shared by the routes annotated with the same 
+ * {@link io.oigres.sparkjax.annotations.Cached#name()}.
+ * 
+ * Entries are spread over segments by the hash of their key, each one a least recently used map behind 
+ * its own lock, so requests for different keys seldom contend. Concurrent misses of the same key are 
+ * loaded once, the other requests wait for the response of the first one. Failures are not shared, the 
+ * waiting requests load the response themselves, and so do they when the first load takes longer than 
+ * they may wait, so a hung load does not hold every request for its key.
+ * 
+ * @author Sergio Exposito
+ */
+public class ResponseCache {
+	private static final int MAX_SEGMENTS = 16;
+	private static final int MIN_SEGMENT_SIZE = 16;
+	private static final int EXPIRED_SCAN = 8;
+
+	private final String name;
+	private final int maxEntries;
+	private final Segment[] segments;
+	private final Map<CacheKey, CompletableFuture<RenderedResponse>> loading = new ConcurrentHashMap<CacheKey, CompletableFuture<RenderedResponse>>();
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+
+	/**
+	 * Loads the response of a key missing in the cache.
+	 */
+	@FunctionalInterface
+	public interface Loader {
+		RenderedResponse load() throws Exception;
+	}
+
+	/**
+	 * @param name
+	 * @param maxEntries maximum number of responses kept, the least recently used ones are evicted above it
+	 */
+	public ResponseCache(String name, int maxEntries) {
+		this.name = name;
+		this.maxEntries = maxEntries;
+		int count = 1;
+		while (count < MAX_SEGMENTS && maxEntries / (count * 2) >= MIN_SEGMENT_SIZE) {
+			count *= 2;
+		}
+		this.segments = new Segment[count];
+		int capacity = (maxEntries + count - 1) / count;
+		for (int i=0; i < count; i++) {
+			this.segments[i] = new Segment(capacity);
+		}
+	}
+
+	public String getName() {
+		return this.name;
+	}
+
+	public int getMaxEntries() {
+		return this.maxEntries;
+	}
+
+	/**
+	 * @return the response of the key, or null if it is missing or expired
+	 */
+	public RenderedResponse get(CacheKey key) {
+		Segment segment = segmentFor(key);
+		synchronized (segment) {
+			RenderedResponse response = segment.get(key);
+			if (response != null && response.isExpired(System.nanoTime())) {
+				segment.remove(key);
+				return null;
+			}
+			return response;
+		}
+	}
+
+	/**
+	 * @return the response of the key, loaded and stored if it is missing or expired, waiting as long as it takes 
+	 * for a concurrent load of the same key
+	 */
+	public RenderedResponse get(CacheKey key, Loader loader) throws Exception {
+		return get(key, loader, 0);
+	}
+
+	/**
+	 * @param key
+	 * @param loader
+	 * @param maxWaitNanos time to wait for a concurrent load of the same key before loading the response in place, 
+	 * 0 or less to wait as long as it takes
+	 * @return the response of the key, loaded and stored if it is missing or expired
+	 */
+	public RenderedResponse get(CacheKey key, Loader loader, long maxWaitNanos) throws Exception {
+		RenderedResponse response = get(key);
+		if (response != null) {
+			this.hits.increment();
+			return response;
+		}
+		CompletableFuture<RenderedResponse> future = new CompletableFuture<RenderedResponse>();
+		CompletableFuture<RenderedResponse> loadingFuture = this.loading.putIfAbsent(key, future);
+		if (loadingFuture != null) {
+			try {
+				response = maxWaitNanos > 0 ? loadingFuture.get(maxWaitNanos, TimeUnit.NANOSECONDS) : loadingFuture.get();
+				this.hits.increment();
+				return response;
+			} catch (ExecutionException | TimeoutException e) {
+				this.misses.increment();
+				response = loader.load();
+				put(key, response);
+				return response;
+			}
+		}
+		try {
+			// A load may have been stored after the lookup above, before this one was registered
+			response = get(key);
+			if (response != null) {
+				this.hits.increment();
+				future.complete(response);
+				return response;
+			}
+			this.misses.increment();
+			response = loader.load();
+			put(key, response);
+			future.complete(response);
+			return response;
+		} catch (Exception | Error e) {
+			future.completeExceptionally(e);
+			throw e;
+		} finally {
+			this.loading.remove(key, future);
+		}
+	}
+
+	public void put(CacheKey key, RenderedResponse response) {
+		Segment segment = segmentFor(key);
+		synchronized (segment) {
+			segment.put(key, response);
+		}
+	}
+
+	/**
+	 * Removes the responses of a route for the given parameter values, whatever their header values.
+	 * 
+	 * @param template JAX-RS path template of the route, eg. <code>/products/{id}</code>
+	 * @param arguments values of all the parameters of the resource method, null for the ones that are not part of the key
+	 */
+	public void invalidate(String template, Object... arguments) {
+		invalidateIf(key -> key.matches(template, arguments));
+	}
+
+	public void invalidateIf(Predicate<CacheKey> predicate) {
+		for (Segment segment : this.segments) {
+			synchronized (segment) {
+				segment.keySet().removeIf(predicate);
+			}
+		}
+	}
+
+	public void invalidateAll() {
+		for (Segment segment : this.segments) {
+			synchronized (segment) {
+				segment.clear();
+			}
+		}
+	}
+
+	/**
+	 * @return the number of responses kept, expired ones included until they are asked for or evicted
+	 */
+	public int size() {
+		int size = 0;
+		for (Segment segment : this.segments) {
+			synchronized (segment) {
+				size += segment.size();
+			}
+		}
+		return size;
+	}
+
+	/**
+	 * @return requests answered from the cache, including the ones that waited for a concurrent load
+	 */
+	public long getHits() {
+		return this.hits.sum();
+	}
+
+	/**
+	 * @return requests that loaded the response
+	 */
+	public long getMisses() {
+		return this.misses.sum();
+	}
+
+	/**
+	 * @return responses removed to keep the maximum number of entries
+	 */
+	public long getEvictions() {
+		return this.evictions.sum();
+	}
+
+	private Segment segmentFor(CacheKey key) {
+		int hash = key.hashCode();
+		hash ^= hash >>> 16;
+		return this.segments[hash & (this.segments.length - 1)];
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s size=%d hits=%d misses=%d evictions=%d", this.name, size(), getHits(), getMisses(), getEvictions());
+	}
+
+	/**
+	 * Access ordered map, guarded by its own monitor
+	 */
+	@SuppressWarnings("serial")
+	private class Segment extends LinkedHashMap<CacheKey, RenderedResponse> {
+		private final int capacity;
+
+		Segment(int capacity) {
+			super(16, 0.75f, true);
+			this.capacity = capacity;
+		}
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<CacheKey, RenderedResponse> eldest) {
+			if (size() <= this.capacity) {
+				return false;
+			}
+			// An expired entry among the least recently used ones goes first, it is not counted as an eviction
+			long now = System.nanoTime();
+			Iterator<RenderedResponse> it = values().iterator();
+			for (int i=0; i < EXPIRED_SCAN && it.hasNext(); i++) {
+				if (it.next().isExpired(now)) {
+					it.remove();
+					return false;
+				}
+			}
+			evictions.increment();
+			return true;
+		}
+	}
+
+}
@@ -0,0 +1,63 @@
+/**********
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU General Public License as published by the
+ Free Software Foundation; either version 3.0 of the License, or (at your
+ option) any later version. (See <https://www.gnu.org/licenses/gpl-3.0.html>.)
+
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ more details.
+
+ You should have received a copy of the GNU General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301  USA
+ **********/
+// Copyright (c) 2020-2024 Sergio Exposito.  All rights reserved.
+package io.oigres.sparkjax.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The {@link ResponseCache}s of the routes, by name. Resources invalidate cached responses through it 
+ * when the data they were built from changes.
+ * 
+ * @author Sergio Exposito
+ */
+public class ResponseCacheRegistry {
+	private final Map<String, ResponseCache> caches = new ConcurrentHashMap<String, ResponseCache>();
+
+	/**
+	 * @return the cache with the given name, or null if no route uses it
+	 */
+	public ResponseCache getCache(String name) {
+		return this.caches.get(name);
+	}
+
+	/**
+	 * @param name
+	 * @param maxEntries maximum number of responses of the cache, when it does not exist yet
+	 * @return the cache with the given name, created if it does not exist yet
+	 */
+	public ResponseCache getCache(String name, int maxEntries) {
+		return this.caches.computeIfAbsent(name, n -> new ResponseCache(n, maxEntries));
+	}
+
+	public List<ResponseCache> getCaches() {
+		return new ArrayList<ResponseCache>(this.caches.values());
+	}
+
+	/**
+	 * Removes all the responses of the cache with the given name, if any.
+	 */
+	public void invalidateAll(String name) {
+		ResponseCache cache = this.caches.get(name);
+		if (cache != null) {
+			cache.invalidateAll();
+		}
+	}
+
+}
@@ -0,0 +1,183 @@
+/**********
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU General Public License as published by the
+ Free Software Foundation; either version 3.0 of the License, or (at your
+ option) any later version. (See <https://www.gnu.org/licenses/gpl-3.0.html>.)
+
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ more details.
+
+ You should have received a copy of the GNU General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301  USA
+ **********/
+// Copyright (c) 2020-2024 Sergio Exposito.  All rights reserved.
+package io.oigres.sparkjax.cache;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
+
+import org.eclipse.jetty.http.HttpStatus;
+
+import io.oigres.sparkjax.compression.ContentEncoder;
+import io.oigres.sparkjax.compression.ResponseCompression;
+import io.oigres.sparkjax.jaxrs.util.EntityTags;
+import io.oigres.sparkjax.jaxrs.util.HttpDates;
+import spark.Spark;
+
+/**
+ * Renders the results of a route to memory and writes the rendered responses, compressed if the route
+ * compresses its responses, or answers 304 without body when they match the conditional request headers.
+ *
+ * @author Sergio Exposito
+ */
+public class ResponseRenderer {
+	/**
+	 * Headers that are not kept with a rendered response, either because they are sent from its own fields,
+	 * computed when it is written or, like cookies, specific to the request that rendered it
+	 */
+	private static final Set<String> NOT_STORED_HEADERS = new TreeSet<String>(String.CASE_INSENSITIVE_ORDER);
+	static {
+		NOT_STORED_HEADERS.addAll(Arrays.asList(HttpHeaders.SET_COOKIE, HttpHeaders.ETAG, HttpHeaders.LAST_MODIFIED,
+				HttpHeaders.CONTENT_TYPE, HttpHeaders.CONTENT_LENGTH, HttpHeaders.CONTENT_ENCODING));
+	}
+
+	private final BodyWriter writer;
+	private final ResponseCompression compression;
+	private final boolean generateETags;
+	private final boolean weakETags;
+
+	/**
+	 * Writes the body of a result.
+	 */
+	@FunctionalInterface
+	public interface BodyWriter {
+		void write(Object result, OutputStream out) throws Exception;
+	}
+
+	/**
+	 * @param writer
+	 * @param compression compression of the responses, or null if they are not compressed
+	 * @param generateETags true to tag the responses without entity tag with the hash of their body
+	 * @param weakETags true if the generated tags are weak
+	 */
+	public ResponseRenderer(BodyWriter writer, ResponseCompression compression, boolean generateETags, boolean weakETags) {
+		this.writer = writer;
+		this.compression = compression;
+		this.generateETags = generateETags;
+		this.weakETags = weakETags;
+	}
+
+	/**
+	 * @return the values of the headers of the response, by name, to tell later the ones set by the resource method
+	 */
+	public static Map<String, List<String>> headers(HttpServletResponse raw) {
+		Map<String, List<String>> headers = new TreeMap<String, List<String>>(String.CASE_INSENSITIVE_ORDER);
+		for (String name : raw.getHeaderNames()) {
+			headers.putIfAbsent(name, new ArrayList<String>(raw.getHeaders(name)));
+		}
+		return headers;
+	}
+
+	/**
+	 * Renders the result to memory, along with the validators set by the resource or the entity tag hashed from the body.
+	 */
+	public RenderedResponse render(Object result, HttpServletResponse raw) throws Exception {
+		return render(result, raw, null, 0);
+	}
+
+	/**
+	 * Renders the result to memory, along with the validators and the headers set by the resource method.
+	 *
+	 * @param headersBefore headers of the response before the resource method was invoked, null to keep no header
+	 * @param expiresAtNanos {@link System#nanoTime()} when the response expires in a cache
+	 */
+	public RenderedResponse render(Object result, HttpServletResponse raw, Map<String, List<String>> headersBefore, long expiresAtNanos) throws Exception {
+		ByteArrayOutputStream body = new ByteArrayOutputStream(8 * 1024);
+		this.writer.write(result, body);
+		byte[] bytes = body.toByteArray();
+		EntityTag tag = EntityTags.parse(raw.getHeader(HttpHeaders.ETAG));
+		boolean tagPerEncoding = false;
+		if (tag == null && this.generateETags) {
+			tag = new EntityTag(EntityTags.hash(bytes, 0, bytes.length), this.weakETags);
+			tagPerEncoding = !this.weakETags;
+		}
+		Map<String, List<String>> headers = Collections.emptyMap();
+		if (headersBefore != null) {
+			headers = new LinkedHashMap<String, List<String>>();
+			for (Map.Entry<String, List<String>> header : headers(raw).entrySet()) {
+				if (!NOT_STORED_HEADERS.contains(header.getKey()) && !header.getValue().equals(headersBefore.get(header.getKey()))) {
+					headers.put(header.getKey(), Collections.unmodifiableList(header.getValue()));
+				}
+			}
+			headers = headers.isEmpty() ? Collections.emptyMap() : Collections.unmodifiableMap(headers);
+		}
+		return new RenderedResponse(bytes, tag, tagPerEncoding, raw.getHeader(HttpHeaders.LAST_MODIFIED), expiresAtNanos, headers);
+	}
+
+	/**
+	 * Writes a rendered response with the headers kept along with it. Answers 304 without body when its entity tag
+	 * matches the <code>If-None-Match</code> request header or, without that header, when it was not modified after
+	 * the <code>If-Modified-Since</code> request header.
+	 */
+	public void write(RenderedResponse rendered, HttpServletRequest request, HttpServletResponse raw) throws Exception {
+		for (Map.Entry<String, List<String>> header : rendered.getHeaders().entrySet()) {
+			List<String> values = header.getValue();
+			raw.setHeader(header.getKey(), values.get(0));
+			for (int i=1; i < values.size(); i++) {
+				raw.addHeader(header.getKey(), values.get(i));
+			}
+		}
+		byte[] bytes = rendered.getBody();
+		ContentEncoder encoder = null;
+		if (this.compression != null) {
+			raw.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+			if (bytes.length > this.compression.getMinSize()) {
+				encoder = this.compression.negotiate(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+			}
+		}
+		EntityTag tag = rendered.getEntityTag(encoder);
+		if (tag != null) {
+			raw.setHeader(HttpHeaders.ETAG, EntityTags.toString(tag));
+		}
+		if (rendered.getLastModified() != null) {
+			raw.setHeader(HttpHeaders.LAST_MODIFIED, rendered.getLastModified());
+		}
+		if (!isModified(rendered, tag, request)) {
+			throw Spark.halt(HttpStatus.NOT_MODIFIED_304);
+		}
+		if (encoder != null) {
+			raw.setHeader(HttpHeaders.CONTENT_ENCODING, encoder.getEncoding());
+			bytes = rendered.getEncodedBody(encoder);
+		}
+		raw.setContentLength(bytes.length);
+		raw.getOutputStream().write(bytes);
+	}
+
+	private static boolean isModified(RenderedResponse rendered, EntityTag tag, HttpServletRequest request) {
+		String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+		if (ifNoneMatch != null) {
+			return !EntityTags.matches(ifNoneMatch, tag, false);
+		}
+		long modified = HttpDates.parse(rendered.getLastModified());
+		long modifiedSince = HttpDates.parse(request.getHeader(HttpHeaders.IF_MODIFIED_SINCE));
+		return modified < 0 || modifiedSince < 0 || modified > modifiedSince;
+	}
+
+}
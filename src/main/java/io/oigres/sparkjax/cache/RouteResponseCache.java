@@ -0,0 +1,101 @@
+/**********
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU General Public License as published by the
+ Free Software Foundation; either version 3.0 of the License, or (at your
+ option) any later version. (See <https://www.gnu.org/licenses/gpl-3.0.html>.)
+
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ more details.
+
+ You should have received a copy of the GNU General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301  USA
+ **********/
+// Copyright (c) 2020-2024 Sergio Exposito.  All rights reserved.
+package io.oigres.sparkjax.cache;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.http.HttpServletRequest;
+
+import io.oigres.sparkjax.annotations.Cached;
+import io.oigres.sparkjax.metrics.RouteMetrics;
+
+/**
+ * The responses of a route annotated with {@link Cached} in their {@link ResponseCache}, keyed by the path
+ * template of the route, the values of its key parameters and the values of the selected request headers.
+ *
+ * @author Sergio Exposito
+ */
+public class RouteResponseCache {
+	private final ResponseCache cache;
+	private final String template;
+	private final long ttlNanos;
+	private final long maxWaitNanos;
+	private final String[] headers;
+	private final boolean[] keyArguments;
+	private final RouteMetrics metrics;
+
+	/**
+	 * Renders the response of a key missing in the cache.
+	 */
+	@FunctionalInterface
+	public interface ResponseLoader {
+		RenderedResponse load(long expiresAtNanos) throws Exception;
+	}
+
+	/**
+	 * @param cache
+	 * @param template JAX-RS path template of the route, eg. <code>/products/{id}</code>
+	 * @param cached
+	 * @param keyArguments true for the parameters of the resource method that are part of the key
+	 * @param maxWaitMillis milliseconds a request waits for a concurrent load of its key before loading the response itself
+	 * @param metrics recorder of the cache lookups, or null
+	 */
+	public RouteResponseCache(ResponseCache cache, String template, Cached cached, boolean[] keyArguments, long maxWaitMillis, RouteMetrics metrics) {
+		this.cache = cache;
+		this.template = template;
+		this.ttlNanos = cached.unit().toNanos(cached.ttl());
+		this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+		this.headers = cached.headers();
+		this.keyArguments = keyArguments;
+		this.metrics = metrics;
+	}
+
+	public ResponseCache getCache() {
+		return this.cache;
+	}
+
+	/**
+	 * @return the key of the response for the given parameter values and request
+	 */
+	public CacheKey getKey(Object[] arguments, HttpServletRequest request) {
+		Object[] values = new Object[arguments.length];
+		for (int i=0; i < arguments.length; i++) {
+			values[i] = this.keyArguments[i] ? arguments[i] : null;
+		}
+		String[] headerValues = new String[this.headers.length];
+		for (int i=0; i < headerValues.length; i++) {
+			headerValues[i] = request.getHeader(this.headers[i]);
+		}
+		return new CacheKey(this.template, values, headerValues);
+	}
+
+	/**
+	 * @return the response for the given parameter values and request, loaded and stored if it is missing or expired
+	 */
+	public RenderedResponse get(Object[] arguments, HttpServletRequest request, ResponseLoader loader) throws Exception {
+		boolean[] loaded = new boolean[1];
+		RenderedResponse rendered = this.cache.get(getKey(arguments, request), () -> {
+			loaded[0] = true;
+			return loader.load(System.nanoTime() + this.ttlNanos);
+		}, this.maxWaitNanos);
+		if (this.metrics != null) {
+			this.metrics.recordCacheLookup(!loaded[0]);
+		}
+		return rendered;
+	}
+
+}
@@ -0,0 +1,115 @@
+/**********
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU General Public License as published by the
+ Free Software Foundation; either version 3.0 of the License, or (at your
+ option) any later version. (See <https://www.gnu.org/licenses/gpl-3.0.html>.)
+
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ more details.
+
+ You should have received a copy of the GNU General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301  USA
+ **********/
+// Copyright (c) 2020-2024 Sergio Exposito.  All rights reserved.
+package io.oigres.sparkjax.compression;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import javax.servlet.http.HttpServletResponse;
+import javax.ws.rs.core.HttpHeaders;
+
+/**
+ * Holds the first bytes of the body until they are more than the minimum size. Then the 
+ * <code>Content-Encoding</code> header is set and the rest of the body is compressed as it is written, 
+ * otherwise the body is sent as it is with its <code>Content-Length</code> on close.
+ * 
+ * @author Sergio Exposito
+ */
+class CompressingOutputStream extends OutputStream {
+	private final HttpServletResponse response;
+	private final ContentEncoder encoder;
+	private byte[] buffer;
+	private int count;
+	private OutputStream out;
+	private boolean closed;
+
+	CompressingOutputStream(HttpServletResponse response, ContentEncoder encoder, int minSize) {
+		this.response = response;
+		this.encoder = encoder;
+		this.buffer = new byte[minSize];
+	}
+
+	@Override
+	public void write(int b) throws IOException {
+		ensureOpen();
+		if (this.out == null) {
+			if (this.count < this.buffer.length) {
+				this.buffer[this.count++] = (byte)b;
+				return;
+			}
+			startEncoding();
+		}
+		this.out.write(b);
+	}
+
+	@Override
+	public void write(byte[] b, int off, int len) throws IOException {
+		ensureOpen();
+		if (this.out == null) {
+			if (this.count + len <= this.buffer.length) {
+				System.arraycopy(b, off, this.buffer, this.count, len);
+				this.count += len;
+				return;
+			}
+			startEncoding();
+		}
+		this.out.write(b, off, len);
+	}
+
+	private void startEncoding() throws IOException {
+		this.response.setHeader(HttpHeaders.CONTENT_ENCODING, this.encoder.getEncoding());
+		this.out = this.encoder.encode(new ResponseCompression.UnclosedOutputStream(this.response.getOutputStream()));
+		if (this.count > 0) {
+			this.out.write(this.buffer, 0, this.count);
+		}
+		this.buffer = null;
+	}
+
+	private void ensureOpen() throws IOException {
+		if (this.closed) {
+			throw new IOException("Stream closed");
+		}
+	}
+
+	/**
+	 * Flushes only once the body is being compressed, the held bytes are not sent before knowing if they are compressed.
+	 */
+	@Override
+	public void flush() throws IOException {
+		if (this.out != null) {
+			this.out.flush();
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (this.closed) {
+			return;
+		}
+		this.closed = true;
+		if (this.out != null) {
+			this.out.close();
+			return;
+		}
+		this.response.setContentLength(this.count);
+		OutputStream raw = this.response.getOutputStream();
+		raw.write(this.buffer, 0, this.count);
+		raw.flush();
+		this.buffer = null;
+	}
+
+}
@@ -0,0 +1,42 @@
+/**********
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU General Public License as published by the
+ Free Software Foundation; either version 3.0 of the License, or (at your
+ option) any later version. (See <https://www.gnu.org/licenses/gpl-3.0.html>.)
+
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ more details.
+
+ You should have received a copy of the GNU General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301  USA
+ **********/
+// Copyright (c) 2020-2024 Sergio Exposito.  All rights reserved.
+package io.oigres.sparkjax.compression;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * A content coding of the response body, negotiated with the <code>Accept-Encoding</code> request header. 
+ * Encoders other than {@link GzipContentEncoder} and {@link DeflateContentEncoder}, eg. Brotli from a 
+ * third party library, are added through {@link io.oigres.sparkjax.spark.RouteOptions#setContentEncoders(java.util.List)}.
+ * 
+ * @author Sergio Exposito
+ */
+public interface ContentEncoder {
+
+	/**
+	 * @return the content coding token, sent in the <code>Content-Encoding</code> response header
+	 */
+	String getEncoding();
+
+	/**
+	 * @param out stream receiving the encoded body
+	 * @return the stream the body is written to, closing it finishes the encoding and closes <code>out</code>
+	 */
+	OutputStream encode(OutputStream out) throws IOException;
+
+}
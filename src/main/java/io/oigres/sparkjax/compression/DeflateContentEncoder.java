@@ -0,0 +1,67 @@
+/**********
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU General Public License as published by the
+ Free Software Foundation; either version 3.0 of the License, or (at your
+ option) any later version. (See <https://www.gnu.org/licenses/gpl-3.0.html>.)
+
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ more details.
+
+ You should have received a copy of the GNU General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301  USA
+ **********/
+// Copyright (c) 2020-2024 Sergio Exposito.  All rights reserved.
+package io.oigres.sparkjax.compression;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * The <code>deflate</code> content coding, a zlib stream as required by RFC 9110.
+ * 
+ * @author Sergio Exposito
+ */
+public class DeflateContentEncoder implements ContentEncoder {
+	public static final String ENCODING = "deflate";
+
+	private static final int BUFFER_SIZE = 8 * 1024;
+	private final int level;
+
+	public DeflateContentEncoder() {
+		this(Deflater.DEFAULT_COMPRESSION);
+	}
+
+	/**
+	 * @param level compression level from {@link Deflater#BEST_SPEED} to {@link Deflater#BEST_COMPRESSION}
+	 */
+	public DeflateContentEncoder(int level) {
+		this.level = level;
+	}
+
+	@Override
+	public String getEncoding() {
+		return ENCODING;
+	}
+
+	@Override
+	public OutputStream encode(OutputStream out) throws IOException {
+		Deflater deflater = new Deflater(this.level);
+		return new DeflaterOutputStream(out, deflater, BUFFER_SIZE) {
+			@Override
+			public void close() throws IOException {
+				try {
+					super.close();
+				} finally {
+					// The deflater was not created by the stream, so its native memory is released here
+					deflater.end();
+				}
+			}
+		};
+	}
+
+}
@@ -0,0 +1,136 @@
+/**********
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU General Public License as published by the
+ Free Software Foundation; either version 3.0 of the License, or (at your
+ option) any later version. (See <https://www.gnu.org/licenses/gpl-3.0.html>.)
+
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ more details.
+
+ You should have received a copy of the GNU General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301  USA
+ **********/
+// Copyright (c) 2020-2024 Sergio Exposito.  All rights reserved.
+package io.oigres.sparkjax.compression;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import javax.servlet.http.HttpServletResponse;
+import javax.ws.rs.core.HttpHeaders;
+
+import io.oigres.sparkjax.jaxrs.util.AcceptHeaders;
+
+/**
+ * Compression of the response bodies of a route: negotiates the content coding with the 
+ * <code>Accept-Encoding</code> request header and compresses while the body is written. 
+ * Bodies up to the minimum size are sent as they are.
+ * 
+ * @author Sergio Exposito
+ */
+public class ResponseCompression {
+	private static final String WILDCARD = "*";
+	private static final String X_GZIP = "x-gzip";
+
+	private final ContentEncoder[] encoders;
+	private final int minSize;
+
+	/**
+	 * @param encoders content codings in order of preference
+	 * @param minSize size in bytes above which bodies are compressed
+	 */
+	public ResponseCompression(List<ContentEncoder> encoders, int minSize) {
+		this.encoders = encoders.toArray(new ContentEncoder[encoders.size()]);
+		this.minSize = minSize;
+	}
+
+	public int getMinSize() {
+		return this.minSize;
+	}
+
+	/**
+	 * @param acceptEncoding value of the <code>Accept-Encoding</code> request header
+	 * @return the encoder with the highest quality value, the first one in order of preference among 
+	 * equals, or null if none is acceptable or the header is missing
+	 */
+	public ContentEncoder negotiate(String acceptEncoding) {
+		if (acceptEncoding == null || acceptEncoding.isEmpty()) {
+			return null;
+		}
+		double[] qualities = new double[this.encoders.length];
+		Arrays.fill(qualities, -1);
+		double wildcard = -1;
+		for (String coding : acceptEncoding.split(",")) {
+			int idx = coding.indexOf(';');
+			String name = (idx < 0 ? coding : coding.substring(0, idx)).trim().toLowerCase(Locale.ROOT);
+			double quality = idx < 0 ? 1 : AcceptHeaders.parseQuality(coding.substring(idx+1));
+			if (WILDCARD.equals(name)) {
+				wildcard = quality;
+				continue;
+			}
+			if (X_GZIP.equals(name)) {
+				name = GzipContentEncoder.ENCODING;
+			}
+			for (int i=0; i < this.encoders.length; i++) {
+				if (this.encoders[i].getEncoding().equalsIgnoreCase(name)) {
+					qualities[i] = quality;
+				}
+			}
+		}
+		ContentEncoder selected = null;
+		double selectedQuality = 0;
+		for (int i=0; i < this.encoders.length; i++) {
+			double quality = qualities[i] >= 0 ? qualities[i] : Math.max(wildcard, 0);
+			if (quality > selectedQuality) {
+				selected = this.encoders[i];
+				selectedQuality = quality;
+			}
+		}
+		return selected;
+	}
+
+	/**
+	 * Adds <code>Vary: Accept-Encoding</code> to the response, since its body depends on the header.
+	 * 
+	 * @param acceptEncoding value of the <code>Accept-Encoding</code> request header
+	 * @param response
+	 * @return the stream the body is written to, closing it ends the body but does not close the response output stream
+	 */
+	public OutputStream wrap(String acceptEncoding, HttpServletResponse response) throws IOException {
+		response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+		ContentEncoder encoder = negotiate(acceptEncoding);
+		if (encoder == null) {
+			return new UnclosedOutputStream(response.getOutputStream());
+		}
+		return new CompressingOutputStream(response, encoder, this.minSize);
+	}
+
+	/**
+	 * Leaves the underlying stream open on close, so the response is committed as uncompressed streamed responses are.
+	 */
+	static class UnclosedOutputStream extends FilterOutputStream {
+
+		UnclosedOutputStream(OutputStream out) {
+			super(out);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			this.out.write(b, off, len);
+		}
+
+		@Override
+		public void close() throws IOException {
+			this.out.flush();
+		}
+
+	}
+
+}
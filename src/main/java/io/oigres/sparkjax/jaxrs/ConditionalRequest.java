@@ -0,0 +1,196 @@
+/**********
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU General Public License as published by the
+ Free Software Foundation; either version 3.0 of the License, or (at your
+ option) any later version. (See <https://www.gnu.org/licenses/gpl-3.0.html>.)
+
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ more details.
+
+ You should have received a copy of the GNU General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301  USA
+ **********/
+// Copyright (c) 2020-2024 Sergio Exposito.  All rights reserved.
+package io.oigres.sparkjax.jaxrs;
+
+import java.util.Date;
+import java.util.List;
+import java.util.StringJoiner;
+
+import javax.servlet.http.HttpServletResponse;
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response.ResponseBuilder;
+import javax.ws.rs.core.Variant;
+
+import org.eclipse.jetty.http.HttpStatus;
+
+import io.oigres.sparkjax.jaxrs.util.AcceptHeaders;
+import io.oigres.sparkjax.jaxrs.util.EntityTags;
+import io.oigres.sparkjax.jaxrs.util.HttpDates;
+import spark.Request;
+import spark.Response;
+import spark.Spark;
+
+/**
+ * {@link javax.ws.rs.core.Request} injected in {@link javax.ws.rs.core.Context} parameters.
+ * 
+ * The preconditions of the request are evaluated as defined by RFC 9110. When they fail, the request is 
+ * answered right away with 304 or 412 and the resource method does not go on, so its result is never 
+ * rendered. Otherwise the given validators are sent in the <code>ETag</code> and <code>Last-Modified</code> 
+ * headers and null is returned. Variants are selected with the <code>Accept</code>, <code>Accept-Encoding</code> 
+ * and <code>Accept-Language</code> headers.
+ * 
+ * @author Sergio Exposito
+ */
+public class ConditionalRequest implements javax.ws.rs.core.Request {
+	private static final String WILDCARD = "*";
+
+	private final Request request;
+	private final Response response;
+
+	public ConditionalRequest(Request request, Response response) {
+		this.request = request;
+		this.response = response;
+	}
+
+	@Override
+	public String getMethod() {
+		return this.request.requestMethod();
+	}
+
+	/**
+	 * Selects the variant with the highest product of the quality values of its media type, encoding and language, 
+	 * the first one among equals, and adds the headers it was selected with to the <code>Vary</code> response header.
+	 * 
+	 * @return the selected variant, or null if none is acceptable
+	 */
+	@Override
+	public Variant selectVariant(List<Variant> variants) {
+		if (variants == null || variants.isEmpty()) {
+			throw new IllegalArgumentException("Variants are null or empty");
+		}
+		String accept = this.request.headers(HttpHeaders.ACCEPT);
+		String acceptEncoding = this.request.headers(HttpHeaders.ACCEPT_ENCODING);
+		String acceptLanguage = this.request.headers(HttpHeaders.ACCEPT_LANGUAGE);
+		Variant selected = null;
+		double selectedQuality = 0;
+		boolean mediaTypes = false, encodings = false, languages = false;
+		for (Variant variant : variants) {
+			double quality = 1;
+			if (variant.getMediaType() != null) {
+				quality *= AcceptHeaders.mediaTypeQuality(accept, variant.getMediaType());
+				mediaTypes = true;
+			}
+			if (variant.getEncoding() != null) {
+				quality *= AcceptHeaders.encodingQuality(acceptEncoding, variant.getEncoding());
+				encodings = true;
+			}
+			if (variant.getLanguage() != null) {
+				quality *= AcceptHeaders.languageQuality(acceptLanguage, variant.getLanguage());
+				languages = true;
+			}
+			if (quality > selectedQuality) {
+				selected = variant;
+				selectedQuality = quality;
+			}
+		}
+		StringJoiner vary = new StringJoiner(", ");
+		if (mediaTypes) {
+			vary.add(HttpHeaders.ACCEPT);
+		}
+		if (encodings) {
+			vary.add(HttpHeaders.ACCEPT_ENCODING);
+		}
+		if (languages) {
+			vary.add(HttpHeaders.ACCEPT_LANGUAGE);
+		}
+		if (vary.length() > 0) {
+			this.response.raw().addHeader(HttpHeaders.VARY, vary.toString());
+		}
+		return selected;
+	}
+
+	@Override
+	public ResponseBuilder evaluatePreconditions(EntityTag eTag) {
+		if (eTag == null) {
+			throw new IllegalArgumentException("Entity tag is null");
+		}
+		return evaluate(null, eTag);
+	}
+
+	@Override
+	public ResponseBuilder evaluatePreconditions(Date lastModified) {
+		if (lastModified == null) {
+			throw new IllegalArgumentException("Last modified date is null");
+		}
+		return evaluate(lastModified, null);
+	}
+
+	@Override
+	public ResponseBuilder evaluatePreconditions(Date lastModified, EntityTag eTag) {
+		if (lastModified == null || eTag == null) {
+			throw new IllegalArgumentException("Last modified date or entity tag is null");
+		}
+		return evaluate(lastModified, eTag);
+	}
+
+	/**
+	 * Evaluates the preconditions of a resource without current representation.
+	 */
+	@Override
+	public ResponseBuilder evaluatePreconditions() {
+		if (this.request.headers(HttpHeaders.IF_MATCH) != null) {
+			throw Spark.halt(HttpStatus.PRECONDITION_FAILED_412);
+		}
+		return null;
+	}
+
+	private ResponseBuilder evaluate(Date lastModified, EntityTag eTag) {
+		HttpServletResponse raw = this.response.raw();
+		// HTTP dates have a resolution of seconds
+		long modified = lastModified != null ? lastModified.getTime() / 1000 * 1000 : -1;
+		if (eTag != null) {
+			raw.setHeader(HttpHeaders.ETAG, EntityTags.toString(eTag));
+		}
+		if (lastModified != null) {
+			raw.setHeader(HttpHeaders.LAST_MODIFIED, HttpDates.format(modified));
+		}
+		String ifMatch = this.request.headers(HttpHeaders.IF_MATCH);
+		if (ifMatch != null) {
+			if (!matches(ifMatch, eTag, true)) {
+				throw Spark.halt(HttpStatus.PRECONDITION_FAILED_412);
+			}
+		} else if (modified >= 0) {
+			long unmodifiedSince = HttpDates.parse(this.request.headers(HttpHeaders.IF_UNMODIFIED_SINCE));
+			if (unmodifiedSince >= 0 && modified > unmodifiedSince) {
+				throw Spark.halt(HttpStatus.PRECONDITION_FAILED_412);
+			}
+		}
+		boolean safe = HttpMethod.GET.equalsIgnoreCase(getMethod()) || HttpMethod.HEAD.equalsIgnoreCase(getMethod());
+		String ifNoneMatch = this.request.headers(HttpHeaders.IF_NONE_MATCH);
+		if (ifNoneMatch != null) {
+			if (matches(ifNoneMatch, eTag, false)) {
+				throw Spark.halt(safe ? HttpStatus.NOT_MODIFIED_304 : HttpStatus.PRECONDITION_FAILED_412);
+			}
+		} else if (modified >= 0 && safe) {
+			long modifiedSince = HttpDates.parse(this.request.headers(HttpHeaders.IF_MODIFIED_SINCE));
+			if (modifiedSince >= 0 && modified <= modifiedSince) {
+				throw Spark.halt(HttpStatus.NOT_MODIFIED_304);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * @return true if the header matches the tag, <code>*</code> matches any current representation
+	 */
+	private static boolean matches(String header, EntityTag eTag, boolean strong) {
+		return WILDCARD.equals(header.trim()) || EntityTags.matches(header, eTag, strong);
+	}
+
+}
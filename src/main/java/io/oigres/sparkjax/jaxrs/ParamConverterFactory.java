@@ -18,27 +18,98 @@ package io.oigres.sparkjax.jaxrs;
 
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Type;
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
+import javax.ws.rs.CookieParam;
+import javax.ws.rs.DefaultValue;
+import javax.ws.rs.FormParam;
+import javax.ws.rs.HeaderParam;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.Priorities;
+import javax.ws.rs.QueryParam;
 import javax.ws.rs.ext.ParamConverter;
 import javax.ws.rs.ext.ParamConverterProvider;
 
 /**
+ * Registry of {@link ParamConverterProvider}s.
+ * 
+ * Providers are asked in priority order, lowest value first as in JAX-RS <code>@Priority</code>, and 
+ * in registration order for the same priority. Resolved converters (and misses) are memoized by raw type, 
+ * generic type and the annotations relevant to the conversion, so every distinct parameter shape walks 
+ * the providers only once.
+ * 
  * @author Sergio Exposito
  */
 public class ParamConverterFactory implements ParamConverterProvider {
-    private final List<ParamConverterProvider> converterProviders;
+	public static final int DEFAULT_PRIORITY = Priorities.USER;
+
+	/**
+	 * Annotations whose value only names the parameter, so they do not change the converter to use.
+	 */
+	private static final List<Class<? extends Annotation>> NAMING_ANNOTATIONS = Arrays.asList(
+			PathParam.class, QueryParam.class, HeaderParam.class, CookieParam.class, FormParam.class, DefaultValue.class);
+
+	private final List<RegisteredProvider> converterProviders = new ArrayList<>();
+	private volatile RegisteredProvider[] orderedProviders = new RegisteredProvider[0];
+	private final Map<ConverterKey, Optional<ParamConverter<?>>> converters = new ConcurrentHashMap<>();
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
 
 	public ParamConverterFactory(List<ParamConverterProvider> providers) {
-		this.converterProviders = new LinkedList<>();
-		this.converterProviders.addAll(providers);
+		for (ParamConverterProvider provider : providers) {
+			register(provider, DEFAULT_PRIORITY);
+		}
+	}
+
+	/**
+	 * Registers a provider, it is asked before any provider with a higher priority value.
+	 * 
+	 * @param provider
+	 * @param priority
+	 */
+	public synchronized void register(ParamConverterProvider provider, int priority) {
+		this.converterProviders.add(new RegisteredProvider(provider, priority, this.converterProviders.size()));
+		RegisteredProvider[] ordered = this.converterProviders.toArray(new RegisteredProvider[0]);
+		Arrays.sort(ordered, Comparator.comparingInt((RegisteredProvider p) -> p.priority).thenComparingInt(p -> p.order));
+		this.orderedProviders = ordered;
+		this.converters.clear();
 	}
 
+	public List<ParamConverterProvider> getProviders() {
+		List<ParamConverterProvider> providers = new ArrayList<>();
+		for (RegisteredProvider registered : this.orderedProviders) {
+			providers.add(registered.provider);
+		}
+		return Collections.unmodifiableList(providers);
+	}
+
+	@SuppressWarnings("unchecked")
 	@Override
 	public <T> ParamConverter<T> getConverter(Class<T> rawType, Type genericType, Annotation[] annotations) {
-        for (ParamConverterProvider provider : converterProviders) {
-            ParamConverter<T> converter = provider.getConverter(rawType, genericType, annotations);
+		ConverterKey key = new ConverterKey(rawType, genericType, annotations);
+		Optional<ParamConverter<?>> converter = this.converters.get(key);
+		if (converter != null) {
+			this.hits.increment();
+			return (ParamConverter<T>)converter.orElse(null);
+		}
+		this.misses.increment();
+		converter = Optional.ofNullable(lookup(rawType, genericType, annotations));
+		this.converters.putIfAbsent(key, converter);
+		return (ParamConverter<T>)converter.orElse(null);
+	}
+
+	private <T> ParamConverter<T> lookup(Class<T> rawType, Type genericType, Annotation[] annotations) {
+        for (RegisteredProvider registered : this.orderedProviders) {
+            ParamConverter<T> converter = registered.provider.getConverter(rawType, genericType, annotations);
             if (converter != null) {
                 return converter;
             }
@@ -46,4 +117,91 @@ public class ParamConverterFactory implements ParamConverterProvider {
         return null;
 	}
 
+	public Statistics getStatistics() {
+		return new Statistics(this.hits.sum(), this.misses.sum(), this.converters.size());
+	}
+
+	private static class RegisteredProvider {
+		private final ParamConverterProvider provider;
+		private final int priority;
+		private final int order;
+
+		RegisteredProvider(ParamConverterProvider provider, int priority, int order) {
+			this.provider = provider;
+			this.priority = priority;
+			this.order = order;
+		}
+	}
+
+	private static class ConverterKey {
+		private final Class<?> rawType;
+		private final Type genericType;
+		private final List<Object> annotations;
+		private final int hashCode;
+
+		ConverterKey(Class<?> rawType, Type genericType, Annotation[] annotations) {
+			this.rawType = rawType;
+			this.genericType = genericType;
+			this.annotations = new ArrayList<>(annotations != null ? annotations.length : 0);
+			if (annotations != null) {
+				for (Annotation annotation : annotations) {
+					// Only the kind of a naming annotation matters, not the parameter name
+					this.annotations.add(NAMING_ANNOTATIONS.contains(annotation.annotationType()) ? annotation.annotationType() : annotation);
+				}
+			}
+			this.hashCode = Objects.hash(rawType, genericType, this.annotations);
+		}
+
+		@Override
+		public int hashCode() {
+			return this.hashCode;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof ConverterKey)) {
+				return false;
+			}
+			ConverterKey other = (ConverterKey)obj;
+			return this.rawType == other.rawType 
+					&& Objects.equals(this.genericType, other.genericType) 
+					&& this.annotations.equals(other.annotations);
+		}
+	}
+
+	/**
+	 * Converter cache statistics.
+	 */
+	public static class Statistics {
+		private final long hits;
+		private final long misses;
+		private final int size;
+
+		Statistics(long hits, long misses, int size) {
+			this.hits = hits;
+			this.misses = misses;
+			this.size = size;
+		}
+
+		public long getHits() {
+			return hits;
+		}
+
+		public long getMisses() {
+			return misses;
+		}
+
+		public int getSize() {
+			return size;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("hits=%d, misses=%d, size=%d", this.hits, this.misses, this.size);
+		}
+	}
+
 }
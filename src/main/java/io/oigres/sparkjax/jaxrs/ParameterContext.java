@@ -0,0 +1,310 @@
+/**********
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU General Public License as published by the
+ Free Software Foundation; either version 3.0 of the License, or (at your
+ option) any later version. (See <https://www.gnu.org/licenses/gpl-3.0.html>.)
+
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ more details.
+
+ You should have received a copy of the GNU General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301  USA
+ **********/
+// Copyright (c) 2020-2024 Sergio Exposito.  All rights reserved.
+package io.oigres.sparkjax.jaxrs;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import javax.servlet.MultipartConfigElement;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.Part;
+
+import javax.ws.rs.ProcessingException;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.core.MultivaluedMap;
+
+import io.oigres.sparkjax.jaxrs.util.FormDecoder;
+import io.oigres.sparkjax.jaxrs.util.MediaTypes;
+import io.oigres.sparkjax.jaxrs.util.PathTemplate;
+import spark.Request;
+import spark.Response;
+import spark.Spark;
+
+/**
+ * Parameters of a single request, shared by all {@link ValueParamProvider}s of a route.
+ * 
+ * Every parameter source (query, header, cookie, form and path) is read from the Spark request 
+ * the first time it is asked for and reused afterwards, so its cost does not depend on how many 
+ * parameters of the method are bound to it.
+ * 
+ * @author Sergio Exposito
+ */
+public class ParameterContext {
+	/**
+	 * Request attribute Jetty reads the multipart configuration from, when the servlet does not declare one.
+	 */
+	public static final String MULTIPART_CONFIG_ATTRIBUTE = "org.eclipse.jetty.multipartConfig";
+
+	private static final FormDecoder DEFAULT_FORM_DECODER = new FormDecoder();
+	private static final MultipartConfigElement DEFAULT_MULTIPART_CONFIG = new MultipartConfigElement(System.getProperty("java.io.tmpdir"));
+
+	private final Request request;
+	private Response response;
+	private final PathTemplate pathTemplate;
+	private final FormDecoder formDecoder;
+	private final MultipartConfigElement multipartConfig;
+	private MultivaluedMap<String, String> queryParameters;
+	private MultivaluedMap<String, String> headerParameters;
+	private MultivaluedMap<String, String> cookieParameters;
+	private MultivaluedMap<String, String> formParameters;
+	private MultivaluedMap<String, String> pathParameters;
+	private List<Part> parts;
+	private List<Path> temporaryFiles;
+	private SuspendedResponse suspendedResponse;
+
+	public ParameterContext(Request request) {
+		this(request, null);
+	}
+
+	public ParameterContext(Request request, PathTemplate pathTemplate) {
+		this(request, pathTemplate, null);
+	}
+
+	/**
+	 * @param request
+	 * @param pathTemplate template of the matched route, or null to parse it from the request
+	 * @param formDecoder decoder of the form content when the route has form parameters, null otherwise
+	 */
+	public ParameterContext(Request request, PathTemplate pathTemplate, FormDecoder formDecoder) {
+		this(request, pathTemplate, formDecoder, null);
+	}
+
+	/**
+	 * @param request
+	 * @param pathTemplate template of the matched route, or null to parse it from the request
+	 * @param formDecoder decoder of the form content when the route has form parameters, null otherwise
+	 * @param multipartConfig location and limits of <code>multipart/form-data</code> content, null for the defaults
+	 */
+	public ParameterContext(Request request, PathTemplate pathTemplate, FormDecoder formDecoder, MultipartConfigElement multipartConfig) {
+		this.request = request;
+		this.pathTemplate = pathTemplate;
+		this.formDecoder = formDecoder;
+		this.multipartConfig = multipartConfig;
+	}
+
+	public Request getRequest() {
+		return this.request;
+	}
+
+	/**
+	 * @return the response of the request, or null if the context was created without it
+	 */
+	public Response getResponse() {
+		return this.response;
+	}
+
+	public void setResponse(Response response) {
+		this.response = response;
+	}
+
+	public MultivaluedMap<String, String> getQueryParameters() {
+		if (this.queryParameters == null) {
+			if (this.formDecoder != null && this.formParameters == null 
+					&& MediaTypes.isType(this.request.contentType(), MediaType.APPLICATION_FORM_URLENCODED_TYPE)) {
+				// The servlet container consumes the form content when the query parameters are read
+				getFormParameters();
+			}
+			MultivaluedHashMap<String, String> values = new MultivaluedHashMap<String, String>();
+			for (Map.Entry<String, String[]> entry : this.request.queryMap().toMap().entrySet()) {
+				values.put(entry.getKey(), Arrays.asList( entry.getValue()));
+			}
+			this.queryParameters = values;
+		}
+		return this.queryParameters;
+	}
+
+	public MultivaluedMap<String, String> getHeaderParameters() {
+		if (this.headerParameters == null) {
+			MultivaluedHashMap<String, String> values = new MultivaluedHashMap<String, String>();
+			for (String headerName : this.request.headers()) {
+				String headerValue = this.request.headers(headerName);
+				// Header name is transform to lower case because HTTP specification says that header comparations are in lower case
+				values.put(headerName.toLowerCase(), Arrays.asList( headerValue ));
+			}
+			this.headerParameters = values;
+		}
+		return this.headerParameters;
+	}
+
+	public MultivaluedMap<String, String> getCookieParameters() {
+		if (this.cookieParameters == null) {
+			MultivaluedHashMap<String, String> values = new MultivaluedHashMap<String, String>();
+			for (Map.Entry<String, String> entry : this.request.cookies().entrySet()) {
+				values.put(entry.getKey(), Arrays.asList( entry.getValue()));
+			}
+			this.cookieParameters = values;
+		}
+		return this.cookieParameters;
+	}
+
+	/**
+	 * The form content is decoded from the request stream in a single pass, the first time any form 
+	 * parameter is asked for. The fields of a <code>multipart/form-data</code> request are its parts 
+	 * without file name.
+	 * 
+	 * @return the fields of an <code>application/x-www-form-urlencoded</code> or <code>multipart/form-data</code> request body
+	 */
+	public MultivaluedMap<String, String> getFormParameters() {
+		if (this.formParameters == null) {
+			String contentType = this.request.contentType();
+			FormDecoder decoder = this.formDecoder != null ? this.formDecoder : DEFAULT_FORM_DECODER;
+			if (MediaTypes.isType(contentType, MediaType.MULTIPART_FORM_DATA_TYPE)) {
+				this.formParameters = readTextParts(decoder);
+			} else if (MediaTypes.isType(contentType, MediaType.APPLICATION_FORM_URLENCODED_TYPE)) {
+				try {
+					this.formParameters = decoder.decode(this.request.raw().getInputStream(), MediaTypes.getCharset(contentType));
+				} catch (FormDecoder.LimitExceededException e) {
+					throw Spark.halt(413, e.getMessage());
+				} catch (IOException e) {
+					throw new ProcessingException("Error reading form content", e);
+				}
+			} else {
+				throw Spark.halt(415, "Unsupported body media type: "+contentType);
+			}
+		}
+		return this.formParameters;
+	}
+
+	/**
+	 * Parts are streamed by the servlet container, which keeps them in memory up to the file size threshold 
+	 * of the multipart configuration and spools them to its location above it.
+	 * 
+	 * @param name
+	 * @return the part with the given name of a <code>multipart/form-data</code> request body, or null if there is none
+	 */
+	public Part getPart(String name) {
+		for (Part part : getParts()) {
+			if (part.getName().equals(name)) {
+				return part;
+			}
+		}
+		return null;
+	}
+
+	private List<Part> getParts() {
+		if (this.parts == null) {
+			String contentType = this.request.contentType();
+			if (!MediaTypes.isType(contentType, MediaType.MULTIPART_FORM_DATA_TYPE)) {
+				throw Spark.halt(415, "Unsupported body media type: "+contentType);
+			}
+			HttpServletRequest raw = this.request.raw();
+			raw.setAttribute(MULTIPART_CONFIG_ATTRIBUTE, this.multipartConfig != null ? this.multipartConfig : DEFAULT_MULTIPART_CONFIG);
+			try {
+				this.parts = new ArrayList<Part>(raw.getParts());
+			} catch (IllegalStateException e) {
+				// Servlet containers report a part or request bigger than the configured limits this way
+				throw Spark.halt(413, e.getMessage());
+			} catch (IOException | ServletException e) {
+				throw new ProcessingException("Error reading multipart content", e);
+			}
+		}
+		return this.parts;
+	}
+
+	private MultivaluedMap<String, String> readTextParts(FormDecoder decoder) {
+		MultivaluedHashMap<String, String> values = new MultivaluedHashMap<String, String>();
+		long size = 0;
+		int fields = 0;
+		try {
+			for (Part part : getParts()) {
+				if (part.getSubmittedFileName() != null) {
+					continue;
+				}
+				size += part.getSize();
+				if (decoder.getMaxSize() >= 0 && size > decoder.getMaxSize()) {
+					throw Spark.halt(413, "Form content exceeds the maximum size of "+decoder.getMaxSize()+" bytes");
+				}
+				if (decoder.getMaxFields() >= 0 && ++fields > decoder.getMaxFields()) {
+					throw Spark.halt(413, "Form content exceeds the maximum of "+decoder.getMaxFields()+" fields");
+				}
+				try (InputStream in = part.getInputStream()) {
+					values.add(part.getName(), new String(in.readAllBytes(), MediaTypes.getCharset(part.getContentType())));
+				}
+			}
+		} catch (IOException e) {
+			throw new ProcessingException("Error reading multipart content", e);
+		}
+		return values;
+	}
+
+	/**
+	 * @return the response injected in the {@link javax.ws.rs.container.Suspended} parameter of the method, or null
+	 */
+	public SuspendedResponse getSuspendedResponse() {
+		return this.suspendedResponse;
+	}
+
+	public void setSuspendedResponse(SuspendedResponse suspendedResponse) {
+		this.suspendedResponse = suspendedResponse;
+	}
+
+	/**
+	 * Registers a file created for this request, it is deleted by {@link #release()}.
+	 * 
+	 * @param file
+	 */
+	public void deleteOnRelease(Path file) {
+		if (this.temporaryFiles == null) {
+			this.temporaryFiles = new ArrayList<Path>();
+		}
+		this.temporaryFiles.add(file);
+	}
+
+	/**
+	 * Deletes the files created for this request and the parts spooled by the servlet container. 
+	 * It must be called once the resource method has returned and its result has been written.
+	 */
+	public void release() {
+		if (this.temporaryFiles != null) {
+			for (Path file : this.temporaryFiles) {
+				try {
+					Files.deleteIfExists(file);
+				} catch (IOException e) {
+					file.toFile().deleteOnExit();
+				}
+			}
+			this.temporaryFiles = null;
+		}
+		if (this.parts != null) {
+			for (Part part : this.parts) {
+				try {
+					part.delete();
+				} catch (IOException e) {
+					// The servlet container removes its own files when the request completes
+				}
+			}
+			this.parts = null;
+		}
+	}
+
+	public MultivaluedMap<String, String> getPathParameters() {
+		if (this.pathParameters == null) {
+			PathTemplate template = this.pathTemplate != null ? this.pathTemplate : PathTemplate.of(this.request.matchedPath());
+			this.pathParameters = template.extract(this.request.uri());
+		}
+		return this.pathParameters;
+	}
+
+}
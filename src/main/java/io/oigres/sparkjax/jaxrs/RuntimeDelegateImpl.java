@@ -44,7 +44,7 @@ public class RuntimeDelegateImpl extends RuntimeDelegate {
 
 	@Override
 	public VariantListBuilder createVariantListBuilder() {
-		return null;
+		return new VariantListBuilderImpl();
 	}
 
 	@Override
@@ -0,0 +1,32 @@
+/**********
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU General Public License as published by the
+ Free Software Foundation; either version 3.0 of the License, or (at your
+ option) any later version. (See <https://www.gnu.org/licenses/gpl-3.0.html>.)
+
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ more details.
+
+ You should have received a copy of the GNU General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301  USA
+ **********/
+// Copyright (c) 2020-2024 Sergio Exposito.  All rights reserved.
+package io.oigres.sparkjax.jaxrs;
+
+import java.io.OutputStream;
+
+import spark.ResponseTransformer;
+
+/**
+ * A {@link ResponseTransformer} able to write the model straight to the response output stream.
+ * 
+ * @author Sergio Exposito
+ */
+public interface StreamingResponseTransformer extends ResponseTransformer {
+
+	void render(Object model, OutputStream out) throws Exception;
+
+}
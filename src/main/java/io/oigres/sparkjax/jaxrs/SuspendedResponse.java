@@ -0,0 +1,214 @@
+/**********
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU General Public License as published by the
+ Free Software Foundation; either version 3.0 of the License, or (at your
+ option) any later version. (See <https://www.gnu.org/licenses/gpl-3.0.html>.)
+
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ more details.
+
+ You should have received a copy of the GNU General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301  USA
+ **********/
+// Copyright (c) 2020-2024 Sergio Exposito.  All rights reserved.
+package io.oigres.sparkjax.jaxrs;
+
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import javax.ws.rs.ProcessingException;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.CompletionCallback;
+import javax.ws.rs.container.TimeoutHandler;
+
+/**
+ * {@link AsyncResponse} injected in {@link javax.ws.rs.container.Suspended} parameters.
+ * 
+ * The route renders the response once it is resumed as if it had been returned by the resource method. A cancelled 
+ * or timed out response is answered with 503. The timeout must be positive, a response can not wait without limit. 
+ * Only {@link CompletionCallback}s can be registered.
+ * 
+ * @author Sergio Exposito
+ */
+public class SuspendedResponse implements AsyncResponse {
+	private final CompletableFuture<Object> future = new CompletableFuture<Object>();
+	private final List<CompletionCallback> completionCallbacks = new ArrayList<CompletionCallback>();
+	private volatile long timeoutNanos;
+	private volatile TimeoutHandler timeoutHandler;
+	private volatile String retryAfter;
+	private volatile boolean cancelled;
+
+	/**
+	 * @param timeout
+	 * @param unit
+	 * @throws IllegalArgumentException when the timeout is not positive
+	 */
+	public SuspendedResponse(long timeout, TimeUnit unit) {
+		this.timeoutNanos = toTimeoutNanos(timeout, unit);
+	}
+
+	private static long toTimeoutNanos(long timeout, TimeUnit unit) {
+		if (timeout <= 0) {
+			throw new IllegalArgumentException("timeout must be positive: "+timeout);
+		}
+		return unit.toNanos(timeout);
+	}
+
+	/**
+	 * @return the future completed when the response is resumed or cancelled
+	 */
+	public CompletableFuture<Object> getFuture() {
+		return this.future;
+	}
+
+	/**
+	 * @return the timeout in nanoseconds, it can be changed while the response is suspended
+	 */
+	public long getTimeoutNanos() {
+		return this.timeoutNanos;
+	}
+
+	public TimeoutHandler getTimeoutHandler() {
+		return this.timeoutHandler;
+	}
+
+	/**
+	 * @return the Retry-After header value given when the response was cancelled, or null
+	 */
+	public String getRetryAfter() {
+		return this.retryAfter;
+	}
+
+	@Override
+	public boolean resume(Object response) {
+		return complete(this.future.complete(response), null);
+	}
+
+	@Override
+	public boolean resume(Throwable response) {
+		return complete(this.future.completeExceptionally(response), response);
+	}
+
+	@Override
+	public boolean cancel() {
+		return cancel((String)null);
+	}
+
+	@Override
+	public boolean cancel(int retryAfter) {
+		return cancel(String.valueOf(retryAfter));
+	}
+
+	@Override
+	public boolean cancel(Date retryAfter) {
+		return cancel(DateTimeFormatter.RFC_1123_DATE_TIME.format(retryAfter.toInstant().atOffset(ZoneOffset.UTC)));
+	}
+
+	private boolean cancel(String retryAfter) {
+		if (this.future.isDone()) {
+			return this.future.isCancelled();
+		}
+		this.retryAfter = retryAfter;
+		this.cancelled = this.future.cancel(false);
+		return complete(this.cancelled, null);
+	}
+
+	private boolean complete(boolean completed, Throwable throwable) {
+		if (completed) {
+			List<CompletionCallback> callbacks;
+			synchronized (this.completionCallbacks) {
+				callbacks = new ArrayList<CompletionCallback>(this.completionCallbacks);
+			}
+			for (CompletionCallback callback : callbacks) {
+				callback.onComplete(throwable);
+			}
+		}
+		return completed;
+	}
+
+	@Override
+	public boolean isSuspended() {
+		return !this.future.isDone();
+	}
+
+	@Override
+	public boolean isCancelled() {
+		return this.cancelled;
+	}
+
+	@Override
+	public boolean isDone() {
+		return this.future.isDone();
+	}
+
+	/**
+	 * @throws IllegalArgumentException when the time is not positive
+	 */
+	@Override
+	public boolean setTimeout(long time, TimeUnit unit) {
+		long timeoutNanos = toTimeoutNanos(time, unit);
+		if (this.future.isDone()) {
+			return false;
+		}
+		this.timeoutNanos = timeoutNanos;
+		return true;
+	}
+
+	@Override
+	public void setTimeoutHandler(TimeoutHandler handler) {
+		this.timeoutHandler = handler;
+	}
+
+	@Override
+	public Collection<Class<?>> register(Class<?> callback) {
+		try {
+			return register(callback.getDeclaredConstructor().newInstance());
+		} catch (ReflectiveOperationException e) {
+			throw new ProcessingException("Callback "+callback.getName()+" can not be instantiated", e);
+		}
+	}
+
+	@Override
+	public Map<Class<?>, Collection<Class<?>>> register(Class<?> callback, Class<?>... callbacks) {
+		Map<Class<?>, Collection<Class<?>>> registered = new HashMap<Class<?>, Collection<Class<?>>>();
+		registered.put(callback, register(callback));
+		for (Class<?> other : callbacks) {
+			registered.put(other, register(other));
+		}
+		return registered;
+	}
+
+	@Override
+	public Collection<Class<?>> register(Object callback) {
+		if (callback instanceof CompletionCallback) {
+			synchronized (this.completionCallbacks) {
+				this.completionCallbacks.add((CompletionCallback)callback);
+			}
+			return Collections.singletonList(CompletionCallback.class);
+		}
+		return Collections.emptyList();
+	}
+
+	@Override
+	public Map<Class<?>, Collection<Class<?>>> register(Object callback, Object... callbacks) {
+		Map<Class<?>, Collection<Class<?>>> registered = new HashMap<Class<?>, Collection<Class<?>>>();
+		registered.put(callback.getClass(), register(callback));
+		for (Object other : callbacks) {
+			registered.put(other.getClass(), register(other));
+		}
+		return registered;
+	}
+
+}
@@ -18,13 +18,11 @@ package io.oigres.sparkjax.jaxrs;
 
 import java.util.function.Function;
 
-import spark.Request;
-
 /**
  * @author Sergio Exposito
  */
 public interface ValueParamProvider {
 
-	Function<Request, ?> getValueProvider(Object parameter);
+	Function<ParameterContext, ?> getValueProvider(Object parameter);
 	
 }
@@ -0,0 +1,89 @@
+/**********
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU General Public License as published by the
+ Free Software Foundation; either version 3.0 of the License, or (at your
+ option) any later version. (See <https://www.gnu.org/licenses/gpl-3.0.html>.)
+
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ more details.
+
+ You should have received a copy of the GNU General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301  USA
+ **********/
+// Copyright (c) 2020-2024 Sergio Exposito.  All rights reserved.
+package io.oigres.sparkjax.jaxrs;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Variant;
+import javax.ws.rs.core.Variant.VariantListBuilder;
+
+/**
+ * Builds the variants of every combination of the media types, languages and encodings added since the last 
+ * {@link #add()}, to be passed to {@link ConditionalRequest#selectVariant(List)}.
+ * 
+ * @author Sergio Exposito
+ */
+public class VariantListBuilderImpl extends VariantListBuilder {
+	private final List<Variant> variants = new ArrayList<Variant>();
+	private final List<MediaType> mediaTypes = new ArrayList<MediaType>();
+	private final List<Locale> languages = new ArrayList<Locale>();
+	private final List<String> encodings = new ArrayList<String>();
+
+	@Override
+	public List<Variant> build() {
+		if (!this.mediaTypes.isEmpty() || !this.languages.isEmpty() || !this.encodings.isEmpty()) {
+			add();
+		}
+		List<Variant> result = new ArrayList<Variant>(this.variants);
+		this.variants.clear();
+		return result;
+	}
+
+	@Override
+	public VariantListBuilder add() {
+		List<MediaType> mediaTypes = this.mediaTypes.isEmpty() ? Collections.singletonList(null) : this.mediaTypes;
+		List<Locale> languages = this.languages.isEmpty() ? Collections.singletonList(null) : this.languages;
+		List<String> encodings = this.encodings.isEmpty() ? Collections.singletonList(null) : this.encodings;
+		for (MediaType mediaType : mediaTypes) {
+			for (Locale language : languages) {
+				for (String encoding : encodings) {
+					if (mediaType != null || language != null || encoding != null) {
+						this.variants.add(new Variant(mediaType, language, encoding));
+					}
+				}
+			}
+		}
+		this.mediaTypes.clear();
+		this.languages.clear();
+		this.encodings.clear();
+		return this;
+	}
+
+	@Override
+	public VariantListBuilder languages(Locale... languages) {
+		this.languages.addAll(Arrays.asList(languages));
+		return this;
+	}
+
+	@Override
+	public VariantListBuilder encodings(String... encodings) {
+		this.encodings.addAll(Arrays.asList(encodings));
+		return this;
+	}
+
+	@Override
+	public VariantListBuilder mediaTypes(MediaType... mediaTypes) {
+		this.mediaTypes.addAll(Arrays.asList(mediaTypes));
+		return this;
+	}
+
+}
@@ -16,19 +16,35 @@
 // Copyright (c) 2020-2024 Sergio Exposito.  All rights reserved.
 package io.oigres.sparkjax.jaxrs.converters;
 
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.StringReader;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Type;
+import java.nio.charset.Charset;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Set;
 import java.util.SortedSet;
 
+import javax.ws.rs.BeanParam;
 import javax.ws.rs.Consumes;
+import javax.ws.rs.ProcessingException;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.ext.ParamConverter;
 import javax.ws.rs.ext.ParamConverterProvider;
 
 import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import io.oigres.sparkjax.jaxrs.StreamParamConverter;
 
 /**
  * @author Sergio Exposito
@@ -49,24 +65,76 @@ public class BeanParamConverterProvider implements ParamConverterProvider {
 		return false;
 	}
 	
+	private boolean isBeanParam(Annotation[] annotations) {
+		return Arrays.asList(annotations).stream().anyMatch( a -> BeanParam.class.isAssignableFrom(a.getClass()) );
+	}
+
+	@SuppressWarnings("unchecked")
 	@Override
 	public <T> ParamConverter<T> getConverter(final Class<T> rawType, final Type genericType, final Annotation[] annotations) {
 		Consumes consumes = (Consumes)Arrays.asList(annotations).stream().filter( a -> { return Consumes.class.isAssignableFrom(a.getClass()); } ).findFirst().orElse(null);
 		if (consumes == null || !isCompatibleToAny(consumes.value()) || 
-			rawType == List.class || rawType == Set.class || rawType == SortedSet.class || 
 			rawType == String.class || rawType == Character.class || rawType.isPrimitive()) {
 			return null;
 		}
-        return new AbstractStringReader<T>() {
-        	private Class<T> currentRawType = rawType;
-            @Override
-            protected T _fromString(final String value) throws Exception {
-            	if (value == null || "".equals(value.trim())) {
-            		return null;
-            	}
-				return objectMapper.fromJson(value, this.currentRawType);
-            }
-        };
+		// Collections are bound as a whole only from a body, other parameters convert them item by item
+		if ((rawType == List.class || rawType == Set.class || rawType == SortedSet.class) && !isBeanParam(annotations)) {
+			return null;
+		}
+		// The adapter of the full generic type is resolved once, when the route is created
+		TypeAdapter<T> typeAdapter = (TypeAdapter<T>)this.objectMapper.getAdapter(TypeToken.get(genericType != null ? genericType : rawType));
+		return new JsonBeanConverter<T>(this.objectMapper, typeAdapter);
+	}
+
+	/**
+	 * Converts a JSON body to a bean, either from the buffered body or straight from the request stream.
+	 */
+	static class JsonBeanConverter<T> extends AbstractStringReader<T> implements StreamParamConverter<T> {
+		private final Gson objectMapper;
+		private final TypeAdapter<T> typeAdapter;
+
+		JsonBeanConverter(Gson objectMapper, TypeAdapter<T> typeAdapter) {
+			this.objectMapper = objectMapper;
+			this.typeAdapter = typeAdapter;
+		}
+
+		@Override
+		protected T _fromString(final String value) throws Exception {
+			if (value == null || "".equals(value.trim())) {
+				return null;
+			}
+			try (JsonReader reader = this.objectMapper.newJsonReader(new StringReader(value))) {
+				return read(reader);
+			}
+		}
+
+		@Override
+		public T fromStream(InputStream entityStream, Charset charset) throws IOException {
+			try (JsonReader reader = this.objectMapper.newJsonReader(new InputStreamReader(entityStream, charset))) {
+				return read(reader);
+			} catch (IllegalStateException | JsonParseException ex) {
+				throw new ProcessingException(ex);
+			}
+		}
+
+		/**
+		 * Same leniency and checks as {@link Gson#fromJson(String, Type)}: an empty document is null and 
+		 * trailing content is an error.
+		 */
+		private T read(JsonReader reader) throws IOException {
+			reader.setLenient(true);
+			try {
+				reader.peek();
+			} catch (EOFException ex) {
+				return null;
+			}
+			T value = this.typeAdapter.read(reader);
+			if (reader.peek() != JsonToken.END_DOCUMENT) {
+				throw new JsonSyntaxException("JSON document was not fully consumed.");
+			}
+			return value;
+		}
+
 	}
 
 }
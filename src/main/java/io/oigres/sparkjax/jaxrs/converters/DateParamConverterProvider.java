@@ -19,52 +19,59 @@ package io.oigres.sparkjax.jaxrs.converters;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Type;
 import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.util.Arrays;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZonedDateTime;
 import java.util.Collections;
 import java.util.Date;
-import java.util.List;
-import java.util.Locale;
-import java.util.TimeZone;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
 
 import javax.ws.rs.ProcessingException;
 import javax.ws.rs.ext.ParamConverter;
 import javax.ws.rs.ext.ParamConverterProvider;
 
+import io.oigres.sparkjax.jaxrs.util.HttpDates;
+
 /**
+ * Converts {@link Date} parameters in any of the HTTP date formats (RFC 1123, RFC 1036 and ANSI C asctime) 
+ * and {@link Instant}, {@link LocalDate}, {@link OffsetDateTime} and {@link ZonedDateTime} parameters in ISO format.
+ * 
+ * HTTP dates are parsed by {@link HttpDates}, like the conditional request headers.
+ * 
  * @author Sergio Exposito
  */
 public class DateParamConverterProvider implements ParamConverterProvider {
-    private static final String RFC1123_DATE_FORMAT_PATTERN = "EEE, dd MMM yyyy HH:mm:ss zzz";
-    private static final String RFC1036_DATE_FORMAT_PATTERN = "EEEE, dd-MMM-yy HH:mm:ss zzz";
-    private static final String ANSI_C_ASCTIME_DATE_FORMAT_PATTERN = "EEE MMM d HH:mm:ss yyyy";
-    private static final TimeZone GMT_TIME_ZONE = TimeZone.getTimeZone("GMT");
-
-    private static final ThreadLocal<List<SimpleDateFormat>> dateFormats = new ThreadLocal<List<SimpleDateFormat>>() {
+	private static final Map<Class<?>, Function<String, ?>> ISO_PARSERS = isoParsers();
 
-        @Override
-        protected synchronized List<SimpleDateFormat> initialValue() {
-            return createDateFormats();
-        }
-    };
+	private static Map<Class<?>, Function<String, ?>> isoParsers() {
+		Map<Class<?>, Function<String, ?>> parsers = new HashMap<>();
+		parsers.put(Instant.class, Instant::parse);
+		parsers.put(LocalDate.class, LocalDate::parse);
+		parsers.put(OffsetDateTime.class, OffsetDateTime::parse);
+		parsers.put(ZonedDateTime.class, ZonedDateTime::parse);
+		return Collections.unmodifiableMap(parsers);
+	}
 
-    private static List<SimpleDateFormat> createDateFormats() {
-        final SimpleDateFormat[] formats = new SimpleDateFormat[]{
-            new SimpleDateFormat(RFC1123_DATE_FORMAT_PATTERN, Locale.US),
-            new SimpleDateFormat(RFC1036_DATE_FORMAT_PATTERN, Locale.US),
-            new SimpleDateFormat(ANSI_C_ASCTIME_DATE_FORMAT_PATTERN, Locale.US)
-        };
-        for (SimpleDateFormat sdf : formats) {
-        	sdf.setTimeZone(GMT_TIME_ZONE);
-        }
-        return Collections.unmodifiableList(Arrays.asList(formats));
-    }
-	
 	public DateParamConverterProvider() {
 	}
 
 	@Override
 	public <T> ParamConverter<T> getConverter(Class<T> rawType, Type genericType, Annotation[] annotations) {
+		if (ISO_PARSERS.containsKey(rawType)) {
+			final Function<String, ?> parser = ISO_PARSERS.get(rawType);
+			return new AbstractStringReader<T>() {
+				@Override
+				protected T _fromString(String value) throws Exception {
+					if (value.trim().isEmpty()) {
+						return null;
+					}
+					return rawType.cast(parser.apply(value.trim()));
+				}
+			};
+		}
         return (rawType != Date.class) ? null : new ParamConverter<T>() {
 
             @Override
@@ -73,8 +80,7 @@ public class DateParamConverterProvider implements ParamConverterProvider {
                     throw new IllegalArgumentException("method.parameter.cannot.be.null");
                 }
                 try {
-                	
-                    return rawType.cast(readDate(value));
+                    return rawType.cast(HttpDates.parseDate(value));
                 } catch (final ParseException ex) {
                     throw new ProcessingException(ex);
                 }
@@ -90,19 +96,4 @@ public class DateParamConverterProvider implements ParamConverterProvider {
         };
 	}
 
-    private static Date readDate(final String date) throws ParseException {
-        ParseException pe = null;
-        for (final SimpleDateFormat f : dateFormats.get()) {
-            try {
-                Date result = f.parse(date);
-                // parse can change time zone -> set it back to GMT
-                f.setTimeZone(GMT_TIME_ZONE);
-                return result;
-            } catch (final ParseException e) {
-                pe = (pe == null) ? e : pe;
-            }
-        }
-
-        throw pe;
-    }
 }
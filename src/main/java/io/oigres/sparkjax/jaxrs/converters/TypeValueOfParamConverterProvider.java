@@ -24,6 +24,7 @@ import java.security.AccessController;
 import javax.ws.rs.ext.ParamConverter;
 import javax.ws.rs.ext.ParamConverterProvider;
 
+import io.oigres.sparkjax.jaxrs.util.FromStringFunction;
 import io.oigres.sparkjax.jaxrs.util.ReflectionHelper;
 
 /**
@@ -38,11 +39,15 @@ public class TypeValueOfParamConverterProvider implements ParamConverterProvider
 	public <T> ParamConverter<T> getConverter(Class<T> rawType, Type genericType, Annotation[] annotations) {
         final Method valueOf = AccessController.doPrivileged(ReflectionHelper.getValueOfStringMethodPA(rawType));
 
-        return (valueOf == null) ? null : new AbstractStringReader<T>() {
+        if (valueOf == null) {
+        	return null;
+        }
+        final FromStringFunction function = FromStringFunction.of(valueOf);
+        return new AbstractStringReader<T>() {
 
             @Override
             public T _fromString(final String value) throws Exception {
-                return rawType.cast(valueOf.invoke(null, value));
+                return rawType.cast(function.apply(value));
             }
         };
 	}
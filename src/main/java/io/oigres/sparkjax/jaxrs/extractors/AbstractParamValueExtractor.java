@@ -46,6 +46,10 @@ public abstract class AbstractParamValueExtractor<T> implements ParamValueExtrac
 		return this.defaultValueString;
 	}
 
+	public ParamConverter<T> getParamConverter() {
+		return this.paramConverter;
+	}
+
     protected final T fromString(String value) {
         T result = convert(value);
         if (result == null && isDefaultValueRegistered()) {
@@ -24,12 +24,13 @@ import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.MultivaluedMap;
 
 import io.oigres.sparkjax.jaxrs.ParamValueExtractor;
+import io.oigres.sparkjax.jaxrs.util.FromStringFunction;
 
 /**
  * @author Sergio Exposito
  */
 public class PrimitiveValueOfExtractor implements ParamValueExtractor<Object> {
-    private final Method valueOf;
+    private final FromStringFunction valueOf;
     private final String parameter;
     private final String defaultStringValue;
     private final Object defaultValue;
@@ -37,7 +38,7 @@ public class PrimitiveValueOfExtractor implements ParamValueExtractor<Object> {
 
     public PrimitiveValueOfExtractor(Method valueOf, String parameter,
                                      String defaultStringValue, Object defaultPrimitiveTypeValue) {
-        this.valueOf = valueOf;
+        this.valueOf = FromStringFunction.of(valueOf);
         this.parameter = parameter;
         this.defaultStringValue = defaultStringValue;
         this.defaultValue = (defaultStringValue != null)
@@ -57,7 +58,7 @@ public class PrimitiveValueOfExtractor implements ParamValueExtractor<Object> {
 
     private Object getValue(String v) {
         try {
-            return valueOf.invoke(null, v);
+            return valueOf.apply(v);
         } catch (InvocationTargetException ex) {
             Throwable target = ex.getTargetException();
             if (target instanceof WebApplicationException) {
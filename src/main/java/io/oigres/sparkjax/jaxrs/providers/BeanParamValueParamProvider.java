@@ -16,34 +16,107 @@
 // Copyright (c) 2020-2024 Sergio Exposito.  All rights reserved.
 package io.oigres.sparkjax.jaxrs.providers;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.Arrays;
 import java.util.function.Function;
 
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.ws.rs.ProcessingException;
 import javax.ws.rs.core.MultivaluedHashMap;
 
+import org.eclipse.jetty.http.HttpStatus;
+
 import io.oigres.sparkjax.jaxrs.ParamValueExtractor;
+import io.oigres.sparkjax.jaxrs.ParameterContext;
+import io.oigres.sparkjax.jaxrs.StreamParamConverter;
 import io.oigres.sparkjax.jaxrs.ValueParamProvider;
+import io.oigres.sparkjax.jaxrs.util.LimitedInputStream;
+import io.oigres.sparkjax.jaxrs.util.MediaTypes;
 import io.oigres.sparkjax.spark.AbstractBodyRoute;
 import spark.Request;
+import spark.Spark;
+import spark.embeddedserver.jetty.HttpRequestWrapper;
 
 /**
  * @author Sergio Exposito
  */
 public class BeanParamValueParamProvider implements ValueParamProvider {
 	private ParamValueExtractor<?> paramValueExtractor;
+	private StreamParamConverter<?> streamParamConverter;
+	private long maxBodySize;
 
 	public BeanParamValueParamProvider(ParamValueExtractor<?> paramValueExtractor) {
+		this(paramValueExtractor, null, -1);
+	}
+
+	/**
+	 * @param paramValueExtractor
+	 * @param streamParamConverter when not null the body is read from the request input stream through this converter
+	 * @param maxBodySize maximum size in bytes of a streamed body, or a negative value for no limit
+	 */
+	public BeanParamValueParamProvider(ParamValueExtractor<?> paramValueExtractor, StreamParamConverter<?> streamParamConverter, long maxBodySize) {
 		this.paramValueExtractor = paramValueExtractor;
+		this.streamParamConverter = streamParamConverter;
+		this.maxBodySize = maxBodySize;
 	}
 
 	@Override
-	public Function<Request, ?> getValueProvider(Object parameter) {
-		return request -> {
-			String body = request.body();
+	public Function<ParameterContext, ?> getValueProvider(Object parameter) {
+		if (this.streamParamConverter != null) {
+			return context -> readEntity(context.getRequest());
+		}
+		return context -> {
+			String body = context.getRequest().body();
 			MultivaluedHashMap<String, String> values = new MultivaluedHashMap<String, String>();
 			values.put(AbstractBodyRoute.BODY_NAME, Arrays.asList(body));
 			return this.paramValueExtractor.extract( values );
 		};
 	}
 
+	private Object readEntity(Request request) {
+		if (this.maxBodySize >= 0 && request.contentLength() > this.maxBodySize) {
+			throw payloadTooLarge();
+		}
+		Object value;
+		LimitedInputStream entityStream = null;
+		try {
+			entityStream = new LimitedInputStream(openEntityStream(request.raw()), this.maxBodySize);
+			value = this.streamParamConverter.fromStream(entityStream, MediaTypes.getCharset(request.contentType()));
+		} catch (IOException | RuntimeException ex) {
+			if (entityStream != null && entityStream.isLimitExceeded()) {
+				throw payloadTooLarge();
+			}
+			if (ex instanceof RuntimeException) {
+				throw (RuntimeException)ex;
+			}
+			throw new ProcessingException(ex);
+		}
+		if (value == null) {
+			// Default value, if any
+			return this.paramValueExtractor.extract( new MultivaluedHashMap<String, String>() );
+		}
+		return value;
+	}
+
+	/**
+	 * Spark's Jetty request wrapper buffers the whole body the first time its input stream is asked for, 
+	 * so the container stream is read directly unless someone else has already consumed it.
+	 */
+	private InputStream openEntityStream(HttpServletRequest raw) throws IOException {
+		if (raw instanceof HttpRequestWrapper) {
+			ServletInputStream containerStream = ((HttpRequestWrapper)raw).getRequest().getInputStream();
+			if (!containerStream.isFinished()) {
+				return containerStream;
+			}
+		}
+		return raw.getInputStream();
+	}
+
+
+	private RuntimeException payloadTooLarge() {
+		return Spark.halt(HttpStatus.PAYLOAD_TOO_LARGE_413, "Request body exceeds the maximum size of "+this.maxBodySize+" bytes");
+	}
+
 }
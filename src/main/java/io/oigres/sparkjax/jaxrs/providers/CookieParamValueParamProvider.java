@@ -16,15 +16,11 @@
 // Copyright (c) 2020-2024 Sergio Exposito.  All rights reserved.
 package io.oigres.sparkjax.jaxrs.providers;
 
-import java.util.Arrays;
-import java.util.Map;
 import java.util.function.Function;
 
-import javax.ws.rs.core.MultivaluedHashMap;
-
 import io.oigres.sparkjax.jaxrs.ParamValueExtractor;
+import io.oigres.sparkjax.jaxrs.ParameterContext;
 import io.oigres.sparkjax.jaxrs.ValueParamProvider;
-import spark.Request;
 
 /**
  * @author Sergio Exposito
@@ -37,14 +33,8 @@ public class CookieParamValueParamProvider implements ValueParamProvider {
 	}
 
 	@Override
-	public Function<Request, ?> getValueProvider(Object parameter) {
-		return request -> {
-			MultivaluedHashMap<String, String> values = new MultivaluedHashMap<String, String>();
-			for (Map.Entry<String, String> entry : request.cookies().entrySet()) {
-				values.put(entry.getKey(), Arrays.asList( entry.getValue()));
-			}
-			return this.paramValueExtractor.extract( values );
-		};
+	public Function<ParameterContext, ?> getValueProvider(Object parameter) {
+		return context -> this.paramValueExtractor.extract( context.getCookieParameters() );
 	}
 
 }
@@ -16,15 +16,11 @@
 // Copyright (c) 2020-2024 Sergio Exposito.  All rights reserved.
 package io.oigres.sparkjax.jaxrs.providers;
 
-import java.util.Arrays;
 import java.util.function.Function;
 
-import javax.ws.rs.core.MediaType;
-import javax.ws.rs.core.MultivaluedHashMap;
-
 import io.oigres.sparkjax.jaxrs.ParamValueExtractor;
+import io.oigres.sparkjax.jaxrs.ParameterContext;
 import io.oigres.sparkjax.jaxrs.ValueParamProvider;
-import spark.Request;
 
 /**
  * @author Sergio Exposito
@@ -38,27 +34,8 @@ public class FormParamValueParamProvider implements ValueParamProvider {
 	}
 
 	@Override
-	public Function<Request, ?> getValueProvider(Object param) {
-		return request -> {
-			String contentType = request.contentType();
-			MediaType mediaType = new MediaType(contentType.substring(0, contentType.indexOf("/")), contentType.substring(contentType.indexOf("/")+1));
-			if (mediaType == null || mediaType.isCompatible(MediaType.APPLICATION_FORM_URLENCODED_TYPE)) {
-				throw new RuntimeException("Unsupported body media type: "+contentType);
-			}
-			MultivaluedHashMap<String, String> values = new MultivaluedHashMap<String, String>();
-			String body = request.body();
-			String[] parameters = body.split("&");
-			for (String parameter : parameters) {
-				String[] pair = parameter.split("=");
-				if (pair.length != 2) {
-					throw new RuntimeException();
-				}
-				String parameterName = pair[0];
-				String parameterValue = pair[1];
-				values.put(parameterName, Arrays.asList(parameterValue));
-			}
-			return this.paramValueExtractor.extract( values );
-		};
+	public Function<ParameterContext, ?> getValueProvider(Object param) {
+		return context -> this.paramValueExtractor.extract( context.getFormParameters() );
 	}
 
 }
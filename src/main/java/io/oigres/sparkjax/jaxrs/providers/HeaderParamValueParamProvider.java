@@ -16,14 +16,11 @@
 // Copyright (c) 2020-2024 Sergio Exposito.  All rights reserved.
 package io.oigres.sparkjax.jaxrs.providers;
 
-import java.util.Arrays;
 import java.util.function.Function;
 
-import javax.ws.rs.core.MultivaluedHashMap;
-
 import io.oigres.sparkjax.jaxrs.ParamValueExtractor;
+import io.oigres.sparkjax.jaxrs.ParameterContext;
 import io.oigres.sparkjax.jaxrs.ValueParamProvider;
-import spark.Request;
 
 /**
  * @author Sergio Exposito
@@ -36,16 +33,8 @@ public class HeaderParamValueParamProvider implements ValueParamProvider {
 	}
 
 	@Override
-	public Function<Request, ?> getValueProvider(Object parameter) {
-		return request -> {
-			MultivaluedHashMap<String, String> values = new MultivaluedHashMap<String, String>();
-			for (String headerName : request.headers()) {
-				String headerValue = request.headers(headerName);
-				// Header name is transform to lower case because HTTP specification says that header comparations are in lower case
-				values.put(headerName.toLowerCase(), Arrays.asList( headerValue ));
-			}
-			return this.paramValueExtractor.extract( values );
-		};
+	public Function<ParameterContext, ?> getValueProvider(Object parameter) {
+		return context -> this.paramValueExtractor.extract( context.getHeaderParameters() );
 	}
 
 }
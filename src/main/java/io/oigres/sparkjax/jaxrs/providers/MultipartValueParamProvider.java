@@ -0,0 +1,110 @@
+/**********
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU General Public License as published by the
+ Free Software Foundation; either version 3.0 of the License, or (at your
+ option) any later version. (See <https://www.gnu.org/licenses/gpl-3.0.html>.)
+
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ more details.
+
+ You should have received a copy of the GNU General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301  USA
+ **********/
+// Copyright (c) 2020-2024 Sergio Exposito.  All rights reserved.
+package io.oigres.sparkjax.jaxrs.providers;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.function.Function;
+
+import javax.servlet.http.Part;
+import javax.ws.rs.ProcessingException;
+
+import io.oigres.sparkjax.jaxrs.ParameterContext;
+import io.oigres.sparkjax.jaxrs.ValueParamProvider;
+
+/**
+ * Provides the content of a <code>multipart/form-data</code> part to a {@link javax.ws.rs.FormParam} 
+ * of type {@link InputStream}, <code>byte[]</code>, {@link Path} or {@link Part}.
+ * 
+ * A {@link Path} is a temporary file in the multipart location, deleted once the request has been handled.
+ * 
+ * @author Sergio Exposito
+ */
+public class MultipartValueParamProvider implements ValueParamProvider {
+	private final String name;
+	private final Class<?> type;
+	private final Path location;
+
+	/**
+	 * @param name
+	 * @param type
+	 * @param location directory of the temporary files, or null for the default one
+	 */
+	public MultipartValueParamProvider(String name, Class<?> type, String location) {
+		if (!isSupported(type)) {
+			throw new IllegalArgumentException("Unsupported multipart parameter type: "+type.getName());
+		}
+		this.name = name;
+		this.type = type;
+		this.location = location != null && !location.isEmpty() ? Paths.get(location) : null;
+	}
+
+	public static boolean isSupported(Class<?> type) {
+		return type == InputStream.class || type == byte[].class || type == Path.class || type == Part.class;
+	}
+
+	@Override
+	public Function<ParameterContext, ?> getValueProvider(Object parameter) {
+		if (this.type == Part.class) {
+			return context -> context.getPart(this.name);
+		}
+		if (this.type == InputStream.class) {
+			return context -> {
+				Part part = context.getPart(this.name);
+				try {
+					return part != null ? part.getInputStream() : null;
+				} catch (IOException e) {
+					throw new ProcessingException("Error reading part "+this.name, e);
+				}
+			};
+		}
+		if (this.type == byte[].class) {
+			return context -> {
+				Part part = context.getPart(this.name);
+				if (part == null) {
+					return null;
+				}
+				try (InputStream in = part.getInputStream()) {
+					return in.readAllBytes();
+				} catch (IOException e) {
+					throw new ProcessingException("Error reading part "+this.name, e);
+				}
+			};
+		}
+		return context -> {
+			Part part = context.getPart(this.name);
+			if (part == null) {
+				return null;
+			}
+			try (InputStream in = part.getInputStream()) {
+				Path file = this.location != null 
+						? Files.createTempFile(this.location, "sparkjax-", ".part") 
+						: Files.createTempFile("sparkjax-", ".part");
+				context.deleteOnRelease(file);
+				Files.copy(in, file, StandardCopyOption.REPLACE_EXISTING);
+				return file;
+			} catch (IOException e) {
+				throw new ProcessingException("Error reading part "+this.name, e);
+			}
+		};
+	}
+
+}
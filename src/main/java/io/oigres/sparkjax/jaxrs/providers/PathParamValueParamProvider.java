@@ -16,19 +16,11 @@
 // Copyright (c) 2020-2024 Sergio Exposito.  All rights reserved.
 package io.oigres.sparkjax.jaxrs.providers;
 
-import java.util.Arrays;
-import java.util.List;
-import java.util.Map;
-import java.util.Set;
 import java.util.function.Function;
-import java.util.stream.Collectors;
-
-import javax.ws.rs.core.MultivaluedHashMap;
 
 import io.oigres.sparkjax.jaxrs.ParamValueExtractor;
+import io.oigres.sparkjax.jaxrs.ParameterContext;
 import io.oigres.sparkjax.jaxrs.ValueParamProvider;
-import spark.Request;
-import spark.utils.SparkUtils;
 
 /**
  * @author Sergio Exposito
@@ -40,30 +32,9 @@ public class PathParamValueParamProvider implements ValueParamProvider {
 		this.paramValueExtractor = paramValueExtractor;
 	}
 
-	private String spark2JaxRsPathParameterName(String parameterName) {
-		return parameterName.replace(":", "");
-	}
-
-	private String resolveRealPathParameterName(Set<String> pathParameters, String parameterName) {
-		// Spark is applying lowerCase when it processes path parameters (only for path parameters) so it's checked if spark parameter matches with reparsed url parameters.
-		return pathParameters.stream().filter(p -> p.equalsIgnoreCase(parameterName)).findAny().orElse(parameterName);
-	}
-
 	@Override
-	public Function<Request, ?> getValueProvider(Object parameter) {
-		return request -> {
-			MultivaluedHashMap<String, String> values = new MultivaluedHashMap<String, String>();
-			Map<String, String> requestParams = request.params();
-			// Spark is applying lowerCase when it processes path parameters (only for path parameters) on method request.params(). 
-			// So path parameters are parsed again here.
-			List<String> matchedList = SparkUtils.convertRouteToList(request.matchedPath());
-			Set<String> pathParameters = matchedList.stream().filter(p -> SparkUtils.isParam(p)).collect(Collectors.toSet());
-			for (Map.Entry<String, String> entry : requestParams.entrySet()) {
-				String sparkPathParameterName = entry.getKey();
-				values.put(spark2JaxRsPathParameterName(resolveRealPathParameterName(pathParameters, sparkPathParameterName)), Arrays.asList( entry.getValue()));
-			}
-			return this.paramValueExtractor.extract( values );
-		};
+	public Function<ParameterContext, ?> getValueProvider(Object parameter) {
+		return context -> this.paramValueExtractor.extract( context.getPathParameters() );
 	}
 
 }
@@ -0,0 +1,51 @@
+/**********
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU General Public License as published by the
+ Free Software Foundation; either version 3.0 of the License, or (at your
+ option) any later version. (See <https://www.gnu.org/licenses/gpl-3.0.html>.)
+
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ more details.
+
+ You should have received a copy of the GNU General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301  USA
+ **********/
+// Copyright (c) 2020-2024 Sergio Exposito.  All rights reserved.
+package io.oigres.sparkjax.jaxrs.providers;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import io.oigres.sparkjax.jaxrs.ParameterContext;
+import io.oigres.sparkjax.jaxrs.SuspendedResponse;
+import io.oigres.sparkjax.jaxrs.ValueParamProvider;
+
+/**
+ * Provides a new {@link SuspendedResponse} to a {@link javax.ws.rs.container.Suspended} parameter.
+ * 
+ * @author Sergio Exposito
+ */
+public class SuspendedValueParamProvider implements ValueParamProvider {
+	private final long timeoutMillis;
+
+	/**
+	 * @param timeoutMillis initial timeout of the responses, it must be positive
+	 */
+	public SuspendedValueParamProvider(long timeoutMillis) {
+		super();
+		this.timeoutMillis = timeoutMillis;
+	}
+
+	@Override
+	public Function<ParameterContext, ?> getValueProvider(Object parameter) {
+		return context -> {
+			SuspendedResponse suspendedResponse = new SuspendedResponse(this.timeoutMillis, TimeUnit.MILLISECONDS);
+			context.setSuspendedResponse(suspendedResponse);
+			return suspendedResponse;
+		};
+	}
+
+}
@@ -0,0 +1,149 @@
+/**********
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU General Public License as published by the
+ Free Software Foundation; either version 3.0 of the License, or (at your
+ option) any later version. (See <https://www.gnu.org/licenses/gpl-3.0.html>.)
+
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ more details.
+
+ You should have received a copy of the GNU General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301  USA
+ **********/
+// Copyright (c) 2020-2024 Sergio Exposito.  All rights reserved.
+package io.oigres.sparkjax.jaxrs.util;
+
+import java.util.Locale;
+
+import javax.ws.rs.core.MediaType;
+
+/**
+ * Quality values of the proactive negotiation headers <code>Accept</code>, <code>Accept-Encoding</code> and
+ * <code>Accept-Language</code> as defined by RFC 9110. The most specific range matching a value gives its quality.
+ *
+ * @author Sergio Exposito
+ */
+public final class AcceptHeaders {
+	private static final String WILDCARD = "*";
+	private static final String IDENTITY = "identity";
+
+	private AcceptHeaders() {
+	}
+
+	/**
+	 * @param accept value of the <code>Accept</code> request header, or null
+	 * @return the quality of the media type, 1 if the header is missing and 0 if the type is not acceptable
+	 */
+	public static double mediaTypeQuality(String accept, MediaType mediaType) {
+		if (accept == null || accept.trim().isEmpty()) {
+			return 1;
+		}
+		double quality = 0;
+		int specificity = -1;
+		for (String range : accept.split(",")) {
+			int idx = range.indexOf(';');
+			String name = (idx < 0 ? range : range.substring(0, idx)).trim();
+			int slash = name.indexOf('/');
+			if (slash < 0) {
+				continue;
+			}
+			String type = name.substring(0, slash).trim();
+			String subtype = name.substring(slash+1).trim();
+			int rangeSpecificity;
+			if (WILDCARD.equals(type)) {
+				rangeSpecificity = 0;
+			} else if (!type.equalsIgnoreCase(mediaType.getType())) {
+				continue;
+			} else if (WILDCARD.equals(subtype)) {
+				rangeSpecificity = 1;
+			} else if (subtype.equalsIgnoreCase(mediaType.getSubtype())) {
+				rangeSpecificity = 2;
+			} else {
+				continue;
+			}
+			if (rangeSpecificity > specificity) {
+				specificity = rangeSpecificity;
+				quality = idx < 0 ? 1 : parseQuality(range.substring(idx+1));
+			}
+		}
+		return quality;
+	}
+
+	/**
+	 * @param acceptEncoding value of the <code>Accept-Encoding</code> request header, or null
+	 * @return the quality of the content coding, 1 if the header is missing and 0 if the coding is not acceptable.
+	 * <code>identity</code> is acceptable unless it is excluded.
+	 */
+	public static double encodingQuality(String acceptEncoding, String encoding) {
+		if (acceptEncoding == null) {
+			return 1;
+		}
+		double quality = IDENTITY.equalsIgnoreCase(encoding) ? 1 : 0;
+		boolean specific = false;
+		for (String coding : acceptEncoding.split(",")) {
+			int idx = coding.indexOf(';');
+			String name = (idx < 0 ? coding : coding.substring(0, idx)).trim();
+			if (name.equalsIgnoreCase(encoding)) {
+				quality = idx < 0 ? 1 : parseQuality(coding.substring(idx+1));
+				specific = true;
+			} else if (WILDCARD.equals(name) && !specific) {
+				quality = idx < 0 ? 1 : parseQuality(coding.substring(idx+1));
+			}
+		}
+		return quality;
+	}
+
+	/**
+	 * @param acceptLanguage value of the <code>Accept-Language</code> request header, or null
+	 * @return the quality of the language, 1 if the header is missing and 0 if the language is not acceptable
+	 */
+	public static double languageQuality(String acceptLanguage, Locale language) {
+		if (acceptLanguage == null || acceptLanguage.trim().isEmpty()) {
+			return 1;
+		}
+		String tag = language.toLanguageTag();
+		double quality = 0;
+		int specificity = -1;
+		for (String range : acceptLanguage.split(",")) {
+			int idx = range.indexOf(';');
+			String name = (idx < 0 ? range : range.substring(0, idx)).trim();
+			int rangeSpecificity;
+			if (WILDCARD.equals(name)) {
+				rangeSpecificity = 0;
+			} else if (name.equalsIgnoreCase(tag)
+					|| (tag.length() > name.length() && tag.regionMatches(true, 0, name, 0, name.length()) && tag.charAt(name.length()) == '-')) {
+				rangeSpecificity = name.length();
+			} else {
+				continue;
+			}
+			if (rangeSpecificity > specificity) {
+				specificity = rangeSpecificity;
+				quality = idx < 0 ? 1 : parseQuality(range.substring(idx+1));
+			}
+		}
+		return quality;
+	}
+
+	/**
+	 * @param parameters parameters of a range, after its first <code>;</code>
+	 * @return the <code>q</code> parameter, 1 if it is missing and 0 if it is not a valid quality value
+	 */
+	public static double parseQuality(String parameters) {
+		for (String parameter : parameters.split(";")) {
+			int idx = parameter.indexOf('=');
+			if (idx > 0 && "q".equalsIgnoreCase(parameter.substring(0, idx).trim())) {
+				try {
+					double quality = Double.parseDouble(parameter.substring(idx+1).trim());
+					return quality >= 0 && quality <= 1 ? quality : 0;
+				} catch (NumberFormatException e) {
+					return 0;
+				}
+			}
+		}
+		return 1;
+	}
+
+}
@@ -0,0 +1,66 @@
+/**********
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU General Public License as published by the
+ Free Software Foundation; either version 3.0 of the License, or (at your
+ option) any later version. (See <https://www.gnu.org/licenses/gpl-3.0.html>.)
+
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ more details.
+
+ You should have received a copy of the GNU General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301  USA
+ **********/
+// Copyright (c) 2020-2024 Sergio Exposito.  All rights reserved.
+package io.oigres.sparkjax.jaxrs.util;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded pool of reusable byte buffers of a fixed size.
+ * 
+ * Buffers are allocated on demand when the pool is empty and only up to <code>maxRetained</code> of them 
+ * are kept when they are released, so the pool never holds more than <code>maxRetained * bufferSize</code> bytes.
+ * 
+ * @author Sergio Exposito
+ */
+public class BufferPool {
+	private final int bufferSize;
+	private final int maxRetained;
+	private final Queue<byte[]> buffers = new ConcurrentLinkedQueue<byte[]>();
+	private final AtomicInteger retained = new AtomicInteger();
+
+	public BufferPool(int bufferSize, int maxRetained) {
+		this.bufferSize = bufferSize;
+		this.maxRetained = maxRetained;
+	}
+
+	public int getBufferSize() {
+		return this.bufferSize;
+	}
+
+	public byte[] acquire() {
+		byte[] buffer = this.buffers.poll();
+		if (buffer == null) {
+			return new byte[this.bufferSize];
+		}
+		this.retained.decrementAndGet();
+		return buffer;
+	}
+
+	public void release(byte[] buffer) {
+		if (buffer == null || buffer.length != this.bufferSize) {
+			return;
+		}
+		if (this.retained.incrementAndGet() <= this.maxRetained) {
+			this.buffers.offer(buffer);
+		} else {
+			this.retained.decrementAndGet();
+		}
+	}
+
+}
@@ -0,0 +1,110 @@
+/**********
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU General Public License as published by the
+ Free Software Foundation; either version 3.0 of the License, or (at your
+ option) any later version. (See <https://www.gnu.org/licenses/gpl-3.0.html>.)
+
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ more details.
+
+ You should have received a copy of the GNU General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301  USA
+ **********/
+// Copyright (c) 2020-2024 Sergio Exposito.  All rights reserved.
+package io.oigres.sparkjax.jaxrs.util;
+
+import javax.ws.rs.core.EntityTag;
+
+/**
+ * Generation, formatting and comparison of entity tags as defined by RFC 9110.
+ * 
+ * @author Sergio Exposito
+ */
+public final class EntityTags {
+	private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+	private static final long FNV_PRIME = 0x100000001b3L;
+	private static final String WEAK_PREFIX = "W/";
+	private static final String WILDCARD = "*";
+
+	private EntityTags() {
+	}
+
+	/**
+	 * @return the 64 bits FNV-1a hash of the bytes, in hexadecimal
+	 */
+	public static String hash(byte[] bytes, int offset, int length) {
+		long hash = FNV_OFFSET_BASIS;
+		for (int i=offset; i < offset + length; i++) {
+			hash ^= bytes[i] & 0xff;
+			hash *= FNV_PRIME;
+		}
+		String hex = Long.toHexString(hash);
+		return hex.length() == 16 ? hex : "0000000000000000".substring(hex.length()) + hex;
+	}
+
+	/**
+	 * @return the value of the <code>ETag</code> header of the tag
+	 */
+	public static String toString(EntityTag tag) {
+		return (tag.isWeak() ? WEAK_PREFIX : "") + "\"" + tag.getValue() + "\"";
+	}
+
+	/**
+	 * @return the tag of an <code>ETag</code> header value, or null if it is not a valid tag
+	 */
+	public static EntityTag parse(String header) {
+		if (header == null) {
+			return null;
+		}
+		String value = header.trim();
+		boolean weak = value.regionMatches(true, 0, WEAK_PREFIX, 0, 2);
+		if (weak) {
+			value = value.substring(2);
+		}
+		if (value.length() < 2 || value.charAt(0) != '"' || value.charAt(value.length() - 1) != '"') {
+			return null;
+		}
+		return new EntityTag(value.substring(1, value.length() - 1), weak);
+	}
+
+	/**
+	 * @param header value of an <code>If-Match</code> or <code>If-None-Match</code> header, a list of tags or <code>*</code>
+	 * @param tag current tag of the resource, null if it has no current representation
+	 * @param strong true for the strong comparison of <code>If-Match</code>, where weak tags never match, 
+	 * false for the weak comparison of <code>If-None-Match</code>
+	 * @return true if any tag of the header matches the given one
+	 */
+	public static boolean matches(String header, EntityTag tag, boolean strong) {
+		if (tag == null) {
+			return false;
+		}
+		if (WILDCARD.equals(header.trim())) {
+			return true;
+		}
+		if (strong && tag.isWeak()) {
+			return false;
+		}
+		int idx = 0;
+		while (idx < header.length()) {
+			int start = header.indexOf('"', idx);
+			if (start < 0) {
+				break;
+			}
+			int end = header.indexOf('"', start + 1);
+			if (end < 0) {
+				break;
+			}
+			boolean weak = start >= 2 && header.regionMatches(true, start - 2, WEAK_PREFIX, 0, 2);
+			if (!(strong && weak) && header.regionMatches(start + 1, tag.getValue(), 0, end - start - 1) 
+					&& tag.getValue().length() == end - start - 1) {
+				return true;
+			}
+			idx = end + 1;
+		}
+		return false;
+	}
+
+}
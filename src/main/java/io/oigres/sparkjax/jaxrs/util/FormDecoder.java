@@ -0,0 +1,192 @@
+/**********
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU General Public License as published by the
+ Free Software Foundation; either version 3.0 of the License, or (at your
+ option) any later version. (See <https://www.gnu.org/licenses/gpl-3.0.html>.)
+
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ more details.
+
+ You should have received a copy of the GNU General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301  USA
+ **********/
+// Copyright (c) 2020-2024 Sergio Exposito.  All rights reserved.
+package io.oigres.sparkjax.jaxrs.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.core.MultivaluedMap;
+
+/**
+ * Single pass decoder of <code>application/x-www-form-urlencoded</code> content.
+ * 
+ * The content is read once from the stream and percent-decoded while it is read. Repeated keys keep all 
+ * their values in order, a key without <code>=</code> or with nothing after it has an empty value, and 
+ * malformed escapes are kept as they are. The number of fields and the content size are capped.
+ * 
+ * @author Sergio Exposito
+ */
+public class FormDecoder {
+	public static final int DEFAULT_MAX_FIELDS = 1000;
+	public static final long DEFAULT_MAX_SIZE = 200000;
+
+	private final int maxFields;
+	private final long maxSize;
+
+	public FormDecoder() {
+		this(DEFAULT_MAX_FIELDS, DEFAULT_MAX_SIZE);
+	}
+
+	/**
+	 * @param maxFields maximum number of fields, or a negative value for no limit
+	 * @param maxSize maximum content size in bytes, or a negative value for no limit
+	 */
+	public FormDecoder(int maxFields, long maxSize) {
+		this.maxFields = maxFields;
+		this.maxSize = maxSize;
+	}
+
+	public int getMaxFields() {
+		return this.maxFields;
+	}
+
+	public long getMaxSize() {
+		return this.maxSize;
+	}
+
+	public MultivaluedMap<String, String> decode(InputStream in, Charset charset) throws IOException {
+		Decoding decoding = new Decoding(charset);
+		byte[] buffer = new byte[4096];
+		long size = 0;
+		int n;
+		while ((n = in.read(buffer)) >= 0) {
+			size += n;
+			if (this.maxSize >= 0 && size > this.maxSize) {
+				throw new LimitExceededException("Form content exceeds the maximum size of "+this.maxSize+" bytes");
+			}
+			for (int i=0; i < n; i++) {
+				decoding.accept(buffer[i]);
+			}
+		}
+		decoding.endField();
+		return decoding.values;
+	}
+
+	/**
+	 * State of a single decoding.
+	 */
+	private class Decoding {
+		private final Charset charset;
+		private final MultivaluedHashMap<String, String> values = new MultivaluedHashMap<String, String>();
+		private byte[] token = new byte[64];
+		private int length;
+		private String key;
+		private int fields;
+		// 0: no escape, 1: after '%', 2: after the first hexadecimal digit
+		private int escape;
+		// the first hexadecimal digit as it was sent, to keep it if the escape is malformed
+		private byte escapeHigh;
+
+		Decoding(Charset charset) {
+			this.charset = charset;
+		}
+
+		void accept(byte b) throws IOException {
+			if (this.escape == 1) {
+				if (Character.digit(b, 16) < 0) {
+					this.escape = 0;
+					append((byte)'%');
+				} else {
+					this.escapeHigh = b;
+					this.escape = 2;
+					return;
+				}
+			} else if (this.escape == 2) {
+				int digit = Character.digit(b, 16);
+				this.escape = 0;
+				if (digit >= 0) {
+					append((byte)((Character.digit(this.escapeHigh, 16) << 4) + digit));
+					return;
+				}
+				append((byte)'%');
+				append(this.escapeHigh);
+			}
+			switch (b) {
+			case '%':
+				this.escape = 1;
+				break;
+			case '+':
+				append((byte)' ');
+				break;
+			case '=':
+				if (this.key == null) {
+					this.key = token();
+				} else {
+					append(b);
+				}
+				break;
+			case '&':
+				endField();
+				break;
+			default:
+				append(b);
+			}
+		}
+
+		void endField() throws IOException {
+			if (this.escape > 0) {
+				append((byte)'%');
+				if (this.escape == 2) {
+					append(this.escapeHigh);
+				}
+				this.escape = 0;
+			}
+			String value = token();
+			if (this.key == null) {
+				// A key without value, unless it is an empty field as in "a=1&&b=2"
+				if (value.isEmpty()) {
+					return;
+				}
+				this.key = value;
+				value = "";
+			}
+			if (maxFields >= 0 && ++this.fields > maxFields) {
+				throw new LimitExceededException("Form content exceeds the maximum of "+maxFields+" fields");
+			}
+			this.values.add(this.key, value);
+			this.key = null;
+		}
+
+		private void append(byte b) {
+			if (this.length == this.token.length) {
+				this.token = Arrays.copyOf(this.token, this.token.length * 2);
+			}
+			this.token[this.length++] = b;
+		}
+
+		private String token() {
+			String value = new String(this.token, 0, this.length, this.charset);
+			this.length = 0;
+			return value;
+		}
+	}
+
+	/**
+	 * The form content exceeds the maximum number of fields or size.
+	 */
+	public static class LimitExceededException extends IOException {
+		private static final long serialVersionUID = 1L;
+
+		public LimitExceededException(String message) {
+			super(message);
+		}
+	}
+
+}
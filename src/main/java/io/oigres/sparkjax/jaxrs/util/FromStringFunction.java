@@ -0,0 +1,61 @@
+/**********
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU General Public License as published by the
+ Free Software Foundation; either version 3.0 of the License, or (at your
+ option) any later version. (See <https://www.gnu.org/licenses/gpl-3.0.html>.)
+
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ more details.
+
+ You should have received a copy of the GNU General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301  USA
+ **********/
+// Copyright (c) 2020-2024 Sergio Exposito.  All rights reserved.
+package io.oigres.sparkjax.jaxrs.util;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/**
+ * Non-reflective call of a static <code>valueOf(String)</code> or <code>fromString(String)</code> method.
+ * 
+ * Exceptions thrown by the target method are wrapped in an {@link InvocationTargetException}, as 
+ * {@link Method#invoke(Object, Object...)} does, so callers keep their exception mapping.
+ * 
+ * @author Sergio Exposito
+ */
+@FunctionalInterface
+public interface FromStringFunction {
+
+	Object apply(String value) throws Exception;
+
+	static FromStringFunction of(Method method) {
+		FromStringFunction wrapperParser = "valueOf".equals(method.getName()) ? WrapperParsers.get(method.getDeclaringClass()) : null;
+		if (wrapperParser != null) {
+			return wrapperParser;
+		}
+		MethodHandle handle;
+		try {
+			handle = MethodHandles.publicLookup()
+					.unreflect(method)
+					.asType(MethodType.methodType(Object.class, String.class));
+		} catch (IllegalAccessException e) {
+			// Not accessible, invoked reflectively so it fails exactly as before
+			return value -> method.invoke(null, value);
+		}
+		return value -> {
+			try {
+				return (Object)handle.invokeExact(value);
+			} catch (Throwable t) {
+				throw new InvocationTargetException(t);
+			}
+		};
+	}
+
+}
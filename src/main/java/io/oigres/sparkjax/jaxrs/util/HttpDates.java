@@ -0,0 +1,172 @@
+/**********
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU General Public License as published by the
+ Free Software Foundation; either version 3.0 of the License, or (at your
+ option) any later version. (See <https://www.gnu.org/licenses/gpl-3.0.html>.)
+
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ more details.
+
+ You should have received a copy of the GNU General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301  USA
+ **********/
+// Copyright (c) 2020-2024 Sergio Exposito.  All rights reserved.
+package io.oigres.sparkjax.jaxrs.util;
+
+import java.text.ParseException;
+import java.text.ParsePosition;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.Year;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.TextStyle;
+import java.time.temporal.ChronoField;
+import java.time.temporal.TemporalAccessor;
+import java.util.Date;
+import java.util.Locale;
+
+/**
+ * HTTP dates as sent in the <code>Last-Modified</code> and <code>Expires</code> headers and received in 
+ * the <code>If-Modified-Since</code> and <code>If-Unmodified-Since</code> headers.
+ * 
+ * Dates are sent as IMF-fixdates and received in any of the formats recipients must accept by RFC 9110: 
+ * IMF-fixdate (RFC 1123), the obsolete RFC 850 (RFC 1036) format and ANSI C asctime. The format is chosen by 
+ * the shape of the value, so a valid date is parsed once and without exceptions. The leading day name is 
+ * skipped and not checked against the date.
+ * 
+ * @author Sergio Exposito
+ */
+public final class HttpDates {
+	private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("EEE, dd MMM yyyy HH:mm:ss 'GMT'", Locale.US).withZone(ZoneOffset.UTC);
+	/**
+	 * eg. Sun, 06 Nov 1994 08:49:37 GMT (after the day name)
+	 */
+	private static final DateTimeFormatter RFC1123_DATE_FORMAT = new DateTimeFormatterBuilder()
+			.parseCaseInsensitive()
+			.appendPattern("d MMM yyyy HH:mm:ss ")
+			.append(zone())
+			.toFormatter(Locale.US);
+	/**
+	 * eg. Sunday, 06-Nov-94 08:49:37 GMT (after the day name), two digit years are parsed in 2000-2099 and moved 
+	 * to the right century by {@link #pivotYear(ZonedDateTime)}
+	 */
+	private static final DateTimeFormatter RFC1036_DATE_FORMAT = new DateTimeFormatterBuilder()
+			.parseCaseInsensitive()
+			.appendPattern("d-MMM-")
+			.appendValueReduced(ChronoField.YEAR, 2, 2, 2000)
+			.appendPattern(" HH:mm:ss ")
+			.append(zone())
+			.toFormatter(Locale.US);
+	/**
+	 * eg. Sun Nov  6 08:49:37 1994 (after the day name), always GMT
+	 */
+	private static final DateTimeFormatter ANSI_C_ASCTIME_DATE_FORMAT = new DateTimeFormatterBuilder()
+			.parseCaseInsensitive()
+			.appendPattern("MMM ")
+			.optionalStart().appendLiteral(' ').optionalEnd()
+			.appendPattern("d HH:mm:ss yyyy")
+			.toFormatter(Locale.US)
+			.withZone(ZoneOffset.UTC);
+
+	private HttpDates() {
+	}
+
+	private static DateTimeFormatter zone() {
+		return new DateTimeFormatterBuilder()
+				.optionalStart().appendZoneText(TextStyle.SHORT).optionalEnd()
+				.optionalStart().appendOffset("+HHMM", "GMT").optionalEnd()
+				.toFormatter(Locale.US);
+	}
+
+	/**
+	 * @return the IMF-fixdate of the instant, eg. <code>Sun, 06 Nov 1994 08:49:37 GMT</code>
+	 */
+	public static String format(long epochMillis) {
+		return FORMATTER.format(Instant.ofEpochMilli(epochMillis));
+	}
+
+	/**
+	 * @return the milliseconds since the epoch of an HTTP date, or -1 if the value is not a valid date
+	 */
+	public static long parse(String value) {
+		if (value == null) {
+			return -1;
+		}
+		try {
+			return parseDate(value).getTime();
+		} catch (ParseException e) {
+			return -1;
+		}
+	}
+
+	/**
+	 * @param date HTTP date in any of the accepted formats
+	 * @return the date
+	 * @throws ParseException if the value is not a valid date
+	 */
+	public static Date parseDate(String date) throws ParseException {
+		String value = date.trim();
+		int dayNameEnd = 0;
+		while (dayNameEnd < value.length() && Character.isLetter(value.charAt(dayNameEnd))) {
+			dayNameEnd++;
+		}
+		if (dayNameEnd == 0 || dayNameEnd == value.length()) {
+			throw unparseable(date, dayNameEnd);
+		}
+		DateTimeFormatter format;
+		int start = dayNameEnd;
+		if (value.charAt(dayNameEnd) == ',') {
+			// Sun, 06 Nov 1994 or Sunday, 06-Nov-94
+			format = dayNameEnd == 3 ? RFC1123_DATE_FORMAT : RFC1036_DATE_FORMAT;
+			start++;
+		} else {
+			format = ANSI_C_ASCTIME_DATE_FORMAT;
+		}
+		while (start < value.length() && value.charAt(start) == ' ') {
+			start++;
+		}
+		ParsePosition position = new ParsePosition(start);
+		try {
+			TemporalAccessor parsed = format.parse(value, position);
+			if (position.getIndex() != value.length()) {
+				throw unparseable(date, position.getIndex());
+			}
+			ZonedDateTime dateTime = ZonedDateTime.from(parsed);
+			if (format == RFC1036_DATE_FORMAT) {
+				dateTime = pivotYear(dateTime);
+			}
+			return Date.from(dateTime.toInstant());
+		} catch (DateTimeException ex) {
+			ParseException pe = unparseable(date, position.getErrorIndex() >= 0 ? position.getErrorIndex() : position.getIndex());
+			pe.initCause(ex);
+			throw pe;
+		}
+	}
+
+	/**
+	 * As required by RFC 9110, a two digit year more than 50 years in the future is the most recent year in the 
+	 * past with the same last two digits. The current year is read on every call, so the window moves with time.
+	 */
+	private static ZonedDateTime pivotYear(ZonedDateTime dateTime) {
+		int currentYear = Year.now(ZoneOffset.UTC).getValue();
+		int year = dateTime.getYear();
+		while (year > currentYear + 50) {
+			year -= 100;
+		}
+		while (year <= currentYear - 50) {
+			year += 100;
+		}
+		return dateTime.plusYears(year - dateTime.getYear());
+	}
+
+	private static ParseException unparseable(String date, int errorOffset) {
+		return new ParseException("Unparseable date: \""+date+"\"", errorOffset);
+	}
+
+}
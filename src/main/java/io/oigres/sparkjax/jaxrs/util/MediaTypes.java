@@ -0,0 +1,77 @@
+/**********
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU General Public License as published by the
+ Free Software Foundation; either version 3.0 of the License, or (at your
+ option) any later version. (See <https://www.gnu.org/licenses/gpl-3.0.html>.)
+
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ more details.
+
+ You should have received a copy of the GNU General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301  USA
+ **********/
+// Copyright (c) 2020-2024 Sergio Exposito.  All rights reserved.
+package io.oigres.sparkjax.jaxrs.util;
+
+import java.nio.charset.Charset;
+import java.nio.charset.IllegalCharsetNameException;
+import java.nio.charset.StandardCharsets;
+import java.nio.charset.UnsupportedCharsetException;
+import java.util.Locale;
+
+import javax.ws.rs.core.MediaType;
+
+import org.eclipse.jetty.http.HttpStatus;
+
+import spark.Spark;
+
+/**
+ * Helpers over raw <code>Content-Type</code> header values, which may carry parameters.
+ * 
+ * @author Sergio Exposito
+ */
+public final class MediaTypes {
+
+	private MediaTypes() {
+	}
+
+	/**
+	 * @param contentType
+	 * @param mediaType
+	 * @return true if the type and subtype of the content type are the ones of the media type, parameters are ignored
+	 */
+	public static boolean isType(String contentType, MediaType mediaType) {
+		if (contentType == null) {
+			return false;
+		}
+		int idx = contentType.indexOf(';');
+		String type = (idx < 0 ? contentType : contentType.substring(0, idx)).trim().toLowerCase(Locale.ROOT);
+		return type.equals(mediaType.getType()+"/"+mediaType.getSubtype());
+	}
+
+	/**
+	 * @param contentType
+	 * @return the charset parameter of the content type, UTF-8 if there is none
+	 * @throws spark.HaltException answering 415 if the charset is not supported
+	 */
+	public static Charset getCharset(String contentType) {
+		if (contentType != null) {
+			for (String parameter : contentType.split(";")) {
+				int idx = parameter.indexOf('=');
+				if (idx > 0 && MediaType.CHARSET_PARAMETER.equalsIgnoreCase(parameter.substring(0, idx).trim())) {
+					String charset = parameter.substring(idx+1).trim().replace("\"", "");
+					try {
+						return Charset.forName(charset);
+					} catch (IllegalCharsetNameException | UnsupportedCharsetException e) {
+						throw Spark.halt(HttpStatus.UNSUPPORTED_MEDIA_TYPE_415, "Unsupported charset: "+charset);
+					}
+				}
+			}
+		}
+		return StandardCharsets.UTF_8;
+	}
+
+}
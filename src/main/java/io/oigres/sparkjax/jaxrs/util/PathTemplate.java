@@ -0,0 +1,113 @@
+/**********
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU General Public License as published by the
+ Free Software Foundation; either version 3.0 of the License, or (at your
+ option) any later version. (See <https://www.gnu.org/licenses/gpl-3.0.html>.)
+
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ more details.
+
+ You should have received a copy of the GNU General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301  USA
+ **********/
+// Copyright (c) 2020-2024 Sergio Exposito.  All rights reserved.
+package io.oigres.sparkjax.jaxrs.util;
+
+import java.util.Collections;
+import java.util.List;
+
+import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.core.MultivaluedMap;
+
+import spark.utils.SparkUtils;
+import spark.utils.urldecoding.UrlDecode;
+
+/**
+ * Path parameters of a route template, resolved once when the route is created.
+ * 
+ * Every parameter keeps its original case name and the position of its segment counted from the end 
+ * of the path, so values are taken straight from the request URI segments even when the route has 
+ * been registered under a prefix (eg. Spark path groups or a servlet context path).
+ * 
+ * @author Sergio Exposito
+ */
+public final class PathTemplate {
+	private static final PathTemplate EMPTY = new PathTemplate(new String[0]);
+	private final String[] namesBySegmentFromEnd;
+	private final int parameterCount;
+
+	private PathTemplate(String[] namesBySegmentFromEnd) {
+		this.namesBySegmentFromEnd = namesBySegmentFromEnd;
+		int count = 0;
+		for (String name : namesBySegmentFromEnd) {
+			if (name != null) {
+				count++;
+			}
+		}
+		this.parameterCount = count;
+	}
+
+	/**
+	 * Parse a route path in Spark format (eg. /path/with/:parameter/included).
+	 * 
+	 * @param sparkPath
+	 * @return
+	 */
+	public static PathTemplate of(String sparkPath) {
+		if (sparkPath == null) {
+			return EMPTY;
+		}
+		List<String> segments = SparkUtils.convertRouteToList(sparkPath);
+		int lastParameter = -1;
+		String[] names = new String[segments.size()];
+		for (int i=0; i < segments.size(); i++) {
+			String segment = segments.get(i);
+			if (SparkUtils.isParam(segment)) {
+				int fromEnd = segments.size() - 1 - i;
+				names[fromEnd] = segment.substring(1);
+				lastParameter = Math.max(lastParameter, fromEnd);
+			}
+		}
+		if (lastParameter < 0) {
+			return EMPTY;
+		}
+		String[] trimmed = new String[lastParameter + 1];
+		System.arraycopy(names, 0, trimmed, 0, trimmed.length);
+		return new PathTemplate(trimmed);
+	}
+
+	public int getParameterCount() {
+		return this.parameterCount;
+	}
+
+	/**
+	 * Extract the decoded path parameter values from a request URI matched by this template.
+	 * 
+	 * @param uri
+	 * @return
+	 */
+	public MultivaluedMap<String, String> extract(String uri) {
+		MultivaluedHashMap<String, String> values = new MultivaluedHashMap<String, String>();
+		if (this.parameterCount == 0 || uri == null) {
+			return values;
+		}
+		String[] names = this.namesBySegmentFromEnd;
+		int end = uri.length();
+		int segment = 0;
+		while (end > 0 && segment < names.length) {
+			int start = uri.lastIndexOf('/', end - 1);
+			if (start + 1 < end) {
+				if (names[segment] != null) {
+					values.put(names[segment], Collections.singletonList(UrlDecode.path(uri.substring(start + 1, end))));
+				}
+				segment++;
+			}
+			end = start < 0 ? 0 : start;
+		}
+		return values;
+	}
+
+}
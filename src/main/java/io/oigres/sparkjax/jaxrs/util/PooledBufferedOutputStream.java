@@ -0,0 +1,101 @@
+/**********
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU General Public License as published by the
+ Free Software Foundation; either version 3.0 of the License, or (at your
+ option) any later version. (See <https://www.gnu.org/licenses/gpl-3.0.html>.)
+
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ more details.
+
+ You should have received a copy of the GNU General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301  USA
+ **********/
+// Copyright (c) 2020-2024 Sergio Exposito.  All rights reserved.
+package io.oigres.sparkjax.jaxrs.util;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Buffered stream writing through a buffer borrowed from a {@link BufferPool}.
+ * 
+ * The buffer is written to the underlying stream when it is full or on {@link #flush()}, and it is 
+ * given back to the pool on {@link #close()}, which does not close the underlying stream.
+ * 
+ * @author Sergio Exposito
+ */
+public class PooledBufferedOutputStream extends FilterOutputStream {
+	private final BufferPool pool;
+	private byte[] buffer;
+	private int count;
+
+	public PooledBufferedOutputStream(OutputStream out, BufferPool pool) {
+		super(out);
+		this.pool = pool;
+		this.buffer = pool.acquire();
+	}
+
+	@Override
+	public void write(int b) throws IOException {
+		ensureOpen();
+		if (this.count == this.buffer.length) {
+			flushBuffer();
+		}
+		this.buffer[this.count++] = (byte)b;
+	}
+
+	@Override
+	public void write(byte[] b, int off, int len) throws IOException {
+		ensureOpen();
+		if (len >= this.buffer.length) {
+			// Larger writes go straight through, there is nothing to gain copying them
+			flushBuffer();
+			this.out.write(b, off, len);
+			return;
+		}
+		if (len > this.buffer.length - this.count) {
+			flushBuffer();
+		}
+		System.arraycopy(b, off, this.buffer, this.count, len);
+		this.count += len;
+	}
+
+	private void flushBuffer() throws IOException {
+		if (this.count > 0) {
+			this.out.write(this.buffer, 0, this.count);
+			this.count = 0;
+		}
+	}
+
+	private void ensureOpen() throws IOException {
+		if (this.buffer == null) {
+			throw new IOException("Stream closed");
+		}
+	}
+
+	@Override
+	public void flush() throws IOException {
+		ensureOpen();
+		flushBuffer();
+		this.out.flush();
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (this.buffer == null) {
+			return;
+		}
+		try {
+			flushBuffer();
+			this.out.flush();
+		} finally {
+			this.pool.release(this.buffer);
+			this.buffer = null;
+		}
+	}
+
+}
@@ -0,0 +1,68 @@
+/**********
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU General Public License as published by the
+ Free Software Foundation; either version 3.0 of the License, or (at your
+ option) any later version. (See <https://www.gnu.org/licenses/gpl-3.0.html>.)
+
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ more details.
+
+ You should have received a copy of the GNU General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301  USA
+ **********/
+// Copyright (c) 2020-2024 Sergio Exposito.  All rights reserved.
+package io.oigres.sparkjax.jaxrs.util;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Specialized parsers of the primitive wrappers used by {@link FromStringFunction}, they do not go through any method handle.
+ * 
+ * @author Sergio Exposito
+ */
+final class WrapperParsers {
+	private static final Map<Class<?>, FromStringFunction> PARSERS = parsers();
+
+	private WrapperParsers() {
+	}
+
+	/**
+	 * @return the parser of the primitive wrapper, or null if the type is not a primitive wrapper
+	 */
+	static FromStringFunction get(Class<?> type) {
+		return PARSERS.get(type);
+	}
+
+	private static Map<Class<?>, FromStringFunction> parsers() {
+		Map<Class<?>, FromStringFunction> parsers = new HashMap<>();
+		parsers.put(Boolean.class, wrap(Boolean::valueOf));
+		parsers.put(Byte.class, wrap(Byte::valueOf));
+		parsers.put(Short.class, wrap(Short::valueOf));
+		parsers.put(Integer.class, wrap(Integer::valueOf));
+		parsers.put(Long.class, wrap(Long::valueOf));
+		parsers.put(Float.class, wrap(Float::valueOf));
+		parsers.put(Double.class, wrap(Double::valueOf));
+		return Collections.unmodifiableMap(parsers);
+	}
+
+	/**
+	 * @return the parser wrapping its exceptions in an {@link InvocationTargetException}, as the reflective <code>valueOf</code> call does
+	 */
+	private static FromStringFunction wrap(Function<String, ?> parser) {
+		return value -> {
+			try {
+				return parser.apply(value);
+			} catch (RuntimeException e) {
+				throw new InvocationTargetException(e);
+			}
+		};
+	}
+
+}
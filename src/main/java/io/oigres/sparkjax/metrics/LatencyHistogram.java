@@ -0,0 +1,193 @@
+/**********
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU General Public License as published by the
+ Free Software Foundation; either version 3.0 of the License, or (at your
+ option) any later version. (See <https://www.gnu.org/licenses/gpl-3.0.html>.)
+
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ more details.
+
+ You should have received a copy of the GNU General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301  USA
+ **********/
+// Copyright (c) 2020-2024 Sergio Exposito.  All rights reserved.
+package io.oigres.sparkjax.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with log-linear buckets, in the manner of HdrHistogram.
+ * 
+ * Values are kept in microseconds. Every power of two is split in {@value #SUB_BUCKETS} linear buckets, 
+ * so a bucket bound is within 1/{@value #SUB_BUCKETS} of any value in it, up to about 70 minutes. Bucket 
+ * counts are striped by thread to spread the contention of concurrent requests with similar latencies, 
+ * with a stripe per available processor up to {@value #MAX_STRIPES}.
+ * 
+ * @author Sergio Exposito
+ */
+public class LatencyHistogram {
+	static final int SUB_BUCKET_BITS = 4;
+	static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	private static final int MAX_MAGNITUDE = 32;
+	static final int BUCKET_COUNT = (MAX_MAGNITUDE - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+	private static final long MAX_MICROS = (1L << (MAX_MAGNITUDE + 1)) - 1;
+	private static final int MAX_STRIPES = 16;
+	static final int STRIPES = stripes(Runtime.getRuntime().availableProcessors());
+
+	private final AtomicLongArray[] stripes = new AtomicLongArray[STRIPES];
+	private final LongAdder count = new LongAdder();
+	private final LongAdder sumMicros = new LongAdder();
+	private final LongAccumulator maxMicros = new LongAccumulator(Math::max, 0);
+
+	public LatencyHistogram() {
+		for (int i=0; i < STRIPES; i++) {
+			this.stripes[i] = new AtomicLongArray(BUCKET_COUNT);
+		}
+	}
+
+	/**
+	 * @return the number of processors rounded up to a power of two, so a stripe is selected with a mask
+	 */
+	static int stripes(int processors) {
+		int stripes = Integer.highestOneBit(Math.max(processors, 1));
+		if (stripes < processors) {
+			stripes <<= 1;
+		}
+		return Math.min(stripes, MAX_STRIPES);
+	}
+
+	public void record(long nanos) {
+		long micros = Math.min(Math.max(TimeUnit.NANOSECONDS.toMicros(nanos), 0), MAX_MICROS);
+		AtomicLongArray stripe = this.stripes[(int)(Thread.currentThread().getId() & (STRIPES - 1))];
+		stripe.getAndIncrement(bucketIndex(micros));
+		this.count.increment();
+		this.sumMicros.add(micros);
+		this.maxMicros.accumulate(micros);
+	}
+
+	static int bucketIndex(long micros) {
+		if (micros < SUB_BUCKETS) {
+			return (int)micros;
+		}
+		int magnitude = 63 - Long.numberOfLeadingZeros(micros);
+		int subBucket = (int)(micros >>> (magnitude - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+		return (magnitude - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+	}
+
+	/**
+	 * @param index
+	 * @return the lowest value in microseconds of the bucket
+	 */
+	static long bucketLowerBound(int index) {
+		if (index < SUB_BUCKETS) {
+			return index;
+		}
+		int magnitude = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+		long subBucket = index % SUB_BUCKETS;
+		return (SUB_BUCKETS + subBucket) << (magnitude - SUB_BUCKET_BITS);
+	}
+
+	/**
+	 * @param index
+	 * @return the first value in microseconds above the bucket
+	 */
+	static long bucketUpperBound(int index) {
+		return index + 1 < BUCKET_COUNT ? bucketLowerBound(index + 1) : MAX_MICROS + 1;
+	}
+
+	/**
+	 * @return a copy of the counts, recordings made while it is taken may be partially included
+	 */
+	public Snapshot snapshot() {
+		long[] counts = new long[BUCKET_COUNT];
+		for (AtomicLongArray stripe : this.stripes) {
+			for (int i=0; i < BUCKET_COUNT; i++) {
+				counts[i] += stripe.get(i);
+			}
+		}
+		long total = 0;
+		for (long c : counts) {
+			total += c;
+		}
+		return new Snapshot(counts, total, this.sumMicros.sum(), this.maxMicros.get());
+	}
+
+	/**
+	 * Point in time copy of a histogram, all values in nanoseconds.
+	 */
+	public static class Snapshot {
+		private final long[] counts;
+		private final long count;
+		private final long sumMicros;
+		private final long maxMicros;
+
+		Snapshot(long[] counts, long count, long sumMicros, long maxMicros) {
+			this.counts = counts;
+			this.count = count;
+			this.sumMicros = sumMicros;
+			this.maxMicros = maxMicros;
+		}
+
+		public long getCount() {
+			return count;
+		}
+
+		public long getSum() {
+			return TimeUnit.MICROSECONDS.toNanos(sumMicros);
+		}
+
+		public long getMax() {
+			return TimeUnit.MICROSECONDS.toNanos(maxMicros);
+		}
+
+		public long getMean() {
+			return count == 0 ? 0 : getSum() / count;
+		}
+
+		/**
+		 * @param percentile between 0 and 100
+		 * @return the upper bound of the bucket holding the percentile, never above the maximum recorded
+		 */
+		public long getValueAtPercentile(double percentile) {
+			if (count == 0) {
+				return 0;
+			}
+			long rank = Math.max(1, (long)Math.ceil(percentile / 100.0 * count));
+			long seen = 0;
+			for (int i=0; i < counts.length; i++) {
+				seen += counts[i];
+				if (seen >= rank) {
+					return TimeUnit.MICROSECONDS.toNanos(Math.min(bucketUpperBound(i) - 1, maxMicros));
+				}
+			}
+			return getMax();
+		}
+
+		/**
+		 * @param nanos
+		 * @return number of recorded values lower than or equal to the given one, exact on bucket bounds
+		 */
+		public long getCountAtOrBelow(long nanos) {
+			long micros = TimeUnit.NANOSECONDS.toMicros(nanos);
+			long total = 0;
+			for (int i=0; i < counts.length && bucketUpperBound(i) - 1 <= micros; i++) {
+				total += counts[i];
+			}
+			return total;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("count=%d, meanMicros=%d, p50Micros=%d, p99Micros=%d, maxMicros=%d", count, 
+					TimeUnit.NANOSECONDS.toMicros(getMean()), TimeUnit.NANOSECONDS.toMicros(getValueAtPercentile(50)), 
+					TimeUnit.NANOSECONDS.toMicros(getValueAtPercentile(99)), maxMicros);
+		}
+	}
+
+}
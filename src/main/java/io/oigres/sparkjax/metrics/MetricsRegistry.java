@@ -0,0 +1,40 @@
+/**********
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU General Public License as published by the
+ Free Software Foundation; either version 3.0 of the License, or (at your
+ option) any later version. (See <https://www.gnu.org/licenses/gpl-3.0.html>.)
+
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ more details.
+
+ You should have received a copy of the GNU General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301  USA
+ **********/
+// Copyright (c) 2020-2024 Sergio Exposito.  All rights reserved.
+package io.oigres.sparkjax.metrics;
+
+import spark.route.HttpMethod;
+
+/**
+ * Extension point to plug a metrics library into the routes. 
+ * 
+ * Every route asks the registry for its recorder once, when it is created. A registry returning null 
+ * disables the recording of that route, so {@link #NOOP} has no cost per request.
+ * 
+ * @author Sergio Exposito
+ */
+public interface MetricsRegistry {
+
+	MetricsRegistry NOOP = (httpMethod, path) -> null;
+
+	/**
+	 * @param httpMethod
+	 * @param path path template of the route in Spark format, eg. <code>/products/:id</code>
+	 * @return the recorder of the route, or null to not record it
+	 */
+	RouteMetrics getRouteMetrics(HttpMethod httpMethod, String path);
+
+}
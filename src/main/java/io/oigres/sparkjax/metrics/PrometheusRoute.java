@@ -0,0 +1,60 @@
+/**********
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU General Public License as published by the
+ Free Software Foundation; either version 3.0 of the License, or (at your
+ option) any later version. (See <https://www.gnu.org/licenses/gpl-3.0.html>.)
+
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ more details.
+
+ You should have received a copy of the GNU General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301  USA
+ **********/
+// Copyright (c) 2020-2024 Sergio Exposito.  All rights reserved.
+package io.oigres.sparkjax.metrics;
+
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+import javax.servlet.http.HttpServletResponse;
+
+import spark.Request;
+import spark.Response;
+import spark.Route;
+
+/**
+ * GET route answering the metrics of a {@link SimpleMetricsRegistry} to a Prometheus scrape. 
+ * The exposition is written straight to the response output stream.
+ * 
+ * @author Sergio Exposito
+ */
+public class PrometheusRoute implements Route {
+	private final SimpleMetricsRegistry registry;
+	private final PrometheusWriter prometheusWriter;
+
+	public PrometheusRoute(SimpleMetricsRegistry registry) {
+		this(registry, new PrometheusWriter());
+	}
+
+	public PrometheusRoute(SimpleMetricsRegistry registry, PrometheusWriter prometheusWriter) {
+		this.registry = registry;
+		this.prometheusWriter = prometheusWriter;
+	}
+
+	@Override
+	public Object handle(Request request, Response response) throws Exception {
+		HttpServletResponse raw = response.raw();
+		raw.setStatus(HttpServletResponse.SC_OK);
+		raw.setContentType(PrometheusWriter.CONTENT_TYPE);
+		Writer writer = new BufferedWriter(new OutputStreamWriter(raw.getOutputStream(), StandardCharsets.UTF_8));
+		this.prometheusWriter.write(this.registry, writer);
+		raw.flushBuffer();
+		return "";
+	}
+
+}
@@ -0,0 +1,205 @@
+/**********
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU General Public License as published by the
+ Free Software Foundation; either version 3.0 of the License, or (at your
+ option) any later version. (See <https://www.gnu.org/licenses/gpl-3.0.html>.)
+
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ more details.
+
+ You should have received a copy of the GNU General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301  USA
+ **********/
+// Copyright (c) 2020-2024 Sergio Exposito.  All rights reserved.
+package io.oigres.sparkjax.metrics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes the metrics of a {@link SimpleMetricsRegistry} in the Prometheus text exposition format, version 0.0.4.
+ * 
+ * Series are labelled by HTTP method and JAX-RS path template, never by the requested URI, so there is 
+ * a fixed number of series per route. Histograms are cut at {@link #BUCKETS}, each bound is exact 
+ * within the resolution of {@link LatencyHistogram}.
+ * 
+ * @author Sergio Exposito
+ */
+public class PrometheusWriter {
+	public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+	static final String[] BUCKETS = {"0.0005", "0.001", "0.0025", "0.005", "0.01", "0.025", "0.05", "0.1", "0.25", "0.5", "1", "2.5", "5", "10"};
+	private static final long[] BUCKET_NANOS = new long[BUCKETS.length];
+	static {
+		for (int i=0; i < BUCKETS.length; i++) {
+			BUCKET_NANOS[i] = (long)(Double.parseDouble(BUCKETS[i]) * TimeUnit.SECONDS.toNanos(1));
+		}
+	}
+	private static final String[] STATUS_CLASSES = {null, "1xx", "2xx", "3xx", "4xx", "5xx"};
+	private final String prefix;
+
+	public PrometheusWriter() {
+		this("sparkjax_");
+	}
+
+	/**
+	 * @param prefix prepended to the name of every metric
+	 */
+	public PrometheusWriter(String prefix) {
+		this.prefix = prefix;
+	}
+
+	public void write(SimpleMetricsRegistry registry, Writer writer) throws IOException {
+		List<SimpleRouteMetrics> routes = registry.getRoutes();
+		routes.sort(Comparator.comparing(SimpleRouteMetrics::getPath).thenComparing(r -> r.getHttpMethod().name()));
+
+		writeHeader(writer, "requests_total", "counter", "Requests handled by the route, by status class");
+		for (SimpleRouteMetrics route : routes) {
+			for (int statusClass=1; statusClass < STATUS_CLASSES.length; statusClass++) {
+				long count = route.getStatusCount(statusClass);
+				if (count == 0 && statusClass != 2) {
+					continue;
+				}
+				writer.write(this.prefix);
+				writer.write("requests_total");
+				writeLabels(writer, route);
+				writer.write(",status=\"");
+				writer.write(STATUS_CLASSES[statusClass]);
+				writer.write("\"} ");
+				writer.write(Long.toString(count));
+				writer.write('\n');
+			}
+		}
+
+		if (routes.stream().anyMatch(r -> r.getCacheHits() + r.getCacheMisses() > 0)) {
+			writeHeader(writer, "cache_lookups_total", "counter", "Lookups in the response cache of the route, by result");
+			for (SimpleRouteMetrics route : routes) {
+				if (route.getCacheHits() + route.getCacheMisses() == 0) {
+					continue;
+				}
+				writeCacheLookups(writer, route, "hit", route.getCacheHits());
+				writeCacheLookups(writer, route, "miss", route.getCacheMisses());
+			}
+		}
+
+		writeHeader(writer, "request_duration_seconds", "histogram", "Latency of the requests, from the extraction of the arguments to the response");
+		for (SimpleRouteMetrics route : routes) {
+			writeHistogram(writer, "request_duration_seconds", route, null, route.getLatency().snapshot());
+		}
+
+		writeHeader(writer, "phase_duration_seconds", "histogram", "Latency of each phase of the requests");
+		for (SimpleRouteMetrics route : routes) {
+			for (Phase phase : Phase.values()) {
+				writeHistogram(writer, "phase_duration_seconds", route, phase, route.getLatency(phase).snapshot());
+			}
+		}
+		writer.flush();
+	}
+
+	private void writeHeader(Writer writer, String name, String type, String help) throws IOException {
+		writer.write("# HELP ");
+		writer.write(this.prefix);
+		writer.write(name);
+		writer.write(' ');
+		writer.write(help);
+		writer.write("\n# TYPE ");
+		writer.write(this.prefix);
+		writer.write(name);
+		writer.write(' ');
+		writer.write(type);
+		writer.write('\n');
+	}
+
+	private void writeCacheLookups(Writer writer, SimpleRouteMetrics route, String result, long count) throws IOException {
+		writer.write(this.prefix);
+		writer.write("cache_lookups_total");
+		writeLabels(writer, route);
+		writer.write(",result=\"");
+		writer.write(result);
+		writer.write("\"} ");
+		writer.write(Long.toString(count));
+		writer.write('\n');
+	}
+
+	private void writeHistogram(Writer writer, String name, SimpleRouteMetrics route, Phase phase, LatencyHistogram.Snapshot snapshot) throws IOException {
+		for (int i=0; i < BUCKETS.length; i++) {
+			writeSeries(writer, name, "_bucket", route, phase);
+			writer.write(",le=\"");
+			writer.write(BUCKETS[i]);
+			writer.write("\"} ");
+			writer.write(Long.toString(snapshot.getCountAtOrBelow(BUCKET_NANOS[i])));
+			writer.write('\n');
+		}
+		writeSeries(writer, name, "_bucket", route, phase);
+		writer.write(",le=\"+Inf\"} ");
+		writer.write(Long.toString(snapshot.getCount()));
+		writer.write('\n');
+		writeSeries(writer, name, "_sum", route, phase);
+		writer.write("} ");
+		writer.write(Double.toString(snapshot.getSum() / 1e9));
+		writer.write('\n');
+		writeSeries(writer, name, "_count", route, phase);
+		writer.write("} ");
+		writer.write(Long.toString(snapshot.getCount()));
+		writer.write('\n');
+	}
+
+	/**
+	 * Writes the name and the labels of a series, leaving the label set open
+	 */
+	private void writeSeries(Writer writer, String name, String suffix, SimpleRouteMetrics route, Phase phase) throws IOException {
+		writer.write(this.prefix);
+		writer.write(name);
+		writer.write(suffix);
+		writeLabels(writer, route);
+		if (phase != null) {
+			writer.write(",phase=\"");
+			writer.write(phase.name().toLowerCase());
+			writer.write('"');
+		}
+	}
+
+	private void writeLabels(Writer writer, SimpleRouteMetrics route) throws IOException {
+		writer.write("{method=\"");
+		writer.write(route.getHttpMethod().name().toUpperCase());
+		writer.write("\",path=\"");
+		writeTemplate(writer, route.getPath());
+		writer.write('"');
+	}
+
+	/**
+	 * Writes a Spark path as its JAX-RS template, eg. <code>/products/:id</code> as <code>/products/{id}</code>, 
+	 * escaped as a label value.
+	 */
+	private static void writeTemplate(Writer writer, String path) throws IOException {
+		boolean parameter = false;
+		for (int i=0; i < path.length(); i++) {
+			char c = path.charAt(i);
+			if (c == ':' && (i == 0 || path.charAt(i - 1) == '/')) {
+				parameter = true;
+				writer.write('{');
+				continue;
+			}
+			if (c == '/' && parameter) {
+				parameter = false;
+				writer.write('}');
+			}
+			if (c == '\\' || c == '"') {
+				writer.write('\\');
+			} else if (c == '\n') {
+				writer.write("\\n");
+				continue;
+			}
+			writer.write(c);
+		}
+		if (parameter) {
+			writer.write('}');
+		}
+	}
+
+}
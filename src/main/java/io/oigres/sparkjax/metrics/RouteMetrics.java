@@ -0,0 +1,45 @@
+/**********
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU General Public License as published by the
+ Free Software Foundation; either version 3.0 of the License, or (at your
+ option) any later version. (See <https://www.gnu.org/licenses/gpl-3.0.html>.)
+
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ more details.
+
+ You should have received a copy of the GNU General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301  USA
+ **********/
+// Copyright (c) 2020-2024 Sergio Exposito.  All rights reserved.
+package io.oigres.sparkjax.metrics;
+
+/**
+ * Recorder of the requests of a single route. Implementations are called concurrently by the request 
+ * threads and must not block.
+ * 
+ * @author Sergio Exposito
+ */
+public interface RouteMetrics {
+
+	/**
+	 * @param phase
+	 * @param nanos time spent by the request in the phase
+	 */
+	void recordPhase(Phase phase, long nanos);
+
+	/**
+	 * @param status final status code of the response
+	 * @param nanos time spent by the request in the route, from the start of the extraction to the end of the rendering
+	 */
+	void recordRequest(int status, long nanos);
+
+	/**
+	 * @param hit true if the response was found in the response cache of the route, false if it was loaded
+	 */
+	default void recordCacheLookup(boolean hit) {
+	}
+
+}
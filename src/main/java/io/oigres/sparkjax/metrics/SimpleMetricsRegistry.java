@@ -0,0 +1,68 @@
+/**********
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU General Public License as published by the
+ Free Software Foundation; either version 3.0 of the License, or (at your
+ option) any later version. (See <https://www.gnu.org/licenses/gpl-3.0.html>.)
+
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ more details.
+
+ You should have received a copy of the GNU General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301  USA
+ **********/
+// Copyright (c) 2020-2024 Sergio Exposito.  All rights reserved.
+package io.oigres.sparkjax.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import spark.route.HttpMethod;
+
+/**
+ * Lightweight in-memory registry, it keeps a {@link SimpleRouteMetrics} per HTTP method and path template.
+ * 
+ * Throughput is not kept as a rate: it is the difference of {@link SimpleRouteMetrics#getRequests()} 
+ * between two reads, so the scraper decides the window.
+ * 
+ * @author Sergio Exposito
+ */
+public class SimpleMetricsRegistry implements MetricsRegistry {
+	private final ConcurrentMap<String, SimpleRouteMetrics> routes = new ConcurrentHashMap<String, SimpleRouteMetrics>();
+
+	@Override
+	public SimpleRouteMetrics getRouteMetrics(HttpMethod httpMethod, String path) {
+		return this.routes.computeIfAbsent(key(httpMethod, path), k -> new SimpleRouteMetrics(httpMethod, path));
+	}
+
+	/**
+	 * @param httpMethod
+	 * @param path path template of the route in Spark format
+	 * @return the metrics of the route, or null if the route is not registered
+	 */
+	public SimpleRouteMetrics getRoute(HttpMethod httpMethod, String path) {
+		return this.routes.get(key(httpMethod, path));
+	}
+
+	public List<SimpleRouteMetrics> getRoutes() {
+		return new ArrayList<SimpleRouteMetrics>(this.routes.values());
+	}
+
+	private static String key(HttpMethod httpMethod, String path) {
+		return httpMethod.name() + " " + path;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		for (SimpleRouteMetrics route : this.routes.values()) {
+			sb.append(route).append('\n');
+		}
+		return sb.toString();
+	}
+
+}
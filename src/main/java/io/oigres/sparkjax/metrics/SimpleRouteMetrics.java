@@ -0,0 +1,121 @@
+/**********
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU General Public License as published by the
+ Free Software Foundation; either version 3.0 of the License, or (at your
+ option) any later version. (See <https://www.gnu.org/licenses/gpl-3.0.html>.)
+
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ more details.
+
+ You should have received a copy of the GNU General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301  USA
+ **********/
+// Copyright (c) 2020-2024 Sergio Exposito.  All rights reserved.
+package io.oigres.sparkjax.metrics;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import spark.route.HttpMethod;
+
+/**
+ * Built-in recorder of a route: request counter, counters per status class (1xx to 5xx) and a 
+ * {@link LatencyHistogram} for the whole request and for every {@link Phase}.
+ * 
+ * @author Sergio Exposito
+ */
+public class SimpleRouteMetrics implements RouteMetrics {
+	private final HttpMethod httpMethod;
+	private final String path;
+	private final LongAdder requests = new LongAdder();
+	private final LongAdder[] statusClasses = new LongAdder[6];
+	private final LongAdder cacheHits = new LongAdder();
+	private final LongAdder cacheMisses = new LongAdder();
+	private final LatencyHistogram latency = new LatencyHistogram();
+	private final Map<Phase, LatencyHistogram> phaseLatencies = new EnumMap<Phase, LatencyHistogram>(Phase.class);
+
+	public SimpleRouteMetrics(HttpMethod httpMethod, String path) {
+		this.httpMethod = httpMethod;
+		this.path = path;
+		for (int i=0; i < this.statusClasses.length; i++) {
+			this.statusClasses[i] = new LongAdder();
+		}
+		for (Phase phase : Phase.values()) {
+			this.phaseLatencies.put(phase, new LatencyHistogram());
+		}
+	}
+
+	@Override
+	public void recordPhase(Phase phase, long nanos) {
+		this.phaseLatencies.get(phase).record(nanos);
+	}
+
+	@Override
+	public void recordRequest(int status, long nanos) {
+		this.requests.increment();
+		int statusClass = status / 100;
+		// Unknown status codes are counted with the server errors
+		this.statusClasses[statusClass >= 1 && statusClass <= 5 ? statusClass : 5].increment();
+		this.latency.record(nanos);
+	}
+
+	@Override
+	public void recordCacheLookup(boolean hit) {
+		(hit ? this.cacheHits : this.cacheMisses).increment();
+	}
+
+	public HttpMethod getHttpMethod() {
+		return httpMethod;
+	}
+
+	public String getPath() {
+		return path;
+	}
+
+	public long getRequests() {
+		return requests.sum();
+	}
+
+	/**
+	 * @param statusClass first digit of the status codes, from 1 to 5
+	 * @return number of requests answered with a status code of the class
+	 */
+	public long getStatusCount(int statusClass) {
+		return statusClasses[statusClass].sum();
+	}
+
+	/**
+	 * @return ratio of requests answered with a 5xx status code, 0 if there are no requests
+	 */
+	public double getErrorRate() {
+		long total = getRequests();
+		return total == 0 ? 0 : (double)getStatusCount(5) / total;
+	}
+
+	public long getCacheHits() {
+		return cacheHits.sum();
+	}
+
+	public long getCacheMisses() {
+		return cacheMisses.sum();
+	}
+
+	public LatencyHistogram getLatency() {
+		return latency;
+	}
+
+	public LatencyHistogram getLatency(Phase phase) {
+		return phaseLatencies.get(phase);
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s %s requests=%d, 2xx=%d, 4xx=%d, 5xx=%d, latency=[%s]", httpMethod.name().toUpperCase(), path, 
+				getRequests(), getStatusCount(2), getStatusCount(4), getStatusCount(5), latency.snapshot());
+	}
+
+}
@@ -28,13 +28,17 @@ import javax.ws.rs.Consumes;
 import javax.ws.rs.FormParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
+import javax.ws.rs.ext.ParamConverter;
 
 import io.oigres.sparkjax.jaxrs.ParamValueExtractor;
 import io.oigres.sparkjax.jaxrs.ParameterExtractorFactory;
 import io.oigres.sparkjax.jaxrs.ResponseTransformerProvider;
+import io.oigres.sparkjax.jaxrs.StreamParamConverter;
 import io.oigres.sparkjax.jaxrs.ValueParamProvider;
+import io.oigres.sparkjax.jaxrs.extractors.AbstractParamValueExtractor;
 import io.oigres.sparkjax.jaxrs.providers.BeanParamValueParamProvider;
 import io.oigres.sparkjax.jaxrs.providers.FormParamValueParamProvider;
+import io.oigres.sparkjax.jaxrs.providers.MultipartValueParamProvider;
 import io.oigres.sparkjax.jaxrs.providers.QueryParamValueParamProvider;
 
 /**
@@ -43,8 +47,8 @@ import io.oigres.sparkjax.jaxrs.providers.QueryParamValueParamProvider;
 public abstract class AbstractBodyRoute extends AbstractRoute {
 	public static final String BODY_NAME = "BODY_PARAMETER";
 
-	public AbstractBodyRoute(String path, Object resource, Method method, Consumes defaultConsumes, Produces defaultProduces, ParameterExtractorFactory parameterExtractorFactory, ResponseTransformerProvider responseTransformerProvider, Validator validator) {
-		super(path, resource, method, defaultConsumes, defaultProduces, parameterExtractorFactory, responseTransformerProvider, validator);
+	public AbstractBodyRoute(String path, Object resource, Method method, ResourceMethodInvoker invoker, Consumes defaultConsumes, Produces defaultProduces, ParameterExtractorFactory parameterExtractorFactory, ResponseTransformerProvider responseTransformerProvider, Validator validator, RouteOptions routeOptions) {
+		super(path, resource, method, invoker, defaultConsumes, defaultProduces, parameterExtractorFactory, responseTransformerProvider, validator, routeOptions);
 	}
 
 	@Override
@@ -60,6 +64,12 @@ public abstract class AbstractBodyRoute extends AbstractRoute {
 					.orElse(null);
 			if (beanParamAnnotation != null) {
 				ParamValueExtractor<?> paramValueExtractor = parameterExtractorFactory.get(parameter, parameterAnnotations, BODY_NAME);
+				if (getRouteOptions().isStreamingRequestBody() && paramValueExtractor instanceof AbstractParamValueExtractor) {
+					ParamConverter<?> converter = ((AbstractParamValueExtractor<?>)paramValueExtractor).getParamConverter();
+					if (converter instanceof StreamParamConverter) {
+						return new BeanParamValueParamProvider(paramValueExtractor, (StreamParamConverter<?>)converter, getRouteOptions().getMaxRequestBodySize());
+					}
+				}
 				return new BeanParamValueParamProvider(paramValueExtractor);
 			} else {
 				FormParam formParamAnnotation = parameterAnnotationsAsList
@@ -68,7 +78,9 @@ public abstract class AbstractBodyRoute extends AbstractRoute {
 						.map(annotation -> (FormParam) annotation)
 						.findAny()
 						.orElse(null);
-				if (formParamAnnotation != null) {
+				if (formParamAnnotation != null && MultipartValueParamProvider.isSupported(parameter.getType())) {
+					return new MultipartValueParamProvider(formParamAnnotation.value(), parameter.getType(), getRouteOptions().getMultipartLocation());
+				} else if (formParamAnnotation != null) {
 					ParamValueExtractor<?> paramValueExtractor = parameterExtractorFactory.get(parameter, parameterAnnotations, formParamAnnotation.value());
 					return new FormParamValueParamProvider(paramValueExtractor);
 				} else {
@@ -16,56 +16,132 @@
 // Copyright (c) 2020-2024 Sergio Exposito.  All rights reserved.
 package io.oigres.sparkjax.spark;
 
+import java.io.OutputStream;
 import java.lang.annotation.Annotation;
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Parameter;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.StringJoiner;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.validation.ConstraintViolation;
 import javax.validation.ConstraintViolationException;
 import javax.validation.Validator;
 import javax.validation.executable.ExecutableValidator;
+import javax.servlet.MultipartConfigElement;
+import javax.servlet.http.HttpServletResponse;
 import javax.ws.rs.Consumes;
 import javax.ws.rs.CookieParam;
 import javax.ws.rs.HeaderParam;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.container.Suspended;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 
+import org.eclipse.jetty.http.HttpHeader;
+import org.eclipse.jetty.http.HttpHeaderValue;
+import org.eclipse.jetty.http.HttpStatus;
+import org.reflections.ReflectionUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.oigres.sparkjax.annotations.Bulkhead;
+import io.oigres.sparkjax.annotations.CacheControl;
+import io.oigres.sparkjax.annotations.Cached;
+import io.oigres.sparkjax.annotations.CompressResponse;
+import io.oigres.sparkjax.annotations.ETag;
+import io.oigres.sparkjax.cache.CacheKey;
+import io.oigres.sparkjax.cache.RenderedResponse;
+import io.oigres.sparkjax.cache.ResponseCache;
+import io.oigres.sparkjax.cache.ResponseRenderer;
+import io.oigres.sparkjax.cache.RouteResponseCache;
+import io.oigres.sparkjax.annotations.OffloadInvocation;
+import io.oigres.sparkjax.annotations.StreamingResponse;
+import io.oigres.sparkjax.compression.ResponseCompression;
 import io.oigres.sparkjax.jaxrs.ParamValueExtractor;
+import io.oigres.sparkjax.jaxrs.ParameterContext;
 import io.oigres.sparkjax.jaxrs.ParameterExtractorFactory;
 import io.oigres.sparkjax.jaxrs.ResponseTransformerProvider;
+import io.oigres.sparkjax.jaxrs.StreamingResponseTransformer;
+import io.oigres.sparkjax.jaxrs.SuspendedResponse;
 import io.oigres.sparkjax.jaxrs.ValueParamProvider;
 import io.oigres.sparkjax.jaxrs.providers.CookieParamValueParamProvider;
+import io.oigres.sparkjax.jaxrs.providers.FormParamValueParamProvider;
 import io.oigres.sparkjax.jaxrs.providers.HeaderParamValueParamProvider;
+import io.oigres.sparkjax.jaxrs.providers.MultipartValueParamProvider;
 import io.oigres.sparkjax.jaxrs.providers.PathParamValueParamProvider;
+import io.oigres.sparkjax.jaxrs.providers.RequestValueParamProvider;
+import io.oigres.sparkjax.jaxrs.providers.SuspendedValueParamProvider;
+import io.oigres.sparkjax.jaxrs.util.HttpDates;
+import io.oigres.sparkjax.jaxrs.util.FormDecoder;
+import io.oigres.sparkjax.jaxrs.util.PathTemplate;
+import io.oigres.sparkjax.metrics.Phase;
+import io.oigres.sparkjax.metrics.RouteMetrics;
+import io.oigres.sparkjax.tracing.Tracer;
+import spark.HaltException;
 import spark.Request;
 import spark.Response;
 import spark.ResponseTransformer;
 import spark.Route;
+import spark.Spark;
 import spark.route.HttpMethod;
 
 /**
  * @author Sergio Exposito
  */
 public abstract class AbstractRoute implements Route {
+	private static final Logger LOGGER = LoggerFactory.getLogger(AbstractRoute.class);
+	private static final ResponseTransformer STREAMED_RESPONSE_TRANSFORMER = model -> "";
 	private String path;
 	private Object resource;
 	private Method method;
+	private ResourceMethodInvoker invoker;
 	private Produces produces;
 	private MediaType responseMediaType;
 	private ResponseTransformer responseTransformer;
+	private boolean streamingResponse;
+	private ResponseCompression compression;
+	private boolean generateETags;
+	private ResponseRenderer renderer;
+	private String cacheControl;
+	private long expiresMillis;
+	private RouteResponseCache cache;
+	private boolean offloadInvocation;
+	private InvocationExecutor invocationExecutor;
+	private ConcurrencyLimiter concurrencyLimiter;
+	private RouteMetrics metrics;
+	private Tracer tracer;
+	private String template;
+	private String spanName;
 	private ValueParamProvider[] valueParamProviders;
+	private InvocationPlan invocationPlan;
 	private Validator validator;
+	private RouteOptions routeOptions;
 
-	public AbstractRoute(String path, Object resource, Method method, Consumes defaultConsumes, Produces defaultProduces, ParameterExtractorFactory parameterExtractorFactory, ResponseTransformerProvider responseTransformerProvider, Validator validator) {
+	public AbstractRoute(String path, Object resource, Method method, ResourceMethodInvoker invoker, Consumes defaultConsumes, Produces defaultProduces, ParameterExtractorFactory parameterExtractorFactory, ResponseTransformerProvider responseTransformerProvider, Validator validator, RouteOptions routeOptions) {
+		this.routeOptions = routeOptions;
 		this.path = replacePathParamToSparkFormat(path);
+		this.template = path;
+		this.spanName = getHttpMethod().name().toUpperCase() + " " + path;
 		this.resource = resource;
 		this.method = method;
+		this.invoker = invoker;
 		this.produces = defaultProduces;
 		this.responseMediaType = null;
 		if (method.getAnnotation(Produces.class) != null) {
@@ -83,8 +159,49 @@ public abstract class AbstractRoute implements Route {
 		if (this.responseTransformer == null) {
 			throw new RuntimeException("Unsupported response mime type:"+this.produces);
 		}
+		this.streamingResponse = isStreamingResponse(resource, method, routeOptions) && this.responseTransformer instanceof StreamingResponseTransformer;
+		this.compression = createResponseCompression(resource, method, routeOptions);
+		ETag entityTag = findAnnotation(resource, method, ETag.class);
+		this.generateETags = getHttpMethod() == HttpMethod.get && (entityTag != null ? entityTag.value() : routeOptions.isGenerateETags());
+		this.renderer = new ResponseRenderer(this::render, this.compression, this.generateETags, entityTag != null ? entityTag.weak() : routeOptions.isWeakETags());
+		CacheControl cacheControl = getCacheControl(resource, method);
+		if (cacheControl != null) {
+			this.cacheControl = toCacheControlHeader(cacheControl);
+			this.expiresMillis = !cacheControl.noStore() && cacheControl.maxAge() >= 0 ? cacheControl.unit().toMillis(cacheControl.maxAge()) : -1;
+		}
+		this.invocationExecutor = isOffloadInvocation(resource, method, routeOptions) ? routeOptions.getInvocationExecutor() : null;
+		this.offloadInvocation = this.invocationExecutor != null;
+		this.concurrencyLimiter = createConcurrencyLimiter(resource, method, routeOptions);
 		this.valueParamProviders = createValueParameterProviders(method, defaultConsumes, parameterExtractorFactory);
+		FormDecoder formDecoder = null;
+		MultipartConfigElement multipartConfig = null;
+		if (Arrays.stream(this.valueParamProviders).anyMatch(p -> p instanceof FormParamValueParamProvider || p instanceof MultipartValueParamProvider)) {
+			formDecoder = new FormDecoder(routeOptions.getMaxFormFields(), routeOptions.getMaxFormSize());
+			String location = routeOptions.getMultipartLocation() != null ? routeOptions.getMultipartLocation() : System.getProperty("java.io.tmpdir");
+			multipartConfig = new MultipartConfigElement(location, routeOptions.getMaxPartSize(), routeOptions.getMaxMultipartSize(), routeOptions.getMultipartFileSizeThreshold());
+		}
+		this.invocationPlan = new InvocationPlan(PathTemplate.of(this.path), formDecoder, multipartConfig, this.valueParamProviders, invoker);
 		this.validator = validator;
+		this.metrics = routeOptions.getMetricsRegistry().getRouteMetrics(getHttpMethod(), this.path);
+		Cached cached = getHttpMethod() == HttpMethod.get ? findAnnotation(resource, method, Cached.class) : null;
+		if (cached != null) {
+			boolean[] keyArguments = new boolean[this.valueParamProviders.length];
+			Class<?> identityType = null;
+			for (int i=0; i < this.valueParamProviders.length; i++) {
+				keyArguments[i] = !(this.valueParamProviders[i] instanceof SuspendedValueParamProvider || this.valueParamProviders[i] instanceof RequestValueParamProvider);
+				if (keyArguments[i] && identityType == null && !CacheKey.isKeyType(method.getParameterTypes()[i])) {
+					identityType = method.getParameterTypes()[i];
+				}
+			}
+			if (identityType != null) {
+				// Every request would miss and add an entry, evicting the useful ones
+				LOGGER.warn("{} is not cached, its parameter type {} does not implement equals and hashCode", this.spanName, identityType.getName());
+			} else {
+				ResponseCache cache = routeOptions.getResponseCacheRegistry().getCache(cached.name().isEmpty() ? this.spanName : cached.name(), cached.maxEntries());
+				this.cache = new RouteResponseCache(cache, this.template, cached, keyArguments, routeOptions.getAsyncTimeout(), this.metrics);
+			}
+		}
+		this.tracer = routeOptions.getTracer() != Tracer.NOOP ? routeOptions.getTracer() : null;
 	}
 
 	/**
@@ -108,6 +225,105 @@ public abstract class AbstractRoute implements Route {
 		return path;
 	}
 	
+	/**
+	 * @param method the resource method, or null to look only in the resource class and its super types
+	 * @return the annotation of the method, or else the first one of the resource class or its super types
+	 */
+	private static <A extends Annotation> A findAnnotation(Object resource, Method method, Class<A> type) {
+		A annotation = method != null ? method.getAnnotation(type) : null;
+		if (annotation != null) {
+			return annotation;
+		}
+		return ReflectionUtils.get(ReflectionUtils.Annotations.of(resource.getClass()))
+				.stream()
+				.filter(type::isInstance)
+				.map(type::cast)
+				.findFirst()
+				.orElse(null);
+	}
+
+	private boolean isStreamingResponse(Object resource, Method method, RouteOptions routeOptions) {
+		StreamingResponse streamingResponse = findAnnotation(resource, method, StreamingResponse.class);
+		if (streamingResponse != null) {
+			return streamingResponse.value();
+		}
+		return routeOptions.isStreamingResponseBody();
+	}
+
+	private ResponseCompression createResponseCompression(Object resource, Method method, RouteOptions routeOptions) {
+		CompressResponse compressResponse = findAnnotation(resource, method, CompressResponse.class);
+		boolean enabled = compressResponse != null ? compressResponse.value() : routeOptions.isCompressResponse();
+		if (!enabled || routeOptions.getContentEncoders().isEmpty() 
+				|| routeOptions.getCompressibleMediaTypes().stream().noneMatch(mt -> mt.isCompatible(this.responseMediaType))) {
+			return null;
+		}
+		int minSize = compressResponse != null && compressResponse.minSize() >= 0 ? compressResponse.minSize() : routeOptions.getCompressionMinSize();
+		return new ResponseCompression(routeOptions.getContentEncoders(), minSize);
+	}
+
+	/**
+	 * @return the annotation of the method, or the one of the resource if the route is a GET route
+	 */
+	private CacheControl getCacheControl(Object resource, Method method) {
+		if (getHttpMethod() == HttpMethod.get) {
+			return findAnnotation(resource, method, CacheControl.class);
+		}
+		return method.getAnnotation(CacheControl.class);
+	}
+
+	private static String toCacheControlHeader(CacheControl cacheControl) {
+		if (cacheControl.noStore()) {
+			return "no-store";
+		}
+		StringJoiner directives = new StringJoiner(", ");
+		if (cacheControl.isPrivate()) {
+			directives.add("private");
+		} else if (cacheControl.isPublic()) {
+			directives.add("public");
+		}
+		if (cacheControl.noCache()) {
+			directives.add("no-cache");
+		}
+		if (cacheControl.maxAge() >= 0) {
+			directives.add("max-age=" + cacheControl.unit().toSeconds(cacheControl.maxAge()));
+		}
+		if (cacheControl.sMaxAge() >= 0 && !cacheControl.isPrivate()) {
+			directives.add("s-maxage=" + cacheControl.unit().toSeconds(cacheControl.sMaxAge()));
+		}
+		if (cacheControl.mustRevalidate()) {
+			directives.add("must-revalidate");
+		}
+		if (cacheControl.staleWhileRevalidate() >= 0) {
+			directives.add("stale-while-revalidate=" + cacheControl.unit().toSeconds(cacheControl.staleWhileRevalidate()));
+		}
+		return directives.toString();
+	}
+
+	private boolean isOffloadInvocation(Object resource, Method method, RouteOptions routeOptions) {
+		OffloadInvocation offloadInvocation = findAnnotation(resource, method, OffloadInvocation.class);
+		if (offloadInvocation != null) {
+			return offloadInvocation.value();
+		}
+		return routeOptions.isOffloadInvocation();
+	}
+
+	private ConcurrencyLimiter createConcurrencyLimiter(Object resource, Method method, RouteOptions routeOptions) {
+		Bulkhead bulkhead = method.getAnnotation(Bulkhead.class);
+		if (bulkhead != null) {
+			return new ConcurrencyLimiter(bulkhead.value(), bulkhead.maxWaitMillis(), bulkhead.maxWaiters(), bulkhead.retryAfterSeconds(), bulkhead.adaptive());
+		}
+		Bulkhead resourceBulkhead = findAnnotation(resource, null, Bulkhead.class);
+		if (resourceBulkhead != null) {
+			return routeOptions.getResourceLimiter(resource, () -> new ConcurrencyLimiter(resourceBulkhead.value(), 
+					resourceBulkhead.maxWaitMillis(), resourceBulkhead.maxWaiters(), resourceBulkhead.retryAfterSeconds(), resourceBulkhead.adaptive()));
+		}
+		if (routeOptions.getMaxConcurrentRequests() > 0) {
+			return new ConcurrencyLimiter(routeOptions.getMaxConcurrentRequests(), routeOptions.getConcurrencyWaitMillis(), 
+					routeOptions.getMaxConcurrencyWaiters(), routeOptions.getRetryAfterSeconds(), routeOptions.isAdaptiveConcurrency());
+		}
+		return null;
+	}
+
 	private ValueParamProvider[] createValueParameterProviders(Method method, Consumes defaultConsumes, ParameterExtractorFactory parameterExtractorFactory) {
 		Consumes consumes = defaultConsumes;
 		if (method.getAnnotation(Consumes.class) != null) {
@@ -161,6 +377,13 @@ public abstract class AbstractRoute implements Route {
 			HeaderParamValueParamProvider provider = new HeaderParamValueParamProvider(paramValueExtractor);
 			return provider;
 		}
+		if (parameterAnnotationsAsList.stream().anyMatch(annotation -> Suspended.class.isAssignableFrom(annotation.getClass()))) {
+			return new SuspendedValueParamProvider(this.routeOptions.getAsyncTimeout());
+		}
+		if (javax.ws.rs.core.Request.class.equals(parameter.getType()) 
+				&& parameterAnnotationsAsList.stream().anyMatch(annotation -> Context.class.isAssignableFrom(annotation.getClass()))) {
+			return new RequestValueParamProvider();
+		}
 		return null;
 	}
 	
@@ -179,6 +402,18 @@ public abstract class AbstractRoute implements Route {
 	public Method getMethod() {
 		return this.method;
 	}
+
+	public ResourceMethodInvoker getInvoker() {
+		return this.invoker;
+	}
+
+	public RouteOptions getRouteOptions() {
+		return this.routeOptions;
+	}
+
+	public InvocationPlan getInvocationPlan() {
+		return this.invocationPlan;
+	}
 	
 	public String getPath() {
 		return this.path;
@@ -193,18 +428,114 @@ public abstract class AbstractRoute implements Route {
 	public ResponseTransformer getResponseTransformer() {
 		return responseTransformer;
 	}
+
+	/**
+	 * @return true if the resource method is invoked on the {@link InvocationExecutor} instead of the request thread
+	 */
+	public boolean isOffloadInvocation() {
+		return this.offloadInvocation;
+	}
+
+	/**
+	 * @return the limit of requests in flight of the route, or null if it has none
+	 */
+	public ConcurrencyLimiter getConcurrencyLimiter() {
+		return this.concurrencyLimiter;
+	}
+
+	/**
+	 * @return the recorder of the route, or null if its requests are not recorded
+	 */
+	public RouteMetrics getMetrics() {
+		return this.metrics;
+	}
+
+	/**
+	 * @return the tracer of the route, or null if its requests are not traced
+	 */
+	public Tracer getTracer() {
+		return this.tracer;
+	}
+
+	public boolean isStreamingResponse() {
+		return this.streamingResponse;
+	}
+
+	/**
+	 * @return the compression of the responses of the route, or null if they are not compressed
+	 */
+	public ResponseCompression getCompression() {
+		return this.compression;
+	}
+
+	/**
+	 * @return the cache of the rendered responses of the route, or null if they are not cached
+	 */
+	public ResponseCache getCache() {
+		return this.cache != null ? this.cache.getCache() : null;
+	}
+
+	/**
+	 * @return true if the route sends entity tags hashed from the rendered body
+	 */
+	public boolean isGenerateETags() {
+		return this.generateETags;
+	}
+
+	/**
+	 * @return the <code>Cache-Control</code> header sent in the responses of the route, or null if none is sent
+	 */
+	public String getCacheControl() {
+		return this.cacheControl;
+	}
+
+	/**
+	 * @return the transformer to register the route with Spark, streamed, compressed, tagged and cached responses are already written by {@link #handle(Request, Response)}
+	 */
+	protected ResponseTransformer getSparkResponseTransformer() {
+		if (isWrittenByRoute()) {
+			return STREAMED_RESPONSE_TRANSFORMER;
+		}
+		if (this.metrics != null || this.tracer != null) {
+			ResponseTransformer transformer = this.responseTransformer;
+			return model -> {
+				RequestRecording recording = RequestRecording.rendering();
+				if (recording == null) {
+					return transformer.render(model);
+				}
+				recording.startPhase(Phase.RENDERING);
+				try {
+					return transformer.render(model);
+				} finally {
+					recording.endPhase();
+				}
+			};
+		}
+		return this.responseTransformer;
+	}
 	
+	/**
+	 * @return true if the response body is written by the route instead of by Spark
+	 */
+	private boolean isWrittenByRoute() {
+		return this.streamingResponse || this.compression != null || this.generateETags || this.cache != null;
+	}
+
 	protected Object[] buildArgumentFromRequest(Request request) {
-		ValueParamProvider[] valueParamProviders = getValueParamProviders();
-		Object[] arguments = new Object[valueParamProviders.length];
-		for (int i=0; i < valueParamProviders.length; i++) {
-			ValueParamProvider provider = valueParamProviders[i];
-			arguments[i] = provider.getValueProvider(null).apply(request);
-		}
-		return arguments;
+		return this.invocationPlan.buildArguments(request);
 	}
 	
+	/**
+	 * @return false when the resource method has no parameter constraints and validation is skipped
+	 */
+	public boolean isValidationEnabled() {
+		return this.validator != null;
+	}
+
 	protected void validateArguments(Object[] arguments) {
+		if (this.validator == null) {
+			return;
+		}
 		ExecutableValidator executableValidator = validator.forExecutables();
 		Set<ConstraintViolation<Object>> constraintViolations = executableValidator.validateParameters(this.resource, this.method, arguments);
 		if (constraintViolations != null && !constraintViolations.isEmpty()) {
@@ -214,19 +545,401 @@ public abstract class AbstractRoute implements Route {
 	
 	@Override
 	public Object handle(Request request, Response response) throws Exception {
-		Object[] arguments = buildArgumentFromRequest(request);
-		validateArguments(arguments);
-		Object result = null;
+		RequestRecording recording = null;
+		if (this.metrics != null || this.tracer != null) {
+			recording = RequestRecording.start(request, this.metrics, this.tracer, this.spanName, this.template);
+		}
+		ConcurrencyLimiter limiter = this.concurrencyLimiter;
+		if (limiter != null && !limiter.tryAcquire()) {
+			response.header(HttpHeaders.RETRY_AFTER, String.valueOf(limiter.getRetryAfterSeconds()));
+			throw Spark.halt(HttpStatus.SERVICE_UNAVAILABLE_503, "Too many concurrent requests");
+		}
+		long start = System.nanoTime();
+		if (recording != null) {
+			recording.startPhase(Phase.EXTRACTION);
+		}
+		ParameterContext context = this.invocationPlan.createContext(request, response);
+		AsyncExchange exchange = AsyncExchange.of(request);
+		CompletableFuture<Void> finished = null;
+		boolean suspended = false;
 		try {
-			result = getMethod().invoke(getResource(), arguments);
-		} catch (InvocationTargetException e) {
-			if (e.getCause() instanceof Exception) {
-				throw (Exception)e.getCause();
+			Object[] arguments = this.invocationPlan.buildArguments(context);
+			if (recording != null) {
+				recording.startPhase(Phase.VALIDATION);
 			}
-			throw new Exception(e.getCause());
+			validateArguments(arguments);
+			if (recording != null) {
+				recording.startPhase(Phase.INVOCATION);
+			}
+			if (this.cache != null) {
+				return handleCached(arguments, context, request, response, recording);
+			}
+			// Offloading only pays off when the request thread is released, cached responses are loaded in place. 
+			// The future is created right before the invocation, so a request that fails earlier is released at once
+			if (this.offloadInvocation && exchange != null) {
+				finished = new CompletableFuture<Void>();
+			}
+			Object result = invoke(arguments, context, finished, response);
+			if (result instanceof CompletableFuture && exchange != null) {
+				CompletableFuture<Void> invocationFinished = finished;
+				suspend(exchange, (CompletableFuture<?>)result, context.getSuspendedResponse(), invocationFinished, request, response, recording, 
+						() -> release(context, invocationFinished, limiter, start, exchange));
+				suspended = true;
+				return "";
+			}
+			result = await(result, context, response);
+			applyCacheControl(response.raw());
+			response.type(this.responseMediaType.toString());
+			if (isWrittenByRoute()) {
+				if (recording != null) {
+					recording.startPhase(Phase.RENDERING);
+				}
+				Object written = writeResponse(result, request, response);
+				if (recording != null) {
+					recording.endPhase();
+				}
+				return written;
+			}
+			if (recording != null) {
+				recording.beforeRendering();
+			}
+			return result;
+		} finally {
+			if (!suspended) {
+				release(context, finished, limiter, start, null);
+			}
+		}
+	}
+
+	/**
+	 * Releases the request once the offloaded invocation, if any, has finished, as it may still be running after 
+	 * its result timed out. A suspended request is completed then, so Jetty does not recycle it before.
+	 */
+	private static void release(ParameterContext context, CompletableFuture<Void> finished, ConcurrencyLimiter limiter, long start, AsyncExchange exchange) {
+		if (finished != null && !finished.isDone()) {
+			finished.whenComplete((value, failure) -> release(context, null, limiter, start, exchange));
+			return;
+		}
+		try {
+			context.release();
+			if (limiter != null) {
+				limiter.release(System.nanoTime() - start);
+			}
+		} finally {
+			if (exchange != null) {
+				exchange.complete();
+			}
+		}
+	}
+
+	/**
+	 * @param finished completed once the invocation has finished when it is offloaded, null to invoke the method 
+	 * in the request thread
+	 * @return the result of the resource method, or its future result when the method is asynchronous or offloaded
+	 */
+	private Object invoke(Object[] arguments, ParameterContext context, CompletableFuture<Void> finished, Response response) throws Exception {
+		try {
+			if (finished != null) {
+				return invokeOffloaded(arguments, context, finished);
+			}
+			Object result = this.invocationPlan.invoke(arguments);
+			if (result instanceof CompletionStage) {
+				return toFuture((CompletionStage<?>)result);
+			}
+			if (context.getSuspendedResponse() != null) {
+				return context.getSuspendedResponse().getFuture();
+			}
+			return result;
+		} catch (HaltException e) {
+			throw halted(e, response.raw());
+		}
+	}
+
+	/**
+	 * @return the result, awaited in the request thread if it is a future result
+	 */
+	private Object await(Object result, ParameterContext context, Response response) throws Exception {
+		if (!(result instanceof CompletableFuture)) {
+			return result;
+		}
+		try {
+			return awaitResult((CompletableFuture<?>)result, context.getSuspendedResponse(), response);
+		} catch (HaltException e) {
+			throw halted(e, response.raw());
+		}
+	}
+
+	private HaltException halted(HaltException e, HttpServletResponse raw) {
+		// A 304 stands for the response the client has, so it carries the same caching headers
+		if (e.statusCode() == HttpStatus.NOT_MODIFIED_304) {
+			applyCacheControl(raw);
+		}
+		return e;
+	}
+
+	/**
+	 * Sends the caching headers of the route, unless the resource set its own <code>Cache-Control</code> header.
+	 */
+	private void applyCacheControl(HttpServletResponse raw) {
+		if (this.cacheControl == null || raw.containsHeader(HttpHeaders.CACHE_CONTROL)) {
+			return;
+		}
+		raw.setHeader(HttpHeaders.CACHE_CONTROL, this.cacheControl);
+		if (this.expiresMillis >= 0) {
+			raw.setHeader(HttpHeaders.EXPIRES, HttpDates.format(System.currentTimeMillis() + this.expiresMillis));
 		}
+	}
+
+	/**
+	 * Answers from the cache, invoking the resource method and rendering its result only when the response is missing.
+	 */
+	private Object handleCached(Object[] arguments, ParameterContext context, Request request, Response response, RequestRecording recording) throws Exception {
+		HttpServletResponse raw = response.raw();
+		RenderedResponse rendered = this.cache.get(arguments, request.raw(), expiresAtNanos -> {
+			Map<String, List<String>> headers = ResponseRenderer.headers(raw);
+			Object result = await(invoke(arguments, context, null, response), context, response);
+			if (recording != null) {
+				recording.startPhase(Phase.RENDERING);
+			}
+			return this.renderer.render(result, raw, headers, expiresAtNanos);
+		});
 		response.type(this.responseMediaType.toString());
-		return result;
+		if (recording != null) {
+			recording.startPhase(Phase.RENDERING);
+		}
+		applyCacheControl(raw);
+		this.renderer.write(rendered, request.raw(), raw);
+		raw.flushBuffer();
+		if (recording != null) {
+			recording.endPhase();
+		}
+		return "";
+	}
+
+	/**
+	 * @return the future result of the invocation on the executor, composed with the stage returned by the method 
+	 * or with the suspended response if any
+	 */
+	private CompletableFuture<Object> invokeOffloaded(Object[] arguments, ParameterContext context, CompletableFuture<Void> finished) {
+		CompletableFuture<Object> invocation;
+		try {
+			invocation = this.invocationExecutor.submit(() -> this.invocationPlan.invoke(arguments), () -> finished.complete(null));
+		} catch (RejectedExecutionException e) {
+			finished.complete(null);
+			throw Spark.halt(HttpStatus.SERVICE_UNAVAILABLE_503, e.getMessage());
+		}
+		SuspendedResponse suspendedResponse = context.getSuspendedResponse();
+		CompletableFuture<Object> future = invocation.thenCompose(result -> {
+			if (result instanceof CompletionStage) {
+				return toFuture((CompletionStage<?>)result);
+			}
+			return suspendedResponse != null ? suspendedResponse.getFuture() : CompletableFuture.completedFuture(result);
+		});
+		future.whenComplete((result, failure) -> {
+			// A result that timed out or was cancelled skips the invocation if it is still queued
+			invocation.cancel(false);
+			if (suspendedResponse != null) {
+				suspendedResponse.getFuture().cancel(false);
+			}
+		});
+		return future;
+	}
+
+	private static CompletableFuture<Object> toFuture(CompletionStage<?> stage) {
+		CompletableFuture<Object> future = new CompletableFuture<Object>();
+		stage.whenComplete((value, throwable) -> {
+			if (throwable != null) {
+				future.completeExceptionally(throwable);
+			} else {
+				future.complete(value);
+			}
+		});
+		return future;
+	}
+
+	/**
+	 * Waits in the request thread for the result of an asynchronous resource method, when it is not served 
+	 * through an {@link AsyncHandler}.
+	 * 
+	 * Spark writes and closes the response as soon as the route returns, so the response can not be completed 
+	 * from another thread. Exceptional completions are thrown to the Spark exception handlers, and a result 
+	 * cancelled or not completed in time is answered with 503.
+	 */
+	private Object awaitResult(CompletableFuture<?> future, SuspendedResponse suspendedResponse, Response response) throws Exception {
+		long start = System.nanoTime();
+		boolean timeoutHandled = false;
+		while (true) {
+			long timeout = suspendedResponse != null ? suspendedResponse.getTimeoutNanos() : TimeUnit.MILLISECONDS.toNanos(this.routeOptions.getAsyncTimeout());
+			try {
+				return future.get(Math.max(timeout - (System.nanoTime() - start), 0), TimeUnit.NANOSECONDS);
+			} catch (TimeoutException e) {
+				if (suspendedResponse != null) {
+					if (suspendedResponse.getTimeoutNanos() != timeout) {
+						// The timeout was changed while waiting, it starts again
+						start = System.nanoTime();
+						continue;
+					}
+					if (suspendedResponse.getTimeoutHandler() != null && !timeoutHandled) {
+						timeoutHandled = true;
+						long handledAt = System.nanoTime();
+						suspendedResponse.getTimeoutHandler().handleTimeout(suspendedResponse);
+						if (suspendedResponse.getTimeoutNanos() != timeout) {
+							start = handledAt;
+						}
+						continue;
+					}
+				}
+				future.cancel(false);
+				throw Spark.halt(HttpStatus.SERVICE_UNAVAILABLE_503, "Asynchronous response timed out");
+			} catch (CancellationException | ExecutionException e) {
+				throwFailure(e, false, suspendedResponse, response);
+			}
+		}
+	}
+
+	/**
+	 * Throws the failure of an asynchronous result to the Spark exception handlers, a cancelled result is 
+	 * answered with 503.
+	 */
+	private static void throwFailure(Throwable failure, boolean timedOut, SuspendedResponse suspendedResponse, Response response) throws Exception {
+		Throwable cause = failure;
+		while ((cause instanceof CompletionException || cause instanceof ExecutionException) && cause.getCause() != null) {
+			cause = cause.getCause();
+		}
+		if (cause instanceof CancellationException) {
+			if (timedOut) {
+				throw Spark.halt(HttpStatus.SERVICE_UNAVAILABLE_503, "Asynchronous response timed out");
+			}
+			if (suspendedResponse != null && suspendedResponse.getRetryAfter() != null) {
+				response.header(HttpHeaders.RETRY_AFTER, suspendedResponse.getRetryAfter());
+			}
+			throw Spark.halt(HttpStatus.SERVICE_UNAVAILABLE_503);
+		}
+		if (cause instanceof Exception) {
+			throw (Exception)cause;
+		}
+		throw (Error)cause;
+	}
+
+	/**
+	 * Hands the response over to the thread that completes the future, so the request thread returns to Jetty 
+	 * while the result is pending. The recording is ended once the response is written, and then the request is 
+	 * released, which completes the exchange.
+	 */
+	private void suspend(AsyncExchange exchange, CompletableFuture<?> future, SuspendedResponse suspendedResponse, CompletableFuture<Void> finished, 
+			Request request, Response response, RequestRecording recording, Runnable release) {
+		if (recording != null) {
+			// The recording filter runs when the route returns, before the response is written
+			request.raw().removeAttribute(RequestRecording.ATTRIBUTE);
+		}
+		AtomicBoolean timedOut = new AtomicBoolean();
+		exchange.suspend(() -> {
+			long timeout = suspendedResponse != null ? suspendedResponse.getTimeoutNanos() : TimeUnit.MILLISECONDS.toNanos(this.routeOptions.getAsyncTimeout());
+			scheduleTimeout(future, suspendedResponse, timeout, false, timedOut);
+			future.whenComplete((value, failure) -> {
+				if (finished != null && !finished.isDone()) {
+					// The connection is held until the invocation finishes, the client must not wait on it for another request
+					response.header(HttpHeader.CONNECTION.asString(), HttpHeaderValue.CLOSE.asString());
+				}
+				try {
+					completeResponse(exchange, value, failure, timedOut.get(), suspendedResponse, request, response, recording);
+				} finally {
+					release.run();
+				}
+			});
+		});
+	}
+
+	/**
+	 * Cancels the future once the timeout elapses, unless the timeout is changed or the timeout handler of the 
+	 * suspended response, which runs once, resumes it or sets a new timeout.
+	 */
+	private void scheduleTimeout(CompletableFuture<?> future, SuspendedResponse suspendedResponse, long timeout, boolean timeoutHandled, AtomicBoolean timedOut) {
+		ScheduledFuture<?> timer = AsyncExchange.schedule(() -> {
+			if (future.isDone()) {
+				return;
+			}
+			if (suspendedResponse != null) {
+				if (suspendedResponse.getTimeoutNanos() != timeout) {
+					// The timeout was changed while waiting, it starts again
+					scheduleTimeout(future, suspendedResponse, suspendedResponse.getTimeoutNanos(), timeoutHandled, timedOut);
+					return;
+				}
+				if (suspendedResponse.getTimeoutHandler() != null && !timeoutHandled) {
+					suspendedResponse.getTimeoutHandler().handleTimeout(suspendedResponse);
+					if (suspendedResponse.getTimeoutNanos() != timeout) {
+						scheduleTimeout(future, suspendedResponse, suspendedResponse.getTimeoutNanos(), true, timedOut);
+						return;
+					}
+				}
+			}
+			timedOut.set(true);
+			future.cancel(false);
+		}, timeout, TimeUnit.NANOSECONDS);
+		future.whenComplete((value, failure) -> timer.cancel(false));
+	}
+
+	/**
+	 * Writes the result of a suspended request, or the response of its failure.
+	 */
+	private void completeResponse(AsyncExchange exchange, Object result, Throwable failure, boolean timedOut, 
+			SuspendedResponse suspendedResponse, Request request, Response response, RequestRecording recording) {
+		HttpServletResponse raw = response.raw();
+		try {
+			try {
+				if (failure != null) {
+					throwFailure(failure, timedOut, suspendedResponse, response);
+				}
+				applyCacheControl(raw);
+				response.type(this.responseMediaType.toString());
+				if (recording != null) {
+					recording.startPhase(Phase.RENDERING);
+				}
+				writeResponse(result, request, response);
+				if (recording != null) {
+					recording.endPhase();
+				}
+			} catch (HaltException e) {
+				exchange.fail(halted(e, raw), request, response);
+			} catch (Exception e) {
+				exchange.fail(e, request, response);
+			} catch (Error e) {
+				exchange.fail(new ExecutionException(e), request, response);
+			}
+		} catch (Exception e) {
+			LOGGER.warn("Asynchronous response could not be written", e);
+		} finally {
+			if (recording != null) {
+				recording.end(raw.getStatus());
+			}
+		}
+	}
+
+	/**
+	 * Writes the result to the response output stream, compressed if the route compresses its responses, and 
+	 * commits the response, so Spark does not write a body afterwards.
+	 */
+	private Object writeResponse(Object result, Request request, Response response) throws Exception {
+		HttpServletResponse raw = response.raw();
+		if (this.generateETags) {
+			this.renderer.write(this.renderer.render(result, raw), request.raw(), raw);
+		} else if (this.compression == null) {
+			render(result, raw.getOutputStream());
+		} else {
+			try (OutputStream out = this.compression.wrap(request.headers(HttpHeaders.ACCEPT_ENCODING), raw)) {
+				render(result, out);
+			}
+		}
+		raw.flushBuffer();
+		return "";
+	}
+
+	private void render(Object result, OutputStream out) throws Exception {
+		if (this.responseTransformer instanceof StreamingResponseTransformer) {
+			((StreamingResponseTransformer)this.responseTransformer).render(result, out);
+		} else {
+			out.write(this.responseTransformer.render(result).getBytes(StandardCharsets.UTF_8));
+		}
 	}
 
 }
@@ -0,0 +1,110 @@
+/**********
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU General Public License as published by the
+ Free Software Foundation; either version 3.0 of the License, or (at your
+ option) any later version. (See <https://www.gnu.org/licenses/gpl-3.0.html>.)
+
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ more details.
+
+ You should have received a copy of the GNU General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301  USA
+ **********/
+// Copyright (c) 2020-2024 Sergio Exposito.  All rights reserved.
+package io.oigres.sparkjax.spark;
+
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+import org.eclipse.jetty.util.thread.ThreadPool;
+
+import spark.ExceptionMapper;
+import spark.embeddedserver.EmbeddedServer;
+import spark.embeddedserver.EmbeddedServerFactory;
+import spark.embeddedserver.EmbeddedServers;
+import spark.embeddedserver.jetty.EmbeddedJettyServer;
+import spark.embeddedserver.jetty.JettyHandler;
+import spark.embeddedserver.jetty.JettyServerFactory;
+import spark.http.matching.MatcherFilter;
+import spark.route.Routes;
+import spark.staticfiles.StaticFilesConfiguration;
+
+/**
+ * Embedded Jetty server of Spark with an {@link AsyncHandler} ahead of the Spark handler, so routes can release 
+ * the request thread while they wait for asynchronous and offloaded results. It is otherwise built like the 
+ * default Spark server. 
+ * 
+ * It must be installed before the first route is mapped:
+ * <pre>
+ * AsyncEmbeddedServerFactory.install();
+ * routeBuilder.setupRoutes(resources);
+ * </pre>
+ * 
+ * @author Sergio Exposito
+ */
+public class AsyncEmbeddedServerFactory implements EmbeddedServerFactory {
+	private ThreadPool threadPool;
+	private boolean httpOnly = true;
+
+	/**
+	 * Makes it the embedded server of Spark.
+	 */
+	public static void install() {
+		install(new AsyncEmbeddedServerFactory());
+	}
+
+	public static void install(AsyncEmbeddedServerFactory factory) {
+		EmbeddedServers.add(EmbeddedServers.defaultIdentifier(), factory);
+	}
+
+	/**
+	 * @param threadPool thread pool of the server, it overrides the thread limits given to Spark
+	 * @return this factory
+	 */
+	public AsyncEmbeddedServerFactory withThreadPool(ThreadPool threadPool) {
+		this.threadPool = threadPool;
+		return this;
+	}
+
+	/**
+	 * @param httpOnly whether the session cookie is HttpOnly, true by default
+	 * @return this factory
+	 */
+	public AsyncEmbeddedServerFactory withHttpOnly(boolean httpOnly) {
+		this.httpOnly = httpOnly;
+		return this;
+	}
+
+	@Override
+	public EmbeddedServer create(Routes routeMatcher, StaticFilesConfiguration staticFilesConfiguration, ExceptionMapper exceptionMapper, boolean hasMultipleHandler) {
+		MatcherFilter matcherFilter = new MatcherFilter(routeMatcher, staticFilesConfiguration, exceptionMapper, false, hasMultipleHandler);
+		matcherFilter.init(null);
+		JettyHandler handler = new JettyHandler(matcherFilter);
+		handler.getSessionCookieConfig().setHttpOnly(this.httpOnly);
+		return new EmbeddedJettyServer(new ServerFactory(), new AsyncHandler(handler, exceptionMapper)).withThreadPool(this.threadPool);
+	}
+
+	/**
+	 * Same servers as the default Spark factory, which is not public.
+	 */
+	private static class ServerFactory implements JettyServerFactory {
+
+		@Override
+		public Server create(int maxThreads, int minThreads, int threadTimeoutMillis) {
+			if (maxThreads > 0) {
+				int min = minThreads > 0 ? minThreads : 8;
+				int idleTimeout = threadTimeoutMillis > 0 ? threadTimeoutMillis : 60000;
+				return new Server(new QueuedThreadPool(maxThreads, min, idleTimeout));
+			}
+			return new Server();
+		}
+
+		@Override
+		public Server create(ThreadPool threadPool) {
+			return threadPool != null ? new Server(threadPool) : new Server();
+		}
+	}
+
+}
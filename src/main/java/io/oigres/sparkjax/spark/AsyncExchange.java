@@ -0,0 +1,179 @@
+/**********
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU General Public License as published by the
+ Free Software Foundation; either version 3.0 of the License, or (at your
+ option) any later version. (See <https://www.gnu.org/licenses/gpl-3.0.html>.)
+
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ more details.
+
+ You should have received a copy of the GNU General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301  USA
+ **********/
+// Copyright (c) 2020-2024 Sergio Exposito.  All rights reserved.
+package io.oigres.sparkjax.spark;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.eclipse.jetty.http.HttpStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import spark.CustomErrorPages;
+import spark.ExceptionHandlerImpl;
+import spark.ExceptionMapper;
+import spark.HaltException;
+import spark.Request;
+import spark.Response;
+
+/**
+ * Asynchronous processing of a request handled by Spark behind an {@link AsyncHandler}.
+ * 
+ * A route suspends the exchange and returns, so the request thread goes back to Jetty. Spark then runs the after 
+ * filters but does not write a body, and the route writes the response and completes the exchange from the thread 
+ * that produces the result. Requests served without an {@link AsyncHandler} have no exchange.
+ * 
+ * @author Sergio Exposito
+ */
+public class AsyncExchange {
+	private static final Logger log = LoggerFactory.getLogger(AsyncExchange.class);
+	static final String ATTRIBUTE = AsyncExchange.class.getName();
+	private static final ScheduledThreadPoolExecutor TIMER = createTimer();
+
+	private final HttpServletRequest request;
+	private final ExceptionMapper exceptionMapper;
+	private AsyncContext asyncContext;
+	private Runnable onResume;
+	private volatile boolean suspended;
+
+	AsyncExchange(HttpServletRequest request, ExceptionMapper exceptionMapper) {
+		this.request = request;
+		this.exceptionMapper = exceptionMapper;
+	}
+
+	private static ScheduledThreadPoolExecutor createTimer() {
+		ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1, runnable -> {
+			Thread thread = new Thread(runnable, "sparkjax-async-timeout");
+			thread.setDaemon(true);
+			return thread;
+		});
+		timer.setRemoveOnCancelPolicy(true);
+		return timer;
+	}
+
+	/**
+	 * @param request
+	 * @return the exchange of the request, or null when it is not served through an {@link AsyncHandler}
+	 */
+	public static AsyncExchange of(Request request) {
+		return (AsyncExchange)request.raw().getAttribute(ATTRIBUTE);
+	}
+
+	/**
+	 * Runs a task on the timer shared by all the exchanges, eg. to time out a suspended response.
+	 * 
+	 * @param task
+	 * @param delay
+	 * @param unit
+	 * @return the scheduled task, to be cancelled when it is no longer needed
+	 */
+	public static ScheduledFuture<?> schedule(Runnable task, long delay, TimeUnit unit) {
+		return TIMER.schedule(task, delay, unit);
+	}
+
+	/**
+	 * Starts the asynchronous processing of the request. The container does not time it out, the caller must 
+	 * eventually call {@link #complete()}.
+	 * 
+	 * @param onResume run once Spark is done with the request, from then on the response can be written
+	 */
+	public void suspend(Runnable onResume) {
+		if (this.suspended || this.asyncContext != null) {
+			throw new IllegalStateException("The request is already suspended");
+		}
+		this.asyncContext = this.request.startAsync();
+		this.asyncContext.setTimeout(0);
+		this.onResume = onResume;
+		this.suspended = true;
+	}
+
+	/**
+	 * @return true from {@link #suspend(Runnable)} until Spark is done with the request
+	 */
+	boolean isSuspended() {
+		return this.suspended;
+	}
+
+	void resume() {
+		this.suspended = false;
+		this.onResume.run();
+	}
+
+	/**
+	 * Answers the request with the response of an exception, the same way Spark does for exceptions thrown by 
+	 * the routes: a halt sends its status and body, other exceptions go to the exception handlers registered 
+	 * in Spark, and are answered with 500 when there is none.
+	 * 
+	 * @param exception
+	 * @param request
+	 * @param response
+	 * @throws IOException
+	 */
+	public void fail(Exception exception, Request request, Response response) throws IOException {
+		HttpServletResponse raw = response.raw();
+		if (raw.isCommitted()) {
+			log.warn("Asynchronous response failed after being committed", exception);
+			return;
+		}
+		Object body;
+		if (exception instanceof HaltException) {
+			HaltException halt = (HaltException)exception;
+			raw.setStatus(halt.statusCode());
+			body = halt.body() != null ? halt.body() : "";
+		} else {
+			ExceptionHandlerImpl<Exception> handler = getHandler(exception);
+			if (handler != null) {
+				handler.handle(exception, request, response);
+				body = response.body() != null ? response.body() : "";
+			} else {
+				log.error("", exception);
+				raw.setStatus(HttpStatus.INTERNAL_SERVER_ERROR_500);
+				body = CustomErrorPages.existsFor(HttpStatus.INTERNAL_SERVER_ERROR_500) 
+						? CustomErrorPages.getFor(HttpStatus.INTERNAL_SERVER_ERROR_500, request, response) 
+						: CustomErrorPages.INTERNAL_ERROR;
+			}
+		}
+		if (raw.getContentType() == null) {
+			raw.setContentType("text/html; charset=utf-8");
+		}
+		// The exchange may be completed later than the response is written, eg. after an offloaded invocation
+		byte[] bytes = body.toString().getBytes(StandardCharsets.UTF_8);
+		raw.setContentLength(bytes.length);
+		raw.getOutputStream().write(bytes);
+		raw.flushBuffer();
+	}
+
+	@SuppressWarnings("unchecked")
+	private ExceptionHandlerImpl<Exception> getHandler(Exception exception) {
+		return this.exceptionMapper != null ? (ExceptionHandlerImpl<Exception>)this.exceptionMapper.getHandler(exception) : null;
+	}
+
+	/**
+	 * Completes the response, it is sent to the client if it is not already.
+	 */
+	public void complete() {
+		this.asyncContext.complete();
+	}
+
+}
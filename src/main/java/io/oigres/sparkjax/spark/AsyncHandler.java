@@ -0,0 +1,79 @@
+/**********
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU General Public License as published by the
+ Free Software Foundation; either version 3.0 of the License, or (at your
+ option) any later version. (See <https://www.gnu.org/licenses/gpl-3.0.html>.)
+
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ more details.
+
+ You should have received a copy of the GNU General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301  USA
+ **********/
+// Copyright (c) 2020-2024 Sergio Exposito.  All rights reserved.
+package io.oigres.sparkjax.spark;
+
+import java.io.IOException;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+
+import org.eclipse.jetty.server.Handler;
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.handler.HandlerWrapper;
+
+import spark.ExceptionMapper;
+
+/**
+ * Jetty handler ahead of the Spark handler that gives every request an {@link AsyncExchange}.
+ * 
+ * While an exchange is suspended the response looks committed to Spark, so it skips the body it would write 
+ * when the route returns. The exchange is resumed once Spark returns.
+ * 
+ * @author Sergio Exposito
+ */
+public class AsyncHandler extends HandlerWrapper {
+	private final ExceptionMapper exceptionMapper;
+
+	/**
+	 * @param handler the Spark handler
+	 * @param exceptionMapper the exception handlers of Spark, applied to the exceptions of the asynchronous responses
+	 */
+	public AsyncHandler(Handler handler, ExceptionMapper exceptionMapper) {
+		this.exceptionMapper = exceptionMapper;
+		setHandler(handler);
+	}
+
+	@Override
+	public void handle(String target, Request baseRequest, HttpServletRequest request, HttpServletResponse response) throws IOException, ServletException {
+		AsyncExchange exchange = new AsyncExchange(request, this.exceptionMapper);
+		request.setAttribute(AsyncExchange.ATTRIBUTE, exchange);
+		try {
+			super.handle(target, baseRequest, request, new SuspendableResponse(response, exchange));
+		} finally {
+			if (exchange.isSuspended()) {
+				exchange.resume();
+			}
+		}
+	}
+
+	private static class SuspendableResponse extends HttpServletResponseWrapper {
+		private final AsyncExchange exchange;
+
+		SuspendableResponse(HttpServletResponse response, AsyncExchange exchange) {
+			super(response);
+			this.exchange = exchange;
+		}
+
+		@Override
+		public boolean isCommitted() {
+			return this.exchange.isSuspended() || super.isCommitted();
+		}
+	}
+
+}
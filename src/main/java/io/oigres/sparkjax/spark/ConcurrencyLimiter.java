@@ -0,0 +1,235 @@
+/**********
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU General Public License as published by the
+ Free Software Foundation; either version 3.0 of the License, or (at your
+ option) any later version. (See <https://www.gnu.org/licenses/gpl-3.0.html>.)
+
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ more details.
+
+ You should have received a copy of the GNU General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301  USA
+ **********/
+// Copyright (c) 2020-2024 Sergio Exposito.  All rights reserved.
+package io.oigres.sparkjax.spark;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Semaphore based limit of the requests in flight of one or more routes.
+ * 
+ * A request over the limit may wait for a slot, but only up to <code>maxWaiters</code> requests wait at 
+ * the same time, the rest are rejected right away so that they do not hold request threads.
+ * 
+ * When adaptive, the limit moves between one and the maximum with an additive increase, multiplicative 
+ * decrease policy: it grows by one while latencies stay close to the lowest latency observed and the 
+ * limit is in use, and it shrinks by a tenth when a latency exceeds twice that baseline. The baseline 
+ * drifts slowly upwards, so it follows a lasting change of the service time.
+ * 
+ * @author Sergio Exposito
+ */
+public class ConcurrencyLimiter {
+	private static final double DECREASE_FACTOR = 0.9;
+	private static final double LATENCY_TOLERANCE = 2.0;
+
+	private final int maxLimit;
+	private final long maxWaitNanos;
+	private final int maxWaiters;
+	private final int retryAfterSeconds;
+	private final boolean adaptive;
+	private final AdjustableSemaphore permits;
+	private final Object adaptLock = new Object();
+	private volatile int limit;
+	private long baselineNanos;
+	private int samplesSinceDecrease;
+	private final AtomicLong inFlight = new AtomicLong();
+	private final AtomicInteger waiters = new AtomicInteger();
+	private final LongAdder accepted = new LongAdder();
+	private final LongAdder rejected = new LongAdder();
+
+	/**
+	 * @param maxLimit maximum number of requests in flight
+	 * @param maxWaitMillis milliseconds a request over the limit waits before being rejected
+	 * @param retryAfterSeconds seconds a rejected client should wait before retrying
+	 * @param adaptive true to adapt the limit to the observed latency
+	 */
+	public ConcurrencyLimiter(int maxLimit, long maxWaitMillis, int retryAfterSeconds, boolean adaptive) {
+		this(maxLimit, maxWaitMillis, -1, retryAfterSeconds, adaptive);
+	}
+
+	/**
+	 * @param maxLimit maximum number of requests in flight
+	 * @param maxWaitMillis milliseconds a request over the limit waits before being rejected
+	 * @param maxWaiters maximum number of requests waiting at the same time, negative for the same as maxLimit
+	 * @param retryAfterSeconds seconds a rejected client should wait before retrying
+	 * @param adaptive true to adapt the limit to the observed latency
+	 */
+	public ConcurrencyLimiter(int maxLimit, long maxWaitMillis, int maxWaiters, int retryAfterSeconds, boolean adaptive) {
+		if (maxLimit < 1) {
+			throw new IllegalArgumentException("Concurrency limit must be positive: "+maxLimit);
+		}
+		this.maxLimit = maxLimit;
+		this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(maxWaitMillis, 0));
+		this.maxWaiters = maxWaiters < 0 ? maxLimit : maxWaiters;
+		this.retryAfterSeconds = retryAfterSeconds;
+		this.adaptive = adaptive;
+		this.limit = maxLimit;
+		this.permits = new AdjustableSemaphore(maxLimit);
+	}
+
+	/**
+	 * Takes a slot, waiting for one up to the configured time unless too many requests are waiting already.
+	 * 
+	 * @return false if the request must be rejected
+	 */
+	public boolean tryAcquire() {
+		boolean acquired = this.permits.tryAcquire();
+		if (!acquired && this.maxWaitNanos > 0) {
+			if (this.waiters.incrementAndGet() <= this.maxWaiters) {
+				try {
+					acquired = this.permits.tryAcquire(this.maxWaitNanos, TimeUnit.NANOSECONDS);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+			this.waiters.decrementAndGet();
+		}
+		if (acquired) {
+			this.inFlight.incrementAndGet();
+			this.accepted.increment();
+		} else {
+			this.rejected.increment();
+		}
+		return acquired;
+	}
+
+	/**
+	 * Frees the slot taken by {@link #tryAcquire()}.
+	 * 
+	 * @param latencyNanos time the request held the slot
+	 */
+	public void release(long latencyNanos) {
+		long current = this.inFlight.getAndDecrement();
+		this.permits.release();
+		if (this.adaptive) {
+			adapt(latencyNanos, current);
+		}
+	}
+
+	private void adapt(long latencyNanos, long inFlight) {
+		synchronized (this.adaptLock) {
+			if (this.baselineNanos == 0 || latencyNanos < this.baselineNanos) {
+				this.baselineNanos = latencyNanos;
+			} else {
+				// Drifts 1/256 towards higher latencies on every sample
+				this.baselineNanos += (this.baselineNanos >> 8) + 1;
+			}
+			this.samplesSinceDecrease++;
+			if (latencyNanos > this.baselineNanos * LATENCY_TOLERANCE) {
+				// At most one decrease per window of requests
+				if (this.samplesSinceDecrease >= this.limit && this.limit > 1) {
+					int newLimit = Math.max(1, (int)(this.limit * DECREASE_FACTOR));
+					this.permits.reducePermits(this.limit - newLimit);
+					this.limit = newLimit;
+					this.samplesSinceDecrease = 0;
+				}
+			} else if (this.limit < this.maxLimit && inFlight * 2 >= this.limit) {
+				this.limit++;
+				this.permits.release();
+			}
+		}
+	}
+
+	/**
+	 * @return the current limit, lower than the maximum when it is adaptive and latencies have grown
+	 */
+	public int getLimit() {
+		return this.limit;
+	}
+
+	public int getMaxLimit() {
+		return this.maxLimit;
+	}
+
+	public int getMaxWaiters() {
+		return this.maxWaiters;
+	}
+
+	/**
+	 * @return requests waiting for a slot now
+	 */
+	public int getWaiters() {
+		return this.waiters.get();
+	}
+
+	public int getRetryAfterSeconds() {
+		return this.retryAfterSeconds;
+	}
+
+	public boolean isAdaptive() {
+		return this.adaptive;
+	}
+
+	public Statistics getStatistics() {
+		return new Statistics(this.limit, this.inFlight.get(), this.accepted.sum(), this.rejected.sum());
+	}
+
+	private static class AdjustableSemaphore extends Semaphore {
+		private static final long serialVersionUID = 1L;
+
+		AdjustableSemaphore(int permits) {
+			super(permits, true);
+		}
+
+		@Override
+		protected void reducePermits(int reduction) {
+			super.reducePermits(reduction);
+		}
+	}
+
+	/**
+	 * Snapshot of the limiter counters.
+	 */
+	public static class Statistics {
+		private final int limit;
+		private final long inFlight;
+		private final long accepted;
+		private final long rejected;
+
+		Statistics(int limit, long inFlight, long accepted, long rejected) {
+			this.limit = limit;
+			this.inFlight = inFlight;
+			this.accepted = accepted;
+			this.rejected = rejected;
+		}
+
+		public int getLimit() {
+			return limit;
+		}
+
+		public long getInFlight() {
+			return inFlight;
+		}
+
+		public long getAccepted() {
+			return accepted;
+		}
+
+		public long getRejected() {
+			return rejected;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("limit=%d, inFlight=%d, accepted=%d, rejected=%d", this.limit, this.inFlight, this.accepted, this.rejected);
+		}
+	}
+
+}
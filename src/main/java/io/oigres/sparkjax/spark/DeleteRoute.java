@@ -36,10 +36,10 @@ import spark.route.HttpMethod;
 public class DeleteRoute extends AbstractBodyRoute {
 	private static final Logger LOGGER = LoggerFactory.getLogger(DeleteRoute.class);
 
-	public DeleteRoute(String path, Object resource, Method method, Consumes defaultConsumes, Produces defaultProduces, ParameterExtractorFactory parameterExtractorFactory, ResponseTransformerProvider responseTransformerProvider, Validator validator) {
-		super(path, resource, method, defaultConsumes, defaultProduces, parameterExtractorFactory, responseTransformerProvider, validator);
+	public DeleteRoute(String path, Object resource, Method method, ResourceMethodInvoker invoker, Consumes defaultConsumes, Produces defaultProduces, ParameterExtractorFactory parameterExtractorFactory, ResponseTransformerProvider responseTransformerProvider, Validator validator, RouteOptions routeOptions) {
+		super(path, resource, method, invoker, defaultConsumes, defaultProduces, parameterExtractorFactory, responseTransformerProvider, validator, routeOptions);
 		LOGGER.info(String.format("%s.%s DELETE %s", resource.getClass().getSimpleName(), method.getName(), path) );
-		Spark.delete(getPath(), this, getResponseTransformer());
+		Spark.delete(getPath(), this, getSparkResponseTransformer());
 	}
 
 	public HttpMethod getHttpMethod() {
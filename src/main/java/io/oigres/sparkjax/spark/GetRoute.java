@@ -43,10 +43,10 @@ import spark.route.HttpMethod;
 public class GetRoute extends AbstractRoute {
 	private static final Logger LOGGER = LoggerFactory.getLogger(GetRoute.class);
 
-	public GetRoute(String path, Object resource, Method method, Consumes defautConsumes, Produces defaultProduces, ParameterExtractorFactory parameterExtractorFactory, ResponseTransformerProvider responseTransformerProvider, Validator validator) {
-		super(path, resource, method, defautConsumes, defaultProduces, parameterExtractorFactory, responseTransformerProvider, validator);
+	public GetRoute(String path, Object resource, Method method, ResourceMethodInvoker invoker, Consumes defautConsumes, Produces defaultProduces, ParameterExtractorFactory parameterExtractorFactory, ResponseTransformerProvider responseTransformerProvider, Validator validator, RouteOptions routeOptions) {
+		super(path, resource, method, invoker, defautConsumes, defaultProduces, parameterExtractorFactory, responseTransformerProvider, validator, routeOptions);
 		LOGGER.info(String.format("%s.%s GET %s", resource.getClass().getSimpleName(), method.getName(), path) );
-		Spark.get(getPath(), this, getResponseTransformer());
+		Spark.get(getPath(), this, getSparkResponseTransformer());
 	}
 
 	public HttpMethod getHttpMethod() {
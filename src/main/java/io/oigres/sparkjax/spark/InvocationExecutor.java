@@ -0,0 +1,308 @@
+/**********
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU General Public License as published by the
+ Free Software Foundation; either version 3.0 of the License, or (at your
+ option) any later version. (See <https://www.gnu.org/licenses/gpl-3.0.html>.)
+
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ more details.
+
+ You should have received a copy of the GNU General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301  USA
+ **********/
+// Copyright (c) 2020-2024 Sergio Exposito.  All rights reserved.
+package io.oigres.sparkjax.spark;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Executor of offloaded resource method invocations, shared by all the routes of a {@link io.oigres.sparkjax.RouteBuilder}.
+ * 
+ * It runs every invocation on its own virtual thread when the JVM supports them, and on a bounded pool of 
+ * platform threads otherwise. At most <code>maxConcurrency</code> invocations run at the same time, the 
+ * rest wait in a queue of <code>maxQueued</code> invocations and further ones are rejected. An invocation 
+ * that starts right away is not counted as queued, so with <code>maxQueued</code> 0 invocations are only 
+ * accepted while fewer than <code>maxConcurrency</code> run.
+ * 
+ * @author Sergio Exposito
+ */
+public class InvocationExecutor implements AutoCloseable {
+	private static final Logger log = LoggerFactory.getLogger(InvocationExecutor.class);
+
+	private final int maxConcurrency;
+	private final int maxQueued;
+	private final ExecutorService executor;
+	private final Semaphore permits;
+	private final BlockingQueue<Runnable> queue;
+	private final boolean virtual;
+	private final AtomicInteger active = new AtomicInteger();
+	private final AtomicInteger queued = new AtomicInteger();
+	private final LongAdder completed = new LongAdder();
+	private final LongAdder rejected = new LongAdder();
+	private final LongAdder queueNanos = new LongAdder();
+
+	/**
+	 * @param maxConcurrency maximum number of invocations running at the same time
+	 * @param maxQueued maximum number of invocations waiting to run
+	 */
+	public InvocationExecutor(int maxConcurrency, int maxQueued) {
+		if (maxConcurrency < 1) {
+			throw new IllegalArgumentException("maxConcurrency must be positive: "+maxConcurrency);
+		}
+		if (maxQueued < 0) {
+			throw new IllegalArgumentException("maxQueued must not be negative: "+maxQueued);
+		}
+		this.maxConcurrency = maxConcurrency;
+		this.maxQueued = maxQueued;
+		ExecutorService virtualExecutor = newVirtualThreadPerTaskExecutor();
+		if (virtualExecutor != null) {
+			this.executor = virtualExecutor;
+			this.permits = new Semaphore(maxConcurrency, true);
+			this.queue = null;
+			this.virtual = true;
+		} else {
+			// The pool starts a thread for each invocation until it has maxConcurrency, so only invocations waiting 
+			// for a thread are queued, and the ones above the queue capacity are aborted
+			this.queue = maxQueued > 0 ? new ArrayBlockingQueue<Runnable>(maxQueued) : new SynchronousQueue<Runnable>();
+			ThreadPoolExecutor pool = new ThreadPoolExecutor(maxConcurrency, maxConcurrency, 60, TimeUnit.SECONDS, 
+					this.queue, new InvocationThreadFactory(), new ThreadPoolExecutor.AbortPolicy());
+			pool.allowCoreThreadTimeOut(true);
+			this.executor = pool;
+			this.permits = null;
+			this.virtual = false;
+		}
+		log.info("Offloaded invocations run on {} threads, up to {} at the same time", this.virtual ? "virtual" : "platform", maxConcurrency);
+	}
+
+	/**
+	 * @return <code>Executors.newVirtualThreadPerTaskExecutor()</code>, or null when the JVM has no virtual threads
+	 */
+	private static ExecutorService newVirtualThreadPerTaskExecutor() {
+		try {
+			Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			return (ExecutorService)factory.invoke(null);
+		} catch (ReflectiveOperationException e) {
+			return null;
+		}
+	}
+
+	public boolean isVirtual() {
+		return this.virtual;
+	}
+
+	public int getMaxConcurrency() {
+		return this.maxConcurrency;
+	}
+
+	public int getMaxQueued() {
+		return this.maxQueued;
+	}
+
+	/**
+	 * @param invocation
+	 * @return the future completed with the result of the invocation, an invocation whose future is already 
+	 * completed (eg. cancelled after a timeout) when its turn comes is skipped
+	 * @throws RejectedExecutionException when the queue is full
+	 */
+	public CompletableFuture<Object> submit(Callable<Object> invocation) {
+		return submit(invocation, null);
+	}
+
+	/**
+	 * @param invocation
+	 * @param finished run once the invocation has finished or has been skipped, which is later than the completion 
+	 * of the future when the future is completed while the invocation runs, eg. cancelled after a timeout
+	 * @return the future completed with the result of the invocation, an invocation whose future is already 
+	 * completed when its turn comes is skipped
+	 * @throws RejectedExecutionException when the queue is full, finished is not run then
+	 */
+	public CompletableFuture<Object> submit(Callable<Object> invocation, Runnable finished) {
+		// A virtual thread only counts as queued while it waits for a permit
+		boolean waiting = this.permits != null && !this.permits.tryAcquire();
+		if (waiting && this.queued.incrementAndGet() > this.maxQueued) {
+			this.queued.decrementAndGet();
+			throw rejected();
+		}
+		CompletableFuture<Object> future = new CompletableFuture<Object>();
+		long submitted = System.nanoTime();
+		try {
+			this.executor.execute(() -> run(invocation, future, finished, submitted, waiting));
+		} catch (RejectedExecutionException e) {
+			if (waiting) {
+				this.queued.decrementAndGet();
+			} else if (this.permits != null) {
+				this.permits.release();
+			}
+			throw this.executor.isShutdown() ? e : rejected();
+		}
+		return future;
+	}
+
+	private RejectedExecutionException rejected() {
+		this.rejected.increment();
+		return new RejectedExecutionException("Invocation queue is full ("+this.maxQueued+")");
+	}
+
+	/**
+	 * @param waiting true if the invocation has to acquire a permit before running
+	 */
+	private void run(Callable<Object> invocation, CompletableFuture<Object> future, Runnable finished, long submitted, boolean waiting) {
+		if (waiting) {
+			try {
+				this.permits.acquire();
+			} catch (InterruptedException e) {
+				this.queued.decrementAndGet();
+				finished(finished);
+				future.completeExceptionally(e);
+				Thread.currentThread().interrupt();
+				return;
+			}
+			this.queued.decrementAndGet();
+		}
+		this.queueNanos.add(System.nanoTime() - submitted);
+		Object result = null;
+		Throwable failure = null;
+		boolean skipped = future.isDone();
+		if (!skipped) {
+			this.active.incrementAndGet();
+			try {
+				result = invocation.call();
+			} catch (Throwable e) {
+				failure = e;
+			} finally {
+				this.active.decrementAndGet();
+			}
+		}
+		// Counters and permits are settled before the waiting request is woken up
+		this.completed.increment();
+		if (this.permits != null) {
+			this.permits.release();
+		}
+		finished(finished);
+		if (failure != null) {
+			future.completeExceptionally(failure);
+		} else if (!skipped) {
+			future.complete(result);
+		}
+	}
+
+	private static void finished(Runnable finished) {
+		if (finished == null) {
+			return;
+		}
+		try {
+			finished.run();
+		} catch (RuntimeException e) {
+			log.warn("Finished invocation callback failed", e);
+		}
+	}
+
+	public Statistics getStatistics() {
+		int queued = this.queue != null ? this.queue.size() : this.queued.get();
+		return new Statistics(this.active.get(), queued, this.completed.sum(), this.rejected.sum(), this.queueNanos.sum());
+	}
+
+	@Override
+	public void close() {
+		this.executor.shutdown();
+	}
+
+	private static class InvocationThreadFactory implements ThreadFactory {
+		private final AtomicInteger count = new AtomicInteger();
+
+		@Override
+		public Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(runnable, "sparkjax-invocation-"+this.count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+
+	/**
+	 * Snapshot of the executor counters.
+	 */
+	public static class Statistics {
+		private final int active;
+		private final int queued;
+		private final long completed;
+		private final long rejected;
+		private final long queueNanos;
+
+		Statistics(int active, int queued, long completed, long rejected, long queueNanos) {
+			this.active = active;
+			this.queued = queued;
+			this.completed = completed;
+			this.rejected = rejected;
+			this.queueNanos = queueNanos;
+		}
+
+		/**
+		 * @return invocations running now
+		 */
+		public int getActive() {
+			return active;
+		}
+
+		/**
+		 * @return invocations waiting to run now
+		 */
+		public int getQueued() {
+			return queued;
+		}
+
+		/**
+		 * @return invocations finished since the executor was created
+		 */
+		public long getCompleted() {
+			return completed;
+		}
+
+		/**
+		 * @return invocations rejected because the queue was full
+		 */
+		public long getRejected() {
+			return rejected;
+		}
+
+		/**
+		 * @return total time spent by the finished invocations waiting to run
+		 */
+		public long getQueueNanos() {
+			return queueNanos;
+		}
+
+		/**
+		 * @return average time spent by the finished invocations waiting to run
+		 */
+		public long getAverageQueueNanos() {
+			return completed == 0 ? 0 : queueNanos / completed;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("active=%d, queued=%d, completed=%d, rejected=%d, averageQueueMicros=%d", 
+					this.active, this.queued, this.completed, this.rejected, TimeUnit.NANOSECONDS.toMicros(getAverageQueueNanos()));
+		}
+	}
+
+}
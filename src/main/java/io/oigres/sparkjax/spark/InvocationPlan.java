@@ -0,0 +1,116 @@
+/**********
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU General Public License as published by the
+ Free Software Foundation; either version 3.0 of the License, or (at your
+ option) any later version. (See <https://www.gnu.org/licenses/gpl-3.0.html>.)
+
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ more details.
+
+ You should have received a copy of the GNU General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301  USA
+ **********/
+// Copyright (c) 2020-2024 Sergio Exposito.  All rights reserved.
+package io.oigres.sparkjax.spark;
+
+import java.util.function.Function;
+
+import javax.servlet.MultipartConfigElement;
+
+import io.oigres.sparkjax.jaxrs.ParameterContext;
+import io.oigres.sparkjax.jaxrs.ValueParamProvider;
+import io.oigres.sparkjax.jaxrs.util.FormDecoder;
+import io.oigres.sparkjax.jaxrs.util.PathTemplate;
+import spark.Request;
+import spark.Response;
+
+/**
+ * Immutable plan to invoke a resource method, compiled once when the route is created.
+ * 
+ * It holds the ready-to-call value functions of every method parameter and the bound invoker, so
+ * a request only allocates its {@link ParameterContext}, the argument array and the produced values.
+ * 
+ * @author Sergio Exposito
+ */
+public final class InvocationPlan {
+	private final PathTemplate pathTemplate;
+	private final FormDecoder formDecoder;
+	private final MultipartConfigElement multipartConfig;
+	private final Function<ParameterContext, ?>[] valueFunctions;
+	private final ResourceMethodInvoker invoker;
+
+	public InvocationPlan(PathTemplate pathTemplate, ValueParamProvider[] valueParamProviders, ResourceMethodInvoker invoker) {
+		this(pathTemplate, null, null, valueParamProviders, invoker);
+	}
+
+	/**
+	 * @param pathTemplate
+	 * @param formDecoder decoder of the form content, null when the method has no form parameters
+	 * @param multipartConfig location and limits of multipart content, null when the method has no form parameters
+	 * @param valueParamProviders
+	 * @param invoker
+	 */
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	public InvocationPlan(PathTemplate pathTemplate, FormDecoder formDecoder, MultipartConfigElement multipartConfig, 
+			ValueParamProvider[] valueParamProviders, ResourceMethodInvoker invoker) {
+		this.pathTemplate = pathTemplate;
+		this.formDecoder = formDecoder;
+		this.multipartConfig = multipartConfig;
+		this.valueFunctions = new Function[valueParamProviders.length];
+		for (int i=0; i < valueParamProviders.length; i++) {
+			final int index = i;
+			this.valueFunctions[i] = valueParamProviders[i] != null 
+					? valueParamProviders[i].getValueProvider(null) 
+					: context -> { throw new IllegalStateException("There is no value provider for parameter "+index); };
+		}
+		this.invoker = invoker;
+	}
+
+	public PathTemplate getPathTemplate() {
+		return this.pathTemplate;
+	}
+
+	public int getParameterCount() {
+		return this.valueFunctions.length;
+	}
+
+	/**
+	 * @param request
+	 * @return the context to build the arguments of a request, to be released once the request has been handled
+	 */
+	public ParameterContext createContext(Request request) {
+		return new ParameterContext(request, this.pathTemplate, this.formDecoder, this.multipartConfig);
+	}
+
+	/**
+	 * @param request
+	 * @param response
+	 * @return the context to build the arguments of a request, to be released once the request has been handled
+	 */
+	public ParameterContext createContext(Request request, Response response) {
+		ParameterContext context = createContext(request);
+		context.setResponse(response);
+		return context;
+	}
+
+	public Object[] buildArguments(Request request) {
+		return buildArguments(createContext(request));
+	}
+
+	public Object[] buildArguments(ParameterContext context) {
+		Function<ParameterContext, ?>[] functions = this.valueFunctions;
+		Object[] arguments = new Object[functions.length];
+		for (int i=0; i < functions.length; i++) {
+			arguments[i] = functions[i].apply(context);
+		}
+		return arguments;
+	}
+
+	public Object invoke(Object[] arguments) throws Exception {
+		return this.invoker.invoke(arguments);
+	}
+
+}
@@ -36,10 +36,10 @@ import spark.route.HttpMethod;
 public class OptionsRoute extends AbstractRoute {
 	private static final Logger LOGGER = LoggerFactory.getLogger(OptionsRoute.class);
 
-	public OptionsRoute(String path, Object resource, Method method, Consumes defaultConsumes, Produces defaultProduces, ParameterExtractorFactory parameterExtractorFactory, ResponseTransformerProvider responseTransformerProvider, Validator validator) {
-		super(path, resource, method, defaultConsumes, defaultProduces, parameterExtractorFactory, responseTransformerProvider, validator);
+	public OptionsRoute(String path, Object resource, Method method, ResourceMethodInvoker invoker, Consumes defaultConsumes, Produces defaultProduces, ParameterExtractorFactory parameterExtractorFactory, ResponseTransformerProvider responseTransformerProvider, Validator validator, RouteOptions routeOptions) {
+		super(path, resource, method, invoker, defaultConsumes, defaultProduces, parameterExtractorFactory, responseTransformerProvider, validator, routeOptions);
 		LOGGER.info(String.format("%s.%s OPTIONS %s", resource.getClass().getSimpleName(), method.getName(), path) );
-		Spark.options(getPath(), this, getResponseTransformer());
+		Spark.options(getPath(), this, getSparkResponseTransformer());
 	}
 
 	public HttpMethod getHttpMethod() {
@@ -35,10 +35,10 @@ import java.lang.reflect.Method;
 public class PatchRoute extends AbstractBodyRoute {
     private static final Logger LOGGER = LoggerFactory.getLogger(PatchRoute.class);
 
-    public PatchRoute(String path, Object resource, Method method, Consumes defaultConsumes, Produces defaultProduces, ParameterExtractorFactory parameterExtractorFactory, ResponseTransformerProvider responseTransformerProvider, Validator validator) {
-        super(path, resource, method, defaultConsumes, defaultProduces, parameterExtractorFactory, responseTransformerProvider, validator);
+    public PatchRoute(String path, Object resource, Method method, ResourceMethodInvoker invoker, Consumes defaultConsumes, Produces defaultProduces, ParameterExtractorFactory parameterExtractorFactory, ResponseTransformerProvider responseTransformerProvider, Validator validator, RouteOptions routeOptions) {
+        super(path, resource, method, invoker, defaultConsumes, defaultProduces, parameterExtractorFactory, responseTransformerProvider, validator, routeOptions);
         LOGGER.info(String.format("%s.%s PATCH %s", resource.getClass().getSimpleName(), method.getName(), path) );
-        Spark.patch(getPath(), this, getResponseTransformer());
+        Spark.patch(getPath(), this, getSparkResponseTransformer());
     }
 
 	public HttpMethod getHttpMethod() {
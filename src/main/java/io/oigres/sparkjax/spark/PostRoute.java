@@ -36,10 +36,10 @@ import spark.route.HttpMethod;
 public class PostRoute extends AbstractBodyRoute {
 	private static final Logger LOGGER = LoggerFactory.getLogger(PostRoute.class);
 
-	public PostRoute(String path, Object resource, Method method, Consumes defaultConsumes, Produces defaultProduces, ParameterExtractorFactory parameterExtractorFactory, ResponseTransformerProvider responseTransformerProvider, Validator validator) {
-		super(path, resource, method, defaultConsumes, defaultProduces, parameterExtractorFactory, responseTransformerProvider, validator);
+	public PostRoute(String path, Object resource, Method method, ResourceMethodInvoker invoker, Consumes defaultConsumes, Produces defaultProduces, ParameterExtractorFactory parameterExtractorFactory, ResponseTransformerProvider responseTransformerProvider, Validator validator, RouteOptions routeOptions) {
+		super(path, resource, method, invoker, defaultConsumes, defaultProduces, parameterExtractorFactory, responseTransformerProvider, validator, routeOptions);
 		LOGGER.info(String.format("%s.%s POST %s", resource.getClass().getSimpleName(), method.getName(), path) );
-		Spark.post(getPath(), this, getResponseTransformer());
+		Spark.post(getPath(), this, getSparkResponseTransformer());
 	}
 
 	public HttpMethod getHttpMethod() {
@@ -36,10 +36,10 @@ import spark.route.HttpMethod;
 public class PutRoute extends AbstractBodyRoute {
 	private static final Logger LOGGER = LoggerFactory.getLogger(PutRoute.class);
 
-	public PutRoute(String path, Object resource, Method method, Consumes defaultConsumes, Produces defaultProduces, ParameterExtractorFactory parameterExtractorFactory, ResponseTransformerProvider responseTransformerProvider, Validator validator) {
-		super(path, resource, method, defaultConsumes, defaultProduces, parameterExtractorFactory, responseTransformerProvider, validator);
+	public PutRoute(String path, Object resource, Method method, ResourceMethodInvoker invoker, Consumes defaultConsumes, Produces defaultProduces, ParameterExtractorFactory parameterExtractorFactory, ResponseTransformerProvider responseTransformerProvider, Validator validator, RouteOptions routeOptions) {
+		super(path, resource, method, invoker, defaultConsumes, defaultProduces, parameterExtractorFactory, responseTransformerProvider, validator, routeOptions);
 		LOGGER.info(String.format("%s.%s POST %s", resource.getClass().getSimpleName(), method.getName(), path) );
-		Spark.put(getPath(), this, getResponseTransformer());
+		Spark.put(getPath(), this, getSparkResponseTransformer());
 	}
 
 	public HttpMethod getHttpMethod() {
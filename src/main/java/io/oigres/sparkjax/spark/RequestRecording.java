@@ -0,0 +1,134 @@
+/**********
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU General Public License as published by the
+ Free Software Foundation; either version 3.0 of the License, or (at your
+ option) any later version. (See <https://www.gnu.org/licenses/gpl-3.0.html>.)
+
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ more details.
+
+ You should have received a copy of the GNU General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301  USA
+ **********/
+// Copyright (c) 2020-2024 Sergio Exposito.  All rights reserved.
+package io.oigres.sparkjax.spark;
+
+import io.oigres.sparkjax.metrics.Phase;
+import io.oigres.sparkjax.metrics.RouteMetrics;
+import io.oigres.sparkjax.tracing.Span;
+import io.oigres.sparkjax.tracing.TraceContext;
+import io.oigres.sparkjax.tracing.Tracer;
+import spark.Request;
+
+/**
+ * Metrics and spans of a request handled by a route, from its start in {@link AbstractRoute#handle(spark.Request, spark.Response)} 
+ * to its end in {@link RequestRecordingFilter}. Only routes with metrics or a tracer create it.
+ * 
+ * @author Sergio Exposito
+ */
+final class RequestRecording {
+	static final String ATTRIBUTE = RequestRecording.class.getName();
+	// Spark renders the result on the request thread right after the route returns
+	private static final ThreadLocal<RequestRecording> RENDERING = new ThreadLocal<RequestRecording>();
+
+	private final RouteMetrics metrics;
+	private final Tracer tracer;
+	private final Span span;
+	private final long startNanos;
+	private Phase phase;
+	private long phaseStartNanos;
+	private Span phaseSpan;
+
+	private RequestRecording(RouteMetrics metrics, Tracer tracer, Span span, long startNanos) {
+		this.metrics = metrics;
+		this.tracer = tracer;
+		this.span = span;
+		this.startNanos = startNanos;
+	}
+
+	/**
+	 * @param tracer null if the route is not traced
+	 * @param spanName name of the span of the request
+	 */
+	static RequestRecording start(Request request, RouteMetrics metrics, Tracer tracer, String spanName, String route) {
+		long startNanos = System.nanoTime();
+		Span span = null;
+		if (tracer != null) {
+			span = tracer.startSpan(spanName, TraceContext.parse(request.headers(TraceContext.TRACEPARENT_HEADER)));
+			if (span != null) {
+				span.setAttribute("http.request.method", request.requestMethod());
+				span.setAttribute("http.route", route);
+				request.raw().setAttribute(TraceContext.ATTRIBUTE, span.getContext());
+			}
+		}
+		RequestRecording recording = new RequestRecording(metrics, tracer, span, startNanos);
+		request.raw().setAttribute(ATTRIBUTE, recording);
+		return recording;
+	}
+
+	/**
+	 * Ends the current phase, if any, and starts the given one.
+	 */
+	void startPhase(Phase phase) {
+		endPhase();
+		this.phase = phase;
+		this.phaseStartNanos = System.nanoTime();
+		if (this.span != null) {
+			this.phaseSpan = this.tracer.startSpan(phase.name().toLowerCase(), this.span.getContext());
+		}
+	}
+
+	void endPhase() {
+		if (this.phase == null) {
+			return;
+		}
+		if (this.metrics != null) {
+			this.metrics.recordPhase(this.phase, System.nanoTime() - this.phaseStartNanos);
+		}
+		if (this.phaseSpan != null) {
+			this.phaseSpan.end();
+			this.phaseSpan = null;
+		}
+		this.phase = null;
+	}
+
+	/**
+	 * Hands the recording to the response transformer, see {@link #rendering()}.
+	 */
+	void beforeRendering() {
+		endPhase();
+		RENDERING.set(this);
+	}
+
+	/**
+	 * @return the recording of the request being rendered on this thread, or null
+	 */
+	static RequestRecording rendering() {
+		RequestRecording recording = RENDERING.get();
+		if (recording != null) {
+			RENDERING.remove();
+		}
+		return recording;
+	}
+
+	/**
+	 * Ends the request with the status sent to the client.
+	 */
+	void end(int status) {
+		endPhase();
+		if (RENDERING.get() == this) {
+			RENDERING.remove();
+		}
+		if (this.metrics != null) {
+			this.metrics.recordRequest(status, System.nanoTime() - this.startNanos);
+		}
+		if (this.span != null) {
+			this.span.setStatus(status);
+			this.span.end();
+		}
+	}
+
+}
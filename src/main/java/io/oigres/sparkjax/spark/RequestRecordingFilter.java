@@ -0,0 +1,43 @@
+/**********
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU General Public License as published by the
+ Free Software Foundation; either version 3.0 of the License, or (at your
+ option) any later version. (See <https://www.gnu.org/licenses/gpl-3.0.html>.)
+
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ more details.
+
+ You should have received a copy of the GNU General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301  USA
+ **********/
+// Copyright (c) 2020-2024 Sergio Exposito.  All rights reserved.
+package io.oigres.sparkjax.spark;
+
+import spark.Filter;
+import spark.Request;
+import spark.Response;
+
+/**
+ * Ends the metrics and the spans of the requests handled by routes with metrics or a tracer. 
+ * 
+ * It runs after the exception handlers and the halts, so the status is the one sent to the client. 
+ * The recording is removed from the request once ended, so registering the filter more than once does 
+ * not count a request twice.
+ * 
+ * @author Sergio Exposito
+ */
+public class RequestRecordingFilter implements Filter {
+
+	@Override
+	public void handle(Request request, Response response) throws Exception {
+		RequestRecording recording = (RequestRecording)request.raw().getAttribute(RequestRecording.ATTRIBUTE);
+		if (recording != null) {
+			request.raw().removeAttribute(RequestRecording.ATTRIBUTE);
+			recording.end(response.raw().getStatus());
+		}
+	}
+
+}
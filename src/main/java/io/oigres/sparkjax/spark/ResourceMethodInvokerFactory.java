@@ -0,0 +1,70 @@
+/**********
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU General Public License as published by the
+ Free Software Foundation; either version 3.0 of the License, or (at your
+ option) any later version. (See <https://www.gnu.org/licenses/gpl-3.0.html>.)
+
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ more details.
+
+ You should have received a copy of the GNU General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301  USA
+ **********/
+// Copyright (c) 2020-2024 Sergio Exposito.  All rights reserved.
+package io.oigres.sparkjax.spark;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.oigres.sparkjax.spark.invokers.MethodHandleResourceMethodInvoker;
+import io.oigres.sparkjax.spark.invokers.ReflectiveResourceMethodInvoker;
+
+/**
+ * Binds resource methods to {@link ResourceMethodInvoker}s once, when the routes are built.
+ *
+ * @author Sergio Exposito
+ */
+public class ResourceMethodInvokerFactory {
+	private static final Logger log = LoggerFactory.getLogger(ResourceMethodInvokerFactory.class);
+
+	public ResourceMethodInvokerFactory() {
+	}
+
+	public ResourceMethodInvoker bind(Object resource, Method method) {
+		MethodHandle handle = unreflect(method);
+		if (handle == null) {
+			log.debug("{}.{} can not be bound to a method handle, reflection will be used", resource.getClass().getSimpleName(), method.getName());
+			return new ReflectiveResourceMethodInvoker(resource, method);
+		}
+		if (!Modifier.isStatic(method.getModifiers())) {
+			handle = handle.bindTo(resource);
+		}
+		return new MethodHandleResourceMethodInvoker(handle);
+	}
+
+	/**
+	 * @return the method handle of the method, or null if it can not be unreflected and reflection has to be used
+	 */
+	protected MethodHandle unreflect(Method method) {
+		try {
+			return MethodHandles.publicLookup().unreflect(method);
+		} catch (IllegalAccessException e) {
+			// non public resource class, try again suppressing the access checks
+		}
+		try {
+			method.setAccessible(true);
+			return MethodHandles.lookup().unreflect(method);
+		} catch (RuntimeException | IllegalAccessException e) {
+			return null;
+		}
+	}
+
+}
@@ -0,0 +1,496 @@
+/**********
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU General Public License as published by the
+ Free Software Foundation; either version 3.0 of the License, or (at your
+ option) any later version. (See <https://www.gnu.org/licenses/gpl-3.0.html>.)
+
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ more details.
+
+ You should have received a copy of the GNU General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301  USA
+ **********/
+// Copyright (c) 2020-2024 Sergio Exposito.  All rights reserved.
+package io.oigres.sparkjax.spark;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import javax.ws.rs.core.MediaType;
+
+import io.oigres.sparkjax.cache.ResponseCacheRegistry;
+import io.oigres.sparkjax.compression.ContentEncoder;
+import io.oigres.sparkjax.compression.DeflateContentEncoder;
+import io.oigres.sparkjax.compression.GzipContentEncoder;
+import io.oigres.sparkjax.jaxrs.util.FormDecoder;
+import io.oigres.sparkjax.metrics.MetricsRegistry;
+import io.oigres.sparkjax.tracing.Tracer;
+
+/**
+ * Settings shared by all the routes created by a {@link io.oigres.sparkjax.RouteBuilder}.
+ * 
+ * @author Sergio Exposito
+ */
+public class RouteOptions {
+	public static final long UNLIMITED = -1;
+
+	private boolean streamingRequestBody = false;
+	private long maxRequestBodySize = UNLIMITED;
+	private boolean streamingResponseBody = false;
+	private int maxFormFields = FormDecoder.DEFAULT_MAX_FIELDS;
+	private long maxFormSize = FormDecoder.DEFAULT_MAX_SIZE;
+	private String multipartLocation = null;
+	private long maxPartSize = UNLIMITED;
+	private long maxMultipartSize = UNLIMITED;
+	private int multipartFileSizeThreshold = 16 * 1024;
+	private long asyncTimeout = 30000;
+	private boolean offloadInvocation = false;
+	private int maxInvocationConcurrency = 256;
+	private int maxInvocationQueue = 1024;
+	private InvocationExecutor invocationExecutor;
+	private int maxConcurrentRequests = (int)UNLIMITED;
+	private long concurrencyWaitMillis = 0;
+	private int maxConcurrencyWaiters = -1;
+	private int retryAfterSeconds = 1;
+	private boolean adaptiveConcurrency = false;
+	private MetricsRegistry metricsRegistry = MetricsRegistry.NOOP;
+	private String metricsPath = null;
+	private Tracer tracer = Tracer.NOOP;
+	private boolean compressResponse = false;
+	private int compressionMinSize = 1024;
+	private List<MediaType> compressibleMediaTypes = Arrays.asList(MediaType.APPLICATION_JSON_TYPE, MediaType.APPLICATION_XML_TYPE, new MediaType("text", MediaType.MEDIA_TYPE_WILDCARD));
+	private List<ContentEncoder> contentEncoders = Arrays.asList(new GzipContentEncoder(), new DeflateContentEncoder());
+	private boolean generateETags = false;
+	private boolean weakETags = true;
+	private ResponseCacheRegistry responseCacheRegistry = new ResponseCacheRegistry();
+	private final Map<Object, ConcurrencyLimiter> resourceLimiters = new IdentityHashMap<Object, ConcurrencyLimiter>();
+
+	public boolean isStreamingRequestBody() {
+		return streamingRequestBody;
+	}
+
+	/**
+	 * When enabled, {@link javax.ws.rs.BeanParam} parameters are deserialized straight from the request 
+	 * input stream instead of from <code>request.body()</code>, so the body is not available afterwards.
+	 * 
+	 * @param streamingRequestBody
+	 */
+	public void setStreamingRequestBody(boolean streamingRequestBody) {
+		this.streamingRequestBody = streamingRequestBody;
+	}
+
+	public long getMaxRequestBodySize() {
+		return maxRequestBodySize;
+	}
+
+	/**
+	 * Maximum size in bytes of a streamed request body, bigger bodies are rejected with 413. 
+	 * {@link #UNLIMITED} by default.
+	 * 
+	 * @param maxRequestBodySize
+	 */
+	public void setMaxRequestBodySize(long maxRequestBodySize) {
+		this.maxRequestBodySize = maxRequestBodySize;
+	}
+
+	public boolean isStreamingResponseBody() {
+		return streamingResponseBody;
+	}
+
+	/**
+	 * When enabled, responses are written straight to the response output stream by the 
+	 * {@link io.oigres.sparkjax.jaxrs.StreamingResponseTransformer} of the produced media type. 
+	 * It can be set per resource or method with {@link io.oigres.sparkjax.annotations.StreamingResponse}.
+	 * 
+	 * @param streamingResponseBody
+	 */
+	public void setStreamingResponseBody(boolean streamingResponseBody) {
+		this.streamingResponseBody = streamingResponseBody;
+	}
+
+	public int getMaxFormFields() {
+		return maxFormFields;
+	}
+
+	/**
+	 * Maximum number of fields of an <code>application/x-www-form-urlencoded</code> body, bigger forms 
+	 * are rejected with 413. {@value io.oigres.sparkjax.jaxrs.util.FormDecoder#DEFAULT_MAX_FIELDS} by default.
+	 * 
+	 * @param maxFormFields
+	 */
+	public void setMaxFormFields(int maxFormFields) {
+		this.maxFormFields = maxFormFields;
+	}
+
+	public long getMaxFormSize() {
+		return maxFormSize;
+	}
+
+	/**
+	 * Maximum size in bytes of an <code>application/x-www-form-urlencoded</code> body, bigger forms 
+	 * are rejected with 413. {@value io.oigres.sparkjax.jaxrs.util.FormDecoder#DEFAULT_MAX_SIZE} by default.
+	 * 
+	 * @param maxFormSize
+	 */
+	public void setMaxFormSize(long maxFormSize) {
+		this.maxFormSize = maxFormSize;
+	}
+
+	public String getMultipartLocation() {
+		return multipartLocation;
+	}
+
+	/**
+	 * Directory where <code>multipart/form-data</code> parts are spooled and where 
+	 * {@link java.nio.file.Path} parameters are created. The system temporary directory by default.
+	 * 
+	 * @param multipartLocation
+	 */
+	public void setMultipartLocation(String multipartLocation) {
+		this.multipartLocation = multipartLocation;
+	}
+
+	public long getMaxPartSize() {
+		return maxPartSize;
+	}
+
+	/**
+	 * Maximum size in bytes of a single <code>multipart/form-data</code> part, checked while the part 
+	 * is read. Bigger parts are rejected with 413. {@link #UNLIMITED} by default.
+	 * 
+	 * @param maxPartSize
+	 */
+	public void setMaxPartSize(long maxPartSize) {
+		this.maxPartSize = maxPartSize;
+	}
+
+	public long getMaxMultipartSize() {
+		return maxMultipartSize;
+	}
+
+	/**
+	 * Maximum size in bytes of a whole <code>multipart/form-data</code> body, checked while the body 
+	 * is read. Bigger bodies are rejected with 413. {@link #UNLIMITED} by default.
+	 * 
+	 * @param maxMultipartSize
+	 */
+	public void setMaxMultipartSize(long maxMultipartSize) {
+		this.maxMultipartSize = maxMultipartSize;
+	}
+
+	public int getMultipartFileSizeThreshold() {
+		return multipartFileSizeThreshold;
+	}
+
+	/**
+	 * Size in bytes above which a <code>multipart/form-data</code> part is spooled to a file in the 
+	 * multipart location instead of being kept in memory. 16 KB by default.
+	 * 
+	 * @param multipartFileSizeThreshold
+	 */
+	public void setMultipartFileSizeThreshold(int multipartFileSizeThreshold) {
+		this.multipartFileSizeThreshold = multipartFileSizeThreshold;
+	}
+
+	public long getAsyncTimeout() {
+		return asyncTimeout;
+	}
+
+	/**
+	 * Milliseconds to wait for the result of a resource method returning a {@link java.util.concurrent.CompletionStage} 
+	 * or taking a {@link javax.ws.rs.container.Suspended} response, the request is answered with 503 afterwards. 
+	 * It also bounds the wait for a concurrent load of a {@link io.oigres.sparkjax.annotations.Cached} response, 
+	 * the request loads the response itself afterwards. 30 seconds by default.
+	 * 
+	 * @param asyncTimeout
+	 * @throws IllegalArgumentException when the timeout is not positive
+	 */
+	public void setAsyncTimeout(long asyncTimeout) {
+		if (asyncTimeout <= 0) {
+			throw new IllegalArgumentException("asyncTimeout must be positive: "+asyncTimeout);
+		}
+		this.asyncTimeout = asyncTimeout;
+	}
+
+	public boolean isOffloadInvocation() {
+		return offloadInvocation;
+	}
+
+	/**
+	 * When enabled, resource methods are invoked on the {@link InvocationExecutor} instead of the request thread, 
+	 * which is released until the response is written. It needs the {@link AsyncEmbeddedServerFactory}, otherwise 
+	 * and on cached routes the methods are invoked on the request thread. It can be set per resource or method 
+	 * with {@link io.oigres.sparkjax.annotations.OffloadInvocation}.
+	 * 
+	 * @param offloadInvocation
+	 */
+	public void setOffloadInvocation(boolean offloadInvocation) {
+		this.offloadInvocation = offloadInvocation;
+	}
+
+	public int getMaxInvocationConcurrency() {
+		return maxInvocationConcurrency;
+	}
+
+	/**
+	 * Maximum number of offloaded invocations running at the same time. 256 by default.
+	 * 
+	 * @param maxInvocationConcurrency
+	 */
+	public void setMaxInvocationConcurrency(int maxInvocationConcurrency) {
+		this.maxInvocationConcurrency = maxInvocationConcurrency;
+	}
+
+	public int getMaxInvocationQueue() {
+		return maxInvocationQueue;
+	}
+
+	/**
+	 * Maximum number of offloaded invocations waiting to run, further requests are rejected with 503. Invocations that 
+	 * start right away are not counted, with 0 requests are only accepted while there is free concurrency. 1024 by default.
+	 * 
+	 * @param maxInvocationQueue
+	 */
+	public void setMaxInvocationQueue(int maxInvocationQueue) {
+		this.maxInvocationQueue = maxInvocationQueue;
+	}
+
+	/**
+	 * @return the executor of offloaded invocations, created from the concurrency and queue limits the first time it is asked for
+	 */
+	public synchronized InvocationExecutor getInvocationExecutor() {
+		if (invocationExecutor == null) {
+			invocationExecutor = new InvocationExecutor(maxInvocationConcurrency, maxInvocationQueue);
+		}
+		return invocationExecutor;
+	}
+
+	public synchronized void setInvocationExecutor(InvocationExecutor invocationExecutor) {
+		this.invocationExecutor = invocationExecutor;
+	}
+
+	public int getMaxConcurrentRequests() {
+		return maxConcurrentRequests;
+	}
+
+	/**
+	 * Maximum number of requests in flight of each route without a {@link io.oigres.sparkjax.annotations.Bulkhead}, 
+	 * further requests are rejected with 503. {@link #UNLIMITED} by default.
+	 * 
+	 * @param maxConcurrentRequests
+	 */
+	public void setMaxConcurrentRequests(int maxConcurrentRequests) {
+		this.maxConcurrentRequests = maxConcurrentRequests;
+	}
+
+	public long getConcurrencyWaitMillis() {
+		return concurrencyWaitMillis;
+	}
+
+	/**
+	 * Milliseconds a request over the route limit waits for a slot before being rejected. 0 by default.
+	 * 
+	 * @param concurrencyWaitMillis
+	 */
+	public void setConcurrencyWaitMillis(long concurrencyWaitMillis) {
+		this.concurrencyWaitMillis = concurrencyWaitMillis;
+	}
+
+	public int getMaxConcurrencyWaiters() {
+		return maxConcurrencyWaiters;
+	}
+
+	/**
+	 * Maximum number of requests over the route limit waiting for a slot at the same time, further requests are 
+	 * rejected right away. -1, the same as the route limit, by default.
+	 * 
+	 * @param maxConcurrencyWaiters
+	 */
+	public void setMaxConcurrencyWaiters(int maxConcurrencyWaiters) {
+		this.maxConcurrencyWaiters = maxConcurrencyWaiters;
+	}
+
+	public int getRetryAfterSeconds() {
+		return retryAfterSeconds;
+	}
+
+	/**
+	 * Seconds sent in the Retry-After header of requests rejected by the route limit. 1 by default.
+	 * 
+	 * @param retryAfterSeconds
+	 */
+	public void setRetryAfterSeconds(int retryAfterSeconds) {
+		this.retryAfterSeconds = retryAfterSeconds;
+	}
+
+	public boolean isAdaptiveConcurrency() {
+		return adaptiveConcurrency;
+	}
+
+	/**
+	 * When enabled, the route limit adapts to the observed latency, see {@link ConcurrencyLimiter}.
+	 * 
+	 * @param adaptiveConcurrency
+	 */
+	public void setAdaptiveConcurrency(boolean adaptiveConcurrency) {
+		this.adaptiveConcurrency = adaptiveConcurrency;
+	}
+
+	public MetricsRegistry getMetricsRegistry() {
+		return metricsRegistry;
+	}
+
+	/**
+	 * Registry asked for the recorder of every route, see {@link io.oigres.sparkjax.metrics.SimpleMetricsRegistry}. 
+	 * {@link MetricsRegistry#NOOP} by default, so nothing is recorded.
+	 * 
+	 * @param metricsRegistry
+	 */
+	public void setMetricsRegistry(MetricsRegistry metricsRegistry) {
+		this.metricsRegistry = metricsRegistry != null ? metricsRegistry : MetricsRegistry.NOOP;
+	}
+
+	public String getMetricsPath() {
+		return metricsPath;
+	}
+
+	/**
+	 * Path of a GET route answering the metrics in Prometheus text format, eg. <code>/metrics</code>. 
+	 * It requires a {@link io.oigres.sparkjax.metrics.SimpleMetricsRegistry}. No route by default.
+	 * 
+	 * @param metricsPath
+	 */
+	public void setMetricsPath(String metricsPath) {
+		this.metricsPath = metricsPath;
+	}
+
+	public Tracer getTracer() {
+		return tracer;
+	}
+
+	/**
+	 * Tracer of the requests and their phases, see {@link io.oigres.sparkjax.tracing.RingBufferTracer}. 
+	 * {@link Tracer#NOOP} by default, so no span is created.
+	 * 
+	 * @param tracer
+	 */
+	public void setTracer(Tracer tracer) {
+		this.tracer = tracer != null ? tracer : Tracer.NOOP;
+	}
+
+	public boolean isCompressResponse() {
+		return compressResponse;
+	}
+
+	/**
+	 * When enabled, responses of the compressible media types are compressed with the content coding negotiated 
+	 * with the <code>Accept-Encoding</code> request header, while they are written. 
+	 * It can be set per resource or method with {@link io.oigres.sparkjax.annotations.CompressResponse}.
+	 * 
+	 * @param compressResponse
+	 */
+	public void setCompressResponse(boolean compressResponse) {
+		this.compressResponse = compressResponse;
+	}
+
+	public int getCompressionMinSize() {
+		return compressionMinSize;
+	}
+
+	/**
+	 * Size in bytes above which responses are compressed, smaller ones are not worth it. 1 KB by default.
+	 * 
+	 * @param compressionMinSize
+	 */
+	public void setCompressionMinSize(int compressionMinSize) {
+		this.compressionMinSize = compressionMinSize;
+	}
+
+	public List<MediaType> getCompressibleMediaTypes() {
+		return compressibleMediaTypes;
+	}
+
+	/**
+	 * Produced media types whose responses are compressed, wildcards are allowed. 
+	 * <code>application/json</code>, <code>application/xml</code> and <code>text/*</code> by default.
+	 * 
+	 * @param compressibleMediaTypes
+	 */
+	public void setCompressibleMediaTypes(List<MediaType> compressibleMediaTypes) {
+		this.compressibleMediaTypes = compressibleMediaTypes != null ? compressibleMediaTypes : Collections.emptyList();
+	}
+
+	public List<ContentEncoder> getContentEncoders() {
+		return contentEncoders;
+	}
+
+	/**
+	 * Content codings responses are compressed with, in order of preference when the client accepts several 
+	 * equally. {@link GzipContentEncoder} and {@link DeflateContentEncoder} by default.
+	 * 
+	 * @param contentEncoders
+	 */
+	public void setContentEncoders(List<ContentEncoder> contentEncoders) {
+		this.contentEncoders = contentEncoders != null ? contentEncoders : Collections.emptyList();
+	}
+
+	public boolean isGenerateETags() {
+		return generateETags;
+	}
+
+	/**
+	 * When enabled, GET responses carry an entity tag hashed from the rendered body and are answered with 304 
+	 * when it matches the <code>If-None-Match</code> request header. 
+	 * It can be set per resource or method with {@link io.oigres.sparkjax.annotations.ETag}.
+	 * 
+	 * @param generateETags
+	 */
+	public void setGenerateETags(boolean generateETags) {
+		this.generateETags = generateETags;
+	}
+
+	public boolean isWeakETags() {
+		return weakETags;
+	}
+
+	/**
+	 * When enabled, generated entity tags are weak, so they are the same whatever the content coding. 
+	 * Strong tags of compressed responses end with the content coding. True by default.
+	 * 
+	 * @param weakETags
+	 */
+	public void setWeakETags(boolean weakETags) {
+		this.weakETags = weakETags;
+	}
+
+	public ResponseCacheRegistry getResponseCacheRegistry() {
+		return responseCacheRegistry;
+	}
+
+	/**
+	 * Registry of the caches of the routes annotated with {@link io.oigres.sparkjax.annotations.Cached}, 
+	 * through which resources invalidate cached responses.
+	 * 
+	 * @param responseCacheRegistry
+	 */
+	public void setResponseCacheRegistry(ResponseCacheRegistry responseCacheRegistry) {
+		this.responseCacheRegistry = responseCacheRegistry != null ? responseCacheRegistry : new ResponseCacheRegistry();
+	}
+
+	/**
+	 * @return the limiter shared by all the routes of a resource
+	 */
+	ConcurrencyLimiter getResourceLimiter(Object resource, Supplier<ConcurrencyLimiter> factory) {
+		synchronized (resourceLimiters) {
+			return resourceLimiters.computeIfAbsent(resource, r -> factory.get());
+		}
+	}
+
+}
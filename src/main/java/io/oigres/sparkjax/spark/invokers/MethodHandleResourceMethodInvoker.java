@@ -0,0 +1,56 @@
+/**********
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU General Public License as published by the
+ Free Software Foundation; either version 3.0 of the License, or (at your
+ option) any later version. (See <https://www.gnu.org/licenses/gpl-3.0.html>.)
+
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ more details.
+
+ You should have received a copy of the GNU General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301  USA
+ **********/
+// Copyright (c) 2020-2024 Sergio Exposito.  All rights reserved.
+package io.oigres.sparkjax.spark.invokers;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+
+import io.oigres.sparkjax.spark.ResourceMethodInvoker;
+
+/**
+ * Invokes the resource method through a {@link MethodHandle} bound to the resource instance
+ * and adapted to take the arguments as an array, so no access checks or exception wrapping 
+ * happen per call.
+ *
+ * @author Sergio Exposito
+ */
+public class MethodHandleResourceMethodInvoker implements ResourceMethodInvoker {
+	private static final MethodType INVOKER_TYPE = MethodType.methodType(Object.class, Object[].class);
+	private final MethodHandle handle;
+
+	/**
+	 * @param handle the method handle already bound to the resource instance (if the method is not static)
+	 */
+	public MethodHandleResourceMethodInvoker(MethodHandle handle) {
+		this.handle = handle
+				.asSpreader(Object[].class, handle.type().parameterCount())
+				.asType(INVOKER_TYPE);
+	}
+
+	@Override
+	public Object invoke(Object[] arguments) throws Exception {
+		try {
+			return (Object)this.handle.invokeExact(arguments);
+		} catch (Exception e) {
+			throw e;
+		} catch (Throwable e) {
+			// Keep the same contract than the reflective invocation, which wraps any non Exception cause
+			throw new Exception(e);
+		}
+	}
+
+}
@@ -0,0 +1,51 @@
+/**********
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU General Public License as published by the
+ Free Software Foundation; either version 3.0 of the License, or (at your
+ option) any later version. (See <https://www.gnu.org/licenses/gpl-3.0.html>.)
+
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ more details.
+
+ You should have received a copy of the GNU General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301  USA
+ **********/
+// Copyright (c) 2020-2024 Sergio Exposito.  All rights reserved.
+package io.oigres.sparkjax.spark.invokers;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+import io.oigres.sparkjax.spark.ResourceMethodInvoker;
+
+/**
+ * Invokes the resource method through {@link Method#invoke(Object, Object...)}.
+ * It is only used when the method can not be bound to a {@link java.lang.invoke.MethodHandle}.
+ *
+ * @author Sergio Exposito
+ */
+public class ReflectiveResourceMethodInvoker implements ResourceMethodInvoker {
+	private final Object resource;
+	private final Method method;
+
+	public ReflectiveResourceMethodInvoker(Object resource, Method method) {
+		this.resource = resource;
+		this.method = method;
+	}
+
+	@Override
+	public Object invoke(Object[] arguments) throws Exception {
+		try {
+			return this.method.invoke(this.resource, arguments);
+		} catch (InvocationTargetException e) {
+			if (e.getCause() instanceof Exception) {
+				throw (Exception)e.getCause();
+			}
+			throw new Exception(e.getCause());
+		}
+	}
+
+}
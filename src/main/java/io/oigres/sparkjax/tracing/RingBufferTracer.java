@@ -0,0 +1,164 @@
+/**********
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU General Public License as published by the
+ Free Software Foundation; either version 3.0 of the License, or (at your
+ option) any later version. (See <https://www.gnu.org/licenses/gpl-3.0.html>.)
+
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ more details.
+
+ You should have received a copy of the GNU General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301  USA
+ **********/
+// Copyright (c) 2020-2024 Sergio Exposito.  All rights reserved.
+package io.oigres.sparkjax.tracing;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.stream.Collectors;
+
+/**
+ * Reference tracer that keeps the last ended spans in memory, the older ones are overwritten. 
+ * Spans of traces not sampled by the caller are not kept.
+ * 
+ * @author Sergio Exposito
+ */
+public class RingBufferTracer implements Tracer {
+	private final AtomicReferenceArray<RecordedSpan> spans;
+	private final AtomicLong ended = new AtomicLong();
+
+	/**
+	 * @param capacity number of ended spans kept
+	 */
+	public RingBufferTracer(int capacity) {
+		this.spans = new AtomicReferenceArray<RecordedSpan>(capacity);
+	}
+
+	@Override
+	public Span startSpan(String name, TraceContext parent) {
+		TraceContext context = parent != null ? parent.newChild() : TraceContext.newRoot(true);
+		return new RecordedSpan(name, context, parent != null ? parent.getSpanId() : null);
+	}
+
+	private void export(RecordedSpan span) {
+		if (span.getContext().isSampled()) {
+			int capacity = this.spans.length();
+			this.spans.set((int)(this.ended.getAndIncrement() % capacity), span);
+		}
+	}
+
+	/**
+	 * @return the kept spans, from the oldest to the most recently ended
+	 */
+	public List<RecordedSpan> getSpans() {
+		int capacity = this.spans.length();
+		long last = this.ended.get();
+		List<RecordedSpan> result = new ArrayList<RecordedSpan>(capacity);
+		for (long i=Math.max(0, last - capacity); i < last; i++) {
+			RecordedSpan span = this.spans.get((int)(i % capacity));
+			if (span != null) {
+				result.add(span);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * @param traceId
+	 * @return the kept spans of a trace
+	 */
+	public List<RecordedSpan> getSpans(String traceId) {
+		return getSpans().stream()
+				.filter(span -> span.getContext().getTraceId().equals(traceId))
+				.collect(Collectors.toList());
+	}
+
+	/**
+	 * Span kept by a {@link RingBufferTracer} once ended.
+	 */
+	public class RecordedSpan implements Span {
+		private final String name;
+		private final TraceContext context;
+		private final String parentSpanId;
+		private final long startEpochMillis;
+		private final long startNanos;
+		private final Map<String, String> attributes = new LinkedHashMap<String, String>();
+		private volatile long durationNanos = -1;
+		private int status;
+
+		RecordedSpan(String name, TraceContext context, String parentSpanId) {
+			this.name = name;
+			this.context = context;
+			this.parentSpanId = parentSpanId;
+			this.startEpochMillis = System.currentTimeMillis();
+			this.startNanos = System.nanoTime();
+		}
+
+		@Override
+		public TraceContext getContext() {
+			return context;
+		}
+
+		@Override
+		public void setAttribute(String key, String value) {
+			this.attributes.put(key, value);
+		}
+
+		@Override
+		public void setStatus(int status) {
+			this.status = status;
+		}
+
+		@Override
+		public void end() {
+			if (this.durationNanos < 0) {
+				this.durationNanos = System.nanoTime() - this.startNanos;
+				export(this);
+			}
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		/**
+		 * @return the id of the parent span, or null if it is the root of the trace
+		 */
+		public String getParentSpanId() {
+			return parentSpanId;
+		}
+
+		public long getStartEpochMillis() {
+			return startEpochMillis;
+		}
+
+		public long getDurationNanos() {
+			return durationNanos;
+		}
+
+		public Map<String, String> getAttributes() {
+			return Collections.unmodifiableMap(attributes);
+		}
+
+		/**
+		 * @return the status code of the HTTP response, 0 if it was not set
+		 */
+		public int getStatus() {
+			return status;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%s %s parent=%s durationMicros=%d status=%d %s", name, context, parentSpanId, durationNanos / 1000, status, attributes);
+		}
+	}
+
+}
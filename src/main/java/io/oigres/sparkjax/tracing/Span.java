@@ -0,0 +1,43 @@
+/**********
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU General Public License as published by the
+ Free Software Foundation; either version 3.0 of the License, or (at your
+ option) any later version. (See <https://www.gnu.org/licenses/gpl-3.0.html>.)
+
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ more details.
+
+ You should have received a copy of the GNU General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301  USA
+ **********/
+// Copyright (c) 2020-2024 Sergio Exposito.  All rights reserved.
+package io.oigres.sparkjax.tracing;
+
+/**
+ * Timed operation of a trace, started by a {@link Tracer}. Spans are used by a single thread at a time.
+ * 
+ * @author Sergio Exposito
+ */
+public interface Span {
+
+	/**
+	 * @return the identifiers to propagate, or to start child spans with
+	 */
+	TraceContext getContext();
+
+	void setAttribute(String key, String value);
+
+	/**
+	 * @param status status code of the HTTP response
+	 */
+	void setStatus(int status);
+
+	/**
+	 * Ends the span, further calls are ignored.
+	 */
+	void end();
+
+}
@@ -0,0 +1,148 @@
+/**********
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU General Public License as published by the
+ Free Software Foundation; either version 3.0 of the License, or (at your
+ option) any later version. (See <https://www.gnu.org/licenses/gpl-3.0.html>.)
+
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ more details.
+
+ You should have received a copy of the GNU General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301  USA
+ **********/
+// Copyright (c) 2020-2024 Sergio Exposito.  All rights reserved.
+package io.oigres.sparkjax.tracing;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Identifiers of a span as propagated by the W3C Trace Context <code>traceparent</code> header, 
+ * eg. <code>00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01</code>.
+ * 
+ * @author Sergio Exposito
+ */
+public final class TraceContext {
+	public static final String TRACEPARENT_HEADER = "traceparent";
+	/**
+	 * Request attribute holding the context of the span of the route handling the request
+	 */
+	public static final String ATTRIBUTE = TraceContext.class.getName();
+	private static final int VERSION_00_LENGTH = 55;
+	private static final byte FLAG_SAMPLED = 0x01;
+	private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+	private final String traceId;
+	private final String spanId;
+	private final boolean sampled;
+
+	TraceContext(String traceId, String spanId, boolean sampled) {
+		this.traceId = traceId;
+		this.spanId = spanId;
+		this.sampled = sampled;
+	}
+
+	/**
+	 * @param traceparent value of the header
+	 * @return the context, or null if the header is missing or invalid
+	 */
+	public static TraceContext parse(String traceparent) {
+		if (traceparent == null) {
+			return null;
+		}
+		String value = traceparent.trim();
+		if (value.length() < VERSION_00_LENGTH || value.charAt(2) != '-' || value.charAt(35) != '-' || value.charAt(52) != '-') {
+			return null;
+		}
+		String version = value.substring(0, 2);
+		if (!isHex(version) || "ff".equals(version)) {
+			return null;
+		}
+		// Later versions may append fields, version 00 may not
+		if (value.length() > VERSION_00_LENGTH && ("00".equals(version) || value.charAt(VERSION_00_LENGTH) != '-')) {
+			return null;
+		}
+		String traceId = value.substring(3, 35);
+		String spanId = value.substring(36, 52);
+		String flags = value.substring(53, 55);
+		if (!isHex(traceId) || isZero(traceId) || !isHex(spanId) || isZero(spanId) || !isHex(flags)) {
+			return null;
+		}
+		return new TraceContext(traceId, spanId, (Integer.parseInt(flags, 16) & FLAG_SAMPLED) != 0);
+	}
+
+	/**
+	 * @return the context of the first span of a new trace
+	 */
+	public static TraceContext newRoot(boolean sampled) {
+		return new TraceContext(randomId(16), randomId(8), sampled);
+	}
+
+	/**
+	 * @return the context of a new span of the same trace
+	 */
+	public TraceContext newChild() {
+		return new TraceContext(this.traceId, randomId(8), this.sampled);
+	}
+
+	public String getTraceId() {
+		return traceId;
+	}
+
+	public String getSpanId() {
+		return spanId;
+	}
+
+	public boolean isSampled() {
+		return sampled;
+	}
+
+	/**
+	 * @return the value of the <code>traceparent</code> header to propagate the context
+	 */
+	public String toTraceparent() {
+		return "00-" + this.traceId + "-" + this.spanId + (this.sampled ? "-01" : "-00");
+	}
+
+	@Override
+	public String toString() {
+		return toTraceparent();
+	}
+
+	private static String randomId(int bytes) {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		char[] id = new char[bytes * 2];
+		do {
+			for (int i=0; i < id.length; i++) {
+				id[i] = HEX[random.nextInt(16)];
+			}
+		} while (isZero(id));
+		return new String(id);
+	}
+
+	private static boolean isHex(String value) {
+		for (int i=0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if ((c < '0' || c > '9') && (c < 'a' || c > 'f')) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean isZero(String value) {
+		return isZero(value.toCharArray());
+	}
+
+	private static boolean isZero(char[] value) {
+		for (char c : value) {
+			if (c != '0') {
+				return false;
+			}
+		}
+		return true;
+	}
+
+}
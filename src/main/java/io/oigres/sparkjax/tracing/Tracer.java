@@ -0,0 +1,39 @@
+/**********
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU General Public License as published by the
+ Free Software Foundation; either version 3.0 of the License, or (at your
+ option) any later version. (See <https://www.gnu.org/licenses/gpl-3.0.html>.)
+
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ more details.
+
+ You should have received a copy of the GNU General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301  USA
+ **********/
+// Copyright (c) 2020-2024 Sergio Exposito.  All rights reserved.
+package io.oigres.sparkjax.tracing;
+
+/**
+ * Extension point to plug a tracing library, eg. an OpenTelemetry <code>Tracer</code>, into the routes. 
+ * 
+ * For every request the route starts a span named after its method and path template, child of the 
+ * <code>traceparent</code> header when it is valid, and a child span for each phase: extraction, validation, 
+ * invocation and rendering. With {@link #NOOP} the routes do not create any span.
+ * 
+ * @author Sergio Exposito
+ */
+public interface Tracer {
+
+	Tracer NOOP = (name, parent) -> null;
+
+	/**
+	 * @param name
+	 * @param parent context of the parent span, local or propagated, or null to start a new trace
+	 * @return the started span
+	 */
+	Span startSpan(String name, TraceContext parent);
+
+}
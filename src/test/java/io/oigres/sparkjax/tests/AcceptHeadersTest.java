@@ -0,0 +1,62 @@
+package io.oigres.sparkjax.tests;
+
+import java.util.Locale;
+
+import javax.ws.rs.core.MediaType;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import io.oigres.sparkjax.jaxrs.util.AcceptHeaders;
+
+public class AcceptHeadersTest {
+
+	@Test
+	public void test_most_specific_media_range() {
+		// Given
+		String accept = "text/*;q=0.3, text/html;q=0.7, */*;q=0.1";
+
+		// When
+		double html = AcceptHeaders.mediaTypeQuality(accept, MediaType.TEXT_HTML_TYPE);
+		double plain = AcceptHeaders.mediaTypeQuality(accept, MediaType.TEXT_PLAIN_TYPE);
+		double json = AcceptHeaders.mediaTypeQuality(accept, MediaType.APPLICATION_JSON_TYPE);
+
+		// Verify
+		Assert.assertEquals(0.7, html, 0);
+		Assert.assertEquals(0.3, plain, 0);
+		Assert.assertEquals(0.1, json, 0);
+		Assert.assertEquals(1, AcceptHeaders.mediaTypeQuality(null, MediaType.TEXT_HTML_TYPE), 0);
+		Assert.assertEquals(0, AcceptHeaders.mediaTypeQuality("application/xml", MediaType.TEXT_HTML_TYPE), 0);
+	}
+
+	@Test
+	public void test_language_prefix() {
+		// Given
+		String acceptLanguage = "en;q=0.5, en-GB;q=0.8, *;q=0.1";
+
+		// When
+		double british = AcceptHeaders.languageQuality(acceptLanguage, Locale.UK);
+		double american = AcceptHeaders.languageQuality(acceptLanguage, Locale.US);
+		double spanish = AcceptHeaders.languageQuality(acceptLanguage, new Locale("es"));
+
+		// Verify
+		Assert.assertEquals(0.8, british, 0);
+		Assert.assertEquals(0.5, american, 0);
+		Assert.assertEquals(0.1, spanish, 0);
+		Assert.assertEquals(0, AcceptHeaders.languageQuality("en", new Locale("eng")), 0);
+	}
+
+	@Test
+	public void test_encoding() {
+		// Given
+		String acceptEncoding = "gzip;q=0.9, *;q=0.2";
+
+		// Verify
+		Assert.assertEquals(0.9, AcceptHeaders.encodingQuality(acceptEncoding, "gzip"), 0);
+		Assert.assertEquals(0.2, AcceptHeaders.encodingQuality(acceptEncoding, "br"), 0);
+		Assert.assertEquals(1, AcceptHeaders.encodingQuality("gzip", "identity"), 0);
+		Assert.assertEquals(0, AcceptHeaders.encodingQuality("gzip", "br"), 0);
+		Assert.assertEquals(0, AcceptHeaders.encodingQuality("identity;q=0", "identity"), 0);
+	}
+
+}
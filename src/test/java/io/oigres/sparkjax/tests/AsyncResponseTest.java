@@ -0,0 +1,137 @@
+package io.oigres.sparkjax.tests;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.Suspended;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import org.eclipse.jetty.http.HttpStatus;
+import org.junit.Assert;
+import org.junit.Test;
+
+import io.oigres.sparkjax.spark.RouteOptions;
+import io.oigres.sparkjax.tests.PostModelTest.Model;
+
+public class AsyncResponseTest extends HttpMethodTest {
+
+	@Path("/async")
+	static public interface AsyncResources {
+		@GET
+		@Path("/stage")
+		default CompletionStage<List<Model>> stage(@QueryParam("size") int size) {
+			return CompletableFuture.supplyAsync(() -> models(size));
+		}
+		@GET
+		@Path("/suspended")
+		default void suspended(@QueryParam("size") int size, @Suspended AsyncResponse asyncResponse) {
+			new Thread(() -> asyncResponse.resume(models(size))).start();
+		}
+		@GET
+		@Path("/timeout")
+		default CompletableFuture<List<Model>> timeout() {
+			return new CompletableFuture<List<Model>>();
+		}
+	}
+
+	static List<Model> models(int size) {
+		List<Model> result = new LinkedList<Model>();
+		for (int i=0; i < size; i++) {
+			Model model = new Model();
+			model.setName("Juan Perez "+i);
+			model.setAge(i);
+			result.add(model);
+		}
+		return result;
+	}
+
+	static public class AsyncController implements AsyncResources {
+	}
+
+	@Override
+	protected Set<Object> getResources() {
+    	return new HashSet<Object>(
+        		Arrays.asList(
+        				new AsyncController()
+        	    )
+        	);
+	}
+
+	@Override
+	protected RouteOptions getRouteOptions() {
+		RouteOptions routeOptions = new RouteOptions();
+		routeOptions.setAsyncTimeout(500);
+		return routeOptions;
+	}
+
+	@Test
+	public void test_completion_stage() throws Exception {
+		// Given
+		InputStream request = getRequest("get/async/completion_stage.json");
+		ByteArrayOutputStream response = new ByteArrayOutputStream();
+
+		// When
+        this.handler.proxyStream(request, response, new DummyContext());
+
+        // Verify
+        System.out.println(response.toString());
+		JsonElement lambdaResponse = readResponse(response);
+		assertStatus(lambdaResponse,  Response.Status.OK.getStatusCode());
+		assertContentType(lambdaResponse, MediaType.APPLICATION_JSON_TYPE);
+
+		String bodyJson = lambdaResponse.getAsJsonObject().get("body").getAsString();
+		JsonArray body = JsonParser.parseString(bodyJson).getAsJsonArray();
+        Assert.assertEquals(3, body.size());
+        Assert.assertEquals("Juan Perez 2", body.get(2).getAsJsonObject().get("name").getAsString());
+	}
+
+	@Test
+	public void test_suspended_response() throws Exception {
+		// Given
+		InputStream request = getRequest("get/async/suspended.json");
+		ByteArrayOutputStream response = new ByteArrayOutputStream();
+
+		// When
+        this.handler.proxyStream(request, response, new DummyContext());
+
+        // Verify
+        System.out.println(response.toString());
+		JsonElement lambdaResponse = readResponse(response);
+		assertStatus(lambdaResponse,  Response.Status.OK.getStatusCode());
+
+		String bodyJson = lambdaResponse.getAsJsonObject().get("body").getAsString();
+		JsonArray body = JsonParser.parseString(bodyJson).getAsJsonArray();
+        Assert.assertEquals(2, body.size());
+	}
+
+	@Test
+	public void test_timeout() throws Exception {
+		// Given
+		InputStream request = getRequest("get/async/timeout.json");
+		ByteArrayOutputStream response = new ByteArrayOutputStream();
+
+		// When
+        this.handler.proxyStream(request, response, new DummyContext());
+
+        // Verify
+        System.out.println(response.toString());
+		JsonElement lambdaResponse = readResponse(response);
+		assertStatus(lambdaResponse,  HttpStatus.SERVICE_UNAVAILABLE_503);
+	}
+
+}
@@ -0,0 +1,151 @@
+package io.oigres.sparkjax.tests;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import org.eclipse.jetty.http.HttpStatus;
+import org.junit.Assert;
+import org.junit.Test;
+
+import io.oigres.sparkjax.annotations.Bulkhead;
+import io.oigres.sparkjax.spark.AbstractRoute;
+import io.oigres.sparkjax.spark.ConcurrencyLimiter;
+import io.oigres.sparkjax.spark.RouteOptions;
+
+public class BulkheadTest extends HttpMethodTest {
+	// Spark keeps the routes of the first test, the limiter of a resource is shared through the options and the resource
+	private static final RouteOptions ROUTE_OPTIONS = new RouteOptions();
+	private static final BulkheadController CONTROLLER = new BulkheadController();
+
+	@Path("/bulkhead")
+	static public interface BulkheadResources {
+		@GET
+		@Path("/limited")
+		default Map<String,Object> limited() {
+			Map<String,Object> result = new HashMap<String,Object>();
+			result.put("result", "done");
+			return result;
+		}
+	}
+
+	@Bulkhead(value = 2, retryAfterSeconds = 5)
+	static public class BulkheadController implements BulkheadResources {
+	}
+
+	@Override
+	protected Set<Object> getResources() {
+    	return new HashSet<Object>(
+        		Arrays.asList(
+        				CONTROLLER
+        	    )
+        	);
+	}
+
+	@Override
+	protected RouteOptions getRouteOptions() {
+		return ROUTE_OPTIONS;
+	}
+
+	private ConcurrencyLimiter getLimiter() {
+		AbstractRoute route = this.routes.stream()
+				.filter(r -> r.getPath().equals("/bulkhead/limited"))
+				.findFirst()
+				.get();
+		return route.getConcurrencyLimiter();
+	}
+
+	@Test
+	public void test_request_within_limit() throws Exception {
+		// Given
+		InputStream request = getRequest("get/bulkhead.json");
+		ByteArrayOutputStream response = new ByteArrayOutputStream();
+		long accepted = getLimiter().getStatistics().getAccepted();
+
+		// When
+        this.handler.proxyStream(request, response, new DummyContext());
+
+        // Verify
+        System.out.println(response.toString());
+		JsonElement lambdaResponse = readResponse(response);
+		assertStatus(lambdaResponse,  Response.Status.OK.getStatusCode());
+        Assert.assertEquals(accepted + 1, getLimiter().getStatistics().getAccepted());
+        Assert.assertEquals(0, getLimiter().getStatistics().getInFlight());
+	}
+
+	@Test
+	public void test_request_over_limit() throws Exception {
+		// Given
+		InputStream request = getRequest("get/bulkhead.json");
+		ByteArrayOutputStream response = new ByteArrayOutputStream();
+		ConcurrencyLimiter limiter = getLimiter();
+		Assert.assertTrue(limiter.tryAcquire());
+		Assert.assertTrue(limiter.tryAcquire());
+
+		// When
+		try {
+	        this.handler.proxyStream(request, response, new DummyContext());
+		} finally {
+			limiter.release(0);
+			limiter.release(0);
+		}
+
+        // Verify
+        System.out.println(response.toString());
+		JsonElement lambdaResponse = readResponse(response);
+		assertStatus(lambdaResponse,  HttpStatus.SERVICE_UNAVAILABLE_503);
+		JsonObject headers = lambdaResponse.getAsJsonObject().get("multiValueHeaders").getAsJsonObject();
+        Assert.assertEquals("5", headers.get(HttpHeaders.RETRY_AFTER).getAsJsonArray().get(0).getAsString());
+	}
+
+	@Test
+	public void test_request_over_max_waiters_is_rejected_right_away() throws Exception {
+		// Given
+		ConcurrencyLimiter limiter = new ConcurrencyLimiter(1, 5000, 1, 1, false);
+		Assert.assertTrue(limiter.tryAcquire());
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		CountDownLatch started = new CountDownLatch(1);
+		try {
+			Future<Boolean> waiter = executor.submit(() -> {
+				started.countDown();
+				return limiter.tryAcquire();
+			});
+			Assert.assertTrue(started.await(5, TimeUnit.SECONDS));
+			while (limiter.getWaiters() == 0) {
+				Thread.sleep(1);
+			}
+
+			// When
+			long start = System.nanoTime();
+			boolean acquired = limiter.tryAcquire();
+			long elapsed = System.nanoTime() - start;
+
+			// Verify
+			Assert.assertFalse(acquired);
+			Assert.assertTrue(elapsed < TimeUnit.SECONDS.toNanos(1));
+			limiter.release(0);
+			Assert.assertTrue(waiter.get(5, TimeUnit.SECONDS));
+			Assert.assertEquals(0, limiter.getWaiters());
+			Assert.assertEquals(1, limiter.getStatistics().getRejected());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+}
@@ -0,0 +1,102 @@
+package io.oigres.sparkjax.tests;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import org.junit.Assert;
+import org.junit.Test;
+
+import io.oigres.sparkjax.annotations.CacheControl;
+import io.oigres.sparkjax.spark.AbstractRoute;
+
+public class CacheControlTest extends HttpMethodTest {
+
+	@Path("/cachecontrol")
+	@CacheControl(maxAge = 5, isPrivate = true)
+	static public interface CacheControlResources {
+		@GET
+		@Path("/cdn")
+		@CacheControl(maxAge = 60, sMaxAge = 600, staleWhileRevalidate = 30, isPublic = true)
+		default List<String> cdn(@QueryParam("size") int size) {
+			List<String> result = new LinkedList<String>();
+			for (int i=0; i < size; i++) {
+				result.add("item "+i);
+			}
+			return result;
+		}
+		@GET
+		@Path("/inherited")
+		default List<String> inherited() {
+			return cdn(1);
+		}
+		@GET
+		@Path("/nostore")
+		@CacheControl(noStore = true, maxAge = 60)
+		default List<String> noStore() {
+			return cdn(1);
+		}
+		@POST
+		@Path("/inherited")
+		default List<String> post() {
+			return cdn(1);
+		}
+	}
+
+	static public class CacheControlController implements CacheControlResources {
+	}
+
+	@Override
+	protected Set<Object> getResources() {
+    	return new HashSet<Object>(
+        		Arrays.asList(
+        				new CacheControlController()
+        	    )
+        	);
+	}
+
+	@Test
+	public void test_directives() throws Exception {
+		// Verify
+		Assert.assertEquals("public, max-age=60, s-maxage=600, stale-while-revalidate=30", getRoute("cdn").getCacheControl());
+		Assert.assertEquals("private, max-age=5", getRoute("inherited").getCacheControl());
+		Assert.assertEquals("no-store", getRoute("noStore").getCacheControl());
+		Assert.assertNull(getRoute("post").getCacheControl());
+	}
+
+	@Test
+	public void test_headers() throws Exception {
+		// Given
+		InputStream request = getRequest("get/cachecontrol/cdn.json");
+		ByteArrayOutputStream response = new ByteArrayOutputStream();
+
+		// When
+        this.handler.proxyStream(request, response, new DummyContext());
+
+        // Verify
+        System.out.println(response.toString());
+		JsonElement lambdaResponse = readResponse(response);
+		assertStatus(lambdaResponse,  Response.Status.OK.getStatusCode());
+		JsonObject headers = lambdaResponse.getAsJsonObject().get("multiValueHeaders").getAsJsonObject();
+        Assert.assertEquals("public, max-age=60, s-maxage=600, stale-while-revalidate=30", headers.get(HttpHeaders.CACHE_CONTROL).getAsJsonArray().get(0).getAsString());
+        Assert.assertTrue(headers.has(HttpHeaders.EXPIRES));
+	}
+
+	private AbstractRoute getRoute(String methodName) {
+		return this.routes.stream().filter(r -> r.getMethod().getName().equals(methodName)).findAny().get();
+	}
+
+}
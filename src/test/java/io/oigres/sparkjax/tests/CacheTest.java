@@ -0,0 +1,194 @@
+package io.oigres.sparkjax.tests;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Request;
+import javax.ws.rs.core.Response;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import org.eclipse.jetty.http.HttpStatus;
+import org.junit.Assert;
+import org.junit.Test;
+
+import io.oigres.sparkjax.annotations.Cached;
+import io.oigres.sparkjax.cache.ResponseCache;
+import io.oigres.sparkjax.cache.ResponseCacheRegistry;
+import io.oigres.sparkjax.spark.AbstractRoute;
+import io.oigres.sparkjax.spark.RouteOptions;
+
+public class CacheTest extends HttpMethodTest {
+	// Spark keeps the routes of the first test, so all of them share the registry
+	private static final ResponseCacheRegistry REGISTRY = new ResponseCacheRegistry();
+	static final AtomicInteger INVOCATIONS = new AtomicInteger();
+
+	@Path("/cache")
+	static public interface CacheResources {
+		@GET
+		@Path("/items")
+		@Cached(ttl = 60, name = "items")
+		default List<String> items(@QueryParam("size") int size) {
+			INVOCATIONS.incrementAndGet();
+			List<String> result = new LinkedList<String>();
+			for (int i=0; i < size; i++) {
+				result.add("item "+i);
+			}
+			return result;
+		}
+		@GET
+		@Path("/versioned")
+		@Cached(ttl = 60, name = "versioned")
+		default List<String> versioned(@Context Request request) {
+			request.evaluatePreconditions(new Date(1700000000123L), new EntityTag("v7"));
+			INVOCATIONS.incrementAndGet();
+			return Arrays.asList("version 7");
+		}
+		@GET
+		@Path("/filtered")
+		@Cached(ttl = 60, name = "filtered")
+		default List<String> filtered(@QueryParam("filter") Filter filter) {
+			return Arrays.asList(filter.value);
+		}
+	}
+
+	static public class Filter {
+		final String value;
+
+		Filter(String value) {
+			this.value = value;
+		}
+
+		public static Filter valueOf(String value) {
+			return new Filter(value);
+		}
+	}
+
+	static public class CacheController implements CacheResources {
+	}
+
+	@Override
+	protected Set<Object> getResources() {
+    	return new HashSet<Object>(
+        		Arrays.asList(
+        				new CacheController()
+        	    )
+        	);
+	}
+
+	@Override
+	protected RouteOptions getRouteOptions() {
+		RouteOptions routeOptions = new RouteOptions();
+		routeOptions.setResponseCacheRegistry(REGISTRY);
+		return routeOptions;
+	}
+
+	@Test
+	public void test_cached_response() throws Exception {
+		// Given
+		REGISTRY.invalidateAll("items");
+		int invocations = INVOCATIONS.get();
+
+		// When
+		JsonElement first = get("get/cache/items.json");
+		JsonElement second = get("get/cache/items.json");
+
+        // Verify
+		assertStatus(first,  Response.Status.OK.getStatusCode());
+		assertStatus(second,  Response.Status.OK.getStatusCode());
+        Assert.assertEquals("[\"item 0\",\"item 1\"]", first.getAsJsonObject().get("body").getAsString());
+        Assert.assertEquals("[\"item 0\",\"item 1\"]", second.getAsJsonObject().get("body").getAsString());
+        Assert.assertEquals(invocations + 1, INVOCATIONS.get());
+	}
+
+	@Test
+	public void test_invalidation() throws Exception {
+		// Given
+		ResponseCache cache = REGISTRY.getCache("items");
+		get("get/cache/items.json");
+		int invocations = INVOCATIONS.get();
+
+		// When
+		cache.invalidate("/cache/items", 2);
+		JsonElement response = get("get/cache/items.json");
+
+        // Verify
+		assertStatus(response,  Response.Status.OK.getStatusCode());
+        Assert.assertEquals(invocations + 1, INVOCATIONS.get());
+        Assert.assertEquals(1, cache.size());
+	}
+
+	@Test
+	public void test_cached_headers() throws Exception {
+		// Given
+		REGISTRY.invalidateAll("versioned");
+		get("get/cache/versioned.json");
+		int invocations = INVOCATIONS.get();
+
+		// When
+		JsonElement response = get("get/cache/versioned.json");
+
+        // Verify
+		assertStatus(response,  Response.Status.OK.getStatusCode());
+		assertHeader(response, HttpHeaders.ETAG, "\"v7\"");
+		assertHeader(response, HttpHeaders.LAST_MODIFIED, "Tue, 14 Nov 2023 22:13:20 GMT");
+        Assert.assertEquals(invocations, INVOCATIONS.get());
+	}
+
+	@Test
+	public void test_cached_not_modified_since() throws Exception {
+		// Given
+		REGISTRY.invalidateAll("versioned");
+		get("get/cache/versioned.json");
+		int invocations = INVOCATIONS.get();
+
+		// When
+		JsonElement response = get("get/cache/versioned_not_modified_since.json");
+
+        // Verify
+		assertStatus(response,  HttpStatus.NOT_MODIFIED_304);
+		assertHeader(response, HttpHeaders.ETAG, "\"v7\"");
+        Assert.assertEquals(invocations, INVOCATIONS.get());
+	}
+
+	@Test
+	public void test_identity_parameter_is_not_cached() throws Exception {
+		// Given
+		AbstractRoute route = this.routes.stream()
+				.filter(r -> r.getPath().equals("/cache/filtered"))
+				.findFirst()
+				.get();
+
+		// Verify
+        Assert.assertNull(route.getCache());
+        Assert.assertNull(REGISTRY.getCache("filtered"));
+	}
+
+	private JsonElement get(String filename) throws Exception {
+		InputStream request = getRequest(filename);
+		ByteArrayOutputStream response = new ByteArrayOutputStream();
+        this.handler.proxyStream(request, response, new DummyContext());
+        System.out.println(response.toString());
+		return readResponse(response);
+	}
+
+	private void assertHeader(JsonElement response, String name, String value) {
+		JsonObject headers = response.getAsJsonObject().get("multiValueHeaders").getAsJsonObject();
+		Assert.assertTrue(headers.has(name));
+		Assert.assertEquals(value, headers.get(name).getAsJsonArray().get(0).getAsString());
+	}
+
+}
@@ -0,0 +1,184 @@
+package io.oigres.sparkjax.tests;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.junit.Assert;
+import org.junit.Test;
+
+import io.oigres.sparkjax.annotations.CompressResponse;
+import io.oigres.sparkjax.compression.ResponseCompression;
+import io.oigres.sparkjax.spark.AbstractRoute;
+import io.oigres.sparkjax.tests.PostModelTest.Model;
+
+public class CompressionTest extends HttpMethodTest {
+
+	@Path("/compression")
+	static public interface CompressionResources {
+		@GET
+		@Path("/list")
+		@CompressResponse(minSize = 512)
+		default List<Model> list(@QueryParam("size") int size) {
+			List<Model> result = new LinkedList<Model>();
+			for (int i=0; i < size; i++) {
+				Model model = new Model();
+				model.setName("Juan Perez "+i);
+				model.setAge(i);
+				result.add(model);
+			}
+			return result;
+		}
+		@GET
+		@Path("/plain")
+		default List<Model> plain() {
+			return list(1);
+		}
+	}
+
+	static public class CompressionController implements CompressionResources {
+	}
+
+	@Override
+	protected Set<Object> getResources() {
+    	return new HashSet<Object>(
+        		Arrays.asList(
+        				new CompressionController()
+        	    )
+        	);
+	}
+
+	@Test
+	public void test_compressed_routes() throws Exception {
+		// Given
+		AbstractRoute list = this.routes.stream().filter(r -> r.getMethod().getName().equals("list")).findAny().get();
+		AbstractRoute plain = this.routes.stream().filter(r -> r.getMethod().getName().equals("plain")).findAny().get();
+
+		// Verify
+		Assert.assertNotNull(list.getCompression());
+		Assert.assertEquals(512, list.getCompression().getMinSize());
+		Assert.assertNull(plain.getCompression());
+	}
+
+	@Test
+	public void test_negotiation() throws Exception {
+		// Given
+		ResponseCompression compression = this.routes.stream().filter(r -> r.getMethod().getName().equals("list")).findAny().get().getCompression();
+
+		// Verify
+		Assert.assertEquals("gzip", compression.negotiate("gzip, deflate").getEncoding());
+		Assert.assertEquals("deflate", compression.negotiate("gzip;q=0.5, deflate").getEncoding());
+		Assert.assertEquals("gzip", compression.negotiate("br, x-gzip").getEncoding());
+		Assert.assertEquals("deflate", compression.negotiate("gzip;q=0, *").getEncoding());
+		Assert.assertNull(compression.negotiate("*;q=0"));
+		Assert.assertNull(compression.negotiate("identity"));
+		Assert.assertNull(compression.negotiate(null));
+	}
+
+	@Test
+	public void test_gzip() throws Exception {
+		// Given
+		InputStream request = getRequest("get/compression/gzip.json");
+		ByteArrayOutputStream response = new ByteArrayOutputStream();
+
+		// When
+        this.handler.proxyStream(request, response, new DummyContext());
+
+        // Verify
+		JsonElement lambdaResponse = readResponse(response);
+		assertStatus(lambdaResponse,  Response.Status.OK.getStatusCode());
+		assertContentType(lambdaResponse, MediaType.APPLICATION_JSON_TYPE);
+		assertHeader(lambdaResponse, HttpHeaders.CONTENT_ENCODING, "gzip");
+		assertHeader(lambdaResponse, HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+		byte[] compressed = Base64.getMimeDecoder().decode(lambdaResponse.getAsJsonObject().get("body").getAsString());
+		String bodyJson = new String(new GZIPInputStream(new ByteArrayInputStream(compressed)).readAllBytes(), StandardCharsets.UTF_8);
+		JsonArray body = JsonParser.parseString(bodyJson).getAsJsonArray();
+        Assert.assertEquals(200, body.size());
+        Assert.assertEquals("Juan Perez 199", body.get(199).getAsJsonObject().get("name").getAsString());
+        Assert.assertTrue(compressed.length < bodyJson.length());
+	}
+
+	@Test
+	public void test_deflate() throws Exception {
+		// Given
+		InputStream request = getRequest("get/compression/deflate.json");
+		ByteArrayOutputStream response = new ByteArrayOutputStream();
+
+		// When
+        this.handler.proxyStream(request, response, new DummyContext());
+
+        // Verify
+		JsonElement lambdaResponse = readResponse(response);
+		assertStatus(lambdaResponse,  Response.Status.OK.getStatusCode());
+		assertHeader(lambdaResponse, HttpHeaders.CONTENT_ENCODING, "deflate");
+
+		byte[] compressed = Base64.getMimeDecoder().decode(lambdaResponse.getAsJsonObject().get("body").getAsString());
+		String bodyJson = new String(new InflaterInputStream(new ByteArrayInputStream(compressed)).readAllBytes(), StandardCharsets.UTF_8);
+        Assert.assertEquals(200, JsonParser.parseString(bodyJson).getAsJsonArray().size());
+	}
+
+	@Test
+	public void test_below_min_size() throws Exception {
+		// Given
+		InputStream request = getRequest("get/compression/small.json");
+		ByteArrayOutputStream response = new ByteArrayOutputStream();
+
+		// When
+        this.handler.proxyStream(request, response, new DummyContext());
+
+        // Verify
+		JsonElement lambdaResponse = readResponse(response);
+		assertStatus(lambdaResponse,  Response.Status.OK.getStatusCode());
+		assertHeader(lambdaResponse, HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+		Assert.assertFalse(lambdaResponse.getAsJsonObject().get("multiValueHeaders").getAsJsonObject().has(HttpHeaders.CONTENT_ENCODING));
+
+		String bodyJson = lambdaResponse.getAsJsonObject().get("body").getAsString();
+        Assert.assertEquals(1, JsonParser.parseString(bodyJson).getAsJsonArray().size());
+	}
+
+	@Test
+	public void test_without_accept_encoding() throws Exception {
+		// Given
+		InputStream request = getRequest("get/compression/identity.json");
+		ByteArrayOutputStream response = new ByteArrayOutputStream();
+
+		// When
+        this.handler.proxyStream(request, response, new DummyContext());
+
+        // Verify
+		JsonElement lambdaResponse = readResponse(response);
+		assertStatus(lambdaResponse,  Response.Status.OK.getStatusCode());
+		Assert.assertFalse(lambdaResponse.getAsJsonObject().get("multiValueHeaders").getAsJsonObject().has(HttpHeaders.CONTENT_ENCODING));
+
+		String bodyJson = lambdaResponse.getAsJsonObject().get("body").getAsString();
+        Assert.assertEquals(200, JsonParser.parseString(bodyJson).getAsJsonArray().size());
+	}
+
+	private void assertHeader(JsonElement response, String name, String value) {
+		JsonObject headers = response.getAsJsonObject().get("multiValueHeaders").getAsJsonObject();
+		Assert.assertTrue(headers.has(name));
+		Assert.assertEquals(value, headers.get(name).getAsJsonArray().get(0).getAsString());
+	}
+
+}
@@ -0,0 +1,242 @@
+package io.oigres.sparkjax.tests;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Request;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Variant;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import org.eclipse.jetty.http.HttpStatus;
+import org.junit.Assert;
+import org.junit.Test;
+
+import io.oigres.sparkjax.annotations.ETag;
+
+public class ConditionalGetTest extends HttpMethodTest {
+	static final AtomicInteger INVOCATIONS = new AtomicInteger();
+
+	@Path("/conditional")
+	static public interface ConditionalResources {
+		@GET
+		@Path("/versioned")
+		default List<String> versioned(@Context Request request) {
+			request.evaluatePreconditions(new Date(1700000000123L), new EntityTag("v7"));
+			INVOCATIONS.incrementAndGet();
+			return Arrays.asList("version 7");
+		}
+		@GET
+		@Path("/tagged")
+		@ETag
+		default List<String> tagged(@QueryParam("size") int size) {
+			List<String> result = new LinkedList<String>();
+			for (int i=0; i < size; i++) {
+				result.add("item "+i);
+			}
+			return result;
+		}
+		@GET
+		@Path("/variants")
+		default List<String> variants(@Context Request request) {
+			Variant variant = request.selectVariant(Variant.languages(Locale.ENGLISH, new Locale("es")).add().build());
+			return Arrays.asList(variant != null ? variant.getLanguageString() : "none");
+		}
+	}
+
+	static public class ConditionalController implements ConditionalResources {
+	}
+
+	@Override
+	protected Set<Object> getResources() {
+    	return new HashSet<Object>(
+        		Arrays.asList(
+        				new ConditionalController()
+        	    )
+        	);
+	}
+
+	@Test
+	public void test_validators() throws Exception {
+		// Given
+		InputStream request = getRequest("get/conditional/versioned.json");
+		ByteArrayOutputStream response = new ByteArrayOutputStream();
+
+		// When
+        this.handler.proxyStream(request, response, new DummyContext());
+
+        // Verify
+        System.out.println(response.toString());
+		JsonElement lambdaResponse = readResponse(response);
+		assertStatus(lambdaResponse,  Response.Status.OK.getStatusCode());
+		assertHeader(lambdaResponse, HttpHeaders.ETAG, "\"v7\"");
+		assertHeader(lambdaResponse, HttpHeaders.LAST_MODIFIED, "Tue, 14 Nov 2023 22:13:20 GMT");
+        Assert.assertEquals("[\"version 7\"]", lambdaResponse.getAsJsonObject().get("body").getAsString());
+	}
+
+	@Test
+	public void test_not_modified_without_invocation() throws Exception {
+		// Given
+		InputStream request = getRequest("get/conditional/not_modified.json");
+		ByteArrayOutputStream response = new ByteArrayOutputStream();
+		int invocations = INVOCATIONS.get();
+
+		// When
+        this.handler.proxyStream(request, response, new DummyContext());
+
+        // Verify
+        System.out.println(response.toString());
+		JsonElement lambdaResponse = readResponse(response);
+		assertStatus(lambdaResponse,  HttpStatus.NOT_MODIFIED_304);
+		assertHeader(lambdaResponse, HttpHeaders.ETAG, "\"v7\"");
+        Assert.assertEquals(invocations, INVOCATIONS.get());
+	}
+
+	@Test
+	public void test_not_modified_since() throws Exception {
+		// Given
+		InputStream request = getRequest("get/conditional/not_modified_since.json");
+		ByteArrayOutputStream response = new ByteArrayOutputStream();
+
+		// When
+        this.handler.proxyStream(request, response, new DummyContext());
+
+        // Verify
+        System.out.println(response.toString());
+		JsonElement lambdaResponse = readResponse(response);
+		assertStatus(lambdaResponse,  HttpStatus.NOT_MODIFIED_304);
+	}
+
+	@Test
+	public void test_not_modified_since_rfc850() throws Exception {
+		// Given
+		InputStream request = getRequest("get/conditional/not_modified_since_rfc850.json");
+		ByteArrayOutputStream response = new ByteArrayOutputStream();
+
+		// When
+        this.handler.proxyStream(request, response, new DummyContext());
+
+        // Verify
+        System.out.println(response.toString());
+		JsonElement lambdaResponse = readResponse(response);
+		assertStatus(lambdaResponse,  HttpStatus.NOT_MODIFIED_304);
+	}
+
+	@Test
+	public void test_not_modified_since_asctime() throws Exception {
+		// Given
+		InputStream request = getRequest("get/conditional/not_modified_since_asctime.json");
+		ByteArrayOutputStream response = new ByteArrayOutputStream();
+
+		// When
+        this.handler.proxyStream(request, response, new DummyContext());
+
+        // Verify
+        System.out.println(response.toString());
+		JsonElement lambdaResponse = readResponse(response);
+		assertStatus(lambdaResponse,  HttpStatus.NOT_MODIFIED_304);
+	}
+
+	@Test
+	public void test_precondition_failed() throws Exception {
+		// Given
+		InputStream request = getRequest("get/conditional/precondition_failed.json");
+		ByteArrayOutputStream response = new ByteArrayOutputStream();
+
+		// When
+        this.handler.proxyStream(request, response, new DummyContext());
+
+        // Verify
+        System.out.println(response.toString());
+		JsonElement lambdaResponse = readResponse(response);
+		assertStatus(lambdaResponse,  HttpStatus.PRECONDITION_FAILED_412);
+	}
+
+	@Test
+	public void test_generated_etag() throws Exception {
+		// Given
+		InputStream request = getRequest("get/conditional/tagged.json");
+		ByteArrayOutputStream response = new ByteArrayOutputStream();
+
+		// When
+        this.handler.proxyStream(request, response, new DummyContext());
+
+        // Verify
+        System.out.println(response.toString());
+		JsonElement lambdaResponse = readResponse(response);
+		assertStatus(lambdaResponse,  Response.Status.OK.getStatusCode());
+		assertHeader(lambdaResponse, HttpHeaders.ETAG, "W/\"8395a03043283a17\"");
+        Assert.assertEquals("[\"item 0\",\"item 1\",\"item 2\"]", lambdaResponse.getAsJsonObject().get("body").getAsString());
+	}
+
+	@Test
+	public void test_generated_etag_not_modified() throws Exception {
+		// Given
+		InputStream request = getRequest("get/conditional/tagged_not_modified.json");
+		ByteArrayOutputStream response = new ByteArrayOutputStream();
+
+		// When
+        this.handler.proxyStream(request, response, new DummyContext());
+
+        // Verify
+        System.out.println(response.toString());
+		JsonElement lambdaResponse = readResponse(response);
+		assertStatus(lambdaResponse,  HttpStatus.NOT_MODIFIED_304);
+		assertHeader(lambdaResponse, HttpHeaders.ETAG, "W/\"8395a03043283a17\"");
+	}
+
+	@Test
+	public void test_select_variant() throws Exception {
+		// Given
+		InputStream request = getRequest("get/conditional/variants.json");
+		ByteArrayOutputStream response = new ByteArrayOutputStream();
+
+		// When
+        this.handler.proxyStream(request, response, new DummyContext());
+
+        // Verify
+        System.out.println(response.toString());
+		JsonElement lambdaResponse = readResponse(response);
+		assertStatus(lambdaResponse,  Response.Status.OK.getStatusCode());
+		assertHeader(lambdaResponse, HttpHeaders.VARY, HttpHeaders.ACCEPT_LANGUAGE);
+        Assert.assertEquals("[\"es\"]", lambdaResponse.getAsJsonObject().get("body").getAsString());
+	}
+
+	@Test
+	public void test_no_acceptable_variant() throws Exception {
+		// Given
+		InputStream request = getRequest("get/conditional/variants_not_acceptable.json");
+		ByteArrayOutputStream response = new ByteArrayOutputStream();
+
+		// When
+        this.handler.proxyStream(request, response, new DummyContext());
+
+        // Verify
+        System.out.println(response.toString());
+		JsonElement lambdaResponse = readResponse(response);
+		assertStatus(lambdaResponse,  Response.Status.OK.getStatusCode());
+        Assert.assertEquals("[\"none\"]", lambdaResponse.getAsJsonObject().get("body").getAsString());
+	}
+
+	private void assertHeader(JsonElement response, String name, String value) {
+		JsonObject headers = response.getAsJsonObject().get("multiValueHeaders").getAsJsonObject();
+		Assert.assertTrue(headers.has(name));
+		Assert.assertEquals(value, headers.get(name).getAsJsonArray().get(0).getAsString());
+	}
+
+}
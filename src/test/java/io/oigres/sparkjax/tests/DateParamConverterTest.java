@@ -0,0 +1,74 @@
+package io.oigres.sparkjax.tests;
+
+import java.text.ParseException;
+import java.time.Year;
+import java.time.ZoneOffset;
+import java.util.Date;
+
+import javax.ws.rs.ProcessingException;
+import javax.ws.rs.ext.ParamConverter;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import io.oigres.sparkjax.jaxrs.converters.DateParamConverterProvider;
+
+public class DateParamConverterTest {
+	private final ParamConverter<Date> converter = new DateParamConverterProvider().getConverter(Date.class, Date.class, null);
+
+	@Test
+	public void test_http_date_formats() throws Exception {
+		// Verify
+		Assert.assertEquals("1994-11-06T08:49:37Z", parse("Sun, 06 Nov 1994 08:49:37 GMT"));
+		Assert.assertEquals("1994-11-06T08:49:37Z", parse("Sunday, 06-Nov-94 08:49:37 GMT"));
+		Assert.assertEquals("1994-11-06T08:49:37Z", parse("Sun Nov  6 08:49:37 1994"));
+		Assert.assertEquals("1994-11-16T08:49:37Z", parse("Wed Nov 16 08:49:37 1994"));
+	}
+
+	@Test
+	public void test_lenient_details() throws Exception {
+		// Verify
+		Assert.assertEquals("1994-11-06T08:49:37Z", parse("  sun, 06 nov 1994 08:49:37 gmt  "));
+		Assert.assertEquals("1994-11-06T07:49:37Z", parse("Sun, 06 Nov 1994 08:49:37 +0100"));
+		// The day name is not checked against the date
+		Assert.assertEquals("1994-11-06T08:49:37Z", parse("Mon, 06 Nov 1994 08:49:37 GMT"));
+	}
+
+	@Test
+	public void test_two_digit_year_window() throws Exception {
+		// Given
+		int ahead = Year.now(ZoneOffset.UTC).getValue() + 50;
+		int behind = Year.now(ZoneOffset.UTC).getValue() - 49;
+
+		// Verify
+		Assert.assertEquals(ahead+"-11-06T08:49:37Z", parse("Sunday, 06-Nov-"+twoDigits(ahead)+" 08:49:37 GMT"));
+		Assert.assertEquals(behind+"-11-06T08:49:37Z", parse("Sunday, 06-Nov-"+twoDigits(behind)+" 08:49:37 GMT"));
+		Assert.assertEquals("2000-02-29T08:49:37Z", parse("Tuesday, 29-Feb-00 08:49:37 GMT"));
+	}
+
+	@Test
+	public void test_invalid_dates() throws Exception {
+		for (String invalid : new String[] {
+				"", "Sun", "06 Nov 1994 08:49:37 GMT", "Sun, 06 Nov 1994 08:49", "Sun, 06 Foo 1994 08:49:37 GMT",
+				"Sun, 06 Nov 1994 08:49:37 GMT trailing", "Sunday, 06-Nov-1994 08:49:37 GMT",
+				"Sun Nov  6 08:49:37"}) {
+			try {
+				// When
+				this.converter.fromString(invalid);
+				Assert.fail("Invalid date parsed: "+invalid);
+			} catch (ProcessingException e) {
+				// Verify
+				Assert.assertTrue(e.getCause() instanceof ParseException);
+			}
+		}
+	}
+
+	private String parse(String value) {
+		return this.converter.fromString(value).toInstant().toString();
+	}
+
+	private static String twoDigits(int year) {
+		return String.format("%02d", year % 100);
+	}
+
+}
@@ -0,0 +1,195 @@
+package io.oigres.sparkjax.tests;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.ws.rs.Consumes;
+import javax.ws.rs.FormParam;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.eclipse.jetty.http.HttpStatus;
+import org.junit.Assert;
+import org.junit.Test;
+
+import io.oigres.sparkjax.spark.RouteOptions;
+
+public class FormParamTest extends HttpMethodTest {
+
+	@Path("/form")
+	static public interface FormResources {
+		@POST
+		@Path("/fields")
+		@Consumes(MediaType.APPLICATION_FORM_URLENCODED)
+		default Map<String,Object> postFields(@FormParam("name") String name, @FormParam("tag") List<String> tags,
+				@FormParam("empty") String empty, @FormParam("city") String city, @QueryParam("page") int page) {
+			Map<String,Object> result = new HashMap<String,Object>();
+			result.put("name", name);
+			result.put("tags", tags);
+			result.put("empty", empty);
+			result.put("city", city);
+			result.put("page", page);
+			return result;
+		}
+		@POST
+		@Path("/upload")
+		@Consumes(MediaType.MULTIPART_FORM_DATA)
+		default Map<String,Object> postUpload(@FormParam("title") String title, @FormParam("file") byte[] file,
+				@FormParam("stream") InputStream stream) throws IOException {
+			Map<String,Object> result = new HashMap<String,Object>();
+			result.put("title", title);
+			result.put("file", new String(file, StandardCharsets.UTF_8));
+			result.put("stream_size", stream.readAllBytes().length);
+			return result;
+		}
+	}
+
+	static public class FormController implements FormResources {
+	}
+
+	@Override
+	protected Set<Object> getResources() {
+    	return new HashSet<Object>(
+        		Arrays.asList(
+        				new FormController()
+        	    )
+        	);
+	}
+
+	@Override
+	protected RouteOptions getRouteOptions() {
+		RouteOptions routeOptions = new RouteOptions();
+		routeOptions.setMaxFormFields(10);
+		return routeOptions;
+	}
+
+	@Test
+	public void test_form_fields() throws Exception {
+		// Given
+		InputStream request = getRequest("post/form/fields.json");
+		ByteArrayOutputStream response = new ByteArrayOutputStream();
+
+		// When
+        this.handler.proxyStream(request, response, new DummyContext());
+
+        // Verify
+        System.out.println(response.toString());
+		JsonElement lambdaResponse = readResponse(response);
+		assertStatus(lambdaResponse,  Response.Status.OK.getStatusCode());
+		assertContentType(lambdaResponse, MediaType.APPLICATION_JSON_TYPE);
+
+		String bodyJson = lambdaResponse.getAsJsonObject().get("body").getAsString();
+		JsonObject body = JsonParser.parseString(bodyJson).getAsJsonObject();
+        Assert.assertEquals("Juan Perez", body.get("name").getAsString());
+        Assert.assertEquals(2, body.get("tags").getAsJsonArray().size());
+        Assert.assertEquals("red", body.get("tags").getAsJsonArray().get(0).getAsString());
+        Assert.assertEquals("green&blue", body.get("tags").getAsJsonArray().get(1).getAsString());
+        Assert.assertEquals("", body.get("empty").getAsString());
+        Assert.assertEquals("M\u00e1laga", body.get("city").getAsString());
+        Assert.assertEquals(2, body.get("page").getAsInt());
+	}
+
+	@Test
+	public void test_form_malformed_escapes() throws Exception {
+		// Given
+		InputStream request = getRequest("post/form/malformed_escapes.json");
+		ByteArrayOutputStream response = new ByteArrayOutputStream();
+
+		// When
+        this.handler.proxyStream(request, response, new DummyContext());
+
+        // Verify
+        System.out.println(response.toString());
+		JsonElement lambdaResponse = readResponse(response);
+		assertStatus(lambdaResponse,  Response.Status.OK.getStatusCode());
+
+		String bodyJson = lambdaResponse.getAsJsonObject().get("body").getAsString();
+		JsonObject body = JsonParser.parseString(bodyJson).getAsJsonObject();
+        Assert.assertEquals("100%Az", body.get("name").getAsString());
+        Assert.assertEquals("%A", body.get("tags").getAsJsonArray().get(0).getAsString());
+        Assert.assertEquals("%zz", body.get("tags").getAsJsonArray().get(1).getAsString());
+        Assert.assertEquals("%e", body.get("empty").getAsString());
+        Assert.assertEquals("50%", body.get("city").getAsString());
+	}
+
+	@Test
+	public void test_form_unsupported_charset() throws Exception {
+		// Given
+		InputStream request = getRequest("post/form/unsupported_charset.json");
+		ByteArrayOutputStream response = new ByteArrayOutputStream();
+
+		// When
+        this.handler.proxyStream(request, response, new DummyContext());
+
+        // Verify
+        System.out.println(response.toString());
+		JsonElement lambdaResponse = readResponse(response);
+		assertStatus(lambdaResponse,  HttpStatus.UNSUPPORTED_MEDIA_TYPE_415);
+	}
+
+	@Test
+	public void test_form_too_many_fields() throws Exception {
+		// Given
+		InputStream request = getRequest("post/form/too_many_fields.json");
+		ByteArrayOutputStream response = new ByteArrayOutputStream();
+
+		// When
+        this.handler.proxyStream(request, response, new DummyContext());
+
+        // Verify
+        System.out.println(response.toString());
+		JsonElement lambdaResponse = readResponse(response);
+		assertStatus(lambdaResponse,  HttpStatus.PAYLOAD_TOO_LARGE_413);
+	}
+
+	@Test
+	public void test_multipart_too_many_repeated_parts() throws Exception {
+		// Given
+		InputStream request = getRequest("post/form/too_many_parts.json");
+		ByteArrayOutputStream response = new ByteArrayOutputStream();
+
+		// When
+        this.handler.proxyStream(request, response, new DummyContext());
+
+        // Verify
+        System.out.println(response.toString());
+		JsonElement lambdaResponse = readResponse(response);
+		assertStatus(lambdaResponse,  HttpStatus.PAYLOAD_TOO_LARGE_413);
+	}
+
+	@Test
+	public void test_multipart_parts() throws Exception {
+		// Given
+		InputStream request = getRequest("post/form/multipart.json");
+		ByteArrayOutputStream response = new ByteArrayOutputStream();
+
+		// When
+        this.handler.proxyStream(request, response, new DummyContext());
+
+        // Verify
+        System.out.println(response.toString());
+		JsonElement lambdaResponse = readResponse(response);
+		assertStatus(lambdaResponse,  Response.Status.OK.getStatusCode());
+
+		String bodyJson = lambdaResponse.getAsJsonObject().get("body").getAsString();
+		JsonObject body = JsonParser.parseString(bodyJson).getAsJsonObject();
+        Assert.assertEquals("Holidays", body.get("title").getAsString());
+        Assert.assertEquals("first line\nsecond line", body.get("file").getAsString());
+        Assert.assertEquals(10, body.get("stream_size").getAsInt());
+	}
+
+}
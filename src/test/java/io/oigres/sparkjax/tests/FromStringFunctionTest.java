@@ -0,0 +1,142 @@
+package io.oigres.sparkjax.tests;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.ws.rs.ProcessingException;
+import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.ext.ParamConverter;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import io.oigres.sparkjax.jaxrs.converters.TypeValueOfParamConverterProvider;
+import io.oigres.sparkjax.jaxrs.extractors.PrimitiveValueOfExtractor;
+import io.oigres.sparkjax.jaxrs.util.FromStringFunction;
+
+public class FromStringFunctionTest {
+	private static final List<Class<?>> WRAPPERS = Arrays.asList(Boolean.class, Byte.class, Short.class, Integer.class, Long.class, Float.class, Double.class);
+
+	static public class Code {
+		private final String value;
+		private Code(String value) {
+			this.value = value;
+		}
+		public static Code valueOf(String value) {
+			if (value.length() != 3) {
+				throw new IllegalArgumentException("Invalid code "+value);
+			}
+			return new Code(value);
+		}
+		public static Code fromString(String value) {
+			return new Code(Integer.valueOf(value).toString());
+		}
+	}
+
+	@Test
+	public void test_wrapper_values() throws Exception {
+		for (Class<?> wrapper : WRAPPERS) {
+			// Given
+			Method valueOf = wrapper.getMethod("valueOf", String.class);
+
+			// Verify
+			Assert.assertEquals(valueOf.invoke(null, "1"), FromStringFunction.of(valueOf).apply("1"));
+		}
+	}
+
+	@Test
+	public void test_invalid_wrapper_values_fail_as_reflection() throws Exception {
+		for (Class<?> wrapper : WRAPPERS) {
+			// Given
+			Method valueOf = wrapper.getMethod("valueOf", String.class);
+			for (String invalid : new String[] {"x", "", "1.5e", "99999999999999999999"}) {
+				Throwable expected = reflectiveFailure(valueOf, invalid);
+
+				// When
+				Throwable failure = failure(FromStringFunction.of(valueOf), invalid);
+
+				// Verify
+				if (expected == null) {
+					Assert.assertNull(failure);
+				} else {
+					Assert.assertEquals(InvocationTargetException.class, failure.getClass());
+					Assert.assertEquals(expected.getClass(), failure.getCause().getClass());
+				}
+			}
+		}
+	}
+
+	@Test
+	public void test_invalid_value_of_type_fails_as_reflection() throws Exception {
+		for (String name : new String[] {"valueOf", "fromString"}) {
+			// Given
+			Method method = Code.class.getMethod(name, String.class);
+			String invalid = "x";
+
+			// When
+			Throwable failure = failure(FromStringFunction.of(method), invalid);
+
+			// Verify
+			Assert.assertEquals(InvocationTargetException.class, failure.getClass());
+			Assert.assertEquals(reflectiveFailure(method, invalid).getClass(), failure.getCause().getClass());
+		}
+	}
+
+	@Test
+	public void test_converter_exception_mapping() throws Exception {
+		// Given
+		ParamConverter<Integer> integerConverter = new TypeValueOfParamConverterProvider().getConverter(Integer.class, Integer.class, null);
+		ParamConverter<Code> codeConverter = new TypeValueOfParamConverterProvider().getConverter(Code.class, Code.class, null);
+
+		// Verify
+		try {
+			integerConverter.fromString("x");
+			Assert.fail("Invalid integer converted");
+		} catch (ProcessingException e) {
+			Assert.assertTrue(e.getCause() instanceof NumberFormatException);
+		}
+		try {
+			codeConverter.fromString("x");
+			Assert.fail("Invalid code converted");
+		} catch (ProcessingException e) {
+			Assert.assertTrue(e.getCause() instanceof IllegalArgumentException);
+		}
+	}
+
+	@Test
+	public void test_primitive_extractor_exception_mapping() throws Exception {
+		// Given
+		PrimitiveValueOfExtractor extractor = new PrimitiveValueOfExtractor(Integer.class.getMethod("valueOf", String.class), "number", null, 0);
+		MultivaluedHashMap<String, String> parameters = new MultivaluedHashMap<String, String>();
+		parameters.putSingle("number", "x");
+
+		// Verify
+		try {
+			extractor.extract(parameters);
+			Assert.fail("Invalid number extracted");
+		} catch (ProcessingException e) {
+			Assert.assertTrue(e.getCause() instanceof NumberFormatException);
+		}
+	}
+
+	private static Throwable reflectiveFailure(Method method, String value) throws Exception {
+		try {
+			method.invoke(null, value);
+			return null;
+		} catch (InvocationTargetException e) {
+			return e.getCause();
+		}
+	}
+
+	private static Throwable failure(FromStringFunction function, String value) {
+		try {
+			function.apply(value);
+			return null;
+		} catch (Exception e) {
+			return e;
+		}
+	}
+
+}
@@ -2,7 +2,10 @@ package io.oigres.sparkjax.tests;
 
 import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
+import java.time.Instant;
+import java.time.LocalDate;
 import java.util.Arrays;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -26,6 +29,8 @@ import com.google.gson.JsonParser;
 import org.junit.Assert;
 import org.junit.Test;
 
+import io.oigres.sparkjax.spark.AbstractRoute;
+
 public class GetTest extends HttpMethodTest {
     
 	@Path("/ping")
@@ -105,6 +110,25 @@ public class GetTest extends HttpMethodTest {
 			return result;
 		}
 
+		@GET
+		@Path("/dates")
+		default Map<String, String> dateParameters(@QueryParam("date") Date date, @QueryParam("day") LocalDate day, @QueryParam("instant") Instant instant) {
+			Map<String,String> result = new HashMap<String,String>();
+			result.put("date", date.toInstant().toString());
+			result.put("day", day.plusDays(1).toString());
+			result.put("instant", instant.toString());
+			return result;
+		}
+
+		@GET
+		@Path("/mixed/{firstName}/and/{Second}")
+		default Map<String, String> mixedCasePathParameters(@PathParam("firstName") String first, @PathParam("Second") String second) {
+			Map<String,String> result = new HashMap<String,String>();
+			result.put("first", first);
+			result.put("second", second);
+			return result;
+		}
+
 		@GET
 		@Path("/longPathParameterWithNotNull/{param}")
 		default Map<String, Long> longPathParameterWithNotNull(@NotNull @PathParam("param") Long path) {
@@ -165,6 +189,22 @@ public class GetTest extends HttpMethodTest {
         	);
 	}
 	
+	@Test
+	public void test_validation_enabled_only_on_constrained_methods() throws Exception {
+
+		// Given
+		AbstractRoute unconstrained = findRoute("stringParameter");
+		AbstractRoute constrained = findRoute("longPathParameterWithNotNull");
+
+		// Verify
+		Assert.assertFalse(unconstrained.isValidationEnabled());
+		Assert.assertTrue(constrained.isValidationEnabled());
+	}
+
+	private AbstractRoute findRoute(String methodName) {
+		return this.routes.stream().filter(r -> r.getMethod().getName().equals(methodName)).findAny().get();
+	}
+
 	@Test
 	public void test_without_parameters() throws Exception {
 
@@ -295,6 +335,22 @@ public class GetTest extends HttpMethodTest {
         Assert.assertEquals(1234, body.getAsJsonObject().get("result").getAsInt());
 	}
 
+	@Test
+	public void test_int_parameters_with_invalid_value() throws Exception {
+
+		// Given
+		InputStream request = getRequest("get/int_parameters_with_invalid_value.json");
+		ByteArrayOutputStream response = new ByteArrayOutputStream();
+
+		// When
+        this.handler.proxyStream(request, response, new DummyContext());
+
+        // Verify
+        System.out.println(response.toString());
+		JsonElement lambdaResponse = readResponse(response);
+		assertStatus(lambdaResponse,  Response.Status.INTERNAL_SERVER_ERROR.getStatusCode());
+	}
+
 	@Test
 	public void test_int_parameters_with_empty_value() throws Exception {
 
@@ -571,6 +627,107 @@ public class GetTest extends HttpMethodTest {
         Assert.assertEquals("Hello world!", body.getAsJsonObject().get("query_param").getAsString());
 	}
 
+	@Test
+	public void test_date_parameters() throws Exception {
+
+		// Given
+		InputStream request = getRequest("get/date_parameters.json");
+		ByteArrayOutputStream response = new ByteArrayOutputStream();
+
+		// When
+        this.handler.proxyStream(request, response, new DummyContext());
+
+        // Verify
+        System.out.println(response.toString());
+		JsonElement lambdaResponse = readResponse(response);
+		assertStatus(lambdaResponse,  Response.Status.OK.getStatusCode());
+		assertContentType(lambdaResponse, MediaType.APPLICATION_JSON_TYPE);
+
+		String bodyJson = lambdaResponse.getAsJsonObject().get("body").getAsString();
+		JsonElement body = JsonParser.parseString(bodyJson);
+        Assert.assertEquals("1994-11-06T08:49:37Z", body.getAsJsonObject().get("date").getAsString());
+        Assert.assertEquals("2024-03-01", body.getAsJsonObject().get("day").getAsString());
+        Assert.assertEquals("2024-01-02T03:04:05Z", body.getAsJsonObject().get("instant").getAsString());
+	}
+
+	@Test
+	public void test_rfc1123_date_parameters() throws Exception {
+
+		// Given
+		InputStream request = getRequest("get/date_parameters_rfc1123.json");
+		ByteArrayOutputStream response = new ByteArrayOutputStream();
+
+		// When
+        this.handler.proxyStream(request, response, new DummyContext());
+
+        // Verify
+        System.out.println(response.toString());
+		JsonElement lambdaResponse = readResponse(response);
+		assertStatus(lambdaResponse,  Response.Status.OK.getStatusCode());
+
+		String bodyJson = lambdaResponse.getAsJsonObject().get("body").getAsString();
+		JsonElement body = JsonParser.parseString(bodyJson);
+        Assert.assertEquals("1994-11-06T08:49:37Z", body.getAsJsonObject().get("date").getAsString());
+	}
+
+	@Test
+	public void test_asctime_date_parameters() throws Exception {
+
+		// Given
+		InputStream request = getRequest("get/date_parameters_asctime.json");
+		ByteArrayOutputStream response = new ByteArrayOutputStream();
+
+		// When
+        this.handler.proxyStream(request, response, new DummyContext());
+
+        // Verify
+        System.out.println(response.toString());
+		JsonElement lambdaResponse = readResponse(response);
+		assertStatus(lambdaResponse,  Response.Status.OK.getStatusCode());
+
+		String bodyJson = lambdaResponse.getAsJsonObject().get("body").getAsString();
+		JsonElement body = JsonParser.parseString(bodyJson);
+        Assert.assertEquals("1994-11-06T08:49:37Z", body.getAsJsonObject().get("date").getAsString());
+	}
+
+	@Test
+	public void test_invalid_date_parameters() throws Exception {
+
+		// Given
+		InputStream request = getRequest("get/date_parameters_invalid.json");
+		ByteArrayOutputStream response = new ByteArrayOutputStream();
+
+		// When
+        this.handler.proxyStream(request, response, new DummyContext());
+
+        // Verify
+        System.out.println(response.toString());
+		JsonElement lambdaResponse = readResponse(response);
+		assertStatus(lambdaResponse,  Response.Status.INTERNAL_SERVER_ERROR.getStatusCode());
+	}
+
+	@Test
+	public void test_mixed_case_path_parameters() throws Exception {
+
+		// Given
+		InputStream request = getRequest("get/mixed_case_path_parameters.json");
+		ByteArrayOutputStream response = new ByteArrayOutputStream();
+
+		// When
+        this.handler.proxyStream(request, response, new DummyContext());
+
+        // Verify
+        System.out.println(response.toString());
+		JsonElement lambdaResponse = readResponse(response);
+		assertStatus(lambdaResponse,  Response.Status.OK.getStatusCode());
+		assertContentType(lambdaResponse, MediaType.APPLICATION_JSON_TYPE);
+
+		String bodyJson = lambdaResponse.getAsJsonObject().get("body").getAsString();
+		JsonElement body = JsonParser.parseString(bodyJson);
+        Assert.assertEquals("AbC", body.getAsJsonObject().get("first").getAsString());
+        Assert.assertEquals("xYz", body.getAsJsonObject().get("second").getAsString());
+	}
+
 	@Test
 	public void test_header_and_path_and_query_parameter() throws Exception {
 
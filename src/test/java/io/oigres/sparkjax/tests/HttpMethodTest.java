@@ -16,6 +16,8 @@ import com.google.gson.JsonParser;
 import io.oigres.sparkjax.JsonTransformer;
 import io.oigres.sparkjax.RouteBuilder;
 import io.oigres.sparkjax.jaxrs.ResponseTransformerProvider;
+import io.oigres.sparkjax.spark.AbstractRoute;
+import io.oigres.sparkjax.spark.RouteOptions;
 
 import org.junit.Assert;
 import org.junit.Before;
@@ -30,8 +32,16 @@ import spark.Spark;
 public abstract class HttpMethodTest {
 	protected Gson objectMapper = new Gson();
 	protected SparkLambdaContainerHandler<AwsProxyRequest, AwsProxyResponse> handler;
+	protected List<AbstractRoute> routes;
 
 	protected abstract Set<Object> getResources();
+
+	protected RouteOptions getRouteOptions() {
+		return new RouteOptions();
+	}
+
+	protected void configureRouteBuilder(RouteBuilder routeBuilder) {
+	}
 	
 	@Before
 	public void setup() throws Exception {
@@ -46,8 +56,9 @@ public abstract class HttpMethodTest {
 				}
 				return null;
 			}
-		});
-		routeBuilder.setupRoutes(resources);
+		}, getRouteOptions());
+		configureRouteBuilder(routeBuilder);
+		this.routes = routeBuilder.setupRoutes(resources);
 		Spark.awaitInitialization();
 	}
 	
@@ -0,0 +1,164 @@
+package io.oigres.sparkjax.tests;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import io.oigres.sparkjax.spark.InvocationExecutor;
+
+public class InvocationExecutorTest {
+	private final InvocationExecutor executor = new InvocationExecutor(1, 1);
+
+	@After
+	public void tearDown() {
+		this.executor.close();
+	}
+
+	@Test
+	public void test_finished_after_invocation() throws Exception {
+		// Given
+		CompletableFuture<Void> finished = new CompletableFuture<Void>();
+
+		// When
+		CompletableFuture<Object> future = this.executor.submit(() -> "done", () -> finished.complete(null));
+
+		// Verify
+		Assert.assertEquals("done", future.get(5, TimeUnit.SECONDS));
+		Assert.assertTrue(finished.isDone());
+	}
+
+	@Test
+	public void test_finished_when_cancelled_invocation_returns() throws Exception {
+		// Given
+		CountDownLatch running = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		CompletableFuture<Void> finished = new CompletableFuture<Void>();
+		CompletableFuture<Object> future = this.executor.submit(() -> {
+			running.countDown();
+			release.await();
+			return "late";
+		}, () -> finished.complete(null));
+		Assert.assertTrue(running.await(5, TimeUnit.SECONDS));
+
+		// When
+		future.cancel(false);
+
+		// Verify
+		Assert.assertFalse(finished.isDone());
+		release.countDown();
+		finished.get(5, TimeUnit.SECONDS);
+		Assert.assertTrue(future.isCancelled());
+	}
+
+	@Test
+	public void test_finished_when_skipped() throws Exception {
+		// Given
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		CompletableFuture<Object> running = this.executor.submit(() -> {
+			started.countDown();
+			return release.await(5, TimeUnit.SECONDS);
+		});
+		Assert.assertTrue(started.await(5, TimeUnit.SECONDS));
+		CompletableFuture<Void> finished = new CompletableFuture<Void>();
+		boolean[] invoked = new boolean[1];
+		CompletableFuture<Object> queued = this.executor.submit(() -> invoked[0] = true, () -> finished.complete(null));
+
+		// When
+		queued.cancel(false);
+		release.countDown();
+
+		// Verify
+		running.get(5, TimeUnit.SECONDS);
+		finished.get(5, TimeUnit.SECONDS);
+		Assert.assertFalse(invoked[0]);
+	}
+
+	@Test
+	public void test_rejected_when_queue_is_full() throws Exception {
+		// Given
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		CompletableFuture<Object> running = this.executor.submit(() -> {
+			started.countDown();
+			return release.await(5, TimeUnit.SECONDS);
+		});
+		Assert.assertTrue(started.await(5, TimeUnit.SECONDS));
+		CompletableFuture<Object> queued = this.executor.submit(() -> "queued");
+
+		// When
+		try {
+			this.executor.submit(() -> "rejected");
+			Assert.fail("Invocation accepted over the queue limit");
+		} catch (RejectedExecutionException e) {
+			// Verify
+			Assert.assertEquals(1, this.executor.getStatistics().getRejected());
+		} finally {
+			release.countDown();
+		}
+		running.get(5, TimeUnit.SECONDS);
+		Assert.assertEquals("queued", queued.get(5, TimeUnit.SECONDS));
+	}
+
+	@Test
+	public void test_running_invocations_are_not_queued() throws Exception {
+		// Given
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		CompletableFuture<Object> running = this.executor.submit(() -> {
+			started.countDown();
+			return release.await(5, TimeUnit.SECONDS);
+		});
+		Assert.assertTrue(started.await(5, TimeUnit.SECONDS));
+
+		// When
+		int idle = this.executor.getStatistics().getQueued();
+		CompletableFuture<Object> queued = this.executor.submit(() -> "queued");
+
+		// Verify
+		Assert.assertEquals(0, idle);
+		Assert.assertEquals(1, this.executor.getStatistics().getQueued());
+		release.countDown();
+		running.get(5, TimeUnit.SECONDS);
+		Assert.assertEquals("queued", queued.get(5, TimeUnit.SECONDS));
+	}
+
+	@Test
+	public void test_without_queue_only_free_capacity_is_accepted() throws Exception {
+		// Given
+		CountDownLatch started = new CountDownLatch(2);
+		CountDownLatch release = new CountDownLatch(1);
+		try (InvocationExecutor executor = new InvocationExecutor(2, 0)) {
+			List<CompletableFuture<Object>> running = new ArrayList<CompletableFuture<Object>>();
+			for (int i=0; i < 2; i++) {
+				running.add(executor.submit(() -> {
+					started.countDown();
+					return release.await(5, TimeUnit.SECONDS);
+				}));
+			}
+			Assert.assertTrue(started.await(5, TimeUnit.SECONDS));
+
+			// When
+			try {
+				executor.submit(() -> "rejected");
+				Assert.fail("Invocation accepted over the concurrency limit");
+			} catch (RejectedExecutionException e) {
+				// Verify
+				Assert.assertEquals(1, executor.getStatistics().getRejected());
+			} finally {
+				release.countDown();
+			}
+			for (CompletableFuture<Object> future : running) {
+				Assert.assertEquals(true, future.get(5, TimeUnit.SECONDS));
+			}
+		}
+	}
+
+}
@@ -0,0 +1,89 @@
+package io.oigres.sparkjax.tests;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.QueryParam;
+
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+import io.oigres.sparkjax.spark.AbstractRoute;
+import io.oigres.sparkjax.spark.InvocationPlan;
+import spark.QueryParamsMap;
+import spark.Request;
+
+public class InvocationPlanAllocationTest extends HttpMethodTest {
+	private static final int WARMUP_ITERATIONS = 50_000;
+	private static final int MEASURED_ITERATIONS = 50_000;
+	private static final long MAX_BYTES_PER_OPERATION = 2048;
+
+	@Path("/allocation")
+	static public class AllocationController {
+
+		@GET
+		@Path("/search")
+		public String search(@QueryParam("name") String name, @QueryParam("page") int page, @QueryParam("size") Integer size) {
+			return name;
+		}
+
+	}
+
+	@Override
+	protected Set<Object> getResources() {
+    	return new HashSet<Object>(
+        		Arrays.asList(
+        				new AllocationController()
+        	    )
+        	);
+	}
+
+	@Test
+	public void test_get_with_three_query_parameters_allocation() throws Exception {
+		Assume.assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+		com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+		Assume.assumeTrue(threadMXBean.isThreadAllocatedMemorySupported());
+		threadMXBean.setThreadAllocatedMemoryEnabled(true);
+
+		// Given
+		AbstractRoute route = this.routes.stream().filter(r -> r.getMethod().getName().equals("search")).findAny().get();
+		InvocationPlan plan = route.getInvocationPlan();
+		Map<String, String[]> query = new HashMap<String, String[]>();
+		query.put("name", new String[] {"john"});
+		query.put("page", new String[] {"2"});
+		query.put("size", new String[] {"20"});
+		QueryParamsMap queryMap = new QueryParamsMap(query) {};
+		Request request = new Request() {
+			@Override
+			public QueryParamsMap queryMap() {
+				return queryMap;
+			}
+		};
+		Object result = null;
+		for (int i=0; i < WARMUP_ITERATIONS; i++) {
+			result = plan.invoke(plan.buildArguments(request));
+		}
+
+		// When
+		long threadId = Thread.currentThread().getId();
+		long before = threadMXBean.getThreadAllocatedBytes(threadId);
+		for (int i=0; i < MEASURED_ITERATIONS; i++) {
+			result = plan.invoke(plan.buildArguments(request));
+		}
+		long after = threadMXBean.getThreadAllocatedBytes(threadId);
+
+		// Verify
+		long bytesPerOperation = (after - before) / MEASURED_ITERATIONS;
+		System.out.println("Allocated bytes/op: " + bytesPerOperation);
+		Assert.assertEquals("john", result);
+		Assert.assertTrue("Allocated " + bytesPerOperation + " bytes/op", bytesPerOperation < MAX_BYTES_PER_OPERATION);
+	}
+
+}
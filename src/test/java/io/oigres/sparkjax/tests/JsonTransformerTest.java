@@ -0,0 +1,47 @@
+package io.oigres.sparkjax.tests;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.google.gson.Gson;
+
+import io.oigres.sparkjax.JsonTransformer;
+
+public class JsonTransformerTest {
+	private final JsonTransformer transformer = new JsonTransformer(new Gson());
+
+	@Test
+	public void test_surrogates() throws Exception {
+		// Given
+		String text = "pair \uD83D\uDE00, lone high \uD83D, lone low \uDE00, end high \uD83D";
+
+		// When
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		this.transformer.render(text, out);
+
+		// Verify
+		Assert.assertArrayEquals(text.getBytes(StandardCharsets.UTF_8), out.toByteArray());
+		Assert.assertEquals("pair \uD83D\uDE00, lone high ?, lone low ?, end high ?", out.toString("UTF-8"));
+	}
+
+	@Test
+	public void test_document_larger_than_buffer() throws Exception {
+		// Given
+		StringBuilder value = new StringBuilder();
+		for (int i=0; i < 10000; i++) {
+			value.append("\u00E9\uD83D\uDE00");
+		}
+
+		// When
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		this.transformer.render(Collections.singletonMap("value", value.toString()), out);
+
+		// Verify
+		Assert.assertEquals("{\"value\":\""+value+"\"}", out.toString("UTF-8"));
+	}
+
+}
@@ -0,0 +1,134 @@
+package io.oigres.sparkjax.tests;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.core.Response;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import org.eclipse.jetty.http.HttpStatus;
+import org.junit.Assert;
+import org.junit.Test;
+
+import io.oigres.sparkjax.metrics.Phase;
+import io.oigres.sparkjax.metrics.PrometheusWriter;
+import io.oigres.sparkjax.metrics.SimpleMetricsRegistry;
+import io.oigres.sparkjax.metrics.SimpleRouteMetrics;
+import io.oigres.sparkjax.spark.RouteOptions;
+import spark.Spark;
+import spark.route.HttpMethod;
+
+public class MetricsTest extends HttpMethodTest {
+	// Spark keeps the routes of the first test, so all of them share the registry
+	private static final SimpleMetricsRegistry REGISTRY = new SimpleMetricsRegistry();
+
+	@Path("/metrics")
+	static public interface MetricsResources {
+		@GET
+		@Path("/items/{id}")
+		default Map<String,Object> item(@PathParam("id") int id) {
+			if (id == 0) {
+				throw Spark.halt(HttpStatus.NOT_FOUND_404);
+			}
+			Map<String,Object> result = new HashMap<String,Object>();
+			result.put("id", id);
+			return result;
+		}
+	}
+
+	static public class MetricsController implements MetricsResources {
+	}
+
+	@Override
+	protected Set<Object> getResources() {
+    	return new HashSet<Object>(
+        		Arrays.asList(
+        				new MetricsController()
+        	    )
+        	);
+	}
+
+	@Override
+	protected RouteOptions getRouteOptions() {
+		RouteOptions routeOptions = new RouteOptions();
+		routeOptions.setMetricsRegistry(REGISTRY);
+		routeOptions.setMetricsPath("/prometheus");
+		return routeOptions;
+	}
+
+	@Test
+	public void test_request_recorded() throws Exception {
+		// Given
+		InputStream request = getRequest("get/metrics/found.json");
+		ByteArrayOutputStream response = new ByteArrayOutputStream();
+		SimpleRouteMetrics metrics = REGISTRY.getRoute(HttpMethod.get, "/metrics/items/:id");
+		long requests = metrics.getRequests();
+		long successes = metrics.getStatusCount(2);
+		long renderings = metrics.getLatency(Phase.RENDERING).snapshot().getCount();
+
+		// When
+        this.handler.proxyStream(request, response, new DummyContext());
+
+        // Verify
+        System.out.println(response.toString());
+		JsonElement lambdaResponse = readResponse(response);
+		assertStatus(lambdaResponse,  Response.Status.OK.getStatusCode());
+        Assert.assertEquals(requests + 1, metrics.getRequests());
+        Assert.assertEquals(successes + 1, metrics.getStatusCount(2));
+        Assert.assertEquals(renderings + 1, metrics.getLatency(Phase.RENDERING).snapshot().getCount());
+        Assert.assertEquals(metrics.getRequests(), metrics.getLatency().snapshot().getCount());
+	}
+
+	@Test
+	public void test_client_error_recorded() throws Exception {
+		// Given
+		InputStream request = getRequest("get/metrics/missing.json");
+		ByteArrayOutputStream response = new ByteArrayOutputStream();
+		SimpleRouteMetrics metrics = REGISTRY.getRoute(HttpMethod.get, "/metrics/items/:id");
+		long clientErrors = metrics.getStatusCount(4);
+
+		// When
+        this.handler.proxyStream(request, response, new DummyContext());
+
+        // Verify
+        System.out.println(response.toString());
+		JsonElement lambdaResponse = readResponse(response);
+		assertStatus(lambdaResponse,  HttpStatus.NOT_FOUND_404);
+        Assert.assertEquals(clientErrors + 1, metrics.getStatusCount(4));
+        Assert.assertEquals(0, metrics.getStatusCount(5));
+	}
+
+	@Test
+	public void test_prometheus_exposition() throws Exception {
+		// Given
+		this.handler.proxyStream(getRequest("get/metrics/found.json"), new ByteArrayOutputStream(), new DummyContext());
+		InputStream request = getRequest("get/metrics/prometheus.json");
+		ByteArrayOutputStream response = new ByteArrayOutputStream();
+
+		// When
+        this.handler.proxyStream(request, response, new DummyContext());
+
+        // Verify
+        System.out.println(response.toString());
+		JsonElement lambdaResponse = readResponse(response);
+		assertStatus(lambdaResponse,  Response.Status.OK.getStatusCode());
+		JsonObject headers = lambdaResponse.getAsJsonObject().get("multiValueHeaders").getAsJsonObject();
+        Assert.assertEquals(PrometheusWriter.CONTENT_TYPE, headers.get("Content-Type").getAsJsonArray().get(0).getAsString());
+
+		String body = lambdaResponse.getAsJsonObject().get("body").getAsString();
+        Assert.assertTrue(body.contains("# TYPE sparkjax_request_duration_seconds histogram"));
+        Assert.assertTrue(body.contains("sparkjax_requests_total{method=\"GET\",path=\"/metrics/items/{id}\",status=\"2xx\"}"));
+        Assert.assertTrue(body.contains("sparkjax_phase_duration_seconds_count{method=\"GET\",path=\"/metrics/items/{id}\",phase=\"invocation\"}"));
+        Assert.assertFalse(body.contains("/metrics/items/7"));
+	}
+
+}
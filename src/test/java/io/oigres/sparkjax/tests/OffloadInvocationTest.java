@@ -0,0 +1,136 @@
+package io.oigres.sparkjax.tests;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.junit.Assert;
+import org.junit.Test;
+
+import io.oigres.sparkjax.annotations.Bulkhead;
+import io.oigres.sparkjax.annotations.OffloadInvocation;
+import io.oigres.sparkjax.spark.AbstractRoute;
+import io.oigres.sparkjax.spark.ConcurrencyLimiter;
+import io.oigres.sparkjax.spark.InvocationExecutor;
+import io.oigres.sparkjax.spark.RouteOptions;
+
+public class OffloadInvocationTest extends HttpMethodTest {
+	// Spark keeps the routes of the first test, so all of them share the executor
+	private static final InvocationExecutor EXECUTOR = new InvocationExecutor(2, 8);
+
+	@Path("/offload")
+	static public interface OffloadResources {
+		@GET
+		@Path("/thread")
+		@OffloadInvocation
+		default Map<String,Object> thread() {
+			Map<String,Object> result = new HashMap<String,Object>();
+			result.put("thread", Thread.currentThread().toString());
+			return result;
+		}
+		@GET
+		@Path("/limited")
+		@OffloadInvocation
+		@Bulkhead(1)
+		default Map<String,Object> limited(@QueryParam("number") int number) {
+			Map<String,Object> result = new HashMap<String,Object>();
+			result.put("number", number);
+			return result;
+		}
+	}
+
+	static public class OffloadController implements OffloadResources {
+	}
+
+	@Override
+	protected Set<Object> getResources() {
+    	return new HashSet<Object>(
+        		Arrays.asList(
+        				new OffloadController()
+        	    )
+        	);
+	}
+
+	@Override
+	protected RouteOptions getRouteOptions() {
+		RouteOptions routeOptions = new RouteOptions();
+		routeOptions.setInvocationExecutor(EXECUTOR);
+		return routeOptions;
+	}
+
+	@Test
+	public void test_invocation_in_place_without_async_server() throws Exception {
+		// Given
+		InputStream request = getRequest("get/offload.json");
+		ByteArrayOutputStream response = new ByteArrayOutputStream();
+		long completed = EXECUTOR.getStatistics().getCompleted();
+
+		// When
+        this.handler.proxyStream(request, response, new DummyContext());
+
+        // Verify
+        System.out.println(response.toString());
+		JsonElement lambdaResponse = readResponse(response);
+		assertStatus(lambdaResponse,  Response.Status.OK.getStatusCode());
+		assertContentType(lambdaResponse, MediaType.APPLICATION_JSON_TYPE);
+
+		String bodyJson = lambdaResponse.getAsJsonObject().get("body").getAsString();
+		JsonObject body = JsonParser.parseString(bodyJson).getAsJsonObject();
+        // The Lambda container can not release the request thread, so there is nothing to offload to
+        Assert.assertEquals(Thread.currentThread().toString(), body.get("thread").getAsString());
+        Assert.assertEquals(completed, EXECUTOR.getStatistics().getCompleted());
+        Assert.assertEquals(0, EXECUTOR.getStatistics().getQueued());
+	}
+
+	@Test
+	public void test_invalid_requests_release_the_bulkhead() throws Exception {
+		// Given
+		ConcurrencyLimiter limiter = this.routes.stream()
+				.filter(r -> r.getPath().equals("/offload/limited"))
+				.findFirst()
+				.get()
+				.getConcurrencyLimiter();
+
+		// When
+		for (int i=0; i < 3; i++) {
+			ByteArrayOutputStream response = new ByteArrayOutputStream();
+	        this.handler.proxyStream(getRequest("get/offload/limited_invalid.json"), response, new DummyContext());
+	        System.out.println(response.toString());
+			Assert.assertNotEquals(Response.Status.OK.getStatusCode(), readResponse(response).getAsJsonObject().get("statusCode").getAsInt());
+		}
+		ByteArrayOutputStream response = new ByteArrayOutputStream();
+        this.handler.proxyStream(getRequest("get/offload/limited.json"), response, new DummyContext());
+
+        // Verify
+        System.out.println(response.toString());
+		JsonElement lambdaResponse = readResponse(response);
+		assertStatus(lambdaResponse,  Response.Status.OK.getStatusCode());
+        Assert.assertEquals(0, limiter.getStatistics().getInFlight());
+	}
+
+	@Test
+	public void test_offloaded_routes() throws Exception {
+		// Given
+		AbstractRoute route = this.routes.stream()
+				.filter(r -> r.getPath().equals("/offload/thread"))
+				.findFirst()
+				.get();
+
+		// Verify
+        Assert.assertTrue(route.isOffloadInvocation());
+	}
+
+}
@@ -0,0 +1,128 @@
+package io.oigres.sparkjax.tests;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.ext.ParamConverter;
+import javax.ws.rs.ext.ParamConverterProvider;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import org.junit.Assert;
+import org.junit.Test;
+
+import io.oigres.sparkjax.RouteBuilder;
+import io.oigres.sparkjax.jaxrs.ParamConverterFactory;
+
+public class ParamConverterRegistryTest extends HttpMethodTest {
+	private ParamConverterFactory paramConverterFactory;
+
+	static public class Point {
+		private final int x;
+		private final int y;
+		public Point(int x, int y) {
+			this.x = x;
+			this.y = y;
+		}
+		public int getX() {
+			return x;
+		}
+		public int getY() {
+			return y;
+		}
+	}
+
+	static public class PointParamConverterProvider implements ParamConverterProvider {
+		@SuppressWarnings("unchecked")
+		@Override
+		public <T> ParamConverter<T> getConverter(Class<T> rawType, Type genericType, Annotation[] annotations) {
+			if (rawType != Point.class) {
+				return null;
+			}
+			return (ParamConverter<T>) new ParamConverter<Point>() {
+				@Override
+				public Point fromString(String value) {
+					String[] coordinates = value.split(",");
+					return new Point(Integer.parseInt(coordinates[0].trim()), Integer.parseInt(coordinates[1].trim()));
+				}
+				@Override
+				public String toString(Point value) {
+					return value.getX()+","+value.getY();
+				}
+			};
+		}
+	}
+
+	@Path("/converters")
+	static public interface ConverterResources {
+		@GET
+		@Path("/points")
+		default Map<String, Integer> distance(@QueryParam("from") Point from, @QueryParam("to") Point to) {
+			Map<String,Integer> result = new HashMap<String,Integer>();
+			result.put("dx", to.getX() - from.getX());
+			result.put("dy", to.getY() - from.getY());
+			return result;
+		}
+	}
+
+	static public class ConverterController implements ConverterResources {
+	}
+
+	@Override
+	protected Set<Object> getResources() {
+    	return new HashSet<Object>(
+        		Arrays.asList(
+        				new ConverterController()
+        	    )
+        	);
+	}
+
+	@Override
+	protected void configureRouteBuilder(RouteBuilder routeBuilder) {
+		// Asked before the built-in converters, that would bind the JSON consumed Point as a bean
+		routeBuilder.registerParamConverterProvider(new PointParamConverterProvider(), ParamConverterFactory.DEFAULT_PRIORITY - 1);
+		this.paramConverterFactory = routeBuilder.getParamConverterFactory();
+	}
+
+	@Test
+	public void test_converter_is_resolved_once_per_parameter_shape() throws Exception {
+		// Verify
+		ParamConverterFactory.Statistics statistics = this.paramConverterFactory.getStatistics();
+		Assert.assertEquals(1, statistics.getMisses());
+		Assert.assertEquals(1, statistics.getHits());
+	}
+
+	@Test
+	public void test_registered_converter() throws Exception {
+		// Given
+		InputStream request = getRequest("get/converters_points.json");
+		ByteArrayOutputStream response = new ByteArrayOutputStream();
+
+		// When
+        this.handler.proxyStream(request, response, new DummyContext());
+
+        // Verify
+        System.out.println(response.toString());
+		JsonElement lambdaResponse = readResponse(response);
+		assertStatus(lambdaResponse,  Response.Status.OK.getStatusCode());
+		assertContentType(lambdaResponse, MediaType.APPLICATION_JSON_TYPE);
+
+		String bodyJson = lambdaResponse.getAsJsonObject().get("body").getAsString();
+		JsonElement body = JsonParser.parseString(bodyJson);
+        Assert.assertEquals(2, body.getAsJsonObject().get("dx").getAsInt());
+        Assert.assertEquals(2, body.getAsJsonObject().get("dy").getAsInt());
+	}
+
+}
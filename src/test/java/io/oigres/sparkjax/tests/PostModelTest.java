@@ -5,6 +5,7 @@ import java.io.InputStream;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -50,6 +51,15 @@ public class PostModelTest extends HttpMethodTest {
 			return result;
 		}
 		@POST
+		@Path("/models")
+		default Map<String,Object> postModels(@BeanParam List<Model> models) {
+			Map<String,Object> result = new HashMap<String,Object>();
+			result.put("size", models.size());
+			result.put("type", models.get(0).getClass().getName());
+			result.put("last", models.get(models.size()-1).getName());
+			return result;
+		}
+		@POST
 		@Path("/model/{extra}")
 		default Map<String,Object> postModelDualParams(@PathParam("extra") String text, @BeanParam Model model) {
 			Map<String,Object> result = new HashMap<String,Object>();
@@ -112,6 +122,28 @@ public class PostModelTest extends HttpMethodTest {
         Assert.assertEquals(26L, body.getAsJsonObject().get("result").getAsJsonObject().get("age").getAsLong());
 	}
 
+	@Test
+	public void test_model_list_body() throws Exception {
+		// Given
+		InputStream request = getRequest("post/model/list_body.json");
+		ByteArrayOutputStream response = new ByteArrayOutputStream();
+
+		// When
+        this.handler.proxyStream(request, response, new DummyContext());
+
+        // Verify
+        System.out.println(response.toString());
+		JsonElement lambdaResponse = readResponse(response);
+		assertStatus(lambdaResponse,  Response.Status.OK.getStatusCode());
+		assertContentType(lambdaResponse, MediaType.APPLICATION_JSON_TYPE);
+
+		String bodyJson = lambdaResponse.getAsJsonObject().get("body").getAsString();
+		JsonElement body = JsonParser.parseString(bodyJson);
+        Assert.assertEquals(2, body.getAsJsonObject().get("size").getAsInt());
+        Assert.assertEquals(Model.class.getName(), body.getAsJsonObject().get("type").getAsString());
+        Assert.assertEquals("Ana Lopez", body.getAsJsonObject().get("last").getAsString());
+	}
+
 	@Test
 	public void test_model_empty_body() throws Exception {
 		// Given
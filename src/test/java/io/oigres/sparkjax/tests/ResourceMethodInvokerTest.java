@@ -0,0 +1,105 @@
+package io.oigres.sparkjax.tests;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.Method;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import io.oigres.sparkjax.spark.ResourceMethodInvoker;
+import io.oigres.sparkjax.spark.ResourceMethodInvokerFactory;
+import io.oigres.sparkjax.spark.invokers.MethodHandleResourceMethodInvoker;
+import io.oigres.sparkjax.spark.invokers.ReflectiveResourceMethodInvoker;
+
+public class ResourceMethodInvokerTest {
+
+	static public class Resource {
+		public String echo(String value) {
+			return value;
+		}
+		public String checked() throws IOException {
+			throw new IOException("checked");
+		}
+		public String error() {
+			throw new AssertionError("error");
+		}
+	}
+
+	static public class ReflectiveInvokerFactory extends ResourceMethodInvokerFactory {
+		@Override
+		protected MethodHandle unreflect(Method method) {
+			return null;
+		}
+	}
+
+	@Test
+	public void test_method_handle_invoker() throws Exception {
+		// When
+		ResourceMethodInvoker invoker = bind(new ResourceMethodInvokerFactory(), "echo");
+
+		// Verify
+		Assert.assertTrue(invoker instanceof MethodHandleResourceMethodInvoker);
+		Assert.assertEquals("value", invoker.invoke(new Object[] {"value"}));
+	}
+
+	@Test
+	public void test_fallback_to_reflection() throws Exception {
+		// When
+		ResourceMethodInvoker invoker = bind(new ReflectiveInvokerFactory(), "echo");
+
+		// Verify
+		Assert.assertTrue(invoker instanceof ReflectiveResourceMethodInvoker);
+		Assert.assertEquals("value", invoker.invoke(new Object[] {"value"}));
+	}
+
+	@Test
+	public void test_checked_exception_is_not_wrapped() throws Exception {
+		for (ResourceMethodInvokerFactory factory : new ResourceMethodInvokerFactory[] {new ResourceMethodInvokerFactory(), new ReflectiveInvokerFactory()}) {
+			// Given
+			ResourceMethodInvoker invoker = bind(factory, "checked");
+
+			// When
+			Exception exception = invokeFailing(invoker);
+
+			// Verify
+			Assert.assertEquals(IOException.class, exception.getClass());
+			Assert.assertEquals("checked", exception.getMessage());
+		}
+	}
+
+	@Test
+	public void test_error_is_wrapped() throws Exception {
+		for (ResourceMethodInvokerFactory factory : new ResourceMethodInvokerFactory[] {new ResourceMethodInvokerFactory(), new ReflectiveInvokerFactory()}) {
+			// Given
+			ResourceMethodInvoker invoker = bind(factory, "error");
+
+			// When
+			Exception exception = invokeFailing(invoker);
+
+			// Verify
+			Assert.assertEquals(Exception.class, exception.getClass());
+			Assert.assertTrue(exception.getCause() instanceof AssertionError);
+			Assert.assertEquals("error", exception.getCause().getMessage());
+		}
+	}
+
+	private ResourceMethodInvoker bind(ResourceMethodInvokerFactory factory, String name) throws Exception {
+		for (Method method : Resource.class.getDeclaredMethods()) {
+			if (method.getName().equals(name)) {
+				return factory.bind(new Resource(), method);
+			}
+		}
+		throw new NoSuchMethodException(name);
+	}
+
+	private Exception invokeFailing(ResourceMethodInvoker invoker) {
+		try {
+			invoker.invoke(new Object[0]);
+		} catch (Exception e) {
+			return e;
+		}
+		throw new AssertionError("The invocation did not fail");
+	}
+
+}
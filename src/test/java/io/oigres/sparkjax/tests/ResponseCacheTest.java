@@ -0,0 +1,172 @@
+package io.oigres.sparkjax.tests;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import io.oigres.sparkjax.cache.CacheKey;
+import io.oigres.sparkjax.cache.RenderedResponse;
+import io.oigres.sparkjax.cache.ResponseCache;
+
+public class ResponseCacheTest {
+
+	@Test
+	public void test_concurrent_misses_load_once() throws Exception {
+		// Given
+		ResponseCache cache = new ResponseCache("items", 100);
+		CacheKey key = key(1);
+		AtomicInteger loads = new AtomicInteger();
+		CountDownLatch loading = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+
+		// When
+		List<Future<RenderedResponse>> futures = new ArrayList<Future<RenderedResponse>>();
+		try {
+			for (int i=0; i < 8; i++) {
+				futures.add(executor.submit(() -> cache.get(key, () -> {
+					loads.incrementAndGet();
+					loading.countDown();
+					release.await(5, TimeUnit.SECONDS);
+					return response(60);
+				})));
+			}
+			Assert.assertTrue(loading.await(5, TimeUnit.SECONDS));
+			release.countDown();
+
+			// Verify
+			RenderedResponse first = futures.get(0).get(5, TimeUnit.SECONDS);
+			for (Future<RenderedResponse> future : futures) {
+				Assert.assertSame(first, future.get(5, TimeUnit.SECONDS));
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		Assert.assertEquals(1, loads.get());
+		Assert.assertEquals(1, cache.getMisses());
+		Assert.assertEquals(7, cache.getHits());
+	}
+
+	@Test
+	public void test_waiting_for_hung_load_times_out() throws Exception {
+		// Given
+		ResponseCache cache = new ResponseCache("items", 100);
+		CacheKey key = key(1);
+		CountDownLatch loading = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			Future<RenderedResponse> hung = executor.submit(() -> cache.get(key, () -> {
+				loading.countDown();
+				release.await(5, TimeUnit.SECONDS);
+				return response(60);
+			}));
+			Assert.assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+			// When
+			RenderedResponse loaded = response(60);
+			RenderedResponse response = cache.get(key, () -> loaded, TimeUnit.MILLISECONDS.toNanos(50));
+
+			// Verify
+			Assert.assertSame(loaded, response);
+			Assert.assertSame(loaded, cache.get(key));
+			Assert.assertEquals(2, cache.getMisses());
+			release.countDown();
+			hung.get(5, TimeUnit.SECONDS);
+		} finally {
+			release.countDown();
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void test_expired_response_is_loaded_again() throws Exception {
+		// Given
+		ResponseCache cache = new ResponseCache("items", 100);
+		AtomicInteger loads = new AtomicInteger();
+		cache.get(key(1), () -> {
+			loads.incrementAndGet();
+			return response(0);
+		});
+
+		// When
+		RenderedResponse response = cache.get(key(1), () -> {
+			loads.incrementAndGet();
+			return response(60);
+		});
+		RenderedResponse cached = cache.get(key(1), () -> {
+			loads.incrementAndGet();
+			return response(60);
+		});
+
+		// Verify
+		Assert.assertEquals(2, loads.get());
+		Assert.assertSame(response, cached);
+		Assert.assertEquals(2, cache.getMisses());
+		Assert.assertEquals(1, cache.getHits());
+	}
+
+	@Test
+	public void test_least_recently_used_response_is_evicted() throws Exception {
+		// Given
+		ResponseCache cache = new ResponseCache("items", 2);
+		cache.put(key(1), response(60));
+		cache.put(key(2), response(60));
+		Assert.assertNotNull(cache.get(key(1)));
+
+		// When
+		cache.put(key(3), response(60));
+
+		// Verify
+		Assert.assertEquals(2, cache.size());
+		Assert.assertEquals(1, cache.getEvictions());
+		Assert.assertNotNull(cache.get(key(1)));
+		Assert.assertNull(cache.get(key(2)));
+		Assert.assertNotNull(cache.get(key(3)));
+	}
+
+	@Test
+	public void test_expired_response_is_removed_before_evicting() throws Exception {
+		// Given
+		ResponseCache cache = new ResponseCache("items", 2);
+		cache.put(key(1), response(60));
+		cache.put(key(2), response(0));
+
+		// When
+		cache.put(key(3), response(60));
+
+		// Verify
+		Assert.assertEquals(2, cache.size());
+		Assert.assertEquals(0, cache.getEvictions());
+		Assert.assertNotNull(cache.get(key(1)));
+		Assert.assertNotNull(cache.get(key(3)));
+	}
+
+	@Test
+	public void test_key_types() {
+		// Verify
+		Assert.assertTrue(CacheKey.isKeyType(String.class));
+		Assert.assertTrue(CacheKey.isKeyType(int.class));
+		Assert.assertTrue(CacheKey.isKeyType(byte[].class));
+		Assert.assertTrue(CacheKey.isKeyType(List.class));
+		Assert.assertFalse(CacheKey.isKeyType(Object.class));
+		Assert.assertFalse(CacheKey.isKeyType(ResponseCacheTest.class));
+	}
+
+	private static CacheKey key(int id) {
+		return new CacheKey("/items/{id}", new Object[] {id}, new String[0]);
+	}
+
+	private static RenderedResponse response(long ttlSeconds) {
+		return new RenderedResponse(new byte[] {'[', ']'}, null, false, null, System.nanoTime() + TimeUnit.SECONDS.toNanos(ttlSeconds));
+	}
+
+}
@@ -0,0 +1,96 @@
+package io.oigres.sparkjax.tests;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import javax.ws.rs.BeanParam;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import org.eclipse.jetty.http.HttpStatus;
+import org.junit.Assert;
+import org.junit.Test;
+
+import io.oigres.sparkjax.spark.RouteOptions;
+import io.oigres.sparkjax.tests.PostModelTest.Model;
+
+public class StreamingPostModelTest extends HttpMethodTest {
+
+	@Path("/streaming")
+	static public interface StreamingResources {
+		@POST
+		@Path("/model")
+		default Map<String,Object> postModel(@BeanParam Model model) {
+			Map<String,Object> result = new HashMap<String,Object>();
+			result.put("result", model);
+			return result;
+		}
+	}
+
+	static public class StreamingController implements StreamingResources {
+	}
+
+	@Override
+	protected Set<Object> getResources() {
+    	return new HashSet<Object>(
+        		Arrays.asList(
+        				new StreamingController()
+        	    )
+        	);
+	}
+
+	@Override
+	protected RouteOptions getRouteOptions() {
+		RouteOptions routeOptions = new RouteOptions();
+		routeOptions.setStreamingRequestBody(true);
+		routeOptions.setMaxRequestBodySize(128);
+		return routeOptions;
+	}
+
+	@Test
+	public void test_streamed_model_full_body() throws Exception {
+		// Given
+		InputStream request = getRequest("post/streaming/full_body.json");
+		ByteArrayOutputStream response = new ByteArrayOutputStream();
+
+		// When
+        this.handler.proxyStream(request, response, new DummyContext());
+
+        // Verify
+        System.out.println(response.toString());
+		JsonElement lambdaResponse = readResponse(response);
+		assertStatus(lambdaResponse,  Response.Status.OK.getStatusCode());
+		assertContentType(lambdaResponse, MediaType.APPLICATION_JSON_TYPE);
+
+		String bodyJson = lambdaResponse.getAsJsonObject().get("body").getAsString();
+		JsonElement body = JsonParser.parseString(bodyJson);
+        Assert.assertTrue(body.getAsJsonObject().has("result"));
+        Assert.assertEquals("Juan Perez", body.getAsJsonObject().get("result").getAsJsonObject().get("name").getAsString());
+        Assert.assertEquals(26L, body.getAsJsonObject().get("result").getAsJsonObject().get("age").getAsLong());
+	}
+
+	@Test
+	public void test_streamed_model_too_large_body() throws Exception {
+		// Given
+		InputStream request = getRequest("post/streaming/too_large_body.json");
+		ByteArrayOutputStream response = new ByteArrayOutputStream();
+
+		// When
+        this.handler.proxyStream(request, response, new DummyContext());
+
+        // Verify
+        System.out.println(response.toString());
+		JsonElement lambdaResponse = readResponse(response);
+		assertStatus(lambdaResponse,  HttpStatus.PAYLOAD_TOO_LARGE_413);
+	}
+
+}
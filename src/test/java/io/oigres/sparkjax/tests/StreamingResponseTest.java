@@ -0,0 +1,89 @@
+package io.oigres.sparkjax.tests;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import org.junit.Assert;
+import org.junit.Test;
+
+import io.oigres.sparkjax.annotations.StreamingResponse;
+import io.oigres.sparkjax.spark.AbstractRoute;
+import io.oigres.sparkjax.tests.PostModelTest.Model;
+
+public class StreamingResponseTest extends HttpMethodTest {
+
+	@Path("/streaming_response")
+	static public interface StreamingResources {
+		@GET
+		@Path("/list")
+		@StreamingResponse
+		default List<Model> list(@QueryParam("size") int size) {
+			List<Model> result = new LinkedList<Model>();
+			for (int i=0; i < size; i++) {
+				Model model = new Model();
+				model.setName("Juan Perez "+i);
+				model.setAge(i);
+				result.add(model);
+			}
+			return result;
+		}
+	}
+
+	static public class StreamingController implements StreamingResources {
+	}
+
+	@Override
+	protected Set<Object> getResources() {
+    	return new HashSet<Object>(
+        		Arrays.asList(
+        				new StreamingController()
+        	    )
+        	);
+	}
+
+	@Test
+	public void test_streamed_route() throws Exception {
+		// Given
+		AbstractRoute route = this.routes.stream().filter(r -> r.getMethod().getName().equals("list")).findAny().get();
+
+		// Verify
+		Assert.assertTrue(route.isStreamingResponse());
+	}
+
+	@Test
+	public void test_streamed_list() throws Exception {
+		// Given
+		InputStream request = getRequest("get/streaming/list.json");
+		ByteArrayOutputStream response = new ByteArrayOutputStream();
+
+		// When
+        this.handler.proxyStream(request, response, new DummyContext());
+
+        // Verify
+        System.out.println(response.toString());
+		JsonElement lambdaResponse = readResponse(response);
+		assertStatus(lambdaResponse,  Response.Status.OK.getStatusCode());
+		assertContentType(lambdaResponse, MediaType.APPLICATION_JSON_TYPE);
+
+		String bodyJson = lambdaResponse.getAsJsonObject().get("body").getAsString();
+		JsonArray body = JsonParser.parseString(bodyJson).getAsJsonArray();
+        Assert.assertEquals(3, body.size());
+        Assert.assertEquals("Juan Perez 2", body.get(2).getAsJsonObject().get("name").getAsString());
+        Assert.assertEquals(2L, body.get(2).getAsJsonObject().get("age").getAsLong());
+	}
+
+}
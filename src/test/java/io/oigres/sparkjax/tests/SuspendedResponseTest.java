@@ -0,0 +1,71 @@
+package io.oigres.sparkjax.tests;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import io.oigres.sparkjax.jaxrs.SuspendedResponse;
+import io.oigres.sparkjax.spark.RouteOptions;
+
+public class SuspendedResponseTest {
+
+	@Test
+	public void test_set_timeout() throws Exception {
+		// Given
+		SuspendedResponse response = new SuspendedResponse(30, TimeUnit.SECONDS);
+
+		// When
+		boolean set = response.setTimeout(100, TimeUnit.MILLISECONDS);
+
+		// Verify
+		Assert.assertTrue(set);
+		Assert.assertEquals(TimeUnit.MILLISECONDS.toNanos(100), response.getTimeoutNanos());
+	}
+
+	@Test
+	public void test_set_timeout_when_done() throws Exception {
+		// Given
+		SuspendedResponse response = new SuspendedResponse(30, TimeUnit.SECONDS);
+		response.resume("done");
+
+		// When
+		boolean set = response.setTimeout(100, TimeUnit.MILLISECONDS);
+
+		// Verify
+		Assert.assertFalse(set);
+		Assert.assertEquals(TimeUnit.SECONDS.toNanos(30), response.getTimeoutNanos());
+	}
+
+	@Test
+	public void test_non_positive_timeouts_are_rejected() throws Exception {
+		// Given
+		SuspendedResponse response = new SuspendedResponse(30, TimeUnit.SECONDS);
+		RouteOptions routeOptions = new RouteOptions();
+
+		// Verify
+		for (long timeout : new long[] {0, -1}) {
+			try {
+				new SuspendedResponse(timeout, TimeUnit.SECONDS);
+				Assert.fail("Suspended response created with timeout "+timeout);
+			} catch (IllegalArgumentException e) {
+				// Expected
+			}
+			try {
+				response.setTimeout(timeout, TimeUnit.SECONDS);
+				Assert.fail("Suspended response timeout set to "+timeout);
+			} catch (IllegalArgumentException e) {
+				// Expected
+			}
+			try {
+				routeOptions.setAsyncTimeout(timeout);
+				Assert.fail("Asynchronous timeout set to "+timeout);
+			} catch (IllegalArgumentException e) {
+				// Expected
+			}
+		}
+		Assert.assertEquals(TimeUnit.SECONDS.toNanos(30), response.getTimeoutNanos());
+		Assert.assertEquals(30000, routeOptions.getAsyncTimeout());
+	}
+
+}
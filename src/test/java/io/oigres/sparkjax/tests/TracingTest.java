@@ -0,0 +1,108 @@
+package io.oigres.sparkjax.tests;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.core.Response;
+
+import com.google.gson.JsonElement;
+import org.junit.Assert;
+import org.junit.Test;
+
+import io.oigres.sparkjax.spark.RouteOptions;
+import io.oigres.sparkjax.tracing.RingBufferTracer;
+import io.oigres.sparkjax.tracing.RingBufferTracer.RecordedSpan;
+import io.oigres.sparkjax.tracing.TraceContext;
+
+public class TracingTest extends HttpMethodTest {
+	// Spark keeps the routes of the first test, so all of them share the tracer
+	private static final RingBufferTracer TRACER = new RingBufferTracer(64);
+	private static final String TRACE_ID = "4bf92f3577b34da6a3ce929d0e0e4736";
+
+	@Path("/tracing")
+	static public interface TracingResources {
+		@GET
+		@Path("/items/{id}")
+		default Map<String,Object> item(@PathParam("id") int id) {
+			Map<String,Object> result = new HashMap<String,Object>();
+			result.put("id", id);
+			return result;
+		}
+	}
+
+	static public class TracingController implements TracingResources {
+	}
+
+	@Override
+	protected Set<Object> getResources() {
+    	return new HashSet<Object>(
+        		Arrays.asList(
+        				new TracingController()
+        	    )
+        	);
+	}
+
+	@Override
+	protected RouteOptions getRouteOptions() {
+		RouteOptions routeOptions = new RouteOptions();
+		routeOptions.setTracer(TRACER);
+		return routeOptions;
+	}
+
+	@Test
+	public void test_request_traced() throws Exception {
+		// Given
+		InputStream request = getRequest("get/tracing.json");
+		ByteArrayOutputStream response = new ByteArrayOutputStream();
+
+		// When
+        this.handler.proxyStream(request, response, new DummyContext());
+
+        // Verify
+        System.out.println(response.toString());
+		JsonElement lambdaResponse = readResponse(response);
+		assertStatus(lambdaResponse,  Response.Status.OK.getStatusCode());
+
+		List<RecordedSpan> spans = TRACER.getSpans(TRACE_ID);
+		RecordedSpan requestSpan = spans.stream().filter(s -> s.getName().equals("GET /tracing/items/{id}")).findFirst().orElse(null);
+        Assert.assertNotNull(requestSpan);
+        Assert.assertEquals("00f067aa0ba902b7", requestSpan.getParentSpanId());
+        Assert.assertEquals(Response.Status.OK.getStatusCode(), requestSpan.getStatus());
+        Assert.assertEquals("/tracing/items/{id}", requestSpan.getAttributes().get("http.route"));
+        List<String> phases = spans.stream()
+        		.filter(s -> requestSpan.getContext().getSpanId().equals(s.getParentSpanId()))
+        		.map(RecordedSpan::getName)
+        		.collect(Collectors.toList());
+        Assert.assertEquals(Arrays.asList("extraction", "validation", "invocation", "rendering"), phases);
+	}
+
+	@Test
+	public void test_traceparent_parsing() throws Exception {
+		// Given
+		String valid = "00-" + TRACE_ID + "-00f067aa0ba902b7-01";
+
+		// When
+		TraceContext context = TraceContext.parse(valid);
+
+        // Verify
+        Assert.assertEquals(TRACE_ID, context.getTraceId());
+        Assert.assertEquals("00f067aa0ba902b7", context.getSpanId());
+        Assert.assertTrue(context.isSampled());
+        Assert.assertEquals(valid, context.toTraceparent());
+        Assert.assertNull(TraceContext.parse("00-00000000000000000000000000000000-00f067aa0ba902b7-01"));
+        Assert.assertNull(TraceContext.parse("ff-" + TRACE_ID + "-00f067aa0ba902b7-01"));
+        Assert.assertNull(TraceContext.parse("00-" + TRACE_ID + "-00f067aa0ba902b7-01-extra"));
+        Assert.assertNotNull(TraceContext.parse("01-" + TRACE_ID + "-00f067aa0ba902b7-01-extra"));
+	}
+
+}